@@ -5,12 +5,14 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration;
 import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(exclude = {
     MongoAutoConfiguration.class,
     MongoDataAutoConfiguration.class
 })
 @EnableMongoRepositories(basePackages = "com.university.skillshare_backend.repository")
+@EnableScheduling
 public class SkillshareBackendApplication {
     public static void main(String[] args) {
         SpringApplication.run(SkillshareBackendApplication.class, args);
@@ -4,8 +4,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
@@ -14,7 +12,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 
 @Configuration
-public class FileStorageConfig implements WebMvcConfigurer {
+public class FileStorageConfig {
     private static final Logger logger = LoggerFactory.getLogger(FileStorageConfig.class);
 
     @Value("${file.upload-dir:./uploads}")
@@ -38,17 +36,4 @@ public class FileStorageConfig implements WebMvcConfigurer {
             throw new RuntimeException("Could not create upload directories", e);
         }
     }
-
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        Path uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
-        String uploadUrl = uploadPath.toUri().toASCIIString();
-        
-        registry.addResourceHandler("/uploads/**")
-               .addResourceLocations(uploadUrl)
-               .setCachePeriod(3600)
-               .resourceChain(true);
-               
-        logger.info("Configured resource handler: /uploads/** -> {}", uploadUrl);
-    }
 }
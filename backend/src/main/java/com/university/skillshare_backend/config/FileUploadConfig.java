@@ -4,8 +4,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
@@ -14,7 +12,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 
 @Configuration
-public class FileUploadConfig implements WebMvcConfigurer {
+public class FileUploadConfig {
     private static final Logger logger = LoggerFactory.getLogger(FileUploadConfig.class);
 
     @Value("${file.upload-dir:./uploads}")
@@ -35,16 +33,4 @@ public class FileUploadConfig implements WebMvcConfigurer {
             throw e;
         }
     }
-
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        String uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize().toString();
-        
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + uploadPath + "/")
-                .setCachePeriod(3600)
-                .resourceChain(true);
-        
-        logger.info("Resource handler configured for /uploads/**");
-    }
 }
@@ -0,0 +1,44 @@
+package com.university.skillshare_backend.config;
+
+import java.net.URI;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+
+import com.university.skillshare_backend.storage.GridFsMediaStore;
+import com.university.skillshare_backend.storage.LocalMediaStore;
+import com.university.skillshare_backend.storage.S3MediaStore;
+
+@Configuration
+public class MediaStoreConfig {
+
+    @Bean
+    public LocalMediaStore localMediaStore(@Value("${file.upload-dir:./uploads}") String uploadDir) {
+        return new LocalMediaStore(Paths.get(uploadDir));
+    }
+
+    @Bean
+    public GridFsMediaStore gridFsMediaStore(GridFsTemplate gridFsTemplate) {
+        return new GridFsMediaStore(gridFsTemplate);
+    }
+
+    // Only enabled when a bucket is configured; point the endpoint at MinIO for local testing
+    @Bean
+    @ConditionalOnProperty(name = "app.media.s3.bucket")
+    public S3MediaStore s3MediaStore(
+            @Value("${app.media.s3.endpoint}") String endpoint,
+            @Value("${app.media.s3.region:us-east-1}") String region,
+            @Value("${app.media.s3.bucket}") String bucket,
+            @Value("${app.media.s3.access-key}") String accessKey,
+            @Value("${app.media.s3.secret-key}") String secretKey,
+            @Value("${app.media.s3.path-style:true}") boolean pathStyle,
+            @Value("${app.media.s3.request-timeout-seconds:60}") long requestTimeoutSeconds) {
+        return new S3MediaStore(URI.create(endpoint), region, bucket, accessKey, secretKey,
+                pathStyle, Duration.ofSeconds(requestTimeoutSeconds));
+    }
+}
@@ -0,0 +1,30 @@
+package com.university.skillshare_backend.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.university.skillshare_backend.search.InMemorySearchIndex;
+import com.university.skillshare_backend.search.MongoTextSearchIndex;
+import com.university.skillshare_backend.search.SearchIndex;
+
+/**
+ * Picks the search index backend (app.search.index): "memory" for the
+ * in-process BM25 index, or "mongo" for a Mongo text index
+ */
+@Configuration
+public class SearchConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.search.index", havingValue = InMemorySearchIndex.NAME, matchIfMissing = true)
+    public SearchIndex inMemorySearchIndex() {
+        return new InMemorySearchIndex();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.search.index", havingValue = MongoTextSearchIndex.NAME)
+    public SearchIndex mongoTextSearchIndex(MongoTemplate mongoTemplate) {
+        return new MongoTextSearchIndex(mongoTemplate);
+    }
+}
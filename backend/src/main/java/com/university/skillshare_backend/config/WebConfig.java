@@ -36,11 +36,7 @@ public class WebConfig implements WebMvcConfigurer {
         String uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize().toString();
         logger.info("Configuring resource handler for path: {}", uploadPath);
 
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + uploadPath + "/")
-                .setCachePeriod(3600)
-                .resourceChain(true);
-
+        // Files under /uploads/** are served by MediaController, which supports byte ranges
         registry.addResourceHandler("/api/group-photos/**")
                 .addResourceLocations("file:" + uploadPath + "/group-photos/")
                 .setCachePeriod(3600);
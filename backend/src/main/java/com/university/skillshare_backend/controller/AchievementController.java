@@ -1,25 +1,30 @@
 package com.university.skillshare_backend.controller;
 
-import com.mongodb.client.gridfs.model.GridFSFile;
 import com.university.skillshare_backend.model.Achievement;
 import com.university.skillshare_backend.repository.AchievementRepository;
 import com.university.skillshare_backend.repository.UserRepository;
+import com.university.skillshare_backend.service.AchievementImageService;
 import com.university.skillshare_backend.service.AchievementService;
+import com.university.skillshare_backend.util.ByteRange;
+import com.university.skillshare_backend.util.HttpConditionals;
 import com.university.skillshare_backend.exception.ResourceNotFoundException;
 import com.university.skillshare_backend.exception.UnauthorizedException;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.data.mongodb.gridfs.GridFsResource;
-import org.springframework.data.mongodb.gridfs.GridFsTemplate;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
@@ -39,7 +44,7 @@ public class AchievementController {
     private AchievementService achievementService;
     
     @Autowired
-    private GridFsTemplate gridFsTemplate;
+    private AchievementImageService achievementImageService;
 
     @PostMapping("/achievements")
     public ResponseEntity<Achievement> createAchievement(
@@ -63,30 +68,62 @@ public class AchievementController {
         }
     }
 
+    /**
+     * Serve an achievement image with caching headers, conditional GET and byte ranges
+     */
     @GetMapping("/achievements/image/{id}")
-    public ResponseEntity<InputStreamResource> getImage(@PathVariable String id) {
-        try {
-            GridFSFile file = achievementService.getFile(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Image not found"));
-            
-            // Get the content type
-            String contentType = "image/jpeg"; // Default
-            if (file.getMetadata() != null && file.getMetadata().containsKey("contentType")) {
-                contentType = file.getMetadata().get("contentType").toString();
-            }
-            
-            // Set headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(contentType));
-            
-            // Get the GridFsResource
-            GridFsResource resource = gridFsTemplate.getResource(file);
-            
-            return ResponseEntity.ok()
-                .headers(headers)
-                .body(new InputStreamResource(resource.getInputStream()));
-        } catch (IOException e) {
-            throw new RuntimeException("Error retrieving image", e);
+    public void getImage(@PathVariable String id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        AchievementImageService.ImageMetadata image = achievementImageService.getMetadata(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Image not found"));
+
+        long lastModified = image.getUploadDate() != null ? image.getUploadDate().getTime() : 0;
+        response.setHeader(HttpHeaders.ETAG, image.getEtag());
+        if (lastModified > 0) {
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        }
+        // A new image always gets a new id, so the bytes behind this URL never change
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (HttpConditionals.isNotModified(request, image.getEtag(), lastModified)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long size = image.getLength();
+        ByteRange range = HttpConditionals.rangeApplies(request, image.getEtag(), lastModified)
+            ? ByteRange.parse(request.getHeader(HttpHeaders.RANGE), size)
+            : null;
+        if (range != null && !range.isSatisfiable()) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            return;
+        }
+
+        long start = range != null ? range.getStart() : 0;
+        long length = range != null ? range.getLength() : size;
+        if (range != null) {
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, range.toContentRange(size));
+        } else {
+            response.setStatus(HttpStatus.OK.value());
+        }
+        response.setContentType(image.getContentType());
+        response.setContentLengthLong(length);
+
+        if (HttpMethod.HEAD.matches(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        // Small images come from the off-heap cache; larger ones are streamed from their store
+        ByteBuffer cached = achievementImageService.getCachedBody(image);
+        if (cached != null) {
+            cached.position((int) start).limit((int) (start + length));
+            Channels.newChannel(response.getOutputStream()).write(cached);
+            return;
+        }
+        try (InputStream in = achievementImageService.openRange(image, start, length)) {
+            in.transferTo(response.getOutputStream());
         }
     }
 
@@ -177,7 +214,8 @@ public class AchievementController {
             @RequestParam("description") String description,
             @RequestParam("category") String category,
             @RequestParam(value = "template", required = false) Integer template,
-            @RequestParam(value = "image", required = false) MultipartFile image) {
+            @RequestParam(value = "image", required = false) MultipartFile image,
+            @RequestParam(value = "version", required = false) Long version) {
         
         try {
             // Verify user exists
@@ -194,7 +232,7 @@ public class AchievementController {
             }
             
             Achievement updatedAchievement = achievementService.updateAchievement(
-                achievementId, userId, title, description, category, template, image);
+                achievementId, userId, title, description, category, template, image, version);
             
             return ResponseEntity.ok(updatedAchievement);
         } catch (IOException e) {
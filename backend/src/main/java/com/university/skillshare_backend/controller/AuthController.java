@@ -1,6 +1,7 @@
 package com.university.skillshare_backend.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -10,6 +11,8 @@ import com.university.skillshare_backend.dto.LoginRequest;
 import com.university.skillshare_backend.dto.RegisterRequest;
 import com.university.skillshare_backend.model.User;
 import com.university.skillshare_backend.repository.UserRepository;
+import com.university.skillshare_backend.service.EntityCacheService;
+import com.university.skillshare_backend.service.UserIdentityIndex;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,24 +30,31 @@ public class AuthController {
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
     private final UserRepository userRepository;
     private final BCryptPasswordEncoder passwordEncoder;
+    private final UserIdentityIndex userIdentityIndex;
+    private final EntityCacheService entityCacheService;
     
     @Autowired
-    public AuthController(UserRepository userRepository, BCryptPasswordEncoder passwordEncoder) {
+    public AuthController(UserRepository userRepository, BCryptPasswordEncoder passwordEncoder,
+                          UserIdentityIndex userIdentityIndex, EntityCacheService entityCacheService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder; // Use the injected bean
+        this.userIdentityIndex = userIdentityIndex;
+        this.entityCacheService = entityCacheService;
     }
     
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@RequestBody RegisterRequest registerRequest) {
-        // Check if username already exists
-        if (userRepository.findByUsername(registerRequest.getUsername()).isPresent()) {
+        // Check if username already exists; names no one has are ruled out without a query
+        if (userIdentityIndex.mightHaveUsername(registerRequest.getUsername())
+                && userRepository.findByUsername(registerRequest.getUsername()).isPresent()) {
             Map<String, String> response = new HashMap<>();
             response.put("error", "Username is already taken");
             return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
         }
         
         // Check if email already exists
-        if (userRepository.findByEmail(registerRequest.getEmail()).isPresent()) {
+        if (userIdentityIndex.mightHaveEmail(registerRequest.getEmail())
+                && userRepository.findByEmail(registerRequest.getEmail()).isPresent()) {
             Map<String, String> response = new HashMap<>();
             response.put("error", "Email is already registered");
             return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
@@ -57,7 +67,15 @@ public class AuthController {
         user.setFullName(registerRequest.getFullName());
         user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
         
-        User savedUser = userRepository.save(user);
+        User savedUser;
+        try {
+            savedUser = userRepository.save(user);
+        } catch (DuplicateKeyException e) {
+            // Registered concurrently, or on a node whose identity filters have not seen it yet
+            Map<String, String> response = new HashMap<>();
+            response.put("error", UserIdentityIndex.takenMessage(e));
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
         
         // Hide password in response
         savedUser.setPassword(null);
@@ -123,9 +141,8 @@ public class AuthController {
     @GetMapping("/verify/{userId}")
     public ResponseEntity<?> verifySession(@PathVariable String userId) {
         try {
-            Optional<User> user = userRepository.findById(userId);
             Map<String, Boolean> response = new HashMap<>();
-            response.put("valid", user.isPresent());
+            response.put("valid", entityCacheService.userExists(userId));
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Boolean> response = new HashMap<>();
@@ -4,27 +4,38 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
-import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import com.university.skillshare_backend.model.Group;
-import com.university.skillshare_backend.model.User;
+import com.university.skillshare_backend.model.MediaBlob;
 import com.university.skillshare_backend.repository.GroupRepository;
 import com.university.skillshare_backend.repository.UserRepository;
 import com.university.skillshare_backend.exception.ResourceNotFoundException;
+import com.university.skillshare_backend.service.EntityCacheService;
+import com.university.skillshare_backend.service.GroupMembershipService;
+import com.university.skillshare_backend.service.ImageDerivativeService;
+import com.university.skillshare_backend.service.MediaBlobService;
+import com.university.skillshare_backend.util.PartialUpdate;
+import com.university.skillshare_backend.util.SniffingInputStream;
 import jakarta.annotation.PostConstruct;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/groups")
@@ -35,12 +46,27 @@ public class GroupController {
     
     private final GroupRepository groupRepository;
     private final UserRepository userRepository;
+    private final ImageDerivativeService imageDerivativeService;
+    private final MediaBlobService mediaBlobService;
+    private final MongoTemplate mongoTemplate;
+    private final EntityCacheService entityCacheService;
+    private final GroupMembershipService groupMembershipService;
     private Path fileStorageLocation;
     
     @Autowired
-    public GroupController(GroupRepository groupRepository, UserRepository userRepository) {
+    public GroupController(GroupRepository groupRepository, UserRepository userRepository,
+                           ImageDerivativeService imageDerivativeService,
+                           MediaBlobService mediaBlobService,
+                           MongoTemplate mongoTemplate,
+                           EntityCacheService entityCacheService,
+                           GroupMembershipService groupMembershipService) {
         this.groupRepository = groupRepository;
         this.userRepository = userRepository;
+        this.imageDerivativeService = imageDerivativeService;
+        this.mediaBlobService = mediaBlobService;
+        this.mongoTemplate = mongoTemplate;
+        this.entityCacheService = entityCacheService;
+        this.groupMembershipService = groupMembershipService;
     }
     @PostConstruct
     public void init() {
@@ -62,19 +88,18 @@ public class GroupController {
                 return ResponseEntity.badRequest().body("Please select a file to upload");
             }
 
-            String fileName = StringUtils.cleanPath(System.currentTimeMillis() + "_" + file.getOriginalFilename());
-            Path targetLocation = this.fileStorageLocation.resolve(fileName);
-            
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            MediaBlob photoBlob = mediaBlobService.store(file.getInputStream(), SniffingInputStream.Kind.IMAGE, file.getOriginalFilename());
             
             Group group = new Group();
             group.setName(name);
             group.setDescription(description);
-            group.setPhotoUrl("http://localhost:8081/api/group-photos/" + fileName); // Update to full URL
+            group.setPhotoUrl("http://localhost:8081" + photoBlob.getUrl()); // Full URL, used directly by the frontend
             group.setOwnerId(ownerId);
             group.setCreatedAt(LocalDateTime.now());
             
             Group savedGroup = groupRepository.save(group);
+            mediaBlobService.acquire(List.of(savedGroup.getPhotoUrl()));
+            imageDerivativeService.scheduleGroupPhoto(savedGroup);
             return ResponseEntity.ok(savedGroup);
         } catch (IOException ex) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -85,17 +110,23 @@ public class GroupController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteGroup(@PathVariable String id) {
         try {
-            Group group = groupRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Group", "id", id));
+            // Only the request that removes the group gives back its photo, so a
+            // retried or concurrent delete cannot release the same reference twice
+            Group group = mongoTemplate.findAndRemove(new Query(Criteria.where("_id").is(id)), Group.class);
+            if (group == null) {
+                throw new ResourceNotFoundException("Group", "id", id);
+            }
             
-            // Delete the associated photo file if it exists
-            if (group.getPhotoUrl() != null) {
+            // Release the photo blob, or delete a photo stored before deduplication
+            if (MediaBlobService.isBlobUrl(group.getPhotoUrl())) {
+                mediaBlobService.release(List.of(group.getPhotoUrl()));
+            } else if (group.getPhotoUrl() != null) {
                 String fileName = group.getPhotoUrl().substring(group.getPhotoUrl().lastIndexOf('/') + 1);
                 Path photoPath = this.fileStorageLocation.resolve(fileName);
                 Files.deleteIfExists(photoPath);
             }
             
-            groupRepository.deleteById(id);
+            groupMembershipService.deleteGroup(id);
             return ResponseEntity.ok().body("Group deleted successfully");
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
@@ -127,27 +158,45 @@ public class GroupController {
             @PathVariable String groupId,
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String description,
-            @RequestParam(required = false) MultipartFile photo) {
+            @RequestParam(required = false) MultipartFile photo,
+            @RequestParam(required = false) Long version) {
         try {
             Group group = groupRepository.findById(groupId)
                     .orElseThrow(() -> new ResourceNotFoundException("Group", "id", groupId));
             
+            // Only the changed fields are written; members are left to join and leave
+            PartialUpdate update = new PartialUpdate();
             if (name != null && !name.trim().isEmpty()) {
-                group.setName(name);
+                update.set("name", group.getName(), name);
             }
             
             if (description != null) {
-                group.setDescription(description);
+                update.set("description", group.getDescription(), description);
             }
             
+            String previousPhotoUrl = group.getPhotoUrl();
             if (photo != null && !photo.isEmpty()) {
-                String fileName = StringUtils.cleanPath(System.currentTimeMillis() + "_" + photo.getOriginalFilename());
-                Path targetLocation = this.fileStorageLocation.resolve(fileName);
-                Files.copy(photo.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-                group.setPhotoUrl("http://localhost:8081/api/group-photos/" + fileName); // Update to full URL
+                MediaBlob photoBlob = mediaBlobService.store(photo.getInputStream(), SniffingInputStream.Kind.IMAGE, photo.getOriginalFilename());
+                String photoUrl = "http://localhost:8081" + photoBlob.getUrl(); // Full URL, used directly by the frontend
+                update.set("photoUrl", previousPhotoUrl, photoUrl);
+                if (!photoUrl.equals(previousPhotoUrl)) {
+                    update.set("photoVariants", group.getPhotoVariants(), null);
+                }
             }
             
-            Group updatedGroup = groupRepository.save(group);
+            if (update.isEmpty()) {
+                return ResponseEntity.ok(group);
+            }
+            Group updatedGroup = update.apply(mongoTemplate, groupId, version != null ? version : group.getVersion(), Group.class)
+                    .orElseThrow(() -> new ResourceNotFoundException("Group", "id", groupId));
+            entityCacheService.invalidateGroup(groupId);
+            if (updatedGroup.getPhotoUrl() != null && !updatedGroup.getPhotoUrl().equals(previousPhotoUrl)) {
+                mediaBlobService.acquire(List.of(updatedGroup.getPhotoUrl()));
+                if (previousPhotoUrl != null) {
+                    mediaBlobService.release(List.of(previousPhotoUrl));
+                }
+            }
+            imageDerivativeService.scheduleGroupPhoto(updatedGroup);
             return ResponseEntity.ok(updatedGroup);
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
@@ -158,14 +207,30 @@ public class GroupController {
     }
 
     @GetMapping("/photos/{fileName:.+}")
-    public ResponseEntity<Resource> getGroupPhoto(@PathVariable String fileName) {
+    public ResponseEntity<Resource> getGroupPhoto(@PathVariable String fileName,
+                                                  @RequestParam(required = false) String size) {
         try {
-            Path filePath = this.fileStorageLocation.resolve(fileName);
+            Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
+            if (!filePath.startsWith(this.fileStorageLocation)) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            // Redirect to a downscaled rendition (thumb, feed or full) when one has been generated;
+            // renditions are served by MediaController from whichever backend holds them
+            if (size != null) {
+                Optional<String> derivative = imageDerivativeService.groupPhotoDerivative(fileName, size);
+                if (derivative.isPresent()) {
+                    return ResponseEntity.status(HttpStatus.FOUND).location(URI.create(derivative.get())).build();
+                }
+            }
+            
             Resource resource = new UrlResource(filePath.toUri());
             
             if (resource.exists()) {
+                MediaType contentType = MediaTypeFactory.getMediaType(filePath.getFileName().toString())
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM);
                 return ResponseEntity.ok()
-                    .contentType(MediaType.IMAGE_JPEG)
+                    .contentType(contentType)
                     .body(resource);
             } else {
                 return ResponseEntity.notFound().build();
@@ -178,20 +243,10 @@ public class GroupController {
     @PostMapping("/{groupId}/join")
     public ResponseEntity<?> joinGroup(@PathVariable String groupId, @RequestParam String userId) {
         try {
-            Group group = groupRepository.findById(groupId)
-                .orElseThrow(() -> new ResourceNotFoundException("Group", "id", groupId));
-            User user = userRepository.findById(userId)
+            userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
             
-            if (group.getMembers().contains(userId)) {
-                return ResponseEntity.badRequest().body("User is already a member of this group");
-            }
-            
-            List<String> members = group.getMembers();
-            members.add(userId);
-            group.setMembers(members);
-            
-            Group updatedGroup = groupRepository.save(group);
+            Group updatedGroup = groupMembershipService.join(groupId, userId);
             return ResponseEntity.ok(updatedGroup);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -201,20 +256,7 @@ public class GroupController {
     @PostMapping("/{groupId}/leave")
     public ResponseEntity<?> leaveGroup(@PathVariable String groupId, @RequestParam String userId) {
         try {
-            Group group = groupRepository.findById(groupId)
-                .orElseThrow(() -> new ResourceNotFoundException("Group", "id", groupId));
-            User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
-            
-            if (!group.getMembers().contains(userId)) {
-                return ResponseEntity.badRequest().body("User is not a member of this group");
-            }
-            
-            List<String> members = group.getMembers();
-            members.remove(userId);
-            group.setMembers(members);
-            
-            Group updatedGroup = groupRepository.save(group);
+            Group updatedGroup = groupMembershipService.leave(groupId, userId);
             return ResponseEntity.ok(updatedGroup);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -235,17 +277,42 @@ public class GroupController {
                     .body("Only group owner can remove members");
             }
             
-            User member = userRepository.findById(memberId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", memberId));
-            
-            List<String> members = group.getMembers();
-            members.remove(memberId);
-            group.setMembers(members);
-            
-            Group updatedGroup = groupRepository.save(group);
+            Group updatedGroup = groupMembershipService.leave(groupId, memberId);
             return ResponseEntity.ok(updatedGroup);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
+
+    /**
+     * Get a page of a group's members
+     * 
+     * @param groupId Group ID
+     * @param cursor nextCursor of the previous page (optional)
+     * @param limit Page size (optional)
+     * @return Map with "items" (member summaries) and "nextCursor"
+     */
+    @GetMapping("/{groupId}/members")
+    public ResponseEntity<?> getMembers(
+            @PathVariable String groupId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(groupMembershipService.getMembers(groupId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Check whether a user is a member of a group
+     * 
+     * @param groupId Group ID
+     * @param userId User ID
+     * @return Map with "member" (true or false)
+     */
+    @GetMapping("/{groupId}/members/{userId}")
+    public ResponseEntity<?> getMembership(@PathVariable String groupId, @PathVariable String userId) {
+        return ResponseEntity.ok(Map.of("member", groupMembershipService.isMember(groupId, userId)));
+    }
 }
@@ -0,0 +1,68 @@
+package com.university.skillshare_backend.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.university.skillshare_backend.service.ImageDerivativeService;
+import com.university.skillshare_backend.service.OrphanedMediaCollector;
+
+/**
+ * Maintenance operations for stored media.
+ * Only registered when app.admin.enabled is set, since requests are not authenticated.
+ */
+@ConditionalOnProperty(name = "app.admin.enabled", havingValue = "true")
+@RestController
+@RequestMapping("/api/admin/media")
+public class MediaAdminController {
+
+    private final ImageDerivativeService imageDerivativeService;
+    private final OrphanedMediaCollector orphanedMediaCollector;
+
+    @Autowired
+    public MediaAdminController(
+            ImageDerivativeService imageDerivativeService,
+            OrphanedMediaCollector orphanedMediaCollector) {
+        this.imageDerivativeService = imageDerivativeService;
+        this.orphanedMediaCollector = orphanedMediaCollector;
+    }
+
+    /**
+     * Generate image derivatives for existing posts and groups that lack them
+     *
+     * @return Number of posts and groups queued for processing
+     */
+    @PostMapping("/derivatives/backfill")
+    public ResponseEntity<Map<String, Object>> backfillDerivatives() {
+        int queued = imageDerivativeService.backfill();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("queued", queued);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Find (and unless dryRun is false, only report) media files that nothing references
+     *
+     * @param dryRun Report without deleting; defaults to true
+     * @return Counts, reclaimable bytes and a sample of orphaned paths
+     */
+    @PostMapping("/sweep")
+    public ResponseEntity<Map<String, Object>> sweepOrphanedMedia(
+            @RequestParam(defaultValue = "true") boolean dryRun) {
+        OrphanedMediaCollector.Report report = orphanedMediaCollector.sweep(dryRun);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("report", report);
+        return ResponseEntity.ok(response);
+    }
+}
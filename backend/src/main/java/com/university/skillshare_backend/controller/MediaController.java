@@ -0,0 +1,188 @@
+package com.university.skillshare_backend.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UrlPathHelper;
+
+import com.university.skillshare_backend.model.MediaBlob;
+import com.university.skillshare_backend.model.MediaFile;
+import com.university.skillshare_backend.service.MediaBlobService;
+import com.university.skillshare_backend.service.MediaFileService;
+import com.university.skillshare_backend.storage.LocalMediaStore;
+import com.university.skillshare_backend.storage.MediaStoreRegistry;
+import com.university.skillshare_backend.util.ByteRange;
+import com.university.skillshare_backend.util.HttpConditionals;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Serves files under /uploads with byte-range, ETag and conditional GET support.
+ * Large bodies are handed to Tomcat's sendfile so the bytes never pass through
+ * the JVM heap; otherwise they are copied with FileChannel.transferTo. Blobs and
+ * renditions held by a remote MediaStore are streamed from the backend instead.
+ */
+@RestController
+public class MediaController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Below this size a plain copy is cheaper than setting up sendfile
+    private static final long SENDFILE_THRESHOLD = 48 * 1024;
+
+    private static final String CACHE_CONTROL = "public, max-age=3600";
+    // Blob URLs are derived from the content hash, so their bytes can never change
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private final MediaFileService mediaFileService;
+    private final MediaBlobService mediaBlobService;
+    private final MediaStoreRegistry mediaStoreRegistry;
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    @Autowired
+    public MediaController(MediaFileService mediaFileService, MediaBlobService mediaBlobService,
+                           MediaStoreRegistry mediaStoreRegistry) {
+        this.mediaFileService = mediaFileService;
+        this.mediaBlobService = mediaBlobService;
+        this.mediaStoreRegistry = mediaStoreRegistry;
+    }
+
+    /**
+     * Serve an uploaded file, honouring Range, If-Range, If-None-Match and If-Modified-Since
+     */
+    @RequestMapping(value = "/uploads/**", method = { RequestMethod.GET, RequestMethod.HEAD })
+    public void serveMedia(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String url = urlPathHelper.getPathWithinApplication(request);
+        String key = url.substring("/uploads/".length());
+        Optional<Path> resolved = mediaFileService.resolveUploadPath(key)
+                .filter(Files::isRegularFile);
+        Optional<MediaFile> metadata = mediaFileService.findByUrl(url);
+
+        // Blobs and renditions written to a remote backend (GridFS, S3) are streamed from there
+        MediaBlob remote = null;
+        MediaFile remoteRendition = null;
+        if (resolved.isEmpty()) {
+            remote = mediaBlobService.findRemote(url).orElse(null);
+            if (remote == null) {
+                remoteRendition = metadata
+                        .filter(rendition -> rendition.getBackend() != null
+                                && !LocalMediaStore.NAME.equals(rendition.getBackend()))
+                        .orElse(null);
+            }
+            if (remote == null && remoteRendition == null) {
+                response.sendError(HttpStatus.NOT_FOUND.value());
+                return;
+            }
+        }
+
+        Path file = resolved.orElse(null);
+        long size;
+        long lastModified;
+        if (file != null) {
+            size = Files.size(file);
+            lastModified = Files.getLastModifiedTime(file).toMillis();
+        } else if (remote != null) {
+            size = remote.getSize();
+            lastModified = remote.getCreatedAt().getTime();
+        } else {
+            size = remoteRendition.getSize();
+            lastModified = remoteRendition.getCreatedAt().getTime();
+        }
+
+        String etag = metadata.map(MediaFile::getEtag)
+                .orElseGet(() -> "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"");
+        String contentType = metadata.map(MediaFile::getContentType)
+                .orElseGet(() -> MediaTypeFactory.getMediaType(url)
+                        .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                MediaBlobService.isBlobUrl(url) ? IMMUTABLE_CACHE_CONTROL : CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (HttpConditionals.isNotModified(request, etag, lastModified)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        ByteRange range = HttpConditionals.rangeApplies(request, etag, lastModified)
+                ? ByteRange.parse(request.getHeader(HttpHeaders.RANGE), size)
+                : null;
+
+        if (range != null && !range.isSatisfiable()) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            return;
+        }
+
+        long start = range != null ? range.getStart() : 0;
+        long length = range != null ? range.getLength() : size;
+        if (range != null) {
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, range.toContentRange(size));
+        } else {
+            response.setStatus(HttpStatus.OK.value());
+        }
+        response.setContentType(contentType);
+        response.setContentLengthLong(length);
+
+        if (RequestMethod.HEAD.name().equals(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        if (remote != null) {
+            try (InputStream in = mediaBlobService.open(remote, start, length)) {
+                in.transferTo(response.getOutputStream());
+            }
+            return;
+        }
+        if (remoteRendition != null) {
+            try (InputStream in = mediaStoreRegistry.get(remoteRendition.getBackend()).get(key, start, length)) {
+                in.transferTo(response.getOutputStream());
+            }
+            return;
+        }
+
+        if (length >= SENDFILE_THRESHOLD && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the file to the socket itself once the servlet returns
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+}
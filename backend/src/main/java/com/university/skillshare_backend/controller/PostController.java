@@ -1,25 +1,18 @@
 package com.university.skillshare_backend.controller;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
-import java.nio.file.NoSuchFileException;
-import org.springframework.beans.factory.annotation.Value;
 import java.util.ArrayList;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -31,30 +24,59 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.university.skillshare_backend.event.DomainEvent;
+import com.university.skillshare_backend.exception.InvalidMediaException;
 import com.university.skillshare_backend.exception.ResourceNotFoundException;
 import com.university.skillshare_backend.model.Group;
-import com.university.skillshare_backend.model.Notification;
+import com.university.skillshare_backend.model.ImageVariants;
+import com.university.skillshare_backend.model.MediaBlob;
 import com.university.skillshare_backend.model.Post;
 import com.university.skillshare_backend.model.SharedPost;
+import com.university.skillshare_backend.model.UploadSession;
+import com.university.skillshare_backend.model.VideoMetadata;
 import com.university.skillshare_backend.repository.GroupRepository;
-import com.university.skillshare_backend.repository.NotificationRepository;
 import com.university.skillshare_backend.repository.PostRepository;
 import com.university.skillshare_backend.repository.SharedPostRepository;
 import com.university.skillshare_backend.repository.UserRepository;
+import com.university.skillshare_backend.service.EntityCacheService;
+import com.university.skillshare_backend.service.GroupMembershipService;
+import com.university.skillshare_backend.service.ImageDerivativeService;
+import com.university.skillshare_backend.service.MediaBlobService;
+import com.university.skillshare_backend.service.OutboxService;
+import com.university.skillshare_backend.service.PostCardService;
+import com.university.skillshare_backend.service.PostDeletionService;
+import com.university.skillshare_backend.service.PostDetailService;
+import com.university.skillshare_backend.service.TagService;
+import com.university.skillshare_backend.service.TrendingService;
+import com.university.skillshare_backend.service.UploadService;
+import com.university.skillshare_backend.service.VideoProcessingService;
+import com.university.skillshare_backend.util.HashtagParser;
+import com.university.skillshare_backend.util.PartialUpdate;
+import com.university.skillshare_backend.util.SniffingInputStream;
 
 @RestController
 @RequestMapping("/api")
 public class PostController {
     private static final Logger logger = LoggerFactory.getLogger(PostController.class);
     
-    @Value("${file.upload-dir:./uploads}")
-    private String baseUploadDir;
-    
     private final PostRepository postRepository;
     private final UserRepository userRepository;
     private final GroupRepository groupRepository;
     private final SharedPostRepository sharedPostRepository;
-    private final NotificationRepository notificationRepository;
+    private final UploadService uploadService;
+    private final MediaBlobService mediaBlobService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final VideoProcessingService videoProcessingService;
+    private final PostDeletionService postDeletionService;
+    private final PostDetailService postDetailService;
+    private final MongoTemplate mongoTemplate;
+    private final EntityCacheService entityCacheService;
+    private final OutboxService outboxService;
+    private final PostCardService postCardService;
+    private final TrendingService trendingService;
+    private final HashtagParser hashtagParser;
+    private final TagService tagService;
+    private final GroupMembershipService groupMembershipService;
     
     @Autowired
     public PostController(
@@ -62,12 +84,38 @@ public class PostController {
             UserRepository userRepository,
             GroupRepository groupRepository,
             SharedPostRepository sharedPostRepository,
-            NotificationRepository notificationRepository) {
+            UploadService uploadService,
+            MediaBlobService mediaBlobService,
+            ImageDerivativeService imageDerivativeService,
+            VideoProcessingService videoProcessingService,
+            PostDeletionService postDeletionService,
+            PostDetailService postDetailService,
+            MongoTemplate mongoTemplate,
+            EntityCacheService entityCacheService,
+            OutboxService outboxService,
+            PostCardService postCardService,
+            TrendingService trendingService,
+            HashtagParser hashtagParser,
+            TagService tagService,
+            GroupMembershipService groupMembershipService) {
         this.postRepository = postRepository;
         this.userRepository = userRepository;
         this.groupRepository = groupRepository;
         this.sharedPostRepository = sharedPostRepository;
-        this.notificationRepository = notificationRepository;
+        this.uploadService = uploadService;
+        this.mediaBlobService = mediaBlobService;
+        this.imageDerivativeService = imageDerivativeService;
+        this.videoProcessingService = videoProcessingService;
+        this.postDeletionService = postDeletionService;
+        this.postDetailService = postDetailService;
+        this.mongoTemplate = mongoTemplate;
+        this.entityCacheService = entityCacheService;
+        this.outboxService = outboxService;
+        this.postCardService = postCardService;
+        this.trendingService = trendingService;
+        this.hashtagParser = hashtagParser;
+        this.tagService = tagService;
+        this.groupMembershipService = groupMembershipService;
     }
     
     /**
@@ -78,6 +126,7 @@ public class PostController {
      * @param content Post content
      * @param images Multiple image files (up to 3)
      * @param video Video file (optional)
+     * @param uploadIds Completed resumable uploads to attach (optional)
      * @return The created post
      */
     @PostMapping("/posts")
@@ -86,7 +135,8 @@ public class PostController {
             @RequestParam("title") String title,
             @RequestParam("content") String content,
             @RequestParam(value = "images", required = false) MultipartFile[] images,
-            @RequestParam(value = "video", required = false) MultipartFile video) {
+            @RequestParam(value = "video", required = false) MultipartFile video,
+            @RequestParam(value = "uploadIds", required = false) List<String> uploadIds) {
         
         // Verify user exists
         userRepository.findById(userId)
@@ -94,37 +144,52 @@ public class PostController {
         
         // Create new post
         Post post = new Post(userId, title, content);
+        post.setTags(hashtagParser.parseTags(title, content));
+        
+        // Attach media that was sent through the resumable upload API; undone if the post is not saved
+        List<String> attached = attachUploads(post, uploadIds, userId);
         
+        Post savedPost;
         try {
             // Process images (up to 3)
             if (images != null && images.length > 0) {
                 int imageCount = Math.min(images.length, 3); // Limit to 3 images
                 for (int i = 0; i < imageCount; i++) {
                     MultipartFile image = images[i];
-                    if (!image.isEmpty() && isValidImageType(image)) {
-                        // Process and store image
-                        String imageUrl = saveFile(image, "images");
+                    if (!image.isEmpty()) {
+                        // Process and store image; its real type is checked while it is written
+                        String imageUrl = saveFile(image, SniffingInputStream.Kind.IMAGE);
                         post.getImageUrls().add(imageUrl);
                     }
                 }
             }
             
-            // Process video
+            // Process video; its real duration is checked by the background video job
             if (video != null && !video.isEmpty()) {
-                if (isValidVideoType(video) && isValidVideoDuration(video)) {
-                    String videoUrl = saveFile(video, "videos");
-                    post.setVideoUrl(videoUrl);
-                } else {
-                    throw new IllegalArgumentException("Invalid video file or duration exceeds 30 seconds");
-                }
+                String videoUrl = saveFile(video, SniffingInputStream.Kind.VIDEO);
+                post.setVideoUrl(videoUrl);
             }
             
-            Post savedPost = postRepository.save(post);
-            return new ResponseEntity<>(savedPost, HttpStatus.CREATED);
+            videoProcessingService.markPending(post);
+            // The feeds, search and trending hear of the post from the outbox once it is stored
+            post.setId(OutboxService.newId());
+            outboxService.record(new DomainEvent.PostCreated(post.getId(), userId), "posts", post.getId());
+            savedPost = postRepository.save(post);
             
+        } catch (InvalidMediaException e) {
+            uploadService.detach(attached, userId);
+            throw e;
         } catch (Exception e) {
+            uploadService.detach(attached, userId);
             throw new RuntimeException("Error creating post with media: " + e.getMessage(), e);
         }
+        
+        mediaBlobService.acquire(savedPost.mediaUrls());
+        imageDerivativeService.schedulePostImages(savedPost);
+        videoProcessingService.schedule(savedPost);
+        outboxService.flush();
+        tagService.recordTags(savedPost.getTags());
+        return new ResponseEntity<>(savedPost, HttpStatus.CREATED);
     }
     
     /**
@@ -136,6 +201,8 @@ public class PostController {
      * @param title Post title
      * @param content Post content
      * @param userId User ID
+     * @param uploadIds Completed resumable uploads to attach (optional)
+     * @param version Version the edit is based on (optional); a stale version is refused with 409
      * @return The updated post
      */
     @PostMapping("/posts/{postId}/edit")
@@ -145,9 +212,11 @@ public class PostController {
             @RequestParam(required = false) MultipartFile video,
             @RequestParam String title,
             @RequestParam String content,
-            @RequestParam String userId) {
+            @RequestParam String userId,
+            @RequestParam(required = false) List<String> uploadIds,
+            @RequestParam(required = false) Long version) {
         
-        Post post = postRepository.findById(postId)
+        Post post = postRepository.findByIdAndDeletedAtIsNull(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
 
         // Verify user owns the post
@@ -155,17 +224,22 @@ public class PostController {
             throw new IllegalArgumentException("User not authorized to edit this post");
         }
 
-        post.setTitle(title);
-        post.setContent(content);
+        // Snapshot what the edit may change, so only changed fields are written
+        List<String> previousMedia = post.mediaUrls();
+        List<String> previousImageUrls = new ArrayList<>(post.getImageUrls());
+        List<ImageVariants> previousImageVariants = new ArrayList<>(post.getImageVariants());
+        String previousVideoUrl = post.getVideoUrl();
+        VideoMetadata previousVideoMetadata = post.getVideoMetadata();
 
         try {
             // Update images if provided
             if (images != null && images.length > 0) {
                 post.getImageUrls().clear();
+                post.getImageVariants().clear();
                 int imageCount = Math.min(images.length, 3);
                 for (int i = 0; i < imageCount; i++) {
-                    if (!images[i].isEmpty() && isValidImageType(images[i])) {
-                        String imageUrl = saveFile(images[i], "images");
+                    if (!images[i].isEmpty()) {
+                        String imageUrl = saveFile(images[i], SniffingInputStream.Kind.IMAGE);
                         post.getImageUrls().add(imageUrl);
                     }
                 }
@@ -173,13 +247,50 @@ public class PostController {
 
             // Update video if provided
             if (video != null && !video.isEmpty()) {
-                if (isValidVideoType(video) && isValidVideoDuration(video)) {
-                    String videoUrl = saveFile(video, "videos");
-                    post.setVideoUrl(videoUrl);
-                }
+                String videoUrl = saveFile(video, SniffingInputStream.Kind.VIDEO);
+                post.setVideoUrl(videoUrl);
             }
 
-            Post updatedPost = postRepository.save(post);
+            List<String> attached = attachUploads(post, uploadIds, userId);
+            videoProcessingService.markPending(post);
+
+            List<String> tags = hashtagParser.parseTags(title, content);
+            PartialUpdate update = new PartialUpdate()
+                    .set("title", post.getTitle(), title)
+                    .set("content", post.getContent(), content)
+                    .set("tags", post.getTags(), tags)
+                    .set("imageUrls", previousImageUrls, post.getImageUrls())
+                    .set("imageVariants", previousImageVariants, post.getImageVariants())
+                    .set("videoUrl", previousVideoUrl, post.getVideoUrl())
+                    .set("videoMetadata", previousVideoMetadata, post.getVideoMetadata());
+            if (update.isEmpty()) {
+                return ResponseEntity.ok(post);
+            }
+            long expectedVersion = version != null ? version : post.getVersion();
+            // Read models and subscribers are told about the edit from the outbox once the
+            // post reaches the version this edit writes
+            outboxService.record(new DomainEvent.PostUpdated(postId),
+                    "posts", postId, PartialUpdate.VERSION_FIELD, String.valueOf(expectedVersion + 1));
+            // Media stored above but lost to a conflict stays unreferenced and is collected later;
+            // uploads attached above are handed back so they can be used again
+            Post updatedPost;
+            try {
+                updatedPost = update.onlyIf("deletedAt", null)
+                        .apply(mongoTemplate, postId, expectedVersion, Post.class)
+                        .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
+            } catch (RuntimeException e) {
+                uploadService.detach(attached, userId);
+                throw e;
+            }
+            entityCacheService.invalidatePost(postId);
+            outboxService.flush();
+            // Only tags the edit added count as new uses
+            tagService.recordTags(tags.stream().filter(tag -> !post.getTags().contains(tag)).toList());
+            // Acquire before releasing so media kept by the edit never drops to zero references
+            mediaBlobService.acquire(updatedPost.mediaUrls());
+            mediaBlobService.release(previousMedia);
+            imageDerivativeService.schedulePostImages(updatedPost);
+            videoProcessingService.schedule(updatedPost);
             return ResponseEntity.ok(updatedPost);
         } catch (IOException e) {
             logger.error("Error updating post media: ", e);
@@ -199,7 +310,7 @@ public class PostController {
             @PathVariable String postId,
             @RequestParam String userId) {
         
-        Post post = postRepository.findById(postId)
+        Post post = postRepository.findByIdAndDeletedAtIsNull(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
         
         // Verify user owns the post
@@ -207,7 +318,8 @@ public class PostController {
             throw new IllegalArgumentException("User not authorized to delete this post");
         }
         
-        postRepository.delete(post);
+        // Hidden from reads immediately; comments, reactions and media are cleaned up in the background
+        postDeletionService.delete(postId);
         
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
@@ -231,7 +343,7 @@ public class PostController {
             @RequestParam String userId) {
         
         // Find the post
-        Post post = postRepository.findById(postId)
+        Post post = postRepository.findByIdAndDeletedAtIsNull(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
         
         // Find the group
@@ -239,7 +351,7 @@ public class PostController {
                 .orElseThrow(() -> new ResourceNotFoundException("Group", "id", groupId));
         
         // Check if user is a member of the group
-        if (!group.getMembers().contains(userId)) {
+        if (!groupMembershipService.isMember(groupId, userId)) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
             errorResponse.put("message", "User is not a member of the group");
@@ -248,27 +360,16 @@ public class PostController {
         
         // Create a shared post entry
         SharedPost sharedPost = new SharedPost();
+        sharedPost.setId(OutboxService.newId());
         sharedPost.setPostId(postId);
         sharedPost.setGroupId(groupId);
         sharedPost.setSharedBy(userId);
         sharedPost.setSharedAt(new Date());
         
+        // Group members are notified from the outbox once the share is stored
+        outboxService.record(new DomainEvent.PostShared(postId, groupId, userId), "shared_posts", sharedPost.getId());
         sharedPostRepository.save(sharedPost);
-        
-        // Create notification for group members
-        for (String memberId : group.getMembers()) {
-            if (!memberId.equals(userId)) { // Don't notify the sharer
-                Notification notification = new Notification();
-                notification.setUserId(memberId);
-                notification.setType("POST_SHARED");
-                notification.setMessage("A new post was shared in " + group.getName());
-                notification.setRelatedItemId(postId);
-                notification.setRead(false);
-                notification.setCreatedAt(new Date());
-                
-                notificationRepository.save(notification);
-            }
-        }
+        outboxService.flush();
         
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
@@ -295,85 +396,84 @@ public class PostController {
         // Get the actual posts
         List<Post> posts = new ArrayList<>();
         for (SharedPost sharedPost : sharedPosts) {
-            postRepository.findById(sharedPost.getPostId()).ifPresent(posts::add);
+            postRepository.findByIdAndDeletedAtIsNull(sharedPost.getPostId()).ifPresent(posts::add);
         }
         
         return ResponseEntity.ok(posts);
     }
     
     /**
-     * Helper method to save file and return URL
+     * Get a page of the posts shared in a group as feed cards, newest post first
+     * 
+     * @param groupId Group ID
+     * @param cursor nextCursor of the previous page (optional)
+     * @param limit Page size (optional)
+     * @return Map with "items" (cards) and "nextCursor"
      */
-    private String saveFile(MultipartFile file, String directory) throws IOException {
+    @GetMapping("/groups/{groupId}/cards")
+    public ResponseEntity<?> getGroupPostCards(
+            @PathVariable String groupId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        entityCacheService.findGroup(groupId)
+            .orElseThrow(() -> new ResourceNotFoundException("Group", "id", groupId));
         try {
-            // Create absolute base directory path
-            Path baseDir = Paths.get(baseUploadDir).toAbsolutePath().normalize();
-            
-            // Create directory path
-            Path targetDir = baseDir.resolve(directory).normalize();
-            if (!Files.exists(targetDir)) {
-                Files.createDirectories(targetDir);
-                logger.info("Created directory: {}", targetDir);
-            }
-            
-            // Generate unique filename
-            String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
-            String fileName = UUID.randomUUID() + "_" + originalFilename;
-            
-            // Create full file path
-            Path targetPath = targetDir.resolve(fileName).normalize();
-            
-            // Validate path is within upload directory
-            if (!targetPath.startsWith(baseDir)) {
-                throw new IOException("Cannot store file outside upload directory.");
-            }
-            
-            logger.info("Attempting to save file to: {}", targetPath);
-            
-            // Save file
-            Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
-            logger.info("Successfully saved file: {}", fileName);
-            
-            // Return relative URL path
-            String relativePath = baseDir.relativize(targetPath).toString().replace('\\', '/');
-            return "/uploads/" + relativePath;
-
-        } catch (NoSuchFileException e) {
-            logger.error("Upload directory does not exist", e);
-            throw new IOException("Failed to create upload directory", e);
-        } catch (IOException e) {
-            logger.error("Failed to save file", e);
-            throw new IOException("Failed to save file: " + e.getMessage(), e);
+            return ResponseEntity.ok(postCardService.getCards(groupId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
     
     /**
-     * Check if file is a valid image type
+     * Attach completed resumable uploads to a post. Images fill the remaining
+     * of the 3 image slots and a video replaces the current one. If any upload
+     * cannot be attached, the ones attached before it are handed back.
+     *
+     * @return IDs of the uploads attached, to detach if the post write then fails
      */
-    private boolean isValidImageType(MultipartFile file) {
-        String contentType = file.getContentType();
-        return contentType != null && contentType.startsWith("image/");
-    }
-    
-    /**
-     * Check if file is a valid video type
-     */
-    private boolean isValidVideoType(MultipartFile file) {
-        String contentType = file.getContentType();
-        return contentType != null && contentType.startsWith("video/");
+    private List<String> attachUploads(Post post, List<String> uploadIds, String userId) {
+        if (uploadIds == null || uploadIds.isEmpty()) {
+            return List.of();
+        }
+        List<String> attached = new ArrayList<>();
+        try {
+            for (String uploadId : uploadIds) {
+                UploadSession upload = uploadService.getSession(uploadId, userId);
+                if (upload.isImage() && post.getImageUrls().size() >= 3) {
+                    continue;
+                }
+                upload = uploadService.attach(uploadId, userId);
+                attached.add(uploadId);
+                if (upload.isImage()) {
+                    post.getImageUrls().add(upload.getUrl());
+                } else if (upload.isVideo()) {
+                    post.setVideoUrl(upload.getUrl());
+                }
+            }
+        } catch (RuntimeException e) {
+            uploadService.detach(attached, userId);
+            throw e;
+        }
+        return attached;
     }
     
     /**
-     * Check if video duration is within limits (30 seconds)
+     * Helper method to save file and return URL
+     *
+     * @param kind What the file must be, judged by its content rather than the declared type
      */
-    private boolean isValidVideoDuration(MultipartFile video) {
-        // For a complete implementation, you would use a library like Xuggler or JavaCV
-        // to check the video duration, but for simplicity, we'll just check file size
-        // assuming a rough 1MB per 10 seconds of video at moderate quality
-        long maxSize = 3 * 1024 * 1024; // 3MB ~ 30 seconds
-        return video.getSize() <= maxSize;
+    private String saveFile(MultipartFile file, SniffingInputStream.Kind kind) throws IOException {
+        try {
+            // Identical files share one blob, so reposting the same slides costs no extra space
+            MediaBlob blob = mediaBlobService.store(file.getInputStream(), kind, file.getOriginalFilename());
+            logger.info("Stored {} as blob {}", file.getOriginalFilename(), blob.getDigest());
+            return blob.getUrl();
+        } catch (IOException e) {
+            logger.error("Failed to save file", e);
+            throw new IOException("Failed to save file: " + e.getMessage(), e);
+        }
     }
-    
+
     /**
      * Get all posts
      * 
@@ -381,10 +481,41 @@ public class PostController {
      */
     @GetMapping("/posts")
     public ResponseEntity<List<Post>> getAllPosts() {
-        List<Post> posts = postRepository.findAll();
+        List<Post> posts = postRepository.findByDeletedAtIsNull();
         return ResponseEntity.ok(posts);
     }
     
+    /**
+     * Get a page of the feed as ready-to-serve cards: each post with its
+     * author's name and avatar and its like, reaction and comment counts
+     * 
+     * @param cursor nextCursor of the previous page (optional)
+     * @param limit Page size (optional)
+     * @return Map with "items" (cards, newest first) and "nextCursor"
+     */
+    @GetMapping("/posts/cards")
+    public ResponseEntity<?> getPostCards(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(postCardService.getCards(null, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Get the posts with the most recent likes, reactions, comments and shares
+     * as feed cards. Served from a list refreshed every few seconds.
+     * 
+     * @param limit Maximum number of posts (optional)
+     * @return Map with "items" (cards, hottest first) and "refreshedAt"
+     */
+    @GetMapping("/posts/trending")
+    public ResponseEntity<?> getTrendingPosts(@RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(trendingService.getTrending(limit));
+    }
+    
     /**
      * Get post by ID
      * 
@@ -393,11 +524,40 @@ public class PostController {
      */
     @GetMapping("/posts/{postId}")
     public ResponseEntity<Post> getPostById(@PathVariable String postId) {
-        Post post = postRepository.findById(postId)
+        Post post = entityCacheService.findPost(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
         return ResponseEntity.ok(post);
     }
     
+    /**
+     * Get a post together with its author, comments, likes and reactions in one call
+     * 
+     * @param postId Post ID
+     * @param userId Viewing user, to include whether they liked or reacted (optional)
+     * @param timeoutMs Time budget in milliseconds (optional)
+     * @return Post detail; parts that could not be loaded in time are listed under "missing"
+     */
+    @GetMapping("/posts/{postId}/detail")
+    public ResponseEntity<Map<String, Object>> getPostDetail(
+            @PathVariable String postId,
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) Long timeoutMs) {
+        return ResponseEntity.ok(postDetailService.getDetail(postId, userId, timeoutMs));
+    }
+    
+    /**
+     * Get the downscaled renditions of a post's images
+     * 
+     * @param postId Post ID
+     * @return One entry per image with its dimensions, variant URLs and srcset
+     */
+    @GetMapping("/posts/{postId}/images")
+    public ResponseEntity<List<ImageVariants>> getPostImageVariants(@PathVariable String postId) {
+        Post post = postRepository.findByIdAndDeletedAtIsNull(postId)
+                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
+        return ResponseEntity.ok(post.getImageVariants());
+    }
+    
     /**
      * Get posts by user ID
      * 
@@ -407,10 +567,11 @@ public class PostController {
     @GetMapping("/users/{userId}/posts")
     public ResponseEntity<List<Post>> getPostsByUserId(@PathVariable String userId) {
         // Verify user exists
-        userRepository.findById(userId)
-            .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        if (!entityCacheService.userExists(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
             
-        List<Post> posts = postRepository.findByUserId(userId);
+        List<Post> posts = postRepository.findByUserIdAndDeletedAtIsNull(userId);
         return ResponseEntity.ok(posts);
     }
 }
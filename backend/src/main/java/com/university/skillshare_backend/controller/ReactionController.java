@@ -1,5 +1,6 @@
 package com.university.skillshare_backend.controller;
 
+import com.university.skillshare_backend.event.DomainEvent;
 import com.university.skillshare_backend.exception.ResourceNotFoundException;
 import com.university.skillshare_backend.model.Post;
 import com.university.skillshare_backend.model.Reaction;
@@ -7,17 +8,17 @@ import com.university.skillshare_backend.model.User;
 import com.university.skillshare_backend.repository.PostRepository;
 import com.university.skillshare_backend.repository.ReactionRepository;
 import com.university.skillshare_backend.repository.UserRepository;
-import com.university.skillshare_backend.service.NotificationService;
+import com.university.skillshare_backend.service.DomainEventBus;
+import com.university.skillshare_backend.service.OutboxService;
+import com.university.skillshare_backend.service.ReactionService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api")
@@ -27,18 +28,24 @@ public class ReactionController {
     private final ReactionRepository reactionRepository;
     private final PostRepository postRepository;
     private final UserRepository userRepository;
-    private final NotificationService notificationService;
+    private final ReactionService reactionService;
+    private final OutboxService outboxService;
+    private final DomainEventBus domainEventBus;
     
     @Autowired
     public ReactionController(
             ReactionRepository reactionRepository, 
             PostRepository postRepository,
             UserRepository userRepository,
-            NotificationService notificationService) {
+            ReactionService reactionService,
+            OutboxService outboxService,
+            DomainEventBus domainEventBus) {
         this.reactionRepository = reactionRepository;
         this.postRepository = postRepository;
         this.userRepository = userRepository;
-        this.notificationService = notificationService;
+        this.reactionService = reactionService;
+        this.outboxService = outboxService;
+        this.domainEventBus = domainEventBus;
     }
     
     /**
@@ -51,7 +58,7 @@ public class ReactionController {
             @RequestParam String type) {
         
         // Validate the post exists
-        Post post = postRepository.findById(postId)
+        Post post = postRepository.findByIdAndDeletedAtIsNull(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
         
         // Validate the user exists
@@ -61,34 +68,27 @@ public class ReactionController {
         // Check if this user already has any reaction on this post
         List<Reaction> existingReactions = reactionRepository.findByUserIdAndPostId(userId, postId);
         
-        // Remove any existing reactions (one user can have only one reaction type per post)
+        // Remove any existing reactions (one user can have only one reaction type per post).
+        // Each counts as removed, so switching type does not score the post twice.
         if (!existingReactions.isEmpty()) {
             for (Reaction reaction : existingReactions) {
                 reactionRepository.delete(reaction);
+                domainEventBus.publish(new DomainEvent.ReactionRemoved(postId, userId));
             }
         }
         
-        // Add the new reaction
+        // Add the new reaction; the post owner's notification is delivered from the
+        // outbox once it is stored
         Reaction reaction = new Reaction(userId, postId, type);
+        reaction.setId(OutboxService.newId());
+        String reactorName = user.getFullName() != null ? user.getFullName() : user.getUsername();
+        outboxService.record(new DomainEvent.Reacted(postId, post.getUserId(), userId, reactorName, type),
+                "reactions", reaction.getId());
         Reaction savedReaction = reactionRepository.save(reaction);
-        
-        // Send notification to post owner if it's not the same user
-        if (!post.getUserId().equals(userId)) {
-            User reactingUser = userRepository.findById(userId)
-                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
-            
-            String reactorName = reactingUser.getFullName() != null ? 
-                    reactingUser.getFullName() : reactingUser.getUsername();
-            
-            notificationService.createReactionNotification(
-                    post.getUserId(), 
-                    reactorName, 
-                    postId, 
-                    type);
-        }
+        outboxService.flush();
         
         // Return counts of all reaction types for this post
-        Map<String, Object> response = getReactionCounts(postId);
+        Map<String, Object> response = reactionService.getReactionCounts(postId);
         response.put("userReaction", savedReaction);
         
         return ResponseEntity.ok(response);
@@ -108,10 +108,11 @@ public class ReactionController {
         
         if (reaction.isPresent()) {
             reactionRepository.delete(reaction.get());
+            domainEventBus.publish(new DomainEvent.ReactionRemoved(postId, userId));
         }
         
         // Return updated reaction counts
-        return ResponseEntity.ok(getReactionCounts(postId));
+        return ResponseEntity.ok(reactionService.getReactionCounts(postId));
     }
     
     /**
@@ -122,32 +123,16 @@ public class ReactionController {
             @PathVariable String postId,
             @RequestParam(required = false) String userId) {
         
-        Map<String, Object> response = getReactionCounts(postId);
+        Map<String, Object> response = reactionService.getReactionCounts(postId);
         
         // If userId is provided, also return this user's reaction
         if (userId != null && !userId.isEmpty()) {
-            List<Reaction> userReactions = reactionRepository.findByUserIdAndPostId(userId, postId);
-            if (!userReactions.isEmpty()) {
-                response.put("userReaction", userReactions.get(0));
+            Reaction userReaction = reactionService.getUserReaction(postId, userId);
+            if (userReaction != null) {
+                response.put("userReaction", userReaction);
             }
         }
         
         return ResponseEntity.ok(response);
     }
-    
-    /**
-     * Get counts of all reaction types for a post
-     */
-    private Map<String, Object> getReactionCounts(String postId) {
-        List<Reaction> reactions = reactionRepository.findByPostId(postId);
-        
-        Map<String, Long> counts = reactions.stream()
-                .collect(Collectors.groupingBy(Reaction::getType, Collectors.counting()));
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("total", reactions.size());
-        response.put("counts", counts);
-        
-        return response;
-    }
 }
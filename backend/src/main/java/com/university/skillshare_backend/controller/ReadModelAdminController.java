@@ -0,0 +1,64 @@
+package com.university.skillshare_backend.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.university.skillshare_backend.service.PostCardService;
+import com.university.skillshare_backend.service.SearchService;
+
+/**
+ * Maintenance operations for read models derived from the source collections.
+ * Only registered when app.admin.enabled is set, since requests are not authenticated.
+ */
+@ConditionalOnProperty(name = "app.admin.enabled", havingValue = "true")
+@RestController
+@RequestMapping("/api/admin/read-models")
+public class ReadModelAdminController {
+
+    private final PostCardService postCardService;
+    private final SearchService searchService;
+
+    @Autowired
+    public ReadModelAdminController(PostCardService postCardService, SearchService searchService) {
+        this.postCardService = postCardService;
+        this.searchService = searchService;
+    }
+
+    /**
+     * Regenerate every post card from the posts, users, likes, reactions and comments
+     *
+     * @return Whether a rebuild was queued; false if one is already queued or running
+     */
+    @PostMapping("/post-cards/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildPostCards() {
+        boolean queued = postCardService.scheduleRebuild();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("queued", queued);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Re-index every post and achievement for search. Rebuilds the index of
+     * the instance that receives the request.
+     *
+     * @return Whether a rebuild was started; false if one is already running
+     */
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSearchIndex() {
+        boolean started = searchService.scheduleRebuild();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("started", started);
+        return ResponseEntity.ok(response);
+    }
+}
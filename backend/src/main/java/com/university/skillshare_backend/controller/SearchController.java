@@ -0,0 +1,49 @@
+package com.university.skillshare_backend.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.university.skillshare_backend.service.SearchService;
+
+/**
+ * Full-text search over posts and achievements
+ */
+@RestController
+@RequestMapping("/api")
+public class SearchController {
+
+    private final SearchService searchService;
+
+    @Autowired
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    /**
+     * Search post titles and content and achievement titles and descriptions
+     *
+     * @param q Words to look for
+     * @param type "posts" or "achievements" (optional, both by default)
+     * @param cursor nextCursor of the previous page (optional)
+     * @param limit Page size (optional)
+     * @return Map with "items" (best matches first, with highlighted snippets), "total" and "nextCursor"
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> search(
+            @RequestParam String q,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(searchService.search(q, type, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.university.skillshare_backend.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.university.skillshare_backend.service.TagService;
+
+/**
+ * Discovery by #skill tag
+ */
+@RestController
+@RequestMapping("/api/tags")
+public class TagController {
+
+    private final TagService tagService;
+
+    @Autowired
+    public TagController(TagService tagService) {
+        this.tagService = tagService;
+    }
+
+    /**
+     * Get the most used tags of late
+     *
+     * @param limit Maximum number of tags (default 10)
+     * @return List of tags with their estimated recent use counts, most used first
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<?> getTrendingTags(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(tagService.getTrendingTags(limit));
+    }
+
+    /**
+     * Get a page of the posts carrying a tag as feed cards, newest first
+     *
+     * @param tag Tag, with or without #
+     * @param cursor nextCursor of the previous page (optional)
+     * @param limit Page size (optional)
+     * @return Map with "items" (cards) and "nextCursor"
+     */
+    @GetMapping("/{tag}/posts")
+    public ResponseEntity<?> getTaggedPosts(
+            @PathVariable String tag,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(tagService.getPosts(tag, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
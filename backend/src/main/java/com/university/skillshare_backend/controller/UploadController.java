@@ -0,0 +1,144 @@
+package com.university.skillshare_backend.controller;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.university.skillshare_backend.exception.ResourceNotFoundException;
+import com.university.skillshare_backend.model.UploadSession;
+import com.university.skillshare_backend.repository.UserRepository;
+import com.university.skillshare_backend.service.UploadService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Resumable upload protocol for post media:
+ * 1. POST /api/uploads to start an upload and get its id
+ * 2. PUT /api/uploads/{id} with the raw bytes of each chunk and an Upload-Offset header
+ * 3. GET /api/uploads/{id} after a dropped connection to learn where to resume
+ * 4. POST /api/uploads/{id}/complete, then pass the id as uploadIds when creating the post
+ * Every step takes the uploader's userId; other users' uploads are not found.
+ */
+@RestController
+@RequestMapping("/api/uploads")
+public class UploadController {
+
+    private final UploadService uploadService;
+    private final UserRepository userRepository;
+
+    @Autowired
+    public UploadController(UploadService uploadService, UserRepository userRepository) {
+        this.uploadService = uploadService;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Start a resumable upload
+     *
+     * @param userId User ID
+     * @param fileName Original file name
+     * @param contentType Content type of the file
+     * @param size Total size in bytes
+     * @return The upload session
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> initiateUpload(
+            @RequestParam String userId,
+            @RequestParam String fileName,
+            @RequestParam String contentType,
+            @RequestParam long size) throws IOException {
+
+        userRepository.findById(userId)
+            .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+
+        UploadSession session = uploadService.initiate(userId, fileName, contentType, size);
+        return ResponseEntity.created(URI.create("/api/uploads/" + session.getId()))
+                .body(toResponse(session));
+    }
+
+    /**
+     * Append a chunk to an upload. The request body is the raw chunk bytes.
+     *
+     * @param uploadId Upload ID
+     * @param userId User ID of the uploader
+     * @param offset Byte offset of this chunk, must equal the bytes received so far
+     * @param request The raw request, read as a stream
+     * @return The upload progress
+     */
+    @PutMapping("/{uploadId}")
+    public ResponseEntity<Map<String, Object>> uploadChunk(
+            @PathVariable String uploadId,
+            @RequestParam String userId,
+            @RequestHeader(value = "Upload-Offset", required = false) Long offsetHeader,
+            @RequestParam(value = "offset", required = false) Long offsetParam,
+            HttpServletRequest request) throws IOException {
+
+        long offset = offsetHeader != null ? offsetHeader : (offsetParam != null ? offsetParam : 0L);
+        UploadSession session = uploadService.writeChunk(uploadId, userId, offset, request.getInputStream());
+        return ResponseEntity.ok()
+                .header("Upload-Offset", String.valueOf(session.getReceivedBytes()))
+                .body(toResponse(session));
+    }
+
+    /**
+     * Get the progress of an upload so a client can resume it
+     */
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<Map<String, Object>> getUpload(@PathVariable String uploadId, @RequestParam String userId) {
+        UploadSession session = uploadService.getSession(uploadId, userId);
+        return ResponseEntity.ok()
+                .header("Upload-Offset", String.valueOf(session.getReceivedBytes()))
+                .body(toResponse(session));
+    }
+
+    /**
+     * Finish an upload once all chunks have been sent
+     */
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<Map<String, Object>> completeUpload(@PathVariable String uploadId,
+                                                              @RequestParam String userId) throws IOException {
+        UploadSession session = uploadService.complete(uploadId, userId);
+        return ResponseEntity.ok(toResponse(session));
+    }
+
+    /**
+     * Abort an upload and discard its data
+     */
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Map<String, Object>> abortUpload(@PathVariable String uploadId,
+                                                           @RequestParam String userId) throws IOException {
+        uploadService.abort(uploadId, userId);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("uploadId", uploadId);
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    private Map<String, Object> toResponse(UploadSession session) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("uploadId", session.getId());
+        response.put("status", session.getStatus());
+        response.put("offset", session.getReceivedBytes());
+        response.put("size", session.getTotalSize());
+        response.put("contentType", session.getContentType());
+        if (session.getUrl() != null) {
+            response.put("url", session.getUrl());
+        }
+        return response;
+    }
+}
@@ -1,17 +1,28 @@
 package com.university.skillshare_backend.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import com.university.skillshare_backend.dto.UserUpdateRequest;
+import com.university.skillshare_backend.dto.ViewerStateRequest;
+import com.university.skillshare_backend.event.DomainEvent;
 import com.university.skillshare_backend.exception.ResourceNotFoundException;
 import com.university.skillshare_backend.model.Group;
 import com.university.skillshare_backend.model.User;
-import com.university.skillshare_backend.repository.GroupRepository;
 import com.university.skillshare_backend.repository.UserRepository;
+import com.university.skillshare_backend.service.DomainEventBus;
+import com.university.skillshare_backend.service.EntityCacheService;
+import com.university.skillshare_backend.service.GroupMembershipService;
+import com.university.skillshare_backend.service.ProfileService;
+import com.university.skillshare_backend.service.TimelineService;
+import com.university.skillshare_backend.service.UserIdentityIndex;
 import com.university.skillshare_backend.service.UserService;
+import com.university.skillshare_backend.service.ViewerStateService;
+import com.university.skillshare_backend.util.PartialUpdate;
 
 import java.util.HashMap;
 import java.util.List;
@@ -23,13 +34,33 @@ public class UserController {
 
     private final UserRepository userRepository;
     private final UserService userService;
-    private final GroupRepository groupRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ViewerStateService viewerStateService;
+    private final ProfileService profileService;
+    private final TimelineService timelineService;
+    private final EntityCacheService entityCacheService;
+    private final UserIdentityIndex userIdentityIndex;
+    private final DomainEventBus domainEventBus;
+    private final GroupMembershipService groupMembershipService;
 
     @Autowired
-    public UserController(UserRepository userRepository, UserService userService, GroupRepository groupRepository) {
+    public UserController(UserRepository userRepository, UserService userService,
+                          MongoTemplate mongoTemplate, ViewerStateService viewerStateService,
+                          ProfileService profileService, TimelineService timelineService,
+                          EntityCacheService entityCacheService,
+                          UserIdentityIndex userIdentityIndex,
+                          DomainEventBus domainEventBus,
+                          GroupMembershipService groupMembershipService) {
         this.userRepository = userRepository;
         this.userService = userService;
-        this.groupRepository = groupRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.viewerStateService = viewerStateService;
+        this.profileService = profileService;
+        this.timelineService = timelineService;
+        this.entityCacheService = entityCacheService;
+        this.userIdentityIndex = userIdentityIndex;
+        this.domainEventBus = domainEventBus;
+        this.groupMembershipService = groupMembershipService;
     }
 
     @PostMapping("/users")
@@ -57,6 +88,25 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    // Get everything shown on a profile page: user, follow counts and the first page of posts, achievements and groups
+    @GetMapping("/users/{userId}/profile")
+    public ResponseEntity<Map<String, Object>> getProfile(@PathVariable String userId) {
+        return ResponseEntity.ok(profileService.getProfile(userId));
+    }
+
+    // Get a page of a user's posts, achievements and group shares merged newest first
+    @GetMapping("/users/{userId}/timeline")
+    public ResponseEntity<?> getTimeline(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(timelineService.getTimeline(userId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/users/username/{username}")
     public ResponseEntity<User> getUserByUsername(@PathVariable String username) {
         User user = userRepository.findByUsername(username)
@@ -68,33 +118,54 @@ public class UserController {
     public ResponseEntity<?> updateUser(@PathVariable String userId, @RequestBody UserUpdateRequest userUpdateRequest) {
         User existingUser = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        // Only the changed profile fields are written; follower sets are never rewritten here
+        PartialUpdate update = new PartialUpdate();
 
         if (userUpdateRequest.getUsername() != null &&
                 !userUpdateRequest.getUsername().equals(existingUser.getUsername())) {
-            if (userRepository.findByUsername(userUpdateRequest.getUsername()).isPresent()) {
+            if (userIdentityIndex.mightHaveUsername(userUpdateRequest.getUsername())
+                    && userRepository.findByUsername(userUpdateRequest.getUsername()).isPresent()) {
                 Map<String, String> response = new HashMap<>();
                 response.put("error", "Username is already taken");
                 return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
             }
-            existingUser.setUsername(userUpdateRequest.getUsername());
+            update.set("username", existingUser.getUsername(), userUpdateRequest.getUsername());
         }
 
         if (userUpdateRequest.getEmail() != null &&
                 !userUpdateRequest.getEmail().equals(existingUser.getEmail())) {
-            if (userRepository.findByEmail(userUpdateRequest.getEmail()).isPresent()) {
+            if (userIdentityIndex.mightHaveEmail(userUpdateRequest.getEmail())
+                    && userRepository.findByEmail(userUpdateRequest.getEmail()).isPresent()) {
                 Map<String, String> response = new HashMap<>();
                 response.put("error", "Email is already registered");
                 return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
             }
-            existingUser.setEmail(userUpdateRequest.getEmail());
+            update.set("email", existingUser.getEmail(), userUpdateRequest.getEmail());
         }
 
         if (userUpdateRequest.getFullName() != null) {
-            existingUser.setFullName(userUpdateRequest.getFullName());
+            update.set("fullName", existingUser.getFullName(), userUpdateRequest.getFullName());
         }
 
-        User updatedUser = userRepository.save(existingUser);
+        long version = userUpdateRequest.getVersion() != null ? userUpdateRequest.getVersion() : existingUser.getVersion();
+        User updatedUser;
+        try {
+            updatedUser = update.isEmpty()
+                    ? existingUser
+                    : update.apply(mongoTemplate, userId, version, User.class)
+                            .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        } catch (DuplicateKeyException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", UserIdentityIndex.takenMessage(e));
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+        entityCacheService.invalidateUser(userId);
+        userIdentityIndex.add(updatedUser.getUsername(), updatedUser.getEmail());
         updatedUser.setPassword(null); // Hide password in response
+        profileService.invalidate(userId);
+        if (!update.isEmpty()) {
+            domainEventBus.publish(new DomainEvent.ProfileUpdated(userId));
+        }
 
         return ResponseEntity.ok(updatedUser);
     }
@@ -106,6 +177,8 @@ public class UserController {
             @PathVariable String userId) {
 
         boolean result = userService.followUser(followerId, userId);
+        profileService.invalidate(followerId);
+        profileService.invalidate(userId);
 
         Map<String, Object> response = new HashMap<>();
         response.put("success", result);
@@ -123,6 +196,8 @@ public class UserController {
             @PathVariable String userId) {
 
         boolean result = userService.unfollowUser(followerId, userId);
+        profileService.invalidate(followerId);
+        profileService.invalidate(userId);
 
         Map<String, Object> response = new HashMap<>();
         response.put("success", result);
@@ -177,7 +252,18 @@ public class UserController {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
 
-        List<Group> groups = groupRepository.findByMembersContains(userId);
+        List<Group> groups = groupMembershipService.findGroups(userId);
         return ResponseEntity.ok(groups);
     }
+
+    // Get this user's like, reaction and follow state for every post and author on a feed page
+    @PostMapping("/users/{userId}/viewer-state")
+    public ResponseEntity<?> getViewerState(@PathVariable String userId, @RequestBody ViewerStateRequest request) {
+        try {
+            return ResponseEntity.ok(viewerStateService.getViewerState(
+                    userId, request.getPostIds(), request.getAuthorIds()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
 }
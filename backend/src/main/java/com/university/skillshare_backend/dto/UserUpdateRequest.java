@@ -4,6 +4,7 @@ public class UserUpdateRequest {
     private String username;
     private String email;
     private String fullName;
+    private Long version; // Version the edit is based on; optional
     
     // Getters and setters
     public String getUsername() {
@@ -29,4 +30,12 @@ public class UserUpdateRequest {
     public void setFullName(String fullName) {
         this.fullName = fullName;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
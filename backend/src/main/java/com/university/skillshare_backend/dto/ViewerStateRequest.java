@@ -0,0 +1,25 @@
+package com.university.skillshare_backend.dto;
+
+import java.util.List;
+
+public class ViewerStateRequest {
+    private List<String> postIds;
+    private List<String> authorIds;
+    
+    // Getters and setters
+    public List<String> getPostIds() {
+        return postIds;
+    }
+    
+    public void setPostIds(List<String> postIds) {
+        this.postIds = postIds;
+    }
+    
+    public List<String> getAuthorIds() {
+        return authorIds;
+    }
+    
+    public void setAuthorIds(List<String> authorIds) {
+        this.authorIds = authorIds;
+    }
+}
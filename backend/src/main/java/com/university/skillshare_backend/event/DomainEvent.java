@@ -0,0 +1,84 @@
+package com.university.skillshare_backend.event;
+
+import java.util.List;
+
+import com.university.skillshare_backend.model.Comment;
+
+/**
+ * Something that happened to a post, comment, achievement or user, published
+ * on the {@link com.university.skillshare_backend.service.DomainEventBus} once
+ * the write it describes has been stored, or recorded in the outbox
+ * ({@link com.university.skillshare_backend.service.OutboxService}) when its
+ * side effects must survive a crash. Events carry what the request already
+ * had at hand so listeners need not read it back.
+ */
+public sealed interface DomainEvent {
+
+    record PostCreated(String postId, String userId) implements DomainEvent {
+    }
+
+    /**
+     * A post's content or media (including derivatives filled in later) changed
+     */
+    record PostUpdated(String postId) implements DomainEvent {
+    }
+
+    record PostDeleted(String postId) implements DomainEvent {
+    }
+
+    record PostShared(String postId, String groupId, String sharedBy) implements DomainEvent {
+    }
+
+    /**
+     * A like was added (liked = true) or taken back
+     */
+    record Liked(String postId, String userId, boolean liked) implements DomainEvent {
+    }
+
+    record Reacted(String postId, String postOwnerId, String userId, String reactorName, String type)
+            implements DomainEvent {
+    }
+
+    record ReactionRemoved(String postId, String userId) implements DomainEvent {
+    }
+
+    /**
+     * A comment was added or edited. broadcast is false for comments whose
+     * author's client already shows them, so they are not pushed back to it.
+     * The author name is carried separately since the comment does not store it.
+     */
+    record Commented(Comment comment, String authorName, List<String> mentions, boolean edited,
+            boolean broadcast) implements DomainEvent {
+    }
+
+    record CommentDeleted(String postId, String commentId) implements DomainEvent {
+    }
+
+    /**
+     * A user's name or profile image may have changed
+     */
+    record ProfileUpdated(String userId) implements DomainEvent {
+    }
+
+    /**
+     * A follow was added (following = true) or taken back
+     */
+    record Followed(String followerId, String userId, String followerName, boolean following)
+            implements DomainEvent {
+    }
+
+    /**
+     * A user joined a group (member = true), or left or was removed from it
+     */
+    record GroupMembershipChanged(String groupId, String userId, boolean member) implements DomainEvent {
+    }
+
+    /**
+     * An achievement was created or edited
+     */
+    record AchievementSaved(String achievementId) implements DomainEvent {
+    }
+
+    record AchievementDeleted(String achievementId) implements DomainEvent {
+    }
+}
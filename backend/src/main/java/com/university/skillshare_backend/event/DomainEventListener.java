@@ -0,0 +1,21 @@
+package com.university.skillshare_backend.event;
+
+import java.util.List;
+
+/**
+ * A bean that reacts to domain events. Every listener gets every event, in
+ * publish order, on its own thread and in batches of whatever was published
+ * since its last call, so it can group its writes.
+ */
+public interface DomainEventListener {
+
+    /**
+     * Handle a batch of events. The list is reused once this returns.
+     *
+     * Events from the bus are not redelivered if this throws; events from the
+     * outbox are, to every listener that has not yet taken them. Since the
+     * outbox dispatcher calls in from its own thread, implementations must be
+     * thread-safe and should tolerate seeing an outbox event twice.
+     */
+    void onEvents(List<DomainEvent> events);
+}
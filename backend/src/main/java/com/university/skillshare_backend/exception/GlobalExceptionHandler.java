@@ -26,6 +26,28 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
     
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<?> conflictException(ConflictException ex, WebRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", new Date());
+        response.put("message", ex.getMessage());
+        response.put("details", request.getDescription(false));
+        response.put("status", HttpStatus.CONFLICT.value());
+        
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+    
+    @ExceptionHandler(InvalidMediaException.class)
+    public ResponseEntity<?> invalidMediaException(InvalidMediaException ex, WebRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", new Date());
+        response.put("message", ex.getMessage());
+        response.put("details", request.getDescription(false));
+        response.put("status", HttpStatus.BAD_REQUEST.value());
+        
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+    
     @ExceptionHandler(Exception.class)
     public ResponseEntity<?> globalExceptionHandler(Exception ex, WebRequest request) {
         Map<String, Object> response = new HashMap<>();
@@ -0,0 +1,14 @@
+package com.university.skillshare_backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidMediaException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidMediaException(String message) {
+        super(message);
+    }
+}
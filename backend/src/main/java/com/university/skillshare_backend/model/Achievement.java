@@ -1,10 +1,15 @@
 package com.university.skillshare_backend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 @Document(collection = "achievements")
+// A user's achievements newest first, for profiles and timelines
+@CompoundIndex(name = "user_achievements", def = "{'userId': 1, 'createdAt': -1, '_id': -1}")
 public class Achievement {
 
     @Id
@@ -13,10 +18,12 @@ public class Achievement {
     private String title;
     private String description;
     private String category;
+    private List<String> tags = new ArrayList<>();  // The category and #skill tags in the text, extracted on write
     private Integer template;
-    private String imageId;  // Reference to the stored image in GridFS
+    private String imageId;  // SHA-256 of the image blob; older images hold a GridFS file id
     private Date createdAt = new Date();
     private Date updatedAt = new Date();
+    private long version; // Incremented by every edit, for optimistic concurrency
 
     public Achievement() {
     }
@@ -61,6 +68,14 @@ public class Achievement {
         this.category = category;
     }
 
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
     public Integer getTemplate() {
         return template;
     }
@@ -92,4 +107,12 @@ public class Achievement {
     public void setUpdatedAt(Date updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
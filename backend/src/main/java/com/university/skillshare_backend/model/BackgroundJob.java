@@ -0,0 +1,55 @@
+package com.university.skillshare_backend.model;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * A unit of background work persisted in Mongo, so queued work survives
+ * restarts. Jobs are claimed with a lease; a job whose worker died is picked
+ * up again once its lease expires.
+ */
+@Data
+@Document(collection = "background_jobs")
+public class BackgroundJob {
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    @Id
+    private String id;
+    private String type;        // Selects the BackgroundJobHandler
+    private String targetId;    // Document the job works on, e.g. a post id
+    private Map<String, String> params = new HashMap<>();
+    @Indexed
+    private Status status;
+    private int attempts;
+    private int maxAttempts;
+    private String lastError;
+    private Date runAfter;      // Not claimed before this time (retry backoff)
+    private Date lockedUntil;   // Lease of the worker running the job
+    private Date createdAt;
+    private Date updatedAt;
+
+    public BackgroundJob() {
+        this.createdAt = new Date();
+        this.updatedAt = this.createdAt;
+        this.runAfter = this.createdAt;
+        this.status = Status.QUEUED;
+    }
+
+    public BackgroundJob(String type, String targetId, Map<String, String> params, int maxAttempts) {
+        this();
+        this.type = type;
+        this.targetId = targetId;
+        this.params = new HashMap<>(params);
+        this.maxAttempts = maxAttempts;
+    }
+}
@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.Data;
@@ -13,6 +14,7 @@ import lombok.Data;
 public class Comment {
     @Id
     private String id;
+    @Indexed
     private String postId;
     private String userId;
     private String text;
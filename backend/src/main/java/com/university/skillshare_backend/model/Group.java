@@ -5,9 +5,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
 
 @Document(collection = "groups")
 public class Group {
@@ -16,36 +14,20 @@ public class Group {
     private String name;
     private String description;
     private String photoUrl;
+    private ImageVariants photoVariants;
     private String ownerId;
-    private List<String> members = new ArrayList<>();
+    private long memberCount; // Kept in step with group_memberships by GroupMembershipService
     private Date createdAt;
+    private long version; // Incremented by every edit, for optimistic concurrency
 
     // Default constructor
     public Group() {
-        this.members = new ArrayList<>();
     }
     
     // Method to set creation date
     public void setCreatedAt(LocalDateTime dateTime) {
         this.createdAt = Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
     }
-    
-    // Check if user is a member
-    public boolean hasMember(User user) {
-        return this.members.contains(user.getId());
-    }
-    
-    // Add a user as member
-    public void addMember(User user) {
-        if (!this.members.contains(user.getId())) {
-            this.members.add(user.getId());
-        }
-    }
-    
-    // Remove a user from members
-    public void removeMember(User user) {
-        this.members.remove(user.getId());
-    }
 
     // Getters and Setters
     public String getId() {
@@ -80,6 +62,14 @@ public class Group {
         this.photoUrl = photoUrl;
     }
 
+    public ImageVariants getPhotoVariants() {
+        return photoVariants;
+    }
+
+    public void setPhotoVariants(ImageVariants photoVariants) {
+        this.photoVariants = photoVariants;
+    }
+
     public String getOwnerId() {
         return ownerId;
     }
@@ -88,12 +78,12 @@ public class Group {
         this.ownerId = ownerId;
     }
 
-    public List<String> getMembers() {
-        return members;
+    public long getMemberCount() {
+        return memberCount;
     }
 
-    public void setMembers(List<String> members) {
-        this.members = members;
+    public void setMemberCount(long memberCount) {
+        this.memberCount = memberCount;
     }
 
     public Date getCreatedAt() {
@@ -103,4 +93,12 @@ public class Group {
     public void setCreatedAt(Date createdAt) {
         this.createdAt = createdAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
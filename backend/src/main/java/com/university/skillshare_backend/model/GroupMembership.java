@@ -0,0 +1,30 @@
+package com.university.skillshare_backend.model;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * One user's membership of one group. The unique (groupId, userId) index
+ * makes a join a single insert that concurrent joins cannot duplicate, and
+ * lists a group's members in user id order; the (userId, joinedAt) index lists
+ * a user's groups, most recently joined first.
+ */
+@Data
+@Document(collection = "group_memberships")
+@CompoundIndexes({
+    @CompoundIndex(name = "group_user", def = "{'groupId': 1, 'userId': 1}", unique = true),
+    @CompoundIndex(name = "user_groups", def = "{'userId': 1, 'joinedAt': -1}")
+})
+public class GroupMembership {
+    @Id
+    private String id;
+    private String groupId;
+    private String userId;
+    private Date joinedAt;
+}
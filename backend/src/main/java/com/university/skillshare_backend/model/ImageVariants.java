@@ -0,0 +1,46 @@
+package com.university.skillshare_backend.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.data.annotation.Transient;
+
+import lombok.Data;
+
+/**
+ * Downscaled, metadata-free renditions of one uploaded image.
+ * Embedded in Post and Group documents.
+ */
+@Data
+public class ImageVariants {
+    private String originalUrl;
+    private int width;   // Width of the original image in pixels
+    private int height;  // Height of the original image in pixels
+    private Map<String, String> urls = new LinkedHashMap<>();     // variant name -> URL
+    private Map<String, Integer> widths = new LinkedHashMap<>();  // variant name -> width in pixels
+
+    public ImageVariants() {
+    }
+
+    public ImageVariants(String originalUrl, int width, int height) {
+        this.originalUrl = originalUrl;
+        this.width = width;
+        this.height = height;
+    }
+
+    public void addVariant(String name, String url, int variantWidth) {
+        urls.put(name, url);
+        widths.put(name, variantWidth);
+    }
+
+    /**
+     * Value for an img srcset attribute, e.g. "/uploads/...thumb.jpg 160w, ..."
+     */
+    @Transient
+    public String getSrcset() {
+        return urls.entrySet().stream()
+                .map(entry -> entry.getValue() + " " + widths.get(entry.getKey()) + "w")
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -1,6 +1,7 @@
 package com.university.skillshare_backend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.Data;
@@ -10,6 +11,7 @@ import lombok.Data;
 public class Like {
     @Id
     private String id;
+    @Indexed
     private String postId;
     private String userId;
     
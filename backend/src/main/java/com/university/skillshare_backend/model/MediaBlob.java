@@ -0,0 +1,55 @@
+package com.university.skillshare_backend.model;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * A stored file identified by the SHA-256 of its contents. Identical uploads
+ * share one blob, and refCount tracks how many posts, groups and achievements
+ * point at it. Blobs whose count has dropped to zero are removed by the collector.
+ */
+@Data
+@Document(collection = "media_blobs")
+public class MediaBlob {
+
+    /** How the blob is addressed: by /uploads URL, or by GridFS id for achievement images stored before they moved to the MediaStore */
+    public enum Store {
+        LOCAL, GRIDFS
+    }
+
+    @Id
+    private String id;          // <store>:<sha256>, so the _id index enforces one blob per digest
+    private String digest;      // Hex SHA-256 of the contents
+    private Store store;
+    private String contentType;
+    private long size;
+    private String path;        // Object key, also the path below /uploads (LOCAL)
+    private String backend;     // MediaStore holding the bytes (LOCAL); null means "local"
+    private String gridFsId;    // GridFS file id (GRIDFS)
+    private int refCount;
+    private Date createdAt;
+    private Date updatedAt;
+
+    public MediaBlob() {
+        this.createdAt = new Date();
+        this.updatedAt = this.createdAt;
+    }
+
+    public static String key(Store store, String digest) {
+        return store.name().toLowerCase() + ":" + digest;
+    }
+
+    /**
+     * Public URL of a local blob. The URL changes whenever the contents do,
+     * so it can be cached forever.
+     */
+    @Transient
+    public String getUrl() {
+        return path != null ? "/uploads/" + path : null;
+    }
+}
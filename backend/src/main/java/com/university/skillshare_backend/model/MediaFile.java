@@ -0,0 +1,49 @@
+package com.university.skillshare_backend.model;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * Metadata recorded when a file is stored under the upload directory, or a
+ * rendition is written to a MediaStore, so it can be served with a strong
+ * ETag without rehashing it.
+ */
+@Data
+@Document(collection = "media_files")
+public class MediaFile {
+    @Id
+    private String id;
+    @Indexed(unique = true)
+    private String url;         // e.g. /uploads/videos/<uuid>_clip.mp4
+    private String contentType;
+    private long size;
+    private String sha256;
+    private String backend;     // MediaStore holding a rendition; null for files in the upload directory
+    private Date createdAt;
+
+    public MediaFile() {
+        this.createdAt = new Date();
+    }
+
+    public MediaFile(String url, String contentType, long size, String sha256) {
+        this.url = url;
+        this.contentType = contentType;
+        this.size = size;
+        this.sha256 = sha256;
+        this.createdAt = new Date();
+    }
+
+    /**
+     * Strong entity tag for the stored bytes
+     */
+    @Transient
+    public String getEtag() {
+        return sha256 != null ? "\"" + sha256 + "\"" : null;
+    }
+}
@@ -1,6 +1,7 @@
 package com.university.skillshare_backend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.util.Date;
 
@@ -12,6 +13,7 @@ public class Notification {
     private String title;
     private String type;
     private String message;
+    @Indexed // The post deletion cascade removes notifications by the post they refer to
     private String relatedItemId;
     private boolean read;
     private Date createdAt;
@@ -0,0 +1,62 @@
+package com.university.skillshare_backend.model;
+
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.university.skillshare_backend.event.DomainEvent;
+
+import lombok.Data;
+
+/**
+ * A domain event waiting to be delivered to the event listeners. It is
+ * written just before the write it describes (the "guard" document) and only
+ * delivered once that document is found, so a request that dies in between
+ * never produces side effects for data that does not exist.
+ *
+ * Delivery is tracked per listener, so a retry after one listener failed does
+ * not repeat the others.
+ */
+@Data
+@Document(collection = "outbox")
+public class OutboxMessage {
+
+    public enum Status {
+        PENDING, CLAIMED, FAILED
+    }
+
+    @Id
+    private String id;
+    private DomainEvent event;
+    private String guardCollection;  // Collection of the document the event describes; null if already written
+    private String guardId;
+    private String guardField;       // Optional: the document must also have guardField = guardValue
+    private String guardValue;
+    @Indexed
+    private Status status;
+    @Indexed(sparse = true)
+    private String claimToken;       // Set by the dispatcher that claimed the message
+    private Set<String> deliveredTo = new LinkedHashSet<>();
+    private int attempts;
+    private String lastError;
+    private Date availableAt;        // Not claimed before this time (retry backoff)
+    private Date lockedUntil;        // Lease of the dispatcher that claimed it
+    private Date createdAt;
+
+    public OutboxMessage() {
+        this.createdAt = new Date();
+        this.availableAt = this.createdAt;
+        this.status = Status.PENDING;
+    }
+
+    public OutboxMessage(DomainEvent event, String guardCollection, String guardId) {
+        this();
+        this.event = event;
+        this.guardCollection = guardCollection;
+        this.guardId = guardId;
+    }
+}
@@ -2,24 +2,39 @@ package com.university.skillshare_backend.model;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.Data;
 
 @Data
 @Document(collection = "posts")
+// A user's posts newest first, for profiles and timelines
+@CompoundIndex(name = "user_posts", def = "{'userId': 1, 'createdAt': -1, '_id': -1}")
 public class Post {
     @Id
     private String id;
     private String userId;
     private String title;
     private String content;
+    private List<String> tags = new ArrayList<>(); // #skill tags in the title and content, extracted on write
     private List<String> imageUrls = new ArrayList<>();
+    private List<ImageVariants> imageVariants = new ArrayList<>(); // Derivatives of imageUrls, filled in asynchronously
     private String videoUrl;
+    private VideoMetadata videoMetadata; // Probed duration, poster and renditions, filled in asynchronously
     private LocalDateTime createdAt;
+    private long version;           // Incremented by every edit, for optimistic concurrency
+    @Indexed(sparse = true)         // Only tombstoned posts are indexed, for resuming stalled cascades
+    private Date deletedAt;         // Tombstone: set on delete, the post is removed by a background cascade
+    @JsonIgnore
+    private boolean mediaReleased;  // Set by the cascade once the media references have been given back
     
     // Default constructor
     public Post() {
@@ -33,4 +48,23 @@ public class Post {
         this.content = content;
         this.createdAt = LocalDateTime.now();
     }
-}
\ No newline at end of file
+
+    /**
+     * All media URLs referenced by this post
+     */
+    public List<String> mediaUrls() {
+        List<String> urls = new ArrayList<>(imageUrls);
+        if (videoUrl != null) {
+            urls.add(videoUrl);
+        }
+        if (videoMetadata != null) {
+            if (videoMetadata.getPosterUrl() != null) {
+                urls.add(videoMetadata.getPosterUrl());
+            }
+            if (videoMetadata.getTranscodedUrl() != null) {
+                urls.add(videoMetadata.getTranscodedUrl());
+            }
+        }
+        return urls;
+    }
+}
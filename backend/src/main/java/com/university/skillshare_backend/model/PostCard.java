@@ -0,0 +1,58 @@
+package com.university.skillshare_backend.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Data;
+
+/**
+ * Everything a feed shows for one post, kept ready to serve: the post itself,
+ * its author's name and avatar, and its like, reaction and comment counts.
+ * Derived from the source collections by PostCardService and never edited
+ * directly; its id is the post id, so the JSON reads like a Post with extras.
+ */
+@Data
+@Document(collection = "post_cards")
+@CompoundIndexes({
+    @CompoundIndex(name = "feed", def = "{'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "group_feed", def = "{'groupIds': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "tag_feed", def = "{'tags': 1, 'createdAt': -1, '_id': -1}")
+})
+public class PostCard {
+    @Id
+    private String id;
+    private String userId;
+    private String title;
+    private String content;
+    private List<String> imageUrls = new ArrayList<>();
+    private List<ImageVariants> imageVariants = new ArrayList<>();
+    private String videoUrl;
+    private VideoMetadata videoMetadata;
+    private LocalDateTime createdAt;
+    private long version;
+
+    private String authorName;
+    private String authorImage;
+    private long likeCount;
+    private Map<String, Long> reactionCounts = new LinkedHashMap<>();
+    private long reactionTotal;
+    private long commentCount;
+    private Set<String> groupIds = new LinkedHashSet<>();  // Groups the post was shared to
+    private List<String> tags = new ArrayList<>();         // #skill tags in the title and content
+
+    @JsonIgnore
+    private Date builtAt;
+}
@@ -1,6 +1,7 @@
 package com.university.skillshare_backend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -11,6 +12,7 @@ public class Reaction {
     private String id;
     
     private String userId;
+    @Indexed
     private String postId;
     private String type;  // LIKE, LOVE, HAHA, WOW, SAD, ANGRY
     private LocalDateTime createdAt;
@@ -0,0 +1,31 @@
+package com.university.skillshare_backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TextScore;
+
+import lombok.Data;
+
+/**
+ * The searchable text of a post or achievement, copied into a collection of
+ * its own so one text index covers both. Only used when app.search.index is
+ * "mongo".
+ */
+@Data
+@Document(collection = "search_entries")
+public class SearchEntry {
+    @Id
+    private String id;  // Type and id of the source document, e.g. "POST:<postId>"
+    @Indexed
+    private String type;
+    private String docId;
+    @TextIndexed(weight = 2)
+    private String title;
+    @TextIndexed
+    private String body;
+    private long version;
+    @TextScore
+    private Float score;
+}
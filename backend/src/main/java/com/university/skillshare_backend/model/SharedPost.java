@@ -1,15 +1,21 @@
 package com.university.skillshare_backend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
 
 @Document(collection = "shared_posts")
+// A user's shares newest first, for timelines
+@CompoundIndex(name = "user_shares", def = "{'sharedBy': 1, 'sharedAt': -1, '_id': -1}")
 public class SharedPost {
     @Id
     private String id;
     
+    @Indexed
+    
     private String postId;
     private String groupId;
     private String sharedBy;
@@ -0,0 +1,25 @@
+package com.university.skillshare_backend.model;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * A checkpointed trending score, so a restart does not forget what is hot.
+ * The score is the decayed value at checkpointedAt; it keeps decaying from
+ * there when it is read back.
+ */
+@Data
+@Document(collection = "trending_scores")
+public class TrendingScore {
+    @Id
+    private String id;  // Post ID
+    private double score;
+    private Date lastSeen;  // Last like, reaction, comment or share
+    @Indexed
+    private Date checkpointedAt;
+}
@@ -0,0 +1,60 @@
+package com.university.skillshare_backend.model;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * A resumable upload. Chunks are written straight into the final file under
+ * the upload directory, and receivedBytes only advances once a chunk is on disk.
+ * A chunk is only written while its request holds the write claim, so two
+ * requests can never write the same upload at once, on any node.
+ */
+@Data
+@Document(collection = "upload_sessions")
+public class UploadSession {
+
+    public enum Status {
+        IN_PROGRESS, COMPLETED, ATTACHED, ABORTED
+    }
+
+    @Id
+    private String id;
+    private String userId;
+    private String fileName;
+    private String contentType;
+    private String directory;   // "images" or "videos"
+    private String storagePath; // Path relative to the upload directory
+    private String url;         // Public URL once the upload is attached
+    private long totalSize;
+    private long receivedBytes;
+    private String writeClaim;     // Token of the request currently writing a chunk
+    private Date writeClaimExpiresAt;
+    @Indexed
+    private Status status;
+    private Date createdAt;
+    private Date updatedAt;
+    @Indexed
+    private Date expiresAt;
+
+    public UploadSession() {
+        this.createdAt = new Date();
+        this.updatedAt = this.createdAt;
+        this.status = Status.IN_PROGRESS;
+    }
+
+    @Transient
+    public boolean isImage() {
+        return "images".equals(directory);
+    }
+
+    @Transient
+    public boolean isVideo() {
+        return "videos".equals(directory);
+    }
+}
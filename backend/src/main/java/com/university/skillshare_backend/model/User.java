@@ -27,6 +27,7 @@ public class User {
     
     private Set<String> followers; // IDs of users following this user
     private Set<String> following; // IDs of users this user follows
+    private long version; // Incremented by every profile edit, for optimistic concurrency
     
     // Standard getters and setters
     public String getId() {
@@ -92,4 +93,12 @@ public class User {
     public void setFollowing(Set<String> following) {
         this.following = following;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
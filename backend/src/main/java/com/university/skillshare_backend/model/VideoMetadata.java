@@ -0,0 +1,40 @@
+package com.university.skillshare_backend.model;
+
+import java.util.Date;
+
+import lombok.Data;
+
+/**
+ * What background processing learned about a post's video, plus the poster
+ * frame and renditions it produced. Embedded in Post.
+ */
+@Data
+public class VideoMetadata {
+
+    public enum Status {
+        PROCESSING, READY, REJECTED, FAILED
+    }
+
+    private String sourceUrl;       // The videoUrl this metadata describes
+    private Status status;
+    private Double durationSeconds;
+    private Integer width;
+    private Integer height;
+    private String videoCodec;
+    private String audioCodec;
+    private String posterUrl;       // JPEG frame for feeds to show instead of loading the video
+    private String transcodedUrl;   // Bandwidth-efficient H.264 rendition; null when the source already is one
+    private String hlsUrl;          // Segmented HLS playlist, when enabled
+    private String error;
+    private Date processedAt;
+
+    public VideoMetadata() {
+    }
+
+    public static VideoMetadata processing(String sourceUrl) {
+        VideoMetadata metadata = new VideoMetadata();
+        metadata.setSourceUrl(sourceUrl);
+        metadata.setStatus(Status.PROCESSING);
+        return metadata;
+    }
+}
@@ -1,6 +1,7 @@
 package com.university.skillshare_backend.repository;
 
 import com.university.skillshare_backend.model.Achievement;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -17,6 +18,9 @@ public interface AchievementRepository extends MongoRepository<Achievement, Stri
     // Find achievements by user ID ordered by creation date (newest first)
     List<Achievement> findByUserIdOrderByCreatedAtDesc(String userId);
     
+    // Find a page of a user's achievements, newest first
+    List<Achievement> findByUserIdOrderByCreatedAtDesc(String userId, Pageable pageable);
+    
     // Find achievements by user ID and category ordered by creation date (newest first)
     List<Achievement> findByUserIdAndCategoryOrderByCreatedAtDesc(String userId, String category);
     
@@ -0,0 +1,15 @@
+package com.university.skillshare_backend.repository;
+
+import java.util.Collection;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.university.skillshare_backend.model.BackgroundJob;
+
+@Repository
+public interface BackgroundJobRepository extends MongoRepository<BackgroundJob, String> {
+
+    // Whether work for a document is still pending
+    boolean existsByTypeAndTargetIdAndStatusIn(String type, String targetId, Collection<BackgroundJob.Status> statuses);
+}
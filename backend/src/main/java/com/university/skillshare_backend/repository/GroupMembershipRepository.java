@@ -0,0 +1,17 @@
+package com.university.skillshare_backend.repository;
+
+import com.university.skillshare_backend.model.GroupMembership;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface GroupMembershipRepository extends MongoRepository<GroupMembership, String> {
+    boolean existsByGroupIdAndUserId(String groupId, String userId);
+    long deleteByGroupIdAndUserId(String groupId, String userId);
+    long deleteByGroupId(String groupId);
+    long countByGroupId(String groupId);
+    List<GroupMembership> findByUserIdOrderByJoinedAtDesc(String userId);
+    List<GroupMembership> findByUserIdOrderByJoinedAtDesc(String userId, Pageable pageable);
+}
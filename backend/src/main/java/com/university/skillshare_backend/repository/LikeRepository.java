@@ -1,5 +1,8 @@
 package com.university.skillshare_backend.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -14,6 +17,9 @@ public interface LikeRepository extends MongoRepository<Like, String> {
     // Find a like by postId and userId
     Like findByPostIdAndUserId(String postId, String userId);
     
+    // Find a user's likes among a set of posts
+    List<Like> findByUserIdAndPostIdIn(String userId, Collection<String> postIds);
+    
     // Delete a like by postId and userId
-    void deleteByPostIdAndUserId(String postId, String userId);
+    long deleteByPostIdAndUserId(String postId, String userId);
 }
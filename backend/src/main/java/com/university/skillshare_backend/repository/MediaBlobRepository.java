@@ -0,0 +1,21 @@
+package com.university.skillshare_backend.repository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.university.skillshare_backend.model.MediaBlob;
+
+@Repository
+public interface MediaBlobRepository extends MongoRepository<MediaBlob, String> {
+
+    // Find the blob stored under a GridFS file id
+    Optional<MediaBlob> findByGridFsId(String gridFsId);
+
+    // Find blobs nobody references any more and that have not been touched since the cutoff
+    List<MediaBlob> findByRefCountLessThanEqualAndUpdatedAtBefore(int refCount, Date cutoff, Pageable pageable);
+}
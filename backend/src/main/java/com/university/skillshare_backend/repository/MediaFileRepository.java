@@ -0,0 +1,19 @@
+package com.university.skillshare_backend.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.university.skillshare_backend.model.MediaFile;
+
+@Repository
+public interface MediaFileRepository extends MongoRepository<MediaFile, String> {
+
+    // Find the metadata for a stored file by its public URL
+    Optional<MediaFile> findByUrl(String url);
+
+    // Find the metadata for every file below a URL prefix, e.g. one HLS rendition
+    List<MediaFile> findByUrlStartingWith(String prefix);
+}
@@ -1,7 +1,10 @@
 package com.university.skillshare_backend.repository;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -12,4 +15,17 @@ public interface PostRepository extends MongoRepository<Post, String> {
     
     // Find posts by userId
     List<Post> findByUserId(String userId);
+
+    // Reads go through these so that posts being deleted (tombstoned) are already gone
+    Optional<Post> findByIdAndDeletedAtIsNull(String id);
+
+    List<Post> findByDeletedAtIsNull();
+
+    List<Post> findByUserIdAndDeletedAtIsNull(String userId);
+
+    // A page of a user's live posts, newest first
+    List<Post> findByUserIdAndDeletedAtIsNullOrderByCreatedAtDesc(String userId, Pageable pageable);
+
+    // Tombstoned posts whose cleanup should have finished by now
+    List<Post> findByDeletedAtBefore(Date cutoff);
 }
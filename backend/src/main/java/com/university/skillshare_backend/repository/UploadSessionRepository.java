@@ -0,0 +1,16 @@
+package com.university.skillshare_backend.repository;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.university.skillshare_backend.model.UploadSession;
+
+@Repository
+public interface UploadSessionRepository extends MongoRepository<UploadSession, String> {
+
+    // Find unfinished uploads whose expiry has passed
+    List<UploadSession> findByStatusAndExpiresAtBefore(UploadSession.Status status, Date cutoff);
+}
@@ -0,0 +1,83 @@
+package com.university.skillshare_backend.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cuts a snippet out of a matching text with the query's terms wrapped in
+ * &lt;mark&gt;. Words match when they analyse to the same term, so "APIs"
+ * is marked for a search of "api". The text is HTML-escaped, so the snippet
+ * can be shown as markup.
+ */
+public final class Highlighter {
+
+    private Highlighter() {
+    }
+
+    /**
+     * @param text Text to cut the snippet from (may be null)
+     * @param terms Analysed query terms (see TextAnalyzer)
+     * @param maxLength Maximum snippet length in characters of the original text
+     * @return The snippet, centred near the first match, or the start of the text if nothing matches
+     */
+    public static String highlight(String text, Set<String> terms, int maxLength) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        List<int[]> matches = new ArrayList<>();
+        TextAnalyzer.forEachTerm(text, (term, start, end) -> {
+            if (terms.contains(term)) {
+                matches.add(new int[] {start, end});
+            }
+        });
+
+        int from = 0;
+        if (!matches.isEmpty() && text.length() > maxLength) {
+            // Show a little context before the first match, starting at a word boundary
+            from = Math.max(0, matches.get(0)[0] - maxLength / 4);
+            while (from > 0 && !Character.isWhitespace(text.charAt(from - 1))) {
+                from--;
+            }
+        }
+        int to = Math.min(text.length(), from + maxLength);
+
+        StringBuilder snippet = new StringBuilder();
+        if (from > 0) {
+            snippet.append('…');
+        }
+        int position = from;
+        for (int[] match : matches) {
+            if (match[0] < from) {
+                continue;
+            }
+            if (match[1] > to) {
+                break;
+            }
+            escape(text, position, match[0], snippet);
+            snippet.append("<mark>");
+            escape(text, match[0], match[1], snippet);
+            snippet.append("</mark>");
+            position = match[1];
+        }
+        escape(text, position, to, snippet);
+        if (to < text.length()) {
+            snippet.append('…');
+        }
+        return snippet.toString();
+    }
+
+    private static void escape(String text, int from, int to, StringBuilder out) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.university.skillshare_backend.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An inverted index held in memory and ranked with BM25F: for every term, the
+ * documents containing it and how often it occurs in their title and body.
+ * A search only walks the lists of its own terms, so its cost depends on how
+ * common the terms are, not on how many documents there are.
+ *
+ * Title matches weigh twice as much as body matches. Each instance has its
+ * own index, filled from the database on startup and kept current by events.
+ * Safe for concurrent use; searches run in parallel with each other.
+ */
+public class InMemorySearchIndex implements SearchIndex {
+
+    public static final String NAME = "memory";
+
+    private static final int TITLE = 0;
+    private static final int BODY = 1;
+    private static final double[] FIELD_WEIGHTS = {2.0, 1.0};
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final Comparator<SearchHit> BEST_FIRST = Comparator
+            .comparingDouble(SearchHit::score).reversed()
+            .thenComparing(SearchHit::id);
+
+    private record Entry(SearchDocument.Type type, String id, long version, int[] lengths, Set<String> terms) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // term -> document key -> occurrences per field
+    private final Map<String, Map<String, int[]>> postings = new HashMap<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final long[] totalLengths = new long[FIELD_WEIGHTS.length];
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void index(Collection<SearchDocument> documents) {
+        lock.writeLock().lock();
+        try {
+            for (SearchDocument document : documents) {
+                String key = document.key();
+                Entry current = entries.get(key);
+                if (current != null && current.version() > document.version()) {
+                    continue;
+                }
+                removeLocked(key);
+                addLocked(key, document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(SearchDocument.Type type, Collection<String> ids) {
+        lock.writeLock().lock();
+        try {
+            for (String id : ids) {
+                removeLocked(SearchDocument.key(type, id));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public SearchResults search(String query, Set<SearchDocument.Type> types, int offset, int limit) {
+        Set<String> terms = new LinkedHashSet<>(TextAnalyzer.terms(query));
+        int wanted = offset + limit;
+        lock.readLock().lock();
+        try {
+            int count = entries.size();
+            if (terms.isEmpty() || count == 0 || wanted <= 0) {
+                return new SearchResults(0, List.of());
+            }
+            double[] averageLengths = new double[totalLengths.length];
+            for (int field = 0; field < totalLengths.length; field++) {
+                averageLengths[field] = Math.max(1.0, (double) totalLengths[field] / count);
+            }
+
+            Map<String, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Map<String, int[]> documents = postings.get(term);
+                if (documents == null) {
+                    continue;
+                }
+                int frequency = documents.size();
+                double idf = Math.log(1 + (count - frequency + 0.5) / (frequency + 0.5));
+                for (Map.Entry<String, int[]> posting : documents.entrySet()) {
+                    Entry entry = entries.get(posting.getKey());
+                    if (!types.contains(entry.type())) {
+                        continue;
+                    }
+                    double weighted = 0;
+                    for (int field = 0; field < FIELD_WEIGHTS.length; field++) {
+                        int occurrences = posting.getValue()[field];
+                        if (occurrences > 0) {
+                            double norm = 1 - B + B * entry.lengths()[field] / averageLengths[field];
+                            weighted += FIELD_WEIGHTS[field] * occurrences / norm;
+                        }
+                    }
+                    scores.merge(posting.getKey(), idf * weighted / (K1 + weighted), Double::sum);
+                }
+            }
+
+            // Keep only the best offset + limit hits, worst on top so it is the one dropped
+            PriorityQueue<SearchHit> best = new PriorityQueue<>(Math.min(wanted, Math.max(1, scores.size())),
+                    BEST_FIRST.reversed());
+            scores.forEach((key, score) -> {
+                Entry entry = entries.get(key);
+                best.add(new SearchHit(entry.type(), entry.id(), score));
+                if (best.size() > wanted) {
+                    best.poll();
+                }
+            });
+            List<SearchHit> hits = new ArrayList<>(best);
+            hits.sort(BEST_FIRST);
+            List<SearchHit> page = offset >= hits.size() ? List.of() : List.copyOf(hits.subList(offset, hits.size()));
+            return new SearchResults(scores.size(), page);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addLocked(String key, SearchDocument document) {
+        Map<String, int[]> counts = new HashMap<>();
+        int[] lengths = new int[FIELD_WEIGHTS.length];
+        countTerms(document.title(), TITLE, counts, lengths);
+        countTerms(document.body(), BODY, counts, lengths);
+        counts.forEach((term, occurrences) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(key, occurrences));
+        for (int field = 0; field < lengths.length; field++) {
+            totalLengths[field] += lengths[field];
+        }
+        entries.put(key, new Entry(document.type(), document.id(), document.version(), lengths, counts.keySet()));
+    }
+
+    private void removeLocked(String key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return;
+        }
+        for (String term : entry.terms()) {
+            Map<String, int[]> documents = postings.get(term);
+            if (documents != null) {
+                documents.remove(key);
+                if (documents.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        for (int field = 0; field < totalLengths.length; field++) {
+            totalLengths[field] -= entry.lengths()[field];
+        }
+    }
+
+    private static void countTerms(String text, int field, Map<String, int[]> counts, int[] lengths) {
+        TextAnalyzer.forEachTerm(text, (term, start, end) -> {
+            counts.computeIfAbsent(term, t -> new int[FIELD_WEIGHTS.length])[field]++;
+            lengths[field]++;
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package com.university.skillshare_backend.search;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.university.skillshare_backend.model.SearchEntry;
+
+/**
+ * A search index kept in Mongo: the searchable text goes into the
+ * search_entries collection, whose text index answers the queries and ranks
+ * the hits. Shared by all instances and kept across restarts, at the cost of
+ * a round trip per search and Mongo's own (coarser) relevance scores.
+ */
+public class MongoTextSearchIndex implements SearchIndex {
+
+    public static final String NAME = "mongo";
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoTextSearchIndex(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void index(Collection<SearchDocument> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SearchEntry.class);
+        for (SearchDocument document : documents) {
+            // Upserts only over an older (or equal) version; a newer entry makes the upsert hit the unique _id and fail
+            Query query = new Query(Criteria.where("_id").is(document.key()).and("version").lte(document.version()));
+            bulk.upsert(query, new Update()
+                    .set("type", document.type().name())
+                    .set("docId", document.id())
+                    .set("title", document.title())
+                    .set("body", document.body())
+                    .set("version", document.version()));
+        }
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // Duplicate keys mean a newer version is already indexed; the other writes still went through
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) {
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void remove(SearchDocument.Type type, Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<String> keys = ids.stream().map(id -> SearchDocument.key(type, id)).toList();
+        mongoTemplate.remove(new Query(Criteria.where("_id").in(keys)), SearchEntry.class);
+    }
+
+    @Override
+    public SearchResults search(String query, Set<SearchDocument.Type> types, int offset, int limit) {
+        TextCriteria text = TextCriteria.forDefaultLanguage().matching(query);
+        Criteria typeFilter = Criteria.where("type").in(types.stream().map(Enum::name).toList());
+        long total = mongoTemplate.count(TextQuery.queryText(text).addCriteria(typeFilter), SearchEntry.class);
+        Query page = TextQuery.queryText(text).sortByScore().addCriteria(typeFilter).skip(offset).limit(limit);
+        List<SearchHit> hits = mongoTemplate.find(page, SearchEntry.class).stream()
+                .map(entry -> new SearchHit(SearchDocument.Type.valueOf(entry.getType()), entry.getDocId(),
+                        entry.getScore() == null ? 0 : entry.getScore()))
+                .toList();
+        return new SearchResults(total, hits);
+    }
+
+    @Override
+    public long size() {
+        return mongoTemplate.estimatedCount(SearchEntry.class);
+    }
+}
@@ -0,0 +1,25 @@
+package com.university.skillshare_backend.search;
+
+/**
+ * The searchable text of a post or achievement. Posts contribute their title
+ * and content, achievements their title and description (the body).
+ *
+ * @param version The source document's version; an index keeps the newest it has seen
+ */
+public record SearchDocument(Type type, String id, String title, String body, long version) {
+
+    public enum Type {
+        POST, ACHIEVEMENT
+    }
+
+    /**
+     * Key unique across types
+     */
+    public String key() {
+        return key(type, id);
+    }
+
+    public static String key(Type type, String id) {
+        return type.name() + ":" + id;
+    }
+}
@@ -0,0 +1,7 @@
+package com.university.skillshare_backend.search;
+
+/**
+ * A matching document and its relevance; higher scores are better matches
+ */
+public record SearchHit(SearchDocument.Type type, String id, double score) {
+}
@@ -0,0 +1,42 @@
+package com.university.skillshare_backend.search;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * A full-text index of posts and achievements. It holds only the searchable
+ * text; callers load the documents of the hits they show.
+ *
+ * Searches are answered from the index alone and never read the source
+ * collections.
+ */
+public interface SearchIndex {
+
+    /**
+     * Short backend name used in configuration and metrics
+     */
+    String getName();
+
+    /**
+     * Add or replace documents. A document older than the indexed one (by
+     * version) is ignored, so a stale read cannot undo a newer edit.
+     */
+    void index(Collection<SearchDocument> documents);
+
+    void remove(SearchDocument.Type type, Collection<String> ids);
+
+    /**
+     * Find the documents matching any of the query's words, best matches first
+     *
+     * @param query Words to look for
+     * @param types Document types to include
+     * @param offset Number of hits to skip
+     * @param limit Maximum number of hits to return
+     */
+    SearchResults search(String query, Set<SearchDocument.Type> types, int offset, int limit);
+
+    /**
+     * Number of indexed documents
+     */
+    long size();
+}
@@ -0,0 +1,11 @@
+package com.university.skillshare_backend.search;
+
+import java.util.List;
+
+/**
+ * One page of hits, best first
+ *
+ * @param total Number of matching documents across all pages
+ */
+public record SearchResults(long total, List<SearchHit> hits) {
+}
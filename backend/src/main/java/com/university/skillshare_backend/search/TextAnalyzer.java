@@ -0,0 +1,80 @@
+package com.university.skillshare_backend.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns text into search terms: runs of letters and digits, lower-cased, with
+ * common English words dropped and plural and -ed/-ing endings trimmed, so
+ * "Building APIs" and "build an API" share their terms. Indexing, querying and
+ * highlighting all go through here so that they agree on what a term is.
+ */
+public final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+            "of", "on", "or", "that", "the", "this", "to", "was", "with");
+
+    /**
+     * Receives each term with its position in the analysed text
+     */
+    @FunctionalInterface
+    public interface TermConsumer {
+        void accept(String term, int start, int end);
+    }
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        forEachTerm(text, (term, start, end) -> terms.add(term));
+        return terms;
+    }
+
+    /**
+     * Scan text once, passing each term and the range of characters it came from
+     */
+    public static void forEachTerm(String text, TermConsumer consumer) {
+        if (text == null) {
+            return;
+        }
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                String word = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!STOP_WORDS.contains(word)) {
+                    consumer.accept(stem(word), start, i);
+                }
+            }
+        }
+    }
+
+    // Deliberately light: only trims endings that leave a recognisable word behind
+    static String stem(String word) {
+        int length = word.length();
+        if (length > 4 && word.endsWith("ies")) {
+            return word.substring(0, length - 3) + "y";
+        }
+        if (length >= 7 && word.endsWith("ing")) {
+            return word.substring(0, length - 3);
+        }
+        if (length >= 6 && word.endsWith("ed")) {
+            return word.substring(0, length - 2);
+        }
+        if (length >= 4 && word.endsWith("s") && !word.endsWith("ss")) {
+            return word.substring(0, length - 1);
+        }
+        return word;
+    }
+}
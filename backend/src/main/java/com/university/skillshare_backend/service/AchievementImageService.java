@@ -0,0 +1,226 @@
+package com.university.skillshare_backend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.input.BoundedInputStream;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Service;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.university.skillshare_backend.model.MediaBlob;
+import com.university.skillshare_backend.repository.MediaBlobRepository;
+import com.university.skillshare_backend.storage.MediaStoreRegistry;
+import com.university.skillshare_backend.util.OffHeapLruCache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Serves achievement images through an in-memory cache.
+ *
+ * An image id is the SHA-256 of its blob, which is read from whichever
+ * MediaStore holds it, so app.media.store applies to achievements as it does
+ * to other media. Images stored before that have a GridFS file id instead and
+ * are still read from GridFS.
+ *
+ * The bytes behind an id never change (a new image gets a new id), so
+ * metadata and bytes can be cached by id without revalidation. Small images
+ * are kept whole in an off-heap LRU cache bounded by total bytes; larger ones
+ * are streamed from their store, and only their metadata is cached.
+ */
+@Service
+public class AchievementImageService {
+
+    private static final int METADATA_CACHE_SIZE = 4096;
+    private static final Pattern BLOB_ID = Pattern.compile("[0-9a-f]{64}");
+
+    private final GridFsTemplate gridFsTemplate;
+    private final MediaBlobRepository mediaBlobRepository;
+    private final MediaStoreRegistry mediaStoreRegistry;
+    private final OffHeapLruCache<String> bodyCache;
+    private final Counter hits;
+    private final Counter misses;
+
+    private final Map<String, ImageMetadata> metadataCache = Collections.synchronizedMap(
+            new LinkedHashMap<String, ImageMetadata>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ImageMetadata> eldest) {
+                    return size() > METADATA_CACHE_SIZE;
+                }
+            });
+
+    @Value("${app.achievements.image-cache.max-entry-bytes:1048576}")
+    private long maxEntryBytes;
+
+    @Autowired
+    public AchievementImageService(
+            GridFsTemplate gridFsTemplate,
+            MediaBlobRepository mediaBlobRepository,
+            MediaStoreRegistry mediaStoreRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${app.achievements.image-cache.max-bytes:67108864}") long maxBytes) {
+        this.gridFsTemplate = gridFsTemplate;
+        this.mediaBlobRepository = mediaBlobRepository;
+        this.mediaStoreRegistry = mediaStoreRegistry;
+        this.bodyCache = new OffHeapLruCache<>(maxBytes);
+        this.hits = Counter.builder("achievement.image.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("achievement.image.cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("achievement.image.cache.bytes", bodyCache, OffHeapLruCache::getUsedBytes).register(meterRegistry);
+    }
+
+    /**
+     * Whether an image id names a media blob rather than a GridFS file
+     */
+    public static boolean isBlobId(String id) {
+        return id != null && BLOB_ID.matcher(id).matches();
+    }
+
+    /**
+     * Look up an image's metadata, from the cache when possible
+     */
+    public Optional<ImageMetadata> getMetadata(String id) {
+        ImageMetadata cached = metadataCache.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<ImageMetadata> metadata = isBlobId(id)
+                ? mediaBlobRepository.findById(MediaBlob.key(MediaBlob.Store.LOCAL, id)).map(ImageMetadata::new)
+                : findFile(id).map(ImageMetadata::new);
+        metadata.ifPresent(found -> metadataCache.put(id, found));
+        return metadata;
+    }
+
+    /**
+     * The whole image as a read-only buffer, loading it into the cache on a miss
+     *
+     * @return The bytes, or null if the image is too large to cache and should be streamed
+     */
+    public ByteBuffer getCachedBody(ImageMetadata metadata) throws IOException {
+        if (metadata.getLength() > maxEntryBytes) {
+            return null;
+        }
+        ByteBuffer body = bodyCache.get(metadata.getId());
+        if (body != null) {
+            hits.increment();
+            return body;
+        }
+        misses.increment();
+        byte[] bytes;
+        try (InputStream in = openRange(metadata, 0, -1)) {
+            bytes = in.readAllBytes();
+        }
+        bodyCache.put(metadata.getId(), bytes);
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /**
+     * Stream part of an image straight from its store
+     *
+     * @param length Number of bytes, or -1 for the rest of the file
+     */
+    public InputStream openRange(ImageMetadata metadata, long offset, long length) throws IOException {
+        if (metadata.key != null) {
+            return mediaStoreRegistry.get(metadata.backend).get(metadata.key, offset, length);
+        }
+        GridFSFile file = findFile(metadata.getId())
+                .orElseThrow(() -> new IOException("Achievement image " + metadata.getId() + " no longer exists"));
+        InputStream in = gridFsTemplate.getResource(file).getInputStream();
+        try {
+            in.skipNBytes(offset);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return length < 0 ? in : new BoundedInputStream(in, length);
+    }
+
+    private Optional<GridFSFile> findFile(String id) {
+        return Optional.ofNullable(gridFsTemplate.findOne(new Query(Criteria.where("_id").is(id))));
+    }
+
+    /**
+     * Drop a deleted image from the caches
+     */
+    public void invalidate(String id) {
+        metadataCache.remove(id);
+        bodyCache.invalidate(id);
+    }
+
+    /**
+     * What is needed to answer conditional and range requests without touching the store
+     */
+    public static class ImageMetadata {
+        private final String id;
+        private final long length;
+        private final String contentType;
+        private final Date uploadDate;
+        private final String etag;
+        private final String backend; // MediaStore holding a blob image
+        private final String key;     // Object key of a blob image; null for a GridFS image
+
+        ImageMetadata(MediaBlob blob) {
+            this.id = blob.getDigest();
+            this.length = blob.getSize();
+            this.contentType = blob.getContentType() != null ? blob.getContentType() : "image/jpeg";
+            this.uploadDate = blob.getCreatedAt();
+            this.etag = "\"" + blob.getDigest() + "\"";
+            this.backend = blob.getBackend();
+            this.key = blob.getPath();
+        }
+
+        ImageMetadata(GridFSFile file) {
+            this.id = file.getId().isObjectId()
+                    ? file.getObjectId().toHexString()
+                    : file.getId().toString();
+            this.length = file.getLength();
+            this.uploadDate = file.getUploadDate();
+
+            Document metadata = file.getMetadata();
+            String type = null;
+            String sha256 = null;
+            if (metadata != null) {
+                type = metadata.get("contentType") != null ? metadata.get("contentType").toString() : metadata.getString("_contentType");
+                sha256 = metadata.getString("sha256");
+            }
+            this.contentType = type != null ? type : "image/jpeg";
+            // Files are immutable per id, so the id is a valid strong validator when no digest was recorded
+            this.etag = "\"" + (sha256 != null ? sha256 : id) + "\"";
+            this.backend = null;
+            this.key = null;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public Date getUploadDate() {
+            return uploadDate;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+}
@@ -1,24 +1,25 @@
 package com.university.skillshare_backend.service;
 
-import com.mongodb.BasicDBObject;
-import com.mongodb.DBObject;
-import com.mongodb.client.gridfs.model.GridFSFile;
+import com.university.skillshare_backend.event.DomainEvent;
 import com.university.skillshare_backend.exception.ResourceNotFoundException;
 import com.university.skillshare_backend.exception.UnauthorizedException;
 import com.university.skillshare_backend.model.Achievement;
+import com.university.skillshare_backend.model.MediaBlob;
 import com.university.skillshare_backend.repository.AchievementRepository;
-import org.bson.types.ObjectId;
+import com.university.skillshare_backend.util.SniffingInputStream;
+import com.university.skillshare_backend.util.HashtagParser;
+import com.university.skillshare_backend.util.PartialUpdate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
-import org.springframework.data.mongodb.gridfs.GridFsOperations;
-import org.springframework.data.mongodb.gridfs.GridFsTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.Optional;
+import java.util.List;
 
 @Service
 public class AchievementService {
@@ -27,15 +28,24 @@ public class AchievementService {
     private AchievementRepository achievementRepository;
 
     @Autowired
-    private GridFsTemplate gridFsTemplate;
+    private MediaBlobService mediaBlobService;
 
     @Autowired
-    private GridFsOperations gridFsOperations;
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private HashtagParser hashtagParser;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private DomainEventBus domainEventBus;
 
     public Achievement createAchievement(String title, String description, String category, 
                                         String userId, Integer template, MultipartFile image) throws IOException {
         
-        // Store image in GridFS
+        // Store image in the media store
         String imageId = storeFile(image);
         
         // Create achievement
@@ -43,18 +53,22 @@ public class AchievementService {
         achievement.setTitle(title);
         achievement.setDescription(description);
         achievement.setCategory(category);
+        achievement.setTags(extractTags(title, description, category));
         achievement.setUserId(userId);
         achievement.setTemplate(template != null ? template : 1);
         achievement.setImageId(imageId);
         achievement.setCreatedAt(new Date());
         achievement.setUpdatedAt(new Date());
         
-        return achievementRepository.save(achievement);
+        Achievement saved = achievementRepository.save(achievement);
+        domainEventBus.publish(new DomainEvent.AchievementSaved(saved.getId()));
+        tagService.recordTags(saved.getTags());
+        return saved;
     }
 
     public Achievement updateAchievement(String achievementId, String userId, String title, 
                                         String description, String category, Integer template, 
-                                        MultipartFile image) throws IOException {
+                                        MultipartFile image, Long version) throws IOException {
         
         Achievement achievement = achievementRepository.findById(achievementId)
                 .orElseThrow(() -> new ResourceNotFoundException("Achievement", "id", achievementId));
@@ -63,30 +77,53 @@ public class AchievementService {
             throw new UnauthorizedException("Not authorized to edit this achievement");
         }
         
-        // Update text fields
-        achievement.setTitle(title);
-        achievement.setDescription(description);
-        achievement.setCategory(category);
+        // Build an update of the changed fields only
+        List<String> tags = extractTags(title, description, category);
+        PartialUpdate update = new PartialUpdate()
+                .set("title", achievement.getTitle(), title)
+                .set("description", achievement.getDescription(), description)
+                .set("category", achievement.getCategory(), category)
+                .set("tags", achievement.getTags(), tags);
         
         if (template != null) {
-            achievement.setTemplate(template);
+            update.set("template", achievement.getTemplate(), template);
         }
         
-        // Update image if provided
+        // Store the new image first; the old one is only released once the edit has been applied
+        String newImageId = null;
         if (image != null && !image.isEmpty()) {
-            // Delete old image if exists
-            if (achievement.getImageId() != null) {
-                deleteFile(achievement.getImageId());
+            newImageId = storeFile(image);
+            if (newImageId.equals(achievement.getImageId())) {
+                // Same bytes as the current image: give back the reference the store just took
+                deleteFile(newImageId);
+                newImageId = null;
+            } else {
+                update.set("imageId", achievement.getImageId(), newImageId);
             }
-            
-            // Store new image
-            String newImageId = storeFile(image);
-            achievement.setImageId(newImageId);
         }
         
-        achievement.setUpdatedAt(new Date());
+        if (update.isEmpty()) {
+            return achievement;
+        }
+        update.touch("updatedAt", new Date());
+        
+        Achievement updated;
+        try {
+            updated = update.apply(mongoTemplate, achievementId, version != null ? version : achievement.getVersion(), Achievement.class)
+                    .orElseThrow(() -> new ResourceNotFoundException("Achievement", "id", achievementId));
+        } catch (RuntimeException e) {
+            if (newImageId != null) {
+                deleteFile(newImageId);
+            }
+            throw e;
+        }
         
-        return achievementRepository.save(achievement);
+        if (newImageId != null && achievement.getImageId() != null) {
+            deleteFile(achievement.getImageId());
+        }
+        domainEventBus.publish(new DomainEvent.AchievementSaved(achievementId));
+        tagService.recordTags(tags.stream().filter(tag -> !achievement.getTags().contains(tag)).toList());
+        return updated;
     }
 
     public void deleteAchievement(String achievementId, String userId) {
@@ -97,34 +134,55 @@ public class AchievementService {
             throw new UnauthorizedException("Not authorized to delete this achievement");
         }
         
-        // Delete associated image
-        if (achievement.getImageId() != null) {
-            deleteFile(achievement.getImageId());
+        // Only the request that removes the document gives back its image, so a
+        // retried or concurrent delete cannot release the same reference twice
+        Achievement removed = mongoTemplate.findAndRemove(
+                new Query(Criteria.where("_id").is(achievementId)), Achievement.class);
+        if (removed == null) {
+            throw new ResourceNotFoundException("Achievement", "id", achievementId);
+        }
+        if (removed.getImageId() != null) {
+            deleteFile(removed.getImageId());
         }
         
-        achievementRepository.delete(achievement);
+        domainEventBus.publish(new DomainEvent.AchievementDeleted(achievementId));
     }
 
-    public Optional<GridFSFile> getFile(String id) {
-        return Optional.ofNullable(gridFsTemplate.findOne(new Query(Criteria.where("_id").is(id))));
+    /**
+     * The category as a tag, followed by the #skill tags in the title and description
+     */
+    private List<String> extractTags(String title, String description, String category) {
+        List<String> tags = new ArrayList<>();
+        String categoryTag = hashtagParser.normalize(category);
+        if (categoryTag != null) {
+            tags.add(categoryTag);
+        }
+        for (String tag : hashtagParser.parseTags(title, description)) {
+            if (!tags.contains(tag) && tags.size() < HashtagParser.MAX_TAGS) {
+                tags.add(tag);
+            }
+        }
+        return tags;
     }
 
+    /**
+     * Store an image in the primary media store and count one reference to it
+     *
+     * @return The image id: the blob's digest, which also keys it in the store
+     */
     private String storeFile(MultipartFile file) throws IOException {
-        DBObject metadata = new BasicDBObject();
-        metadata.put("fileSize", file.getSize());
-        metadata.put("contentType", file.getContentType());
-        
-        ObjectId id = gridFsTemplate.store(
-            file.getInputStream(),
-            file.getOriginalFilename(),
-            file.getContentType(),
-            metadata
-        );
-        
-        return id.toString();
+        // Deduplicated by content; the same image uploaded twice is stored once
+        MediaBlob blob = mediaBlobService.store(file.getInputStream(), SniffingInputStream.Kind.IMAGE, file.getOriginalFilename());
+        mediaBlobService.acquireDigest(blob.getDigest());
+        return blob.getDigest();
     }
 
     private void deleteFile(String id) {
-        gridFsTemplate.delete(new Query(Criteria.where("_id").is(id)));
+        if (AchievementImageService.isBlobId(id)) {
+            mediaBlobService.releaseDigest(id);
+        } else {
+            // Stored before achievement images moved to the media store
+            mediaBlobService.releaseGridFs(id);
+        }
     }
 }
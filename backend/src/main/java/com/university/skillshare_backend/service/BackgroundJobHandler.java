@@ -0,0 +1,20 @@
+package com.university.skillshare_backend.service;
+
+import com.university.skillshare_backend.model.BackgroundJob;
+
+/**
+ * Runs one type of BackgroundJob. Handlers must be idempotent: a job is
+ * retried after a failure and re-run if its worker dies mid-way.
+ */
+public interface BackgroundJobHandler {
+
+    /**
+     * The BackgroundJob.type this handler runs
+     */
+    String getType();
+
+    /**
+     * Do the work. Throwing schedules a retry until the job runs out of attempts.
+     */
+    void handle(BackgroundJob job) throws Exception;
+}
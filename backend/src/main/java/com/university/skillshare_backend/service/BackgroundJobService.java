@@ -0,0 +1,217 @@
+package com.university.skillshare_backend.service;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.university.skillshare_backend.model.BackgroundJob;
+import com.university.skillshare_backend.repository.BackgroundJobRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs persisted BackgroundJobs on a bounded worker pool. Jobs are only
+ * claimed from Mongo when a worker is free, so the queue lives in the
+ * database rather than in memory and nothing is lost on restart.
+ */
+@Service
+public class BackgroundJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackgroundJobService.class);
+
+    private static final long MAX_BACKOFF_MS = TimeUnit.HOURS.toMillis(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final BackgroundJobRepository backgroundJobRepository;
+    private final ObjectProvider<BackgroundJobHandler> handlerProvider;
+    private volatile Map<String, BackgroundJobHandler> handlers;
+    private final AtomicInteger running = new AtomicInteger();
+
+    private ThreadPoolExecutor executor;
+
+    @Value("${app.jobs.workers:2}")
+    private int workers;
+
+    @Value("${app.jobs.lease-minutes:30}")
+    private long leaseMinutes;
+
+    @Value("${app.jobs.max-attempts:5}")
+    private int defaultMaxAttempts;
+
+    @Value("${app.jobs.retry-backoff-ms:30000}")
+    private long retryBackoffMs;
+
+    @Autowired
+    public BackgroundJobService(
+            MongoTemplate mongoTemplate,
+            BackgroundJobRepository backgroundJobRepository,
+            ObjectProvider<BackgroundJobHandler> handlerProvider) {
+        this.mongoTemplate = mongoTemplate;
+        this.backgroundJobRepository = backgroundJobRepository;
+        // Resolved lazily because handlers usually enqueue jobs themselves
+        this.handlerProvider = handlerProvider;
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "background-jobs-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Persist a job; it runs as soon as a worker is free
+     *
+     * @param type Handler type
+     * @param targetId Document the job works on
+     * @param params Handler-specific parameters
+     */
+    public BackgroundJob enqueue(String type, String targetId, Map<String, String> params) {
+        if (!handlers().containsKey(type)) {
+            throw new IllegalArgumentException("No handler for background job type " + type);
+        }
+        BackgroundJob job = backgroundJobRepository.save(new BackgroundJob(type, targetId, params, defaultMaxAttempts));
+        logger.info("Queued {} job {} for {}", type, job.getId(), targetId);
+        return job;
+    }
+
+    /**
+     * Claim queued jobs while there are idle workers
+     */
+    @Scheduled(fixedDelayString = "${app.jobs.poll-interval-ms:2000}")
+    public void poll() {
+        failExhaustedLeases();
+        while (running.get() < workers) {
+            BackgroundJob job = claimNext();
+            if (job == null) {
+                return;
+            }
+            running.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    run(job);
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private BackgroundJob claimNext() {
+        Date now = new Date();
+        Criteria claimable = new Criteria().orOperator(
+                Criteria.where("status").is(BackgroundJob.Status.QUEUED).and("runAfter").lte(now),
+                // Lease expired: the worker that claimed it is gone, and the job has attempts left
+                Criteria.where("status").is(BackgroundJob.Status.RUNNING).and("lockedUntil").lt(now)
+                        .andOperator(Criteria.expr(ComparisonOperators.valueOf("attempts").lessThan("maxAttempts"))));
+        Query query = new Query(claimable).with(Sort.by(Sort.Direction.ASC, "runAfter"));
+        Update update = new Update()
+                .set("status", BackgroundJob.Status.RUNNING)
+                .set("lockedUntil", new Date(now.getTime() + TimeUnit.MINUTES.toMillis(leaseMinutes)))
+                .set("updatedAt", now)
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), BackgroundJob.class);
+    }
+
+    /**
+     * Fail jobs whose lease expired on their last attempt. A job that takes its
+     * worker down with it (e.g. a native crash while decoding a video) never
+     * reaches the retry logic in run(), so this is where it stops being retried.
+     */
+    private void failExhaustedLeases() {
+        Date now = new Date();
+        UpdateResult result = mongoTemplate.updateMulti(
+                new Query(Criteria.where("status").is(BackgroundJob.Status.RUNNING).and("lockedUntil").lt(now)
+                        .andOperator(Criteria.expr(ComparisonOperators.valueOf("attempts").greaterThanEqualTo("maxAttempts")))),
+                new Update()
+                        .set("status", BackgroundJob.Status.FAILED)
+                        .set("lastError", "Lease expired on the last attempt; the worker running the job stopped")
+                        .unset("lockedUntil")
+                        .set("updatedAt", now),
+                BackgroundJob.class);
+        if (result.getModifiedCount() > 0) {
+            logger.error("Failed {} background jobs whose lease expired on their last attempt", result.getModifiedCount());
+        }
+    }
+
+    private void run(BackgroundJob job) {
+        BackgroundJobHandler handler = handlers().get(job.getType());
+        try {
+            if (handler == null) {
+                throw new IllegalStateException("No handler for background job type " + job.getType());
+            }
+            handler.handle(job);
+            finish(job, new Update().set("status", BackgroundJob.Status.SUCCEEDED).unset("lastError"));
+        } catch (Exception | LinkageError e) {
+            String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            if (job.getAttempts() >= job.getMaxAttempts()) {
+                logger.error("{} job {} failed permanently after {} attempts", job.getType(), job.getId(), job.getAttempts(), e);
+                finish(job, new Update().set("status", BackgroundJob.Status.FAILED).set("lastError", error));
+            } else {
+                long backoff = Math.min(MAX_BACKOFF_MS, retryBackoffMs << Math.min(job.getAttempts() - 1, 16));
+                logger.warn("{} job {} failed (attempt {}), retrying in {} ms: {}",
+                        job.getType(), job.getId(), job.getAttempts(), backoff, error);
+                finish(job, new Update()
+                        .set("status", BackgroundJob.Status.QUEUED)
+                        .set("runAfter", new Date(System.currentTimeMillis() + backoff))
+                        .set("lastError", error));
+            }
+        }
+    }
+
+    private Map<String, BackgroundJobHandler> handlers() {
+        Map<String, BackgroundJobHandler> resolved = handlers;
+        if (resolved == null) {
+            resolved = handlerProvider.orderedStream()
+                    .collect(Collectors.toMap(BackgroundJobHandler::getType, Function.identity()));
+            handlers = resolved;
+            logger.info("Background jobs: {} workers, handlers {}", workers, resolved.keySet());
+        }
+        return resolved;
+    }
+
+    /**
+     * Record the outcome, unless the lease was lost and another worker has the job
+     */
+    private void finish(BackgroundJob job, Update update) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(job.getId())
+                        .and("status").is(BackgroundJob.Status.RUNNING)
+                        .and("attempts").is(job.getAttempts())),
+                update.unset("lockedUntil").set("updatedAt", new Date()),
+                BackgroundJob.class);
+    }
+}
@@ -1,11 +1,15 @@
 package com.university.skillshare_backend.service;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.university.skillshare_backend.event.DomainEvent;
 import com.university.skillshare_backend.exception.ResourceNotFoundException;
 import com.university.skillshare_backend.model.Comment;
 import com.university.skillshare_backend.model.Post;
@@ -22,10 +26,9 @@ public class CommentService {
     private final PostRepository postRepository;
     private final UserRepository userRepository;
     private final MentionParser mentionParser;
-    private final WebSocketService webSocketService;
-    
-    @Autowired
-    private NotificationService notificationService;
+    private final EntityCacheService entityCacheService;
+    private final DomainEventBus domainEventBus;
+    private final OutboxService outboxService;
     
     @Autowired
     public CommentService(
@@ -33,12 +36,16 @@ public class CommentService {
             PostRepository postRepository,
             UserRepository userRepository,
             MentionParser mentionParser,
-            WebSocketService webSocketService) {
+            EntityCacheService entityCacheService,
+            DomainEventBus domainEventBus,
+            OutboxService outboxService) {
         this.commentRepository = commentRepository;
         this.postRepository = postRepository;
         this.userRepository = userRepository;
         this.mentionParser = mentionParser;
-        this.webSocketService = webSocketService;
+        this.entityCacheService = entityCacheService;
+        this.domainEventBus = domainEventBus;
+        this.outboxService = outboxService;
     }
     
     /**
@@ -46,11 +53,12 @@ public class CommentService {
      */
     public Comment addComment(String postId, String userId, String text, boolean isDirectApiCall) {
         // Verify post exists
-        postRepository.findById(postId)
-            .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
+        if (!entityCacheService.postExists(postId)) {
+            throw new ResourceNotFoundException("Post", "id", postId);
+        }
         
         // Verify user exists and get user data
-        User user = userRepository.findById(userId)
+        User user = entityCacheService.findUser(userId)
             .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
         
         // Parse mentions
@@ -63,16 +71,15 @@ public class CommentService {
         // Set author name from user
         comment.setAuthorName(user.getFullName() != null && !user.getFullName().isEmpty() 
             ? user.getFullName() : user.getUsername());
-            
-        Comment savedComment = commentRepository.save(comment);
-        
-        // Handle mentions and notifications
-        processMentions(mentions, savedComment);
+        comment.setId(OutboxService.newId());
         
-        // Only broadcast via WebSocket if this isn't a direct API call
-        if (!isDirectApiCall) {
-            webSocketService.broadcastNewComment(postId, savedComment);
-        }
+        // Mention notifications and the WebSocket broadcast (only if this isn't a
+        // direct API call) are delivered from the outbox once the comment is stored
+        outboxService.record(
+            new DomainEvent.Commented(comment, comment.getAuthorName(), mentions, false, !isDirectApiCall),
+            "comments", comment.getId());
+        Comment savedComment = commentRepository.save(comment);
+        outboxService.flush();
         
         return savedComment;
     }
@@ -100,19 +107,20 @@ public class CommentService {
         
         // Update the comment
         comment.setText(text);
-        Comment updatedComment = commentRepository.save(comment);
         
         // Set the author name for the updated comment
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
-        updatedComment.setAuthorName(user.getFullName() != null && !user.getFullName().isEmpty() 
+        comment.setAuthorName(user.getFullName() != null && !user.getFullName().isEmpty() 
             ? user.getFullName() : user.getUsername());
         
-        // Handle mentions (could send notifications here)
-        processMentions(mentions, updatedComment);
-        
-        // Broadcast the update via WebSocket
-        webSocketService.broadcastCommentUpdate(comment.getPostId(), updatedComment);
+        // Mention notifications and the WebSocket broadcast are delivered from the
+        // outbox once the new text is stored
+        outboxService.record(
+            new DomainEvent.Commented(comment, comment.getAuthorName(), mentions, true, true),
+            "comments", commentId, "text", text);
+        Comment updatedComment = commentRepository.save(comment);
+        outboxService.flush();
         
         return updatedComment;
     }
@@ -126,7 +134,7 @@ public class CommentService {
                 .orElseThrow(() -> new ResourceNotFoundException("Comment", "id", commentId));
         
         // Fetch the associated post to check ownership
-        Post post = postRepository.findById(comment.getPostId())
+        Post post = postRepository.findByIdAndDeletedAtIsNull(comment.getPostId())
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "id", comment.getPostId()));
         
         // Verify user is either the comment owner or the post owner
@@ -138,8 +146,7 @@ public class CommentService {
         commentRepository.delete(comment);
         
         // Broadcast the deletion via WebSocket
-        webSocketService.broadcastCommentUpdate(comment.getPostId(), 
-                java.util.Collections.singletonMap("deleted", commentId));
+        domainEventBus.publish(new DomainEvent.CommentDeleted(comment.getPostId(), commentId));
     }
     
     /**
@@ -147,52 +154,31 @@ public class CommentService {
      */
     public List<Comment> getCommentsByPostId(String postId) {
         // Verify post exists
-        postRepository.findById(postId)
-            .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
-        
-        // Get all comments for the post
-        List<Comment> comments = commentRepository.findByPostId(postId);
+        if (!entityCacheService.postExists(postId)) {
+            throw new ResourceNotFoundException("Post", "id", postId);
+        }
         
-        // Populate author names for each comment
-        return comments.stream().map(comment -> {
-            userRepository.findById(comment.getUserId()).ifPresent(user -> {
-                comment.setAuthorName(user.getFullName() != null && !user.getFullName().isEmpty() 
-                    ? user.getFullName() : user.getUsername());
-            });
-            return comment;
-        }).collect(Collectors.toList());
+        return listComments(postId);
     }
     
     /**
-     * Process mentions in a comment
+     * Get the comments of a post without checking the post itself, with author
+     * names filled in from a single batched user lookup
      */
-    private void processMentions(List<String> mentions, Comment comment) {
-        if (mentions == null || mentions.isEmpty()) {
-            return;
-        }
-
-        try {
-            Post post = postRepository.findById(comment.getPostId())
-                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", comment.getPostId()));
-                
-            User commenter = userRepository.findById(comment.getUserId())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", comment.getUserId()));
-
-            for (String username : mentions) {
-                userRepository.findByUsername(username).ifPresent(mentionedUser -> {
-                    // Don't notify if the user mentions themselves
-                    if (!mentionedUser.getId().equals(comment.getUserId())) {
-                        notificationService.createMentionNotification(
-                            mentionedUser.getId(),
-                            commenter.getUsername(),
-                            post.getId()
-                        );
-                    }
-                });
+    public List<Comment> listComments(String postId) {
+        List<Comment> comments = commentRepository.findByPostId(postId);
+        
+        Set<String> authorIds = comments.stream().map(Comment::getUserId).collect(Collectors.toSet());
+        Map<String, User> authors = new HashMap<>();
+        userRepository.findAllById(authorIds).forEach(user -> authors.put(user.getId(), user));
+        
+        for (Comment comment : comments) {
+            User user = authors.get(comment.getUserId());
+            if (user != null) {
+                comment.setAuthorName(user.getFullName() != null && !user.getFullName().isEmpty()
+                    ? user.getFullName() : user.getUsername());
             }
-        } catch (Exception e) {
-            // Log the error but don't fail the comment creation
-            System.err.println("Error processing mentions: " + e.getMessage());
         }
+        return comments;
     }
 }
@@ -0,0 +1,163 @@
+package com.university.skillshare_backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.event.DomainEvent;
+import com.university.skillshare_backend.event.DomainEventListener;
+import com.university.skillshare_backend.util.RingBuffer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hands domain events from request threads to their listeners. Publishing
+ * only claims a slot in a preallocated ring and returns; each listener runs on
+ * its own thread and receives everything published since its last batch, so a
+ * slow listener (notifications, say) neither delays the request nor the other
+ * listeners.
+ *
+ * Events live in memory only: those still queued when the process dies are
+ * lost, and when the slowest listener is a whole ring behind for longer than
+ * the publish timeout the event is dropped and counted.
+ */
+@Service
+public class DomainEventBus implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(DomainEventBus.class);
+
+    private final ObjectProvider<DomainEventListener> listenerProvider;
+    private final MeterRegistry meterRegistry;
+    private final Counter dropped;
+
+    private volatile RingBuffer<DomainEvent> ring;
+    private final List<Worker> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    @Value("${app.events.ring-size:8192}")
+    private int ringSize;
+
+    @Value("${app.events.max-batch:256}")
+    private int maxBatch;
+
+    @Value("${app.events.publish-timeout-ms:100}")
+    private long publishTimeoutMs;
+
+    @Autowired
+    public DomainEventBus(ObjectProvider<DomainEventListener> listenerProvider, MeterRegistry meterRegistry) {
+        this.listenerProvider = listenerProvider;
+        this.meterRegistry = meterRegistry;
+        this.dropped = meterRegistry.counter("domain.events.dropped");
+    }
+
+    /**
+     * Start one thread per listener once every bean exists; listeners depend on
+     * the services that publish, so they cannot be injected up front
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<DomainEventListener> listeners = listenerProvider.orderedStream().toList();
+        RingBuffer<DomainEvent> buffer = new RingBuffer<>(ringSize, listeners.size());
+        for (int i = 0; i < listeners.size(); i++) {
+            Worker worker = new Worker(listeners.get(i), buffer.consumer(i));
+            workers.add(worker);
+            worker.thread.start();
+        }
+        Gauge.builder("domain.events.backlog", buffer, RingBuffer::getBacklog).register(meterRegistry);
+        ring = buffer;
+        logger.info("Domain event bus started with {} slots and {} listeners", buffer.getCapacity(), listeners.size());
+    }
+
+    /**
+     * Queue an event for every listener and return without waiting for them
+     */
+    public void publish(DomainEvent event) {
+        RingBuffer<DomainEvent> buffer = ring;
+        if (buffer == null || !running) {
+            logger.warn("Dropping {}, the event bus is not running", event);
+            dropped.increment();
+            return;
+        }
+        if (!buffer.publish(event, publishTimeoutMs, TimeUnit.MILLISECONDS)) {
+            logger.warn("Dropping {}, listeners are {} events behind", event, buffer.getBacklog());
+            dropped.increment();
+            return;
+        }
+        meterRegistry.counter("domain.events.published", "type", event.getClass().getSimpleName()).increment();
+        for (Worker worker : workers) {
+            worker.wake();
+        }
+    }
+
+    /**
+     * Stop taking events and give the listeners a moment to finish what is queued
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker.thread);
+        }
+        for (Worker worker : workers) {
+            worker.thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private class Worker implements Runnable {
+
+        private final DomainEventListener listener;
+        private final RingBuffer<DomainEvent>.Consumer consumer;
+        private final Thread thread;
+        private volatile boolean idle;
+
+        Worker(DomainEventListener listener, RingBuffer<DomainEvent>.Consumer consumer) {
+            this.listener = listener;
+            this.consumer = consumer;
+            this.thread = new Thread(this, "events-" + listener.getClass().getSimpleName());
+            this.thread.setDaemon(true);
+        }
+
+        void wake() {
+            if (idle) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            List<DomainEvent> batch = new ArrayList<>(maxBatch);
+            while (running || consumer.hasPending()) {
+                if (consumer.drainTo(batch, maxBatch) == 0) {
+                    // Publishers unpark an idle worker; checking again after raising the
+                    // flag closes the gap where an event lands just before it is set
+                    idle = true;
+                    if (!consumer.hasPending() && running) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+                    }
+                    idle = false;
+                    continue;
+                }
+                try {
+                    listener.onEvents(batch);
+                } catch (Exception e) {
+                    logger.error("{} failed on a batch of {} events", listener.getClass().getSimpleName(),
+                            batch.size(), e);
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.university.skillshare_backend.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.university.skillshare_backend.model.Group;
+import com.university.skillshare_backend.model.ImageVariants;
+import com.university.skillshare_backend.model.Post;
+import com.university.skillshare_backend.model.User;
+import com.university.skillshare_backend.repository.GroupRepository;
+import com.university.skillshare_backend.repository.PostRepository;
+import com.university.skillshare_backend.repository.UserRepository;
+import com.university.skillshare_backend.util.EntityCache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Read-through cache of users, live posts and groups by id, for the many
+ * lookups that only check that an entity exists or read a few of its fields.
+ *
+ * Cached entities are shared between requests and must not be modified;
+ * code that edits an entity reads it from the repository. Entries are
+ * dropped when this node writes the entity (repository save/delete events,
+ * plus explicit invalidate calls after MongoTemplate updates) and when any
+ * node writes it, via a change stream on the three collections. Change
+ * streams need a replica set; on a standalone server only local writes
+ * invalidate, which is fine for a single node.
+ *
+ * Ids that were not found are remembered for app.cache.entities.absent-ttl-seconds,
+ * so probing for missing or deleted ids does not reach the database. Creating
+ * an entity saves it, which invalidates its id on every node.
+ */
+@Service
+public class EntityCacheService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityCacheService.class);
+
+    /** The server does not support change streams (standalone mongod) */
+    private static final int CHANGE_STREAMS_UNSUPPORTED = 40573;
+    /** The resume token is no longer in the oplog */
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private final MongoTemplate mongoTemplate;
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final GroupRepository groupRepository;
+    private final UserIdentityIndex userIdentityIndex;
+
+    private final EntityCache<User> users;
+    private final EntityCache<Post> posts;
+    private final EntityCache<Group> groups;
+
+    @Value("${app.cache.change-stream.enabled:true}")
+    private boolean changeStreamEnabled;
+
+    private volatile boolean running = true;
+    private Thread watcher;
+
+    @Autowired
+    public EntityCacheService(
+            MongoTemplate mongoTemplate,
+            UserRepository userRepository,
+            PostRepository postRepository,
+            GroupRepository groupRepository,
+            UserIdentityIndex userIdentityIndex,
+            MeterRegistry meterRegistry,
+            @Value("${app.cache.entities.max-bytes:33554432}") long maxBytes,
+            @Value("${app.cache.entities.ttl-seconds:300}") long ttlSeconds,
+            @Value("${app.cache.entities.absent-ttl-seconds:30}") long absentTtlSeconds,
+            @Value("${app.singleflight.max-wait-ms:2000}") long maxLoadWaitMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.userRepository = userRepository;
+        this.postRepository = postRepository;
+        this.groupRepository = groupRepository;
+        this.userIdentityIndex = userIdentityIndex;
+
+        long ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        long absentTtlMillis = TimeUnit.SECONDS.toMillis(absentTtlSeconds);
+        // Split the budget evenly; each entry is estimated at about 1KB for sketch sizing
+        int expectedEntries = (int) Math.min(Integer.MAX_VALUE, maxBytes / 3 / 1024);
+        this.users = register(meterRegistry, "users",
+                new EntityCache<>(maxBytes / 3, expectedEntries, ttlMillis, absentTtlMillis,
+                        EntityCacheService::weigh, maxLoadWaitMillis));
+        this.posts = register(meterRegistry, "posts",
+                new EntityCache<>(maxBytes / 3, expectedEntries, ttlMillis, absentTtlMillis,
+                        EntityCacheService::weigh, maxLoadWaitMillis));
+        this.groups = register(meterRegistry, "groups",
+                new EntityCache<>(maxBytes / 3, expectedEntries, ttlMillis, absentTtlMillis,
+                        EntityCacheService::weigh, maxLoadWaitMillis));
+    }
+
+    public Optional<User> findUser(String userId) {
+        return users.get(userId, userRepository::findById);
+    }
+
+    /**
+     * Find a post that is not being deleted
+     */
+    public Optional<Post> findPost(String postId) {
+        return posts.get(postId, postRepository::findByIdAndDeletedAtIsNull);
+    }
+
+    public Optional<Group> findGroup(String groupId) {
+        return groups.get(groupId, groupRepository::findById);
+    }
+
+    public boolean userExists(String userId) {
+        return findUser(userId).isPresent();
+    }
+
+    public boolean postExists(String postId) {
+        return findPost(postId).isPresent();
+    }
+
+    public void invalidateUser(String userId) {
+        users.invalidate(userId);
+    }
+
+    public void invalidatePost(String postId) {
+        posts.invalidate(postId);
+    }
+
+    public void invalidateGroup(String groupId) {
+        groups.invalidate(groupId);
+    }
+
+    @EventListener
+    public void onAfterSave(AfterSaveEvent<?> event) {
+        invalidate(event.getCollectionName(), event.getDocument() != null ? event.getDocument().get("_id") : null);
+    }
+
+    @EventListener
+    public void onAfterDelete(AfterDeleteEvent<?> event) {
+        invalidate(event.getCollectionName(), event.getSource().get("_id"));
+    }
+
+    private void invalidate(String collection, Object id) {
+        EntityCache<?> cache = cacheFor(collection);
+        if (cache == null) {
+            return;
+        }
+        if (id == null || id instanceof Document) {
+            // Deletes by query ({ _id: { $in: ... } }) or without an id
+            cache.invalidateAll();
+        } else {
+            cache.invalidate(id instanceof ObjectId objectId ? objectId.toHexString() : id.toString());
+        }
+    }
+
+    private EntityCache<?> cacheFor(String collection) {
+        return switch (collection) {
+            case "users" -> users;
+            case "posts" -> posts;
+            case "groups" -> groups;
+            default -> null;
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWatching() {
+        if (!changeStreamEnabled) {
+            return;
+        }
+        watcher = new Thread(this::watch, "entity-cache-change-stream");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Follow changes to the cached collections made by any node. After the
+     * stream breaks it resumes from the last seen event; if that is no longer
+     * possible every cache is cleared, since changes may have been missed.
+     */
+    private void watch() {
+        BsonDocument resumeToken = null;
+        long backoffMillis = 1000;
+        while (running) {
+            try {
+                ChangeStreamIterable<Document> stream = mongoTemplate.getDb().watch(List.of(
+                        Aggregates.match(Filters.in("ns.coll", "users", "posts", "groups"))));
+                if (resumeToken != null) {
+                    stream = stream.resumeAfter(resumeToken);
+                }
+                try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+                    backoffMillis = 1000;
+                    while (running) {
+                        ChangeStreamDocument<Document> change = cursor.tryNext();
+                        if (change != null) {
+                            resumeToken = change.getResumeToken();
+                            apply(change);
+                        }
+                    }
+                }
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CHANGE_STREAMS_UNSUPPORTED) {
+                    logger.info("Change streams are not available, entity caches are invalidated by local writes only");
+                    return;
+                }
+                if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    resumeToken = null;
+                    invalidateAll();
+                }
+                backoffMillis = pause(e, backoffMillis);
+            } catch (MongoException | IllegalStateException e) {
+                backoffMillis = pause(e, backoffMillis);
+            }
+        }
+    }
+
+    private void apply(ChangeStreamDocument<Document> change) {
+        String collection = change.getNamespace() != null ? change.getNamespace().getCollectionName() : null;
+        BsonValue id = change.getDocumentKey() != null ? change.getDocumentKey().get("_id") : null;
+        if (collection == null || id == null) {
+            // drop, rename or invalidate events
+            invalidateAll();
+            return;
+        }
+        if ("users".equals(collection)) {
+            recordIdentity(change);
+        }
+        EntityCache<?> cache = cacheFor(collection);
+        if (cache != null) {
+            cache.invalidate(id.isObjectId() ? id.asObjectId().getValue().toHexString()
+                    : id.isString() ? id.asString().getValue() : id.toString());
+        }
+    }
+
+    /**
+     * Feed usernames and emails written by other nodes into the identity filters.
+     * Inserts and replacements carry the whole document, updates the changed fields.
+     */
+    private void recordIdentity(ChangeStreamDocument<Document> change) {
+        if (change.getFullDocument() != null) {
+            userIdentityIndex.add(change.getFullDocument().getString("username"),
+                    change.getFullDocument().getString("email"));
+        } else if (change.getUpdateDescription() != null
+                && change.getUpdateDescription().getUpdatedFields() != null) {
+            BsonDocument updated = change.getUpdateDescription().getUpdatedFields();
+            userIdentityIndex.add(
+                    updated.isString("username") ? updated.getString("username").getValue() : null,
+                    updated.isString("email") ? updated.getString("email").getValue() : null);
+        }
+    }
+
+    private long pause(Exception e, long backoffMillis) {
+        if (!running) {
+            return backoffMillis;
+        }
+        logger.warn("Entity cache change stream failed, retrying in {} ms: {}", backoffMillis, e.toString());
+        // Changes made while the stream is down are not seen; clear rather than serve them stale
+        invalidateAll();
+        try {
+            Thread.sleep(backoffMillis);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+        return Math.min(backoffMillis * 2, 60_000);
+    }
+
+    private void invalidateAll() {
+        users.invalidateAll();
+        posts.invalidateAll();
+        groups.invalidateAll();
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        if (watcher != null) {
+            watcher.interrupt();
+        }
+    }
+
+    private static <V> EntityCache<V> register(MeterRegistry meterRegistry, String name, EntityCache<V> cache) {
+        FunctionCounter.builder("entity.cache.requests", cache, EntityCache::getHitCount)
+                .tag("cache", name).tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("entity.cache.requests", cache, EntityCache::getAbsentHitCount)
+                .tag("cache", name).tag("result", "absent").register(meterRegistry);
+        FunctionCounter.builder("entity.cache.requests", cache, EntityCache::getMissCount)
+                .tag("cache", name).tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("entity.cache.evictions", cache, EntityCache::getEvictionCount)
+                .tag("cache", name).register(meterRegistry);
+        FunctionCounter.builder("singleflight.suppressed", cache, EntityCache::getCoalescedCount)
+                .tag("flight", name).register(meterRegistry);
+        Gauge.builder("entity.cache.bytes", cache, EntityCache::getWeight).tag("cache", name).register(meterRegistry);
+        Gauge.builder("entity.cache.size", cache, EntityCache::getSize).tag("cache", name).register(meterRegistry);
+        return cache;
+    }
+
+    // Rough in-memory size estimates: object overhead plus two bytes per character
+
+    private static long weigh(User user) {
+        return 256 + chars(user.getUsername(), user.getEmail(), user.getFullName(), user.getPassword(),
+                user.getProfileImage())
+                + 64L * ((user.getFollowers() != null ? user.getFollowers().size() : 0)
+                        + (user.getFollowing() != null ? user.getFollowing().size() : 0));
+    }
+
+    private static long weigh(Post post) {
+        long weight = 512 + chars(post.getTitle(), post.getContent(), post.getVideoUrl());
+        if (post.getImageUrls() != null) {
+            weight += 128L * post.getImageUrls().size();
+        }
+        if (post.getImageVariants() != null) {
+            weight += 512L * post.getImageVariants().size();
+        }
+        if (post.getVideoMetadata() != null) {
+            weight += 1024;
+        }
+        return weight;
+    }
+
+    private static long weigh(Group group) {
+        ImageVariants variants = group.getPhotoVariants();
+        return 256 + chars(group.getName(), group.getDescription(), group.getPhotoUrl())
+                + (variants != null ? 512 : 0);
+    }
+
+    private static long chars(String... values) {
+        long total = 0;
+        for (String value : values) {
+            total += value != null ? 2L * value.length() : 0;
+        }
+        return total;
+    }
+}
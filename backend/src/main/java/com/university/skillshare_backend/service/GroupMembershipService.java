@@ -0,0 +1,346 @@
+package com.university.skillshare_backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.event.DomainEvent;
+import com.university.skillshare_backend.exception.ResourceNotFoundException;
+import com.university.skillshare_backend.model.BackgroundJob;
+import com.university.skillshare_backend.model.Group;
+import com.university.skillshare_backend.model.GroupMembership;
+import com.university.skillshare_backend.model.User;
+import com.university.skillshare_backend.repository.BackgroundJobRepository;
+import com.university.skillshare_backend.repository.GroupMembershipRepository;
+import com.university.skillshare_backend.repository.GroupRepository;
+import com.university.skillshare_backend.repository.UserRepository;
+
+/**
+ * Group membership, one group_memberships document per member. Joining is a
+ * single insert guarded by the unique (groupId, userId) index, and leaving a
+ * single delete, so concurrent joins and leaves neither lose each other nor
+ * rewrite the group. Each successful join or leave then moves the group's
+ * memberCount by one.
+ *
+ * Groups used to embed their members as a list; a migration job moves those
+ * lists into memberships on startup and recounts the groups it touches.
+ */
+@Service
+public class GroupMembershipService implements BackgroundJobHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupMembershipService.class);
+
+    public static final String MIGRATE_JOB_TYPE = "group-memberships.migrate";
+
+    /** User id of the last member of a page */
+    record Cursor(String userId) {
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(userId.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String userId = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                if (userId.isEmpty()) {
+                    throw new IllegalArgumentException("Invalid member cursor");
+                }
+                return new Cursor(userId);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid member cursor");
+            }
+        }
+    }
+
+    private final GroupMembershipRepository membershipRepository;
+    private final GroupRepository groupRepository;
+    private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
+    private final EntityCacheService entityCacheService;
+    private final DomainEventBus domainEventBus;
+    private final BackgroundJobService backgroundJobService;
+    private final BackgroundJobRepository backgroundJobRepository;
+
+    @Value("${app.groups.members.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${app.groups.members.max-page-size:200}")
+    private int maxPageSize;
+
+    @Value("${app.groups.members.migrate.batch-size:100}")
+    private int migrateBatchSize;
+
+    @Value("${app.groups.members.migrate.pause-ms:100}")
+    private long migratePauseMs;
+
+    @Autowired
+    public GroupMembershipService(
+            GroupMembershipRepository membershipRepository,
+            GroupRepository groupRepository,
+            UserRepository userRepository,
+            MongoTemplate mongoTemplate,
+            EntityCacheService entityCacheService,
+            DomainEventBus domainEventBus,
+            BackgroundJobService backgroundJobService,
+            BackgroundJobRepository backgroundJobRepository) {
+        this.membershipRepository = membershipRepository;
+        this.groupRepository = groupRepository;
+        this.userRepository = userRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.entityCacheService = entityCacheService;
+        this.domainEventBus = domainEventBus;
+        this.backgroundJobService = backgroundJobService;
+        this.backgroundJobRepository = backgroundJobRepository;
+    }
+
+    /**
+     * Add a user to a group
+     *
+     * @return The group with its new member count
+     * @throws IllegalStateException if the user is already a member
+     * @throws ResourceNotFoundException if the group does not exist
+     */
+    public Group join(String groupId, String userId) {
+        GroupMembership membership = new GroupMembership();
+        membership.setGroupId(groupId);
+        membership.setUserId(userId);
+        membership.setJoinedAt(new Date());
+        try {
+            membershipRepository.insert(membership);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalStateException("User is already a member of this group");
+        }
+        Group group = adjustMemberCount(groupId, 1);
+        if (group == null) {
+            // The group was deleted meanwhile
+            membershipRepository.deleteByGroupIdAndUserId(groupId, userId);
+            throw new ResourceNotFoundException("Group", "id", groupId);
+        }
+        domainEventBus.publish(new DomainEvent.GroupMembershipChanged(groupId, userId, true));
+        return group;
+    }
+
+    /**
+     * Remove a user from a group
+     *
+     * @return The group with its new member count
+     * @throws IllegalStateException if the user is not a member
+     * @throws ResourceNotFoundException if the group does not exist
+     */
+    public Group leave(String groupId, String userId) {
+        if (membershipRepository.deleteByGroupIdAndUserId(groupId, userId) == 0) {
+            throw new IllegalStateException("User is not a member of this group");
+        }
+        Group group = adjustMemberCount(groupId, -1);
+        if (group == null) {
+            throw new ResourceNotFoundException("Group", "id", groupId);
+        }
+        domainEventBus.publish(new DomainEvent.GroupMembershipChanged(groupId, userId, false));
+        return group;
+    }
+
+    public boolean isMember(String groupId, String userId) {
+        return membershipRepository.existsByGroupIdAndUserId(groupId, userId);
+    }
+
+    /**
+     * Get a page of a group's members, in user id order
+     *
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param limit Page size (optional)
+     * @return Map with "items" (id, username, fullName, profileImage and joinedAt of each member)
+     *         and "nextCursor" (null on the last page)
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public Map<String, Object> getMembers(String groupId, String cursor, Integer limit) {
+        int size = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        String after = cursor == null || cursor.isEmpty() ? null : Cursor.decode(cursor).userId();
+        List<GroupMembership> memberships = findPage(groupId, after, size + 1);
+
+        String nextCursor = null;
+        if (memberships.size() > size) {
+            memberships = memberships.subList(0, size);
+            nextCursor = new Cursor(memberships.get(size - 1).getUserId()).encode();
+        }
+        Map<String, User> users = new LinkedHashMap<>();
+        userRepository.findAllById(memberships.stream().map(GroupMembership::getUserId).toList())
+                .forEach(user -> users.put(user.getId(), user));
+        List<Map<String, Object>> items = new ArrayList<>(memberships.size());
+        for (GroupMembership membership : memberships) {
+            User user = users.get(membership.getUserId());
+            if (user == null) {
+                continue;
+            }
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", user.getId());
+            item.put("username", user.getUsername());
+            item.put("fullName", user.getFullName());
+            item.put("profileImage", user.getProfileImage());
+            item.put("joinedAt", membership.getJoinedAt());
+            items.add(item);
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("items", items);
+        response.put("nextCursor", nextCursor);
+        return response;
+    }
+
+    /**
+     * Pass a group's member ids to the consumer a page at a time, so a large
+     * group is never held in memory at once
+     */
+    public void forEachMemberPage(String groupId, int pageSize, Consumer<List<String>> consumer) {
+        String after = null;
+        while (true) {
+            List<String> userIds = findPage(groupId, after, pageSize).stream()
+                    .map(GroupMembership::getUserId)
+                    .toList();
+            if (userIds.isEmpty()) {
+                return;
+            }
+            consumer.accept(userIds);
+            if (userIds.size() < pageSize) {
+                return;
+            }
+            after = userIds.get(userIds.size() - 1);
+        }
+    }
+
+    /**
+     * The groups a user is a member of, most recently joined first
+     */
+    public List<Group> findGroups(String userId) {
+        return groupsOf(membershipRepository.findByUserIdOrderByJoinedAtDesc(userId));
+    }
+
+    public List<Group> findGroups(String userId, Pageable pageable) {
+        return groupsOf(membershipRepository.findByUserIdOrderByJoinedAtDesc(userId, pageable));
+    }
+
+    /**
+     * Drop every membership of a deleted group
+     */
+    public void deleteGroup(String groupId) {
+        membershipRepository.deleteByGroupId(groupId);
+    }
+
+    private List<GroupMembership> findPage(String groupId, String afterUserId, int limit) {
+        Criteria criteria = Criteria.where("groupId").is(groupId);
+        if (afterUserId != null) {
+            criteria = criteria.and("userId").gt(afterUserId);
+        }
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "userId")).limit(limit);
+        return mongoTemplate.find(query, GroupMembership.class);
+    }
+
+    private List<Group> groupsOf(List<GroupMembership> memberships) {
+        Map<String, Group> groups = new LinkedHashMap<>();
+        groupRepository.findAllById(memberships.stream().map(GroupMembership::getGroupId).toList())
+                .forEach(group -> groups.put(group.getId(), group));
+        return memberships.stream()
+                .map(membership -> groups.get(membership.getGroupId()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private Group adjustMemberCount(String groupId, int delta) {
+        Group group = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(groupId)), new Update().inc("memberCount", delta),
+                FindAndModifyOptions.options().returnNew(true), Group.class);
+        entityCacheService.invalidateGroup(groupId);
+        return group;
+    }
+
+    /**
+     * Queue the migration of embedded member lists on startup, if any are left
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateIfNeeded() {
+        try {
+            boolean legacy = mongoTemplate.exists(new Query(Criteria.where("members").exists(true)), "groups");
+            boolean pending = backgroundJobRepository.existsByTypeAndTargetIdAndStatusIn(
+                    MIGRATE_JOB_TYPE, "all", List.of(BackgroundJob.Status.QUEUED, BackgroundJob.Status.RUNNING));
+            if (legacy && !pending) {
+                backgroundJobService.enqueue(MIGRATE_JOB_TYPE, "all", Map.of());
+                logger.info("Groups with embedded member lists found, queued their migration");
+            }
+        } catch (Exception e) {
+            logger.warn("Could not check for embedded group members: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public String getType() {
+        return MIGRATE_JOB_TYPE;
+    }
+
+    /**
+     * Move embedded member lists into group_memberships, a batch of groups at
+     * a time. Each group's count is recomputed from its memberships and its
+     * list removed in one update, so re-running after a crash is harmless.
+     */
+    @Override
+    public void handle(BackgroundJob job) throws InterruptedException {
+        long groups = 0;
+        while (true) {
+            Query batch = new Query(Criteria.where("members").exists(true))
+                    .with(Sort.by(Sort.Direction.ASC, "_id"))
+                    .limit(migrateBatchSize);
+            batch.fields().include("_id", "members", "createdAt");
+            List<Document> found = mongoTemplate.find(batch, Document.class, "groups");
+            if (found.isEmpty()) {
+                break;
+            }
+            for (Document group : found) {
+                migrate(group);
+            }
+            groups += found.size();
+            TimeUnit.MILLISECONDS.sleep(migratePauseMs);
+        }
+        logger.info("Moved the members of {} groups into group_memberships", groups);
+    }
+
+    private void migrate(Document group) {
+        Object id = group.get("_id");
+        String groupId = id.toString();
+        List<String> members = group.getList("members", String.class, List.of());
+        if (!members.isEmpty()) {
+            Date joinedAt = group.getDate("createdAt") != null ? group.getDate("createdAt") : new Date();
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, GroupMembership.class);
+            for (String userId : members) {
+                bulk.upsert(new Query(Criteria.where("groupId").is(groupId).and("userId").is(userId)),
+                        new Update().setOnInsert("joinedAt", joinedAt));
+            }
+            bulk.execute();
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(id)),
+                new Update().set("memberCount", membershipRepository.countByGroupId(groupId)).unset("members"),
+                "groups");
+        entityCacheService.invalidateGroup(groupId);
+    }
+}
@@ -0,0 +1,506 @@
+package com.university.skillshare_backend.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.event.DomainEvent;
+import com.university.skillshare_backend.model.Group;
+import com.university.skillshare_backend.model.ImageVariants;
+import com.university.skillshare_backend.model.MediaBlob;
+import com.university.skillshare_backend.model.Post;
+import com.university.skillshare_backend.repository.MediaBlobRepository;
+import com.university.skillshare_backend.storage.MediaStoreRegistry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Produces thumbnail, feed and full-size JPEG renditions of uploaded images
+ * on a bounded worker pool. Re-encoding drops EXIF and other metadata.
+ *
+ * Derivative keys are derived from the original, so running the same job
+ * twice is a no-op. Each derivative is encoded to a temp file and then written
+ * to the primary MediaStore, so a crash never leaves a half-written derivative
+ * behind and renditions live wherever new media does. They are deleted along
+ * with their source blob. Anything missed because of a crash or a full queue
+ * is picked up by backfill().
+ */
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    private static final String DERIVATIVES_DIR = "derivatives";
+    private static final String GROUP_PHOTO_PATH = "/api/group-photos/";
+
+    private final MongoTemplate mongoTemplate;
+    private final MediaBlobRepository mediaBlobRepository;
+    private final MediaStoreRegistry mediaStoreRegistry;
+    private final EntityCacheService entityCacheService;
+    private final DomainEventBus domainEventBus;
+    private final MediaFileService mediaFileService;
+
+    private ThreadPoolExecutor executor;
+
+    @Value("${file.upload-dir:./uploads}")
+    private String baseUploadDir;
+
+    @Value("${app.media.derivatives.workers:2}")
+    private int workers;
+
+    @Value("${app.media.derivatives.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${app.media.derivatives.thumb-width:160}")
+    private int thumbWidth;
+
+    @Value("${app.media.derivatives.feed-width:640}")
+    private int feedWidth;
+
+    @Value("${app.media.derivatives.full-width:1600}")
+    private int fullWidth;
+
+    @Value("${app.media.derivatives.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    @Value("${app.media.derivatives.backfill-on-startup:false}")
+    private boolean backfillOnStartup;
+
+    @Autowired
+    public ImageDerivativeService(MongoTemplate mongoTemplate, MediaBlobRepository mediaBlobRepository,
+                                  MediaStoreRegistry mediaStoreRegistry,
+                                  EntityCacheService entityCacheService,
+                                  DomainEventBus domainEventBus,
+                                  MediaFileService mediaFileService) {
+        this.mongoTemplate = mongoTemplate;
+        this.mediaBlobRepository = mediaBlobRepository;
+        this.mediaStoreRegistry = mediaStoreRegistry;
+        this.entityCacheService = entityCacheService;
+        this.domainEventBus = domainEventBus;
+        this.mediaFileService = mediaFileService;
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivatives-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (backfillOnStartup) {
+            Thread thread = new Thread(this::backfill, "image-derivatives-backfill");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Queue derivative generation for all images of a post. Never blocks the caller;
+     * if the queue is full the post is left for backfill.
+     */
+    public void schedulePostImages(Post post) {
+        if (post.getImageUrls() == null || post.getImageUrls().isEmpty()) {
+            return;
+        }
+        List<String> imageUrls = new ArrayList<>(post.getImageUrls());
+        submit(() -> processPost(post.getId(), imageUrls), "post " + post.getId());
+    }
+
+    /**
+     * Queue derivative generation for a group photo
+     */
+    public void scheduleGroupPhoto(Group group) {
+        if (group.getPhotoUrl() == null) {
+            return;
+        }
+        String photoUrl = group.getPhotoUrl();
+        submit(() -> processGroup(group.getId(), photoUrl), "group " + group.getId());
+    }
+
+    /**
+     * Generate derivatives for every post and group that does not have them yet.
+     * Runs on the calling thread and waits for queue space instead of dropping work.
+     *
+     * @return Number of documents queued
+     */
+    public int backfill() {
+        int queued = 0;
+
+        Query postQuery = new Query(Criteria.where("imageUrls.0").exists(true).and("deletedAt").is(null));
+        postQuery.fields().include("imageUrls").include("imageVariants");
+        try (Stream<Post> posts = mongoTemplate.stream(postQuery, Post.class)) {
+            for (Iterator<Post> it = posts.iterator(); it.hasNext();) {
+                Post post = it.next();
+                if (hasAllVariants(post)) {
+                    continue;
+                }
+                List<String> imageUrls = new ArrayList<>(post.getImageUrls());
+                submitBlocking(() -> processPost(post.getId(), imageUrls));
+                queued++;
+            }
+        }
+
+        Query groupQuery = new Query(Criteria.where("photoUrl").ne(null).and("photoVariants").is(null));
+        groupQuery.fields().include("photoUrl");
+        try (Stream<Group> groups = mongoTemplate.stream(groupQuery, Group.class)) {
+            for (Iterator<Group> it = groups.iterator(); it.hasNext();) {
+                Group group = it.next();
+                String photoUrl = group.getPhotoUrl();
+                submitBlocking(() -> processGroup(group.getId(), photoUrl));
+                queued++;
+            }
+        }
+
+        logger.info("Queued {} documents for image derivative backfill", queued);
+        return queued;
+    }
+
+    /**
+     * URL of a group photo rendition, or empty for an unknown variant name
+     * or while generation has not finished
+     */
+    public Optional<String> groupPhotoDerivative(String fileName, String variant) {
+        if (!variantWidths().containsKey(variant)) {
+            return Optional.empty();
+        }
+        String key = derivativeKey(variant, baseName(Paths.get(fileName).getFileName().toString()));
+        return exists(key) ? Optional.of(toUrl(key)) : Optional.empty();
+    }
+
+    /**
+     * Delete every rendition generated from a source file
+     */
+    public void deleteDerivatives(String sourceFileName) throws IOException {
+        String baseName = baseName(sourceFileName);
+        for (String variant : variantWidths().keySet()) {
+            String key = derivativeKey(variant, baseName);
+            mediaFileService.deleteRenditions(toUrl(key));
+            // Derivatives written before they went through the MediaStore
+            Files.deleteIfExists(baseDir().resolve(key));
+        }
+    }
+
+    private void processPost(String postId, List<String> imageUrls) {
+        List<ImageVariants> variants = new ArrayList<>();
+        for (String imageUrl : imageUrls) {
+            ImageVariants generated = generate(imageUrl);
+            if (generated == null) {
+                return; // Leave the post for backfill rather than record a partial list
+            }
+            variants.add(generated);
+        }
+        // Only record the result if the post still has the images we processed
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(postId).and("imageUrls").is(imageUrls)),
+                new Update().set("imageVariants", variants),
+                Post.class);
+        entityCacheService.invalidatePost(postId);
+        domainEventBus.publish(new DomainEvent.PostUpdated(postId));
+    }
+
+    private void processGroup(String groupId, String photoUrl) {
+        ImageVariants generated = generate(photoUrl);
+        if (generated == null) {
+            return;
+        }
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(groupId).and("photoUrl").is(photoUrl)),
+                new Update().set("photoVariants", generated),
+                Group.class);
+        entityCacheService.invalidateGroup(groupId);
+    }
+
+    /**
+     * Generate (or reuse) all derivatives of one image
+     *
+     * @return The variants, or null if the image could not be read
+     */
+    ImageVariants generate(String imageUrl) {
+        Path source = resolveSource(imageUrl);
+        Path fetched = null;
+        try {
+            if (source == null || !Files.isRegularFile(source)) {
+                source = fetched = fetchRemote(imageUrl);
+            }
+            if (source == null) {
+                logger.warn("Image source not found for {}", imageUrl);
+                return null;
+            }
+            return generate(imageUrl, source);
+        } catch (IOException e) {
+            logger.error("Failed to fetch image source for {}", imageUrl, e);
+            return null;
+        } finally {
+            if (fetched != null) {
+                try {
+                    Files.deleteIfExists(fetched);
+                } catch (IOException e) {
+                    logger.warn("Could not delete temporary copy of {}", imageUrl);
+                }
+            }
+        }
+    }
+
+    private ImageVariants generate(String imageUrl, Path source) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                logger.warn("Unsupported image format for {}", imageUrl);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+
+                ImageVariants variants = new ImageVariants(imageUrl, width, height);
+                String baseName = baseName(imageUrl.substring(imageUrl.lastIndexOf('/') + 1));
+                Map<String, Integer> targets = variantWidths();
+
+                BufferedImage decoded = null;
+                for (Map.Entry<String, Integer> target : targets.entrySet()) {
+                    int variantWidth = Math.min(target.getValue(), width);
+                    String key = derivativeKey(target.getKey(), baseName);
+                    if (!exists(key)) {
+                        if (decoded == null) {
+                            decoded = decodeForLargestVariant(reader, width);
+                        }
+                        writeJpeg(scale(decoded, variantWidth), key);
+                    }
+                    variants.addVariant(target.getKey(), toUrl(key), variantWidth);
+                }
+                return variants;
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to generate derivatives for {}", imageUrl, e);
+            return null;
+        }
+    }
+
+    /**
+     * Decode with source subsampling so a 12MP phone photo is never fully
+     * materialised when the largest rendition is only 1600px wide
+     */
+    private BufferedImage decodeForLargestVariant(ImageReader reader, int width) throws IOException {
+        ImageReadParam param = reader.getDefaultReadParam();
+        int subsampling = Math.max(1, width / fullWidth);
+        if (subsampling > 1) {
+            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        }
+        return reader.read(0, param);
+    }
+
+    private BufferedImage scale(BufferedImage image, int targetWidth) {
+        BufferedImage current = image;
+        int currentWidth = image.getWidth();
+        int currentHeight = image.getHeight();
+        int targetHeight = Math.max(1, (int) Math.round((double) image.getHeight() * targetWidth / image.getWidth()));
+
+        // Halve in steps for better quality than a single bilinear pass.
+        // There is always at least one pass, which also converts to plain RGB.
+        do {
+            currentWidth = Math.max(targetWidth, currentWidth / 2);
+            currentHeight = Math.max(targetHeight, currentHeight / 2);
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // Flatten transparency onto white, JPEG has no alpha channel
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, currentWidth, currentHeight);
+            graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            graphics.dispose();
+            current = next;
+        } while (currentWidth > targetWidth);
+
+        return current;
+    }
+
+    private void writeJpeg(BufferedImage image, String key) throws IOException {
+        Path temp = Files.createTempFile(tempDir(), ".tmp-", ".jpg");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(output);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                // No metadata is passed, so EXIF (GPS, camera serial, ...) is not carried over
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            mediaFileService.storeRendition(key, temp, "image/jpeg");
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private boolean hasAllVariants(Post post) {
+        if (post.getImageVariants() == null || post.getImageVariants().size() != post.getImageUrls().size()) {
+            return false;
+        }
+        for (int i = 0; i < post.getImageUrls().size(); i++) {
+            if (!Objects.equals(post.getImageUrls().get(i), post.getImageVariants().get(i).getOriginalUrl())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Map<String, Integer> variantWidths() {
+        Map<String, Integer> targets = new LinkedHashMap<>();
+        targets.put("thumb", thumbWidth);
+        targets.put("feed", feedWidth);
+        targets.put("full", fullWidth);
+        return targets;
+    }
+
+    private void submit(Runnable task, String description) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Image derivative queue is full, {} will be handled by backfill", description);
+        }
+    }
+
+    private void submitBlocking(Runnable task) {
+        while (true) {
+            try {
+                executor.execute(task);
+                return;
+            } catch (RejectedExecutionException e) {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private Path resolveSource(String url) {
+        String relative;
+        int groupPhoto = url.indexOf(GROUP_PHOTO_PATH);
+        if (groupPhoto >= 0) {
+            relative = "group-photos/" + url.substring(groupPhoto + GROUP_PHOTO_PATH.length());
+        } else if (url.contains("/uploads/")) {
+            // Group photos in the blob store carry an absolute URL
+            relative = url.substring(url.indexOf("/uploads/") + "/uploads/".length());
+        } else {
+            return null;
+        }
+        Path baseDir = baseDir();
+        Path resolved = baseDir.resolve(relative).normalize();
+        return resolved.startsWith(baseDir) ? resolved : null;
+    }
+
+    /**
+     * Copy a blob held by a remote MediaStore to a temporary local file
+     */
+    private Path fetchRemote(String url) throws IOException {
+        Optional<MediaBlob> blob = MediaBlobService.keyForUrl(url).flatMap(mediaBlobRepository::findById);
+        if (blob.isEmpty() || blob.get().getPath() == null) {
+            return null;
+        }
+        Path temp = Files.createTempFile(tempDir(), ".source-", ".tmp");
+        try (InputStream in = mediaStoreRegistry.get(blob.get().getBackend()).get(blob.get().getPath())) {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return temp;
+    }
+
+    private String derivativeKey(String variant, String baseName) {
+        return DERIVATIVES_DIR + "/" + variant + "/" + baseName + ".jpg";
+    }
+
+    /**
+     * Whether a derivative has been written, either to a MediaStore or
+     * directly into the upload directory as before
+     */
+    private boolean exists(String key) {
+        return mediaFileService.findByUrl(toUrl(key)).isPresent() || Files.exists(baseDir().resolve(key));
+    }
+
+    private String toUrl(String key) {
+        return "/uploads/" + key;
+    }
+
+    private Path tempDir() throws IOException {
+        Path dir = baseDir().resolve(DERIVATIVES_DIR);
+        Files.createDirectories(dir);
+        return dir;
+    }
+
+    private String baseName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+
+    private Path baseDir() {
+        return Paths.get(baseUploadDir).toAbsolutePath().normalize();
+    }
+}
@@ -3,26 +3,26 @@ package com.university.skillshare_backend.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.university.skillshare_backend.event.DomainEvent;
 import com.university.skillshare_backend.exception.ResourceNotFoundException;
 import com.university.skillshare_backend.model.Like;
 import com.university.skillshare_backend.repository.LikeRepository;
-import com.university.skillshare_backend.repository.PostRepository;
 
 @Service
 public class LikeService {
 
     private final LikeRepository likeRepository;
-    private final PostRepository postRepository;
-    private final WebSocketService webSocketService;
+    private final DomainEventBus domainEventBus;
+    private final EntityCacheService entityCacheService;
     
     @Autowired
     public LikeService(
             LikeRepository likeRepository, 
-            PostRepository postRepository,
-            WebSocketService webSocketService) {
+            DomainEventBus domainEventBus,
+            EntityCacheService entityCacheService) {
         this.likeRepository = likeRepository;
-        this.postRepository = postRepository;
-        this.webSocketService = webSocketService;
+        this.domainEventBus = domainEventBus;
+        this.entityCacheService = entityCacheService;
     }
     
     /**
@@ -34,22 +34,21 @@ public class LikeService {
      */
     public long likePost(String postId, String userId) {
         // Verify post exists
-        postRepository.findById(postId)
-            .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
+        if (!entityCacheService.postExists(postId)) {
+            throw new ResourceNotFoundException("Post", "id", postId);
+        }
         
         // Check if user already liked the post
         Like existingLike = likeRepository.findByPostIdAndUserId(postId, userId);
         if (existingLike == null) {
             Like like = new Like(postId, userId);
             likeRepository.save(like);
+            domainEventBus.publish(new DomainEvent.Liked(postId, userId, true));
         }
         
-        // Get updated like count
+        // Get updated like count; the WebSocket broadcast is left to the event listener
         long likeCount = likeRepository.countByPostId(postId);
         
-        // Broadcast the update via WebSocket
-        webSocketService.broadcastLikeCount(postId, likeCount);
-        
         return likeCount;
     }
     
@@ -62,18 +61,18 @@ public class LikeService {
      */
     public long unlikePost(String postId, String userId) {
         // Verify post exists
-        postRepository.findById(postId)
-            .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
+        if (!entityCacheService.postExists(postId)) {
+            throw new ResourceNotFoundException("Post", "id", postId);
+        }
         
         // Delete the like if it exists
-        likeRepository.deleteByPostIdAndUserId(postId, userId);
+        if (likeRepository.deleteByPostIdAndUserId(postId, userId) > 0) {
+            domainEventBus.publish(new DomainEvent.Liked(postId, userId, false));
+        }
         
-        // Get updated like count
+        // Get updated like count; the WebSocket broadcast is left to the event listener
         long likeCount = likeRepository.countByPostId(postId);
         
-        // Broadcast the update via WebSocket
-        webSocketService.broadcastLikeCount(postId, likeCount);
-        
         return likeCount;
     }
     
@@ -85,8 +84,9 @@ public class LikeService {
      */
     public long getLikeCount(String postId) {
         // Verify post exists
-        postRepository.findById(postId)
-            .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
+        if (!entityCacheService.postExists(postId)) {
+            throw new ResourceNotFoundException("Post", "id", postId);
+        }
         
         return likeRepository.countByPostId(postId);
     }
@@ -0,0 +1,381 @@
+package com.university.skillshare_backend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.university.skillshare_backend.model.MediaBlob;
+import com.university.skillshare_backend.repository.MediaBlobRepository;
+import com.university.skillshare_backend.storage.LocalMediaStore;
+import com.university.skillshare_backend.storage.MediaStore;
+import com.university.skillshare_backend.storage.MediaStoreRegistry;
+import com.university.skillshare_backend.util.SniffingInputStream;
+
+/**
+ * Content-addressed media storage. Files are hashed while they are written,
+ * stored once under their SHA-256 in the primary MediaStore, and shared by
+ * every post, group or achievement that uploads the same bytes.
+ *
+ * Callers count a reference with acquire() once the owning document is saved
+ * and give it back with release(). A blob that nobody has referenced for the
+ * grace period is deleted by collectUnreferenced(), which also cleans up
+ * uploads whose owning document was never saved.
+ */
+@Service
+public class MediaBlobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MediaBlobService.class);
+
+    private static final String BLOB_DIR = "blobs";
+    private static final Pattern BLOB_URL = Pattern.compile("/uploads/" + BLOB_DIR + "/[0-9a-f]{2}/([0-9a-f]{64})(\\.[a-z0-9]{1,8})?$");
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,8}");
+    private static final int COLLECT_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final GridFsTemplate gridFsTemplate;
+    private final MediaBlobRepository mediaBlobRepository;
+    private final MediaFileService mediaFileService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final MediaStoreRegistry mediaStoreRegistry;
+    private final AchievementImageService achievementImageService;
+
+    // Serialises store and collect for the same digest, so a blob that is being
+    // collected cannot be handed out to a new upload at the same time
+    private final ReentrantLock[] digestLocks = new ReentrantLock[64];
+
+    @Value("${file.upload-dir:./uploads}")
+    private String baseUploadDir;
+
+    @Value("${app.upload.max-image-size:10485760}")
+    private long maxImageSize;
+
+    @Value("${app.upload.max-video-size:104857600}")
+    private long maxVideoSize;
+
+    @Value("${app.media.blobs.grace-period-hours:24}")
+    private long gracePeriodHours;
+
+    @Autowired
+    public MediaBlobService(
+            MongoTemplate mongoTemplate,
+            GridFsTemplate gridFsTemplate,
+            MediaBlobRepository mediaBlobRepository,
+            MediaFileService mediaFileService,
+            ImageDerivativeService imageDerivativeService,
+            MediaStoreRegistry mediaStoreRegistry,
+            AchievementImageService achievementImageService) {
+        this.mongoTemplate = mongoTemplate;
+        this.gridFsTemplate = gridFsTemplate;
+        this.mediaBlobRepository = mediaBlobRepository;
+        this.mediaFileService = mediaFileService;
+        this.imageDerivativeService = imageDerivativeService;
+        this.mediaStoreRegistry = mediaStoreRegistry;
+        this.achievementImageService = achievementImageService;
+        for (int i = 0; i < digestLocks.length; i++) {
+            digestLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Store an upload, sniffing its real type and hashing it on the way to disk.
+     * The copy stops as soon as the content turns out to be the wrong kind or too large.
+     *
+     * @param in The file contents
+     * @param kind What the file must be; the client's declared type is ignored
+     * @param originalFilename Used only for the file extension
+     * @return The new or existing blob with the same contents
+     */
+    public MediaBlob store(InputStream in, SniffingInputStream.Kind kind, String originalFilename) throws IOException {
+        Path tempDir = baseDir().resolve(BLOB_DIR).resolve("tmp");
+        Files.createDirectories(tempDir);
+        Path temp = Files.createTempFile(tempDir, "upload-", ".part");
+        try {
+            MessageDigest digest = MediaFileService.newSha256();
+            SniffingInputStream sniffing = new SniffingInputStream(in, kind, maxSize(kind));
+            long size;
+            try (InputStream hashing = new DigestInputStream(sniffing, digest)) {
+                size = Files.copy(hashing, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return ingest(temp, HexFormat.of().formatHex(digest.digest()), size, sniffing.getDetectedType(), originalFilename);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private long maxSize(SniffingInputStream.Kind kind) {
+        return kind == SniffingInputStream.Kind.VIDEO ? maxVideoSize : maxImageSize;
+    }
+
+    /**
+     * Move an already written file (e.g. a finished resumable upload) into the store
+     */
+    public MediaBlob storeFile(Path source, String contentType, String originalFilename) throws IOException {
+        MessageDigest digest = MediaFileService.newSha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(source), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        try {
+            return ingest(source, HexFormat.of().formatHex(digest.digest()), Files.size(source), contentType, originalFilename);
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    /**
+     * Find the blob behind a URL when its bytes are not on the local filesystem
+     */
+    public Optional<MediaBlob> findRemote(String url) {
+        return keyForUrl(url)
+                .flatMap(mediaBlobRepository::findById)
+                .filter(blob -> blob.getBackend() != null && !LocalMediaStore.NAME.equals(blob.getBackend()));
+    }
+
+    /**
+     * Open a byte range of a blob from whichever backend holds it
+     *
+     * @param length Number of bytes, or -1 for the rest of the blob
+     */
+    public InputStream open(MediaBlob blob, long offset, long length) throws IOException {
+        return mediaStoreRegistry.get(blob.getBackend()).get(blob.getPath(), offset, length);
+    }
+
+    /**
+     * Count a reference to the blob with this digest
+     */
+    public void acquireDigest(String digest) {
+        adjustReferences(MediaBlob.key(MediaBlob.Store.LOCAL, digest), 1);
+    }
+
+    /**
+     * Give back a reference to the blob with this digest
+     */
+    public void releaseDigest(String digest) {
+        adjustReferences(MediaBlob.key(MediaBlob.Store.LOCAL, digest), -1);
+    }
+
+    /**
+     * Give back a reference to an achievement image that is still in GridFS.
+     * Files stored before deduplication have no blob record and are deleted
+     * straight away, as before.
+     */
+    public void releaseGridFs(String gridFsId) {
+        Optional<MediaBlob> blob = mediaBlobRepository.findByGridFsId(gridFsId);
+        if (blob.isPresent()) {
+            adjustReferences(blob.get().getId(), -1);
+        } else {
+            gridFsTemplate.delete(new Query(Criteria.where("_id").is(gridFsId)));
+            achievementImageService.invalidate(gridFsId);
+        }
+    }
+
+    /**
+     * Count a reference to each blob URL. URLs of files stored before
+     * deduplication are ignored.
+     */
+    public void acquire(Collection<String> urls) {
+        for (String url : urls) {
+            keyForUrl(url).ifPresent(key -> adjustReferences(key, 1));
+        }
+    }
+
+    /**
+     * Give back a reference to each blob URL
+     */
+    public void release(Collection<String> urls) {
+        for (String url : urls) {
+            keyForUrl(url).ifPresent(key -> adjustReferences(key, -1));
+        }
+    }
+
+    /**
+     * Whether a URL (relative or absolute) points into the blob store
+     */
+    public static boolean isBlobUrl(String url) {
+        return url != null && BLOB_URL.matcher(url).find();
+    }
+
+    /**
+     * Delete blobs that have been unreferenced for longer than the grace period
+     *
+     * @return Number of blobs deleted
+     */
+    @Scheduled(fixedDelayString = "${app.media.blobs.collect-interval-ms:3600000}",
+            initialDelayString = "${app.media.blobs.collect-interval-ms:3600000}")
+    public int collectUnreferenced() {
+        Date cutoff = new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(gracePeriodHours));
+        int deleted = 0;
+
+        List<MediaBlob> candidates;
+        do {
+            candidates = mediaBlobRepository.findByRefCountLessThanEqualAndUpdatedAtBefore(
+                    0, cutoff, PageRequest.of(0, COLLECT_BATCH_SIZE));
+            for (MediaBlob candidate : candidates) {
+                try {
+                    if (collect(candidate.getId(), candidate.getDigest(), cutoff)) {
+                        deleted++;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Could not collect blob {}: {}", candidate.getId(), e.getMessage());
+                }
+            }
+        } while (candidates.size() == COLLECT_BATCH_SIZE);
+
+        if (deleted > 0) {
+            logger.info("Collected {} unreferenced media blobs", deleted);
+        }
+        return deleted;
+    }
+
+    private boolean collect(String key, String digest, Date cutoff) throws IOException {
+        ReentrantLock lock = lockFor(digest);
+        lock.lock();
+        try {
+            // Re-check under the lock; a new reference or upload may have arrived since the scan
+            MediaBlob removed = mongoTemplate.findAndRemove(
+                    new Query(Criteria.where("_id").is(key)
+                            .and("refCount").lte(0)
+                            .and("updatedAt").lt(cutoff)),
+                    MediaBlob.class);
+            if (removed == null) {
+                return false;
+            }
+            if (removed.getStore() == MediaBlob.Store.GRIDFS) {
+                gridFsTemplate.delete(new Query(Criteria.where("_id").is(removed.getGridFsId())));
+                achievementImageService.invalidate(removed.getGridFsId());
+            } else {
+                mediaStoreRegistry.get(removed.getBackend()).delete(removed.getPath());
+                imageDerivativeService.deleteDerivatives(Paths.get(removed.getPath()).getFileName().toString());
+                mediaFileService.deleteRenditions(VideoProcessingService.hlsPrefix(removed.getPath()));
+                mediaFileService.remove(removed.getUrl());
+                achievementImageService.invalidate(removed.getDigest());
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private MediaBlob ingest(Path file, String digest, long size, String contentType, String originalFilename) throws IOException {
+        String key = MediaBlob.key(MediaBlob.Store.LOCAL, digest);
+
+        ReentrantLock lock = lockFor(digest);
+        lock.lock();
+        try {
+            // Touch an existing blob so the collector does not delete it before the caller
+            // acquires it. The lock is per node, so a collector elsewhere may have removed
+            // it just now; then nothing matches and the bytes are stored again below.
+            MediaBlob existing = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(key)),
+                    new Update().set("updatedAt", new Date()),
+                    FindAndModifyOptions.options().returnNew(true), MediaBlob.class);
+            if (existing != null) {
+                logger.info("Reusing stored blob {} for {}", digest, originalFilename);
+                return existing;
+            }
+
+            String relativePath = BLOB_DIR + "/" + digest.substring(0, 2) + "/" + digest + extensionOf(originalFilename);
+            MediaStore store = mediaStoreRegistry.primary();
+            store.putFile(relativePath, file, contentType);
+
+            MediaBlob blob = new MediaBlob();
+            blob.setId(key);
+            blob.setDigest(digest);
+            blob.setStore(MediaBlob.Store.LOCAL);
+            blob.setContentType(contentType);
+            blob.setSize(size);
+            blob.setPath(relativePath);
+            blob.setBackend(store.getName());
+            blob.setRefCount(0);
+            try {
+                blob = mediaBlobRepository.insert(blob);
+            } catch (DuplicateKeyException e) {
+                // Another instance stored the same bytes first; the file we moved is identical
+                blob = mediaBlobRepository.findById(key).orElseThrow(() -> e);
+            }
+            if (mediaFileService.findByUrl(blob.getUrl()).isEmpty()) {
+                mediaFileService.register(blob.getUrl(), contentType, size, digest);
+            }
+            return blob;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void adjustReferences(String key, int delta) {
+        Criteria criteria = Criteria.where("_id").is(key);
+        if (delta < 0) {
+            // Never count below zero: an extra release would otherwise let the
+            // collector delete bytes that something still references
+            criteria.and("refCount").gte(-delta);
+        }
+        UpdateResult result = mongoTemplate.updateFirst(new Query(criteria),
+                new Update().inc("refCount", delta).set("updatedAt", new Date()), MediaBlob.class);
+        if (delta < 0 && result.getMatchedCount() == 0 && mediaBlobRepository.existsById(key)) {
+            logger.warn("Ignored release of blob {}: it has fewer than {} references", key, -delta);
+        }
+    }
+
+    /**
+     * The MediaBlob id behind a blob URL (relative or absolute)
+     */
+    public static Optional<String> keyForUrl(String url) {
+        if (url == null) {
+            return Optional.empty();
+        }
+        Matcher matcher = BLOB_URL.matcher(url);
+        return matcher.find()
+                ? Optional.of(MediaBlob.key(MediaBlob.Store.LOCAL, matcher.group(1)))
+                : Optional.empty();
+    }
+
+    private String extensionOf(String fileName) {
+        if (fileName == null) {
+            return "";
+        }
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0) {
+            return "";
+        }
+        String extension = fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(extension).matches() ? "." + extension : "";
+    }
+
+    private ReentrantLock lockFor(String digest) {
+        return digestLocks[Math.floorMod(digest.hashCode(), digestLocks.length)];
+    }
+
+    private Path baseDir() {
+        return Paths.get(baseUploadDir).toAbsolutePath().normalize();
+    }
+}
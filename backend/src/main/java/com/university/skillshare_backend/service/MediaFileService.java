@@ -0,0 +1,174 @@
+package com.university.skillshare_backend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.model.MediaFile;
+import com.university.skillshare_backend.repository.MediaFileRepository;
+import com.university.skillshare_backend.storage.MediaStore;
+import com.university.skillshare_backend.storage.MediaStoreRegistry;
+
+@Service
+public class MediaFileService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MediaFileService.class);
+
+    private static final int METADATA_CACHE_SIZE = 2048;
+
+    private final MediaFileRepository mediaFileRepository;
+    private final MediaStoreRegistry mediaStoreRegistry;
+
+    // Video scrubbing issues many range requests for the same file, so keep
+    // recently served metadata in memory instead of querying Mongo each time
+    private final Map<String, MediaFile> metadataCache = Collections.synchronizedMap(
+            new LinkedHashMap<String, MediaFile>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, MediaFile> eldest) {
+                    return size() > METADATA_CACHE_SIZE;
+                }
+            });
+
+    @Value("${file.upload-dir:./uploads}")
+    private String baseUploadDir;
+
+    @Autowired
+    public MediaFileService(MediaFileRepository mediaFileRepository, MediaStoreRegistry mediaStoreRegistry) {
+        this.mediaFileRepository = mediaFileRepository;
+        this.mediaStoreRegistry = mediaStoreRegistry;
+    }
+
+    /**
+     * Record metadata for a newly stored file
+     *
+     * @param url Public URL of the file
+     * @param contentType Content type of the file
+     * @param size Size in bytes
+     * @param sha256 Hex SHA-256 of the contents, used as the strong ETag
+     */
+    public MediaFile register(String url, String contentType, long size, String sha256) {
+        MediaFile mediaFile = new MediaFile(url, contentType, size, sha256);
+        try {
+            mediaFile = mediaFileRepository.save(mediaFile);
+        } catch (DuplicateKeyException e) {
+            logger.warn("Media metadata already recorded for {}", url);
+        }
+        metadataCache.put(url, mediaFile);
+        return mediaFile;
+    }
+
+    /**
+     * Hash an already stored file and record its metadata
+     */
+    public MediaFile register(String url, String contentType, Path file) throws IOException {
+        return register(url, contentType, Files.size(file), sha256(file));
+    }
+
+    /**
+     * Write a rendition (image derivative, HLS playlist or segment) to the primary
+     * MediaStore and record which backend holds it. The file is deleted afterwards.
+     * Writing the same key again replaces the rendition and its metadata.
+     *
+     * @param key Object key, which is also the path below /uploads/
+     * @return Metadata of the stored rendition
+     */
+    public MediaFile storeRendition(String key, Path file, String contentType) throws IOException {
+        String url = "/uploads/" + key;
+        long size = Files.size(file);
+        String sha256 = sha256(file);
+        MediaStore store = mediaStoreRegistry.primary();
+        store.putFile(key, file, contentType);
+
+        MediaFile mediaFile = new MediaFile(url, contentType, size, sha256);
+        mediaFile.setBackend(store.getName());
+        mediaFileRepository.findByUrl(url).ifPresent(existing -> mediaFile.setId(existing.getId()));
+        MediaFile saved = mediaFileRepository.save(mediaFile);
+        metadataCache.put(url, saved);
+        return saved;
+    }
+
+    /**
+     * Delete every rendition stored below a URL prefix from its backend
+     *
+     * @return Number of renditions deleted
+     */
+    public int deleteRenditions(String urlPrefix) throws IOException {
+        int deleted = 0;
+        for (MediaFile rendition : mediaFileRepository.findByUrlStartingWith(urlPrefix)) {
+            if (rendition.getBackend() == null) {
+                continue;
+            }
+            mediaStoreRegistry.get(rendition.getBackend()).delete(rendition.getUrl().substring("/uploads/".length()));
+            metadataCache.remove(rendition.getUrl());
+            mediaFileRepository.delete(rendition);
+            deleted++;
+        }
+        return deleted;
+    }
+
+    /**
+     * Find recorded metadata for a file URL
+     */
+    public Optional<MediaFile> findByUrl(String url) {
+        MediaFile cached = metadataCache.get(url);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<MediaFile> mediaFile = mediaFileRepository.findByUrl(url);
+        mediaFile.ifPresent(file -> metadataCache.put(url, file));
+        return mediaFile;
+    }
+
+    /**
+     * Forget metadata for a file that has been deleted
+     */
+    public void remove(String url) {
+        metadataCache.remove(url);
+        mediaFileRepository.findByUrl(url).ifPresent(mediaFileRepository::delete);
+    }
+
+    /**
+     * Resolve a path below the upload directory, or empty if it escapes it
+     */
+    public Optional<Path> resolveUploadPath(String relativePath) {
+        Path baseDir = Paths.get(baseUploadDir).toAbsolutePath().normalize();
+        Path resolved = baseDir.resolve(relativePath).normalize();
+        return resolved.startsWith(baseDir) ? Optional.of(resolved) : Optional.empty();
+    }
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest = newSha256();
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.university.skillshare_backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.event.DomainEvent;
+import com.university.skillshare_backend.event.DomainEventListener;
+import com.university.skillshare_backend.model.Comment;
+import com.university.skillshare_backend.model.Group;
+import com.university.skillshare_backend.model.Notification;
+import com.university.skillshare_backend.model.Notification.NotificationType;
+import com.university.skillshare_backend.model.User;
+import com.university.skillshare_backend.repository.UserRepository;
+
+/**
+ * Turns domain events into notifications for the users they concern: mentions
+ * in comments, reactions to posts, new followers and posts shared to a group.
+ * Shares fan out to every group member, read a page at a time, and their
+ * notifications are stored in bulk writes of up to a page each.
+ *
+ * These events come from the outbox, so a failure is left to propagate and
+ * the batch is delivered again later.
+ */
+@Service
+public class NotificationEventListener implements DomainEventListener {
+
+    private static final int MEMBER_PAGE_SIZE = 500;
+
+    private final NotificationService notificationService;
+    private final EntityCacheService entityCacheService;
+    private final UserRepository userRepository;
+    private final GroupMembershipService groupMembershipService;
+
+    @Autowired
+    public NotificationEventListener(
+            NotificationService notificationService,
+            EntityCacheService entityCacheService,
+            UserRepository userRepository,
+            GroupMembershipService groupMembershipService) {
+        this.notificationService = notificationService;
+        this.entityCacheService = entityCacheService;
+        this.userRepository = userRepository;
+        this.groupMembershipService = groupMembershipService;
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        List<Notification> shared = new ArrayList<>();
+        for (DomainEvent event : events) {
+            switch (event) {
+                case DomainEvent.Commented commented -> notifyMentions(commented.comment(), commented.mentions());
+                case DomainEvent.Reacted reacted -> {
+                    // Don't notify users about their own reactions
+                    if (!reacted.postOwnerId().equals(reacted.userId())) {
+                        notificationService.createReactionNotification(
+                            reacted.postOwnerId(), reacted.reactorName(), reacted.postId(), reacted.type());
+                    }
+                }
+                case DomainEvent.Followed followed -> {
+                    if (followed.following()) {
+                        notificationService.createFollowNotification(
+                            followed.userId(), followed.followerName(), followed.followerId());
+                    }
+                }
+                case DomainEvent.PostShared share -> notifySharedPost(share, shared);
+                default -> {
+                }
+            }
+        }
+        notificationService.createNotifications(shared);
+    }
+
+    private void notifyMentions(Comment comment, List<String> mentions) {
+        if (mentions == null || mentions.isEmpty()) {
+            return;
+        }
+        User commenter = entityCacheService.findUser(comment.getUserId()).orElse(null);
+        if (commenter == null) {
+            return;
+        }
+        for (String username : mentions) {
+            userRepository.findByUsername(username).ifPresent(mentionedUser -> {
+                // Don't notify if the user mentions themselves
+                if (!mentionedUser.getId().equals(comment.getUserId())) {
+                    notificationService.createMentionNotification(
+                        mentionedUser.getId(), commenter.getUsername(), comment.getPostId());
+                }
+            });
+        }
+    }
+
+    /**
+     * Notify every member but the sharer, a page of members at a time; full
+     * pages of notifications are stored as they fill up
+     */
+    private void notifySharedPost(DomainEvent.PostShared share, List<Notification> pending) {
+        Group group = entityCacheService.findGroup(share.groupId()).orElse(null);
+        if (group == null) {
+            return;
+        }
+        groupMembershipService.forEachMemberPage(share.groupId(), MEMBER_PAGE_SIZE, memberIds -> {
+            for (String memberId : memberIds) {
+                if (!memberId.equals(share.sharedBy())) { // Don't notify the sharer
+                    pending.add(notificationService.newNotification(
+                        memberId, "Post Shared", "A new post was shared in " + group.getName(),
+                        NotificationType.POST_SHARED, share.postId()));
+                }
+            }
+            if (pending.size() >= MEMBER_PAGE_SIZE) {
+                notificationService.createNotifications(new ArrayList<>(pending));
+                pending.clear();
+            }
+        });
+    }
+}
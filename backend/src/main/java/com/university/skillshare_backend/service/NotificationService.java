@@ -106,16 +106,8 @@ public class NotificationService {
      */
     public Notification createNotification(String userId, String title, String message, 
                                           NotificationType type, String relatedItemId) {
-        Notification notification = new Notification();
-        notification.setUserId(userId);
-        notification.setTitle(title);
-        notification.setMessage(message);
-        notification.setType(type.name()); // Convert enum to string
-        notification.setRelatedItemId(relatedItemId);
-        notification.setRead(false);
-        notification.setCreatedAt(new Date());
-        
-        notification = notificationRepository.save(notification);
+        Notification notification = notificationRepository.save(
+            newNotification(userId, title, message, type, relatedItemId));
         
         // Send real-time notification via WebSocket
         messagingTemplate.convertAndSendToUser(
@@ -127,6 +119,40 @@ public class NotificationService {
         return notification;
     }
     
+    /**
+     * Store several notifications in one write, then push each to its user
+     */
+    public List<Notification> createNotifications(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return notifications;
+        }
+        List<Notification> saved = notificationRepository.saveAll(notifications);
+        for (Notification notification : saved) {
+            messagingTemplate.convertAndSendToUser(
+                notification.getUserId(), 
+                "/queue/notifications", 
+                notification
+            );
+        }
+        return saved;
+    }
+    
+    /**
+     * Build an unread notification without storing it
+     */
+    public Notification newNotification(String userId, String title, String message, 
+                                        NotificationType type, String relatedItemId) {
+        Notification notification = new Notification();
+        notification.setUserId(userId);
+        notification.setTitle(title);
+        notification.setMessage(message);
+        notification.setType(type.name()); // Convert enum to string
+        notification.setRelatedItemId(relatedItemId);
+        notification.setRead(false);
+        notification.setCreatedAt(new Date());
+        return notification;
+    }
+    
     /**
      * Create a system notification
      */
@@ -0,0 +1,413 @@
+package com.university.skillshare_backend.service;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.university.skillshare_backend.exception.ConflictException;
+import com.university.skillshare_backend.util.BloomFilter;
+
+/**
+ * Mark-and-sweep collector for media files that no document points to any
+ * more, e.g. images replaced by an edit or left behind by a failed request.
+ *
+ * The mark phase streams every media reference out of Mongo into a Bloom
+ * filter, so memory stays small however many files there are. A false
+ * positive only means an orphan survives until a later run; a referenced file
+ * is never deleted. The sweep phase walks the upload directories and GridFS
+ * and deletes what is unmarked and older than the grace period, at a bounded
+ * rate so a large backlog does not saturate the disk.
+ */
+@Service
+public class OrphanedMediaCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrphanedMediaCollector.class);
+
+    private static final String GROUP_PHOTO_PATH = "/api/group-photos/";
+    private static final String GRIDFS_PREFIX = "gridfs:";
+    private static final int REPORT_SAMPLE_SIZE = 100;
+
+    // Directories below the upload directory that hold user media; tmp and blobs/tmp are left to their owners
+    private static final List<String> SWEPT_DIRECTORIES = List.of(
+            "images", "videos", "group-photos", "blobs", "derivatives", "hls");
+
+    /** Fields holding media references, per collection */
+    private static final Map<String, List<String>> REFERENCE_FIELDS = Map.of(
+            "posts", List.of("imageUrls", "imageVariants", "videoUrl", "videoMetadata"),
+            "groups", List.of("photoUrl", "photoVariants"),
+            "users", List.of("profileImage"),
+            "upload_sessions", List.of("storagePath", "url"),
+            "media_blobs", List.of("path", "gridFsId"),
+            "achievements", List.of("imageId"));
+
+    private final MongoTemplate mongoTemplate;
+    private final GridFsTemplate gridFsTemplate;
+    private final MediaFileService mediaFileService;
+    private final AchievementImageService achievementImageService;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${file.upload-dir:./uploads}")
+    private String baseUploadDir;
+
+    @Value("${app.media.sweep.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.media.sweep.dry-run:false}")
+    private boolean scheduledDryRun;
+
+    @Value("${app.media.sweep.grace-period-hours:24}")
+    private long gracePeriodHours;
+
+    @Value("${app.media.sweep.deletes-per-second:20}")
+    private int deletesPerSecond;
+
+    @Autowired
+    public OrphanedMediaCollector(
+            MongoTemplate mongoTemplate,
+            GridFsTemplate gridFsTemplate,
+            MediaFileService mediaFileService,
+            AchievementImageService achievementImageService) {
+        this.mongoTemplate = mongoTemplate;
+        this.gridFsTemplate = gridFsTemplate;
+        this.mediaFileService = mediaFileService;
+        this.achievementImageService = achievementImageService;
+    }
+
+    @Scheduled(fixedDelayString = "${app.media.sweep.interval-ms:86400000}",
+            initialDelayString = "${app.media.sweep.interval-ms:86400000}")
+    public void scheduledSweep() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            sweep(scheduledDryRun);
+        } catch (ConflictException e) {
+            logger.info("Skipping scheduled media sweep: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Run one mark-and-sweep pass
+     *
+     * @param dryRun Only report what would be deleted
+     * @return What was found and deleted
+     */
+    public Report sweep(boolean dryRun) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ConflictException("A media sweep is already running");
+        }
+        try {
+            Report report = new Report(dryRun);
+            long started = System.nanoTime();
+            Date cutoff = new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(gracePeriodHours));
+
+            BloomFilter references = mark(report);
+            sweepFiles(references, cutoff, report);
+            sweepGridFs(references, cutoff, report);
+
+            report.durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            logger.info("Media sweep{}: {} references, {} of {} files and {} of {} GridFS files orphaned ({} bytes), {} deleted in {} ms",
+                    dryRun ? " (dry run)" : "", report.referencesMarked,
+                    report.orphanedFiles, report.filesScanned,
+                    report.orphanedGridFsFiles, report.gridFsScanned,
+                    report.orphanedBytes, report.deletedFiles + report.deletedGridFsFiles, report.durationMs);
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private BloomFilter mark(Report report) {
+        long documents = 0;
+        for (String collection : REFERENCE_FIELDS.keySet()) {
+            documents += mongoTemplate.estimatedCount(collection);
+        }
+        // A post holds up to three images with their variants plus a video and its renditions
+        BloomFilter references = new BloomFilter(Math.max(10_000, documents * 16), 0.001);
+
+        REFERENCE_FIELDS.forEach((collection, fields) -> {
+            Query query = new Query();
+            fields.forEach(field -> query.fields().include(field));
+            try (Stream<Document> documentStream = mongoTemplate.stream(query, Document.class, collection)) {
+                documentStream.forEach(document -> fields.forEach(field ->
+                        markValue(document.get(field), "achievements".equals(collection) || "gridFsId".equals(field),
+                                references, report)));
+            }
+        });
+        report.filterBytes = references.getSizeInBytes();
+        return references;
+    }
+
+    private void markValue(Object value, boolean gridFs, BloomFilter references, Report report) {
+        if (value instanceof String string) {
+            String key = gridFs ? GRIDFS_PREFIX + string : referenceKey(string);
+            if (key != null) {
+                references.put(key);
+                report.referencesMarked++;
+            }
+        } else if (value instanceof ObjectId objectId && gridFs) {
+            references.put(GRIDFS_PREFIX + objectId.toHexString());
+            report.referencesMarked++;
+        } else if (value instanceof Document document) {
+            document.values().forEach(nested -> markValue(nested, gridFs, references, report));
+        } else if (value instanceof List<?> list) {
+            list.forEach(nested -> markValue(nested, gridFs, references, report));
+        }
+    }
+
+    /**
+     * The path below the upload directory that a stored URL or path refers to.
+     * All files of an HLS rendition share the key of their directory.
+     */
+    static String referenceKey(String reference) {
+        if (reference == null || reference.isBlank()) {
+            return null;
+        }
+        String relative;
+        int groupPhoto = reference.indexOf(GROUP_PHOTO_PATH);
+        int uploads = reference.indexOf("/uploads/");
+        if (groupPhoto >= 0) {
+            relative = "group-photos/" + reference.substring(groupPhoto + GROUP_PHOTO_PATH.length());
+        } else if (uploads >= 0) {
+            relative = reference.substring(uploads + "/uploads/".length());
+        } else if (!reference.contains("://") && !reference.startsWith("/")) {
+            // Already relative, e.g. an upload session's storage path or a blob key
+            relative = reference;
+        } else {
+            return null;
+        }
+        int query = relative.indexOf('?');
+        if (query >= 0) {
+            relative = relative.substring(0, query);
+        }
+        relative = relative.replace('\\', '/');
+        if (relative.startsWith("hls/")) {
+            int end = relative.indexOf('/', "hls/".length());
+            return end > 0 ? relative.substring(0, end + 1) : relative;
+        }
+        return relative;
+    }
+
+    private void sweepFiles(BloomFilter references, Date cutoff, Report report) {
+        Path baseDir = Paths.get(baseUploadDir).toAbsolutePath().normalize();
+        Path blobTemp = baseDir.resolve("blobs").resolve("tmp");
+        long cutoffMillis = cutoff.getTime();
+
+        for (String directory : SWEPT_DIRECTORIES) {
+            Path root = baseDir.resolve(directory);
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+            try {
+                Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                        return dir.equals(blobTemp) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (!attrs.isRegularFile()) {
+                            return FileVisitResult.CONTINUE;
+                        }
+                        report.filesScanned++;
+                        String relative = baseDir.relativize(file).toString().replace('\\', '/');
+                        if (attrs.lastModifiedTime().toMillis() >= cutoffMillis
+                                || references.mightContain(referenceKey(relative))) {
+                            return FileVisitResult.CONTINUE;
+                        }
+                        report.orphaned(relative, attrs.size());
+                        report.orphanedFiles++;
+                        if (!report.dryRun) {
+                            deleteFile(file, relative, report);
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        logger.warn("Could not inspect {}: {}", file, e.getMessage());
+                        report.failures++;
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                        // Remove HLS directories whose segments have all been collected
+                        if (!report.dryRun && !dir.equals(root) && dir.startsWith(baseDir.resolve("hls"))) {
+                            try (Stream<Path> entries = Files.list(dir)) {
+                                if (entries.findAny().isEmpty()) {
+                                    Files.deleteIfExists(dir);
+                                }
+                            } catch (IOException ignored) {
+                                // Not empty or already gone
+                            }
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                logger.warn("Could not sweep {}: {}", root, e.getMessage());
+                report.failures++;
+            }
+        }
+    }
+
+    private void deleteFile(Path file, String relative, Report report) {
+        throttle();
+        try {
+            if (Files.deleteIfExists(file)) {
+                report.deletedFiles++;
+                mediaFileService.remove("/uploads/" + relative);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not delete orphaned file {}: {}", relative, e.getMessage());
+            report.failures++;
+        }
+    }
+
+    private void sweepGridFs(BloomFilter references, Date cutoff, Report report) {
+        for (GridFSFile file : gridFsTemplate.find(new Query(Criteria.where("uploadDate").lt(cutoff)))) {
+            report.gridFsScanned++;
+            String id = file.getId().isObjectId() ? file.getObjectId().toHexString() : file.getId().toString();
+            // Blobs kept in GridFS by the gridfs MediaStore are named after their blob key
+            if (references.mightContain(GRIDFS_PREFIX + id) || references.mightContain(referenceKey(file.getFilename()))) {
+                continue;
+            }
+            report.orphaned(GRIDFS_PREFIX + id, file.getLength());
+            report.orphanedGridFsFiles++;
+            if (!report.dryRun) {
+                throttle();
+                try {
+                    Object fileId = file.getId().isObjectId() ? file.getObjectId() : id;
+                    gridFsTemplate.delete(new Query(Criteria.where("_id").is(fileId)));
+                    achievementImageService.invalidate(id);
+                    report.deletedGridFsFiles++;
+                } catch (RuntimeException e) {
+                    logger.warn("Could not delete orphaned GridFS file {}: {}", id, e.getMessage());
+                    report.failures++;
+                }
+            }
+        }
+    }
+
+    private void throttle() {
+        if (deletesPerSecond > 0) {
+            LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1) / deletesPerSecond);
+        }
+    }
+
+    /**
+     * Outcome of one sweep
+     */
+    public static class Report {
+        private final boolean dryRun;
+        private final Date startedAt = new Date();
+        private long durationMs;
+        private long referencesMarked;
+        private long filterBytes;
+        private long filesScanned;
+        private long orphanedFiles;
+        private long deletedFiles;
+        private long gridFsScanned;
+        private long orphanedGridFsFiles;
+        private long deletedGridFsFiles;
+        private long orphanedBytes;
+        private long failures;
+        private final List<String> sample = new ArrayList<>();
+
+        Report(boolean dryRun) {
+            this.dryRun = dryRun;
+        }
+
+        void orphaned(String path, long size) {
+            orphanedBytes += size;
+            if (sample.size() < REPORT_SAMPLE_SIZE) {
+                sample.add(path);
+            }
+        }
+
+        public boolean isDryRun() {
+            return dryRun;
+        }
+
+        public Date getStartedAt() {
+            return startedAt;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        public long getReferencesMarked() {
+            return referencesMarked;
+        }
+
+        public long getFilterBytes() {
+            return filterBytes;
+        }
+
+        public long getFilesScanned() {
+            return filesScanned;
+        }
+
+        public long getOrphanedFiles() {
+            return orphanedFiles;
+        }
+
+        public long getDeletedFiles() {
+            return deletedFiles;
+        }
+
+        public long getGridFsScanned() {
+            return gridFsScanned;
+        }
+
+        public long getOrphanedGridFsFiles() {
+            return orphanedGridFsFiles;
+        }
+
+        public long getDeletedGridFsFiles() {
+            return deletedGridFsFiles;
+        }
+
+        public long getOrphanedBytes() {
+            return orphanedBytes;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        /** Up to the first hundred orphaned paths (GridFS files as gridfs:&lt;id&gt;) */
+        public List<String> getSample() {
+            return sample;
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package com.university.skillshare_backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+import com.university.skillshare_backend.event.DomainEvent;
+import com.university.skillshare_backend.event.DomainEventListener;
+import com.university.skillshare_backend.model.OutboxMessage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Durable delivery for events whose side effects must not be lost, such as
+ * notifications. The request records the event in the outbox collection
+ * right before the write it describes; a dispatcher thread claims pending
+ * messages in batches, checks that the described document was really
+ * written, hands the events to every {@link DomainEventListener} and removes
+ * each message once all listeners have taken it. A failed listener is retried
+ * with backoff, so delivery is at least once.
+ *
+ * The message is written first, rather than in one transaction with the
+ * document, because the database may be a standalone server without
+ * multi-document transactions. A message whose document never appears (the
+ * request died in between) is discarded after app.outbox.orphan-after-ms.
+ */
+@Service
+public class OutboxService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+
+    private static final long MAX_BACKOFF_MS = TimeUnit.HOURS.toMillis(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectProvider<DomainEventListener> listenerProvider;
+    private final Counter delivered;
+    private final Counter failed;
+    private volatile List<DomainEventListener> listeners;
+
+    private Thread dispatcher;
+    private volatile boolean running = true;
+
+    @Value("${app.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.outbox.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${app.outbox.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${app.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    @Value("${app.outbox.orphan-after-ms:60000}")
+    private long orphanAfterMs;
+
+    @Autowired
+    public OutboxService(
+            MongoTemplate mongoTemplate,
+            ObjectProvider<DomainEventListener> listenerProvider,
+            MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        // Resolved lazily because listeners depend on the services that record events
+        this.listenerProvider = listenerProvider;
+        this.delivered = meterRegistry.counter("outbox.delivered");
+        this.failed = meterRegistry.counter("outbox.failed");
+    }
+
+    /**
+     * An id for a document that is about to be inserted, so the event can point at it first
+     */
+    public static String newId() {
+        return new ObjectId().toHexString();
+    }
+
+    /**
+     * Record an event about a document that is about to be written
+     *
+     * @param guardCollection Collection of that document
+     * @param guardId Its id; the event is delivered once it exists
+     */
+    public OutboxMessage record(DomainEvent event, String guardCollection, String guardId) {
+        return mongoTemplate.insert(new OutboxMessage(event, guardCollection, guardId));
+    }
+
+    /**
+     * Record an event about a write that has already been made. There is
+     * nothing to wait for, so the event is delivered without a guard check.
+     */
+    public OutboxMessage record(DomainEvent event) {
+        return mongoTemplate.insert(new OutboxMessage(event, null, null));
+    }
+
+    /**
+     * Record an event about an update that is about to be made; the event is
+     * delivered once the document has guardField = guardValue. Values are compared
+     * by their string form, so numeric fields such as a version can be guarded on
+     */
+    public OutboxMessage record(DomainEvent event, String guardCollection, String guardId,
+            String guardField, String guardValue) {
+        OutboxMessage message = new OutboxMessage(event, guardCollection, guardId);
+        message.setGuardField(guardField);
+        message.setGuardValue(guardValue);
+        return mongoTemplate.insert(message);
+    }
+
+    /**
+     * Wake the dispatcher after the guarded write, instead of waiting for the next poll
+     */
+    public void flush() {
+        Thread thread = dispatcher;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        dispatcher = new Thread(this::dispatch, "outbox-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        flush();
+    }
+
+    private void dispatch() {
+        while (running) {
+            int claimed = 0;
+            try {
+                claimed = dispatchBatch();
+            } catch (Exception e) {
+                logger.warn("Outbox dispatch failed: {}", e.getMessage());
+            }
+            // A full batch means there is probably more waiting
+            if (claimed < batchSize && running) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(pollIntervalMs));
+            }
+        }
+    }
+
+    /**
+     * Claim, check and deliver one batch
+     *
+     * @return Number of messages claimed
+     */
+    private int dispatchBatch() {
+        List<OutboxMessage> batch = claim();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<OutboxMessage> ready = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        Set<String> written = findWritten(batch);
+        for (OutboxMessage message : batch) {
+            if (written.contains(message.getId())) {
+                ready.add(message);
+            } else if (now - message.getCreatedAt().getTime() > orphanAfterMs) {
+                logger.info("Discarding outbox message {}, its {} {} was never written",
+                        message.getId(), message.getGuardCollection(), message.getGuardId());
+                remove(List.of(message.getId()));
+            } else {
+                // The write may still be on its way; look again shortly without counting an attempt
+                release(message, new Update().inc("attempts", -1)
+                        .set("availableAt", new Date(now + retryBackoffMs)));
+            }
+        }
+
+        Map<String, String> failures = new LinkedHashMap<>();
+        List<String> names = new ArrayList<>();
+        for (DomainEventListener listener : listeners()) {
+            String name = ClassUtils.getUserClass(listener).getSimpleName();
+            names.add(name);
+            List<OutboxMessage> pending = ready.stream()
+                    .filter(message -> !message.getDeliveredTo().contains(name))
+                    .toList();
+            if (pending.isEmpty()) {
+                continue;
+            }
+            try {
+                listener.onEvents(new ArrayList<>(pending.stream().map(OutboxMessage::getEvent).toList()));
+                List<String> ids = pending.stream().map(OutboxMessage::getId).toList();
+                mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(ids)),
+                        new Update().addToSet("deliveredTo", name), OutboxMessage.class);
+                pending.forEach(message -> message.getDeliveredTo().add(name));
+            } catch (Exception e) {
+                logger.warn("{} failed on {} outbox messages: {}", name, pending.size(), e.getMessage());
+                failures.put(name, e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+        }
+
+        List<String> done = new ArrayList<>();
+        for (OutboxMessage message : ready) {
+            if (message.getDeliveredTo().containsAll(names)) {
+                done.add(message.getId());
+            } else {
+                retry(message, String.join("; ", failures.values()));
+            }
+        }
+        remove(done);
+        delivered.increment(done.size());
+        return batch.size();
+    }
+
+    /**
+     * Claim up to batchSize deliverable messages with one update, tagged with a
+     * fresh token so this dispatcher can read back exactly the ones it won
+     */
+    private List<OutboxMessage> claim() {
+        Date now = new Date();
+        Criteria claimable = new Criteria().orOperator(
+                Criteria.where("status").is(OutboxMessage.Status.PENDING).and("availableAt").lte(now),
+                // Lease expired: the dispatcher that claimed it is gone
+                Criteria.where("status").is(OutboxMessage.Status.CLAIMED).and("lockedUntil").lt(now));
+        Query candidates = new Query(claimable).with(Sort.by(Sort.Direction.ASC, "availableAt")).limit(batchSize);
+        candidates.fields().include("_id");
+        List<Object> ids = mongoTemplate.find(candidates, Document.class, "outbox").stream()
+                .map(document -> document.get("_id"))
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        String token = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(
+                new Query(new Criteria().andOperator(Criteria.where("_id").in(ids), claimable)),
+                new Update()
+                        .set("status", OutboxMessage.Status.CLAIMED)
+                        .set("claimToken", token)
+                        .set("lockedUntil", new Date(now.getTime() + leaseMs))
+                        .inc("attempts", 1),
+                OutboxMessage.class);
+        return mongoTemplate.find(new Query(Criteria.where("claimToken").is(token)), OutboxMessage.class);
+    }
+
+    /**
+     * Ids of the messages whose guarded write has happened, one query per collection
+     */
+    private Set<String> findWritten(List<OutboxMessage> batch) {
+        Map<String, List<OutboxMessage>> byCollection = new LinkedHashMap<>();
+        for (OutboxMessage message : batch) {
+            byCollection.computeIfAbsent(message.getGuardCollection(), c -> new ArrayList<>()).add(message);
+        }
+
+        Set<String> written = new HashSet<>();
+        // Unguarded messages describe writes that were made before they were recorded
+        List<OutboxMessage> unguarded = byCollection.remove(null);
+        if (unguarded != null) {
+            unguarded.forEach(message -> written.add(message.getId()));
+        }
+        for (Map.Entry<String, List<OutboxMessage>> entry : byCollection.entrySet()) {
+            // Guard values are compared below rather than in the query, since they are
+            // recorded as strings and the guarded field may be numeric (e.g. a version)
+            List<Object> ids = entry.getValue().stream()
+                    .map(message -> documentId(message.getGuardId())).distinct().toList();
+            Query query = new Query(Criteria.where("_id").in(ids));
+            query.fields().include("_id");
+            entry.getValue().stream().map(OutboxMessage::getGuardField).filter(Objects::nonNull)
+                    .distinct().forEach(field -> query.fields().include(field));
+            Map<String, Document> found = new HashMap<>();
+            mongoTemplate.find(query, Document.class, entry.getKey())
+                    .forEach(document -> found.put(String.valueOf(document.get("_id")), document));
+            // Several messages can guard on one document with different values, so check each
+            for (OutboxMessage message : entry.getValue()) {
+                Document document = found.get(message.getGuardId());
+                if (document != null && guardHolds(message, document)) {
+                    written.add(message.getId());
+                }
+            }
+        }
+        return written;
+    }
+
+    private static boolean guardHolds(OutboxMessage message, Document document) {
+        if (message.getGuardField() == null) {
+            return true;
+        }
+        Object value = document.get(message.getGuardField());
+        if (value instanceof Collection<?> values) {
+            return values.stream().anyMatch(element -> guardValueMatches(element, message.getGuardValue()));
+        }
+        return guardValueMatches(value, message.getGuardValue());
+    }
+
+    private static boolean guardValueMatches(Object value, String guardValue) {
+        return value != null ? String.valueOf(value).equals(guardValue) : guardValue == null;
+    }
+
+    private void retry(OutboxMessage message, String error) {
+        if (message.getAttempts() >= maxAttempts) {
+            logger.error("Outbox message {} ({}) failed permanently after {} attempts: {}", message.getId(),
+                    message.getEvent().getClass().getSimpleName(), message.getAttempts(), error);
+            release(message, new Update().set("status", OutboxMessage.Status.FAILED).set("lastError", error));
+            failed.increment();
+            return;
+        }
+        long backoff = Math.min(MAX_BACKOFF_MS, retryBackoffMs << Math.min(message.getAttempts() - 1, 20));
+        release(message, new Update()
+                .set("availableAt", new Date(System.currentTimeMillis() + backoff))
+                .set("lastError", error));
+    }
+
+    /**
+     * Hand a claimed message back, unless the lease was lost and another dispatcher has it
+     */
+    private void release(OutboxMessage message, Update update) {
+        if (!update.modifies("status")) {
+            update.set("status", OutboxMessage.Status.PENDING);
+        }
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(message.getId()).and("claimToken").is(message.getClaimToken())),
+                update.unset("claimToken").unset("lockedUntil"),
+                OutboxMessage.class);
+    }
+
+    private void remove(List<String> ids) {
+        if (!ids.isEmpty()) {
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), OutboxMessage.class);
+        }
+    }
+
+    private List<DomainEventListener> listeners() {
+        List<DomainEventListener> resolved = listeners;
+        if (resolved == null) {
+            resolved = listenerProvider.orderedStream().toList();
+            listeners = resolved;
+        }
+        return resolved;
+    }
+
+    // Ids generated by the application are stored as ObjectIds, but raw queries are not converted
+    private static Object documentId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
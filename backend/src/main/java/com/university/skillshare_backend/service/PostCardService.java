@@ -0,0 +1,388 @@
+package com.university.skillshare_backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.event.DomainEvent;
+import com.university.skillshare_backend.event.DomainEventListener;
+import com.university.skillshare_backend.model.BackgroundJob;
+import com.university.skillshare_backend.model.Post;
+import com.university.skillshare_backend.model.PostCard;
+import com.university.skillshare_backend.model.SharedPost;
+import com.university.skillshare_backend.model.User;
+import com.university.skillshare_backend.repository.BackgroundJobRepository;
+import com.university.skillshare_backend.repository.UserRepository;
+import com.university.skillshare_backend.util.HashtagParser;
+
+/**
+ * Maintains the post_cards read model: one ready-to-serve document per live
+ * post, so a feed page is a single indexed query instead of a post, author,
+ * like, reaction and comment lookup per card.
+ *
+ * Cards follow the domain events. Every batch rebuilds just the cards it
+ * touches from the source collections (a fixed handful of queries however
+ * many events the batch holds), which keeps the cards correct even when an
+ * event is delivered twice. The events that create and remove cards
+ * (PostCreated, PostDeleted) come through the outbox, so they survive a full
+ * ring buffer or a restart. Counters that miss an event are corrected by the
+ * next event for the same post. Cards may briefly lag a write; a rebuild job
+ * regenerates all of them, in throttled batches, if they ever drift.
+ */
+@Service
+public class PostCardService implements DomainEventListener, BackgroundJobHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostCardService.class);
+
+    public static final String JOB_TYPE = "post-cards.rebuild";
+
+    /** Position of the last card of a page */
+    record Cursor(long millis, String id) {
+
+        String encode() {
+            String raw = millis + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = raw.split(":", 2);
+                if (parts[1].isEmpty()) {
+                    throw new IllegalArgumentException("Invalid feed cursor");
+                }
+                return new Cursor(Long.parseLong(parts[0]), parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid feed cursor");
+            }
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final UserRepository userRepository;
+    private final BackgroundJobService backgroundJobService;
+    private final BackgroundJobRepository backgroundJobRepository;
+    private final HashtagParser hashtagParser;
+
+    @Value("${app.post-cards.page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.post-cards.max-page-size:50}")
+    private int maxPageSize;
+
+    @Value("${app.post-cards.rebuild.batch-size:200}")
+    private int rebuildBatchSize;
+
+    @Value("${app.post-cards.rebuild.pause-ms:100}")
+    private long rebuildPauseMs;
+
+    @Autowired
+    public PostCardService(
+            MongoTemplate mongoTemplate,
+            UserRepository userRepository,
+            BackgroundJobService backgroundJobService,
+            BackgroundJobRepository backgroundJobRepository,
+            HashtagParser hashtagParser) {
+        this.mongoTemplate = mongoTemplate;
+        this.userRepository = userRepository;
+        this.backgroundJobService = backgroundJobService;
+        this.backgroundJobRepository = backgroundJobRepository;
+        this.hashtagParser = hashtagParser;
+    }
+
+    /**
+     * Get a page of the feed, newest first
+     *
+     * @param groupId Only posts shared to this group, or null for all posts
+     * @param cursor nextCursor of the previous page, or null for the newest cards
+     * @param limit Page size (optional)
+     * @return Map with "items" (cards) and "nextCursor" (null on the last page)
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public Map<String, Object> getCards(String groupId, String cursor, Integer limit) {
+        return page(groupId == null ? null : Criteria.where("groupIds").is(groupId), cursor, limit);
+    }
+
+    /**
+     * Get a page of the posts carrying a tag, newest first
+     *
+     * @param tag Normalised tag (see HashtagParser)
+     * @param cursor nextCursor of the previous page, or null for the newest cards
+     * @param limit Page size (optional)
+     * @return Map with "items" (cards) and "nextCursor" (null on the last page)
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public Map<String, Object> getTagCards(String tag, String cursor, Integer limit) {
+        return page(Criteria.where("tags").is(tag), cursor, limit);
+    }
+
+    private Map<String, Object> page(Criteria filter, String cursor, Integer limit) {
+        int size = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        List<Criteria> criteria = new ArrayList<>();
+        if (filter != null) {
+            criteria.add(filter);
+        }
+        if (cursor != null && !cursor.isEmpty()) {
+            Cursor after = Cursor.decode(cursor);
+            LocalDateTime at = LocalDateTime.ofInstant(Instant.ofEpochMilli(after.millis()), ZoneId.systemDefault());
+            criteria.add(new Criteria().orOperator(
+                    Criteria.where("createdAt").lt(at),
+                    Criteria.where("createdAt").is(at).and("_id").lt(after.id())));
+        }
+        Query query = new Query(criteria.isEmpty() ? new Criteria() : new Criteria().andOperator(criteria))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                .limit(size + 1);
+        List<PostCard> cards = mongoTemplate.find(query, PostCard.class);
+
+        String nextCursor = null;
+        if (cards.size() > size) {
+            cards = cards.subList(0, size);
+            PostCard last = cards.get(size - 1);
+            nextCursor = new Cursor(millis(last.getCreatedAt()), last.getId()).encode();
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("items", cards);
+        response.put("nextCursor", nextCursor);
+        return response;
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        Set<String> stale = new LinkedHashSet<>();
+        Set<String> authors = new LinkedHashSet<>();
+        for (DomainEvent event : events) {
+            switch (event) {
+                case DomainEvent.PostCreated created -> stale.add(created.postId());
+                case DomainEvent.PostUpdated updated -> stale.add(updated.postId());
+                case DomainEvent.PostDeleted deleted -> stale.add(deleted.postId());
+                case DomainEvent.PostShared shared -> stale.add(shared.postId());
+                case DomainEvent.Liked liked -> stale.add(liked.postId());
+                case DomainEvent.Reacted reacted -> stale.add(reacted.postId());
+                case DomainEvent.ReactionRemoved removed -> stale.add(removed.postId());
+                case DomainEvent.Commented commented -> {
+                    if (!commented.edited()) {
+                        stale.add(commented.comment().getPostId());
+                    }
+                }
+                case DomainEvent.CommentDeleted deleted -> stale.add(deleted.postId());
+                case DomainEvent.ProfileUpdated profile -> authors.add(profile.userId());
+                default -> {
+                }
+            }
+        }
+        refresh(stale);
+        for (String userId : authors) {
+            refreshAuthor(userId);
+        }
+    }
+
+    /**
+     * Rebuild the cards of the given posts from the source collections, and
+     * drop the cards of posts that are gone or tombstoned. Synchronized so that
+     * the bus and the outbox dispatcher, which both deliver events here, cannot
+     * store an older reading over a newer one.
+     */
+    public synchronized void refresh(Collection<String> postIds) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+        List<Post> posts = mongoTemplate.find(
+                new Query(Criteria.where("_id").in(postIds).and("deletedAt").is(null)), Post.class);
+        Set<String> gone = new LinkedHashSet<>(postIds);
+        posts.forEach(post -> gone.remove(post.getId()));
+        if (!gone.isEmpty()) {
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(gone)), PostCard.class);
+        }
+        if (posts.isEmpty()) {
+            return;
+        }
+
+        List<String> ids = posts.stream().map(Post::getId).toList();
+        Map<String, User> authors = new HashMap<>();
+        userRepository.findAllById(posts.stream().map(Post::getUserId).distinct().toList())
+                .forEach(user -> authors.put(user.getId(), user));
+        Map<String, Long> likes = countByPost("likes", ids);
+        Map<String, Long> comments = countByPost("comments", ids);
+        Map<String, Map<String, Long>> reactions = reactionsByPost(ids);
+        Map<String, Set<String>> groups = new HashMap<>();
+        mongoTemplate.find(new Query(Criteria.where("postId").in(ids)), SharedPost.class)
+                .forEach(shared -> groups.computeIfAbsent(shared.getPostId(), id -> new LinkedHashSet<>())
+                        .add(shared.getGroupId()));
+
+        Date now = new Date();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PostCard.class);
+        for (Post post : posts) {
+            PostCard card = new PostCard();
+            card.setId(post.getId());
+            card.setUserId(post.getUserId());
+            card.setTitle(post.getTitle());
+            card.setContent(post.getContent());
+            card.setImageUrls(post.getImageUrls());
+            card.setImageVariants(post.getImageVariants());
+            card.setVideoUrl(post.getVideoUrl());
+            card.setVideoMetadata(post.getVideoMetadata());
+            card.setCreatedAt(post.getCreatedAt());
+            card.setVersion(post.getVersion());
+            setAuthor(card, authors.get(post.getUserId()));
+            card.setLikeCount(likes.getOrDefault(post.getId(), 0L));
+            card.setCommentCount(comments.getOrDefault(post.getId(), 0L));
+            Map<String, Long> counts = reactions.getOrDefault(post.getId(), Map.of());
+            card.setReactionCounts(new LinkedHashMap<>(counts));
+            card.setReactionTotal(counts.values().stream().mapToLong(Long::longValue).sum());
+            card.setGroupIds(groups.getOrDefault(post.getId(), Set.of()));
+            // Read from the text rather than post.tags, so a rebuild also tags posts written before tags existed
+            card.setTags(hashtagParser.parseTags(post.getTitle(), post.getContent()));
+            card.setBuiltAt(now);
+            bulk.replaceOne(new Query(Criteria.where("_id").is(post.getId())), card,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+    }
+
+    /**
+     * Copy a user's current name and avatar onto all of their cards
+     */
+    private void refreshAuthor(String userId) {
+        userRepository.findById(userId).ifPresent(user -> {
+            PostCard author = new PostCard();
+            setAuthor(author, user);
+            mongoTemplate.updateMulti(new Query(Criteria.where("userId").is(userId)),
+                    new Update().set("authorName", author.getAuthorName()).set("authorImage", author.getAuthorImage()),
+                    PostCard.class);
+        });
+    }
+
+    private static void setAuthor(PostCard card, User user) {
+        if (user == null) {
+            return;
+        }
+        card.setAuthorName(user.getFullName() != null && !user.getFullName().isEmpty()
+                ? user.getFullName() : user.getUsername());
+        card.setAuthorImage(user.getProfileImage());
+    }
+
+    private Map<String, Long> countByPost(String collection, List<String> postIds) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("postId").in(postIds)),
+                Aggregation.group("postId").count().as("count"));
+        Map<String, Long> counts = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, collection, Document.class)) {
+            counts.put(row.getString("_id"), ((Number) row.get("count")).longValue());
+        }
+        return counts;
+    }
+
+    private Map<String, Map<String, Long>> reactionsByPost(List<String> postIds) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("postId").in(postIds)),
+                Aggregation.group("postId", "type").count().as("count"));
+        Map<String, Map<String, Long>> counts = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, "reactions", Document.class)) {
+            Document key = row.get("_id", Document.class);
+            counts.computeIfAbsent(key.getString("postId"), id -> new LinkedHashMap<>())
+                    .put(key.getString("type"), ((Number) row.get("count")).longValue());
+        }
+        return counts;
+    }
+
+    /**
+     * Queue a full rebuild, unless one is already queued or running
+     *
+     * @return true if a rebuild was queued
+     */
+    public boolean scheduleRebuild() {
+        boolean pending = backgroundJobRepository.existsByTypeAndTargetIdAndStatusIn(
+                JOB_TYPE, "all", List.of(BackgroundJob.Status.QUEUED, BackgroundJob.Status.RUNNING));
+        if (pending) {
+            return false;
+        }
+        backgroundJobService.enqueue(JOB_TYPE, "all", Map.of());
+        return true;
+    }
+
+    /**
+     * Build the cards on first start, when there are posts but no cards yet
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIfEmpty() {
+        try {
+            if (!mongoTemplate.exists(new Query(), PostCard.class)
+                    && mongoTemplate.exists(new Query(Criteria.where("deletedAt").is(null)), Post.class)
+                    && scheduleRebuild()) {
+                logger.info("No post cards yet, queued a rebuild");
+            }
+        } catch (Exception e) {
+            logger.warn("Could not check the post cards: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public String getType() {
+        return JOB_TYPE;
+    }
+
+    /**
+     * Regenerate every card from the source collections, a batch of posts at a
+     * time with a pause in between so the rebuild does not crowd out requests.
+     * Cards not rebuilt by the end belong to posts that no longer exist.
+     */
+    @Override
+    public void handle(BackgroundJob job) throws InterruptedException {
+        Date started = new Date();
+        String lastId = null;
+        long rebuilt = 0;
+        while (true) {
+            Query batch = new Query(lastId == null ? new Criteria() : Criteria.where("_id").gt(lastId))
+                    .with(Sort.by(Sort.Direction.ASC, "_id"))
+                    .limit(rebuildBatchSize);
+            batch.fields().include("_id");
+            List<String> ids = mongoTemplate.find(batch, Post.class).stream().map(Post::getId).toList();
+            if (ids.isEmpty()) {
+                break;
+            }
+            refresh(ids);
+            rebuilt += ids.size();
+            lastId = ids.get(ids.size() - 1);
+            if (ids.size() < rebuildBatchSize) {
+                break;
+            }
+            TimeUnit.MILLISECONDS.sleep(rebuildPauseMs);
+        }
+        long removed = mongoTemplate.remove(new Query(Criteria.where("builtAt").lt(started)), PostCard.class)
+                .getDeletedCount();
+        logger.info("Rebuilt post cards from {} posts, removed {} stale cards", rebuilt, removed);
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time == null ? 0 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,195 @@
+package com.university.skillshare_backend.service;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.university.skillshare_backend.event.DomainEvent;
+import com.university.skillshare_backend.model.BackgroundJob;
+import com.university.skillshare_backend.model.Notification;
+import com.university.skillshare_backend.model.Post;
+import com.university.skillshare_backend.model.PostCard;
+import com.university.skillshare_backend.repository.BackgroundJobRepository;
+import com.university.skillshare_backend.repository.PostRepository;
+
+/**
+ * Deletes posts in two steps. The request only tombstones the post (sets
+ * deletedAt), which hides it from every read straight away; a background job
+ * then removes everything that points at it in bounded batches, gives back its
+ * media and finally removes the post itself.
+ *
+ * Every step is idempotent and the post document is removed last, so a job
+ * that dies half-way simply starts over on retry.
+ */
+@Service
+public class PostDeletionService implements BackgroundJobHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostDeletionService.class);
+
+    public static final String JOB_TYPE = "post.delete";
+
+    /** Collections holding documents that belong to a post, with the field pointing at it */
+    private static final Map<String, String> DEPENDENTS = new LinkedHashMap<>();
+    static {
+        DEPENDENTS.put("comments", "postId");
+        DEPENDENTS.put("likes", "postId");
+        DEPENDENTS.put("reactions", "postId");
+        DEPENDENTS.put("shared_posts", "postId");
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final PostRepository postRepository;
+    private final BackgroundJobRepository backgroundJobRepository;
+    private final BackgroundJobService backgroundJobService;
+    private final MediaBlobService mediaBlobService;
+    private final EntityCacheService entityCacheService;
+    private final OutboxService outboxService;
+
+    @Value("${app.posts.delete.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.posts.delete.stalled-after-minutes:60}")
+    private long stalledAfterMinutes;
+
+    @Autowired
+    public PostDeletionService(
+            MongoTemplate mongoTemplate,
+            PostRepository postRepository,
+            BackgroundJobRepository backgroundJobRepository,
+            BackgroundJobService backgroundJobService,
+            MediaBlobService mediaBlobService,
+            EntityCacheService entityCacheService,
+            OutboxService outboxService) {
+        this.mongoTemplate = mongoTemplate;
+        this.postRepository = postRepository;
+        this.backgroundJobRepository = backgroundJobRepository;
+        this.backgroundJobService = backgroundJobService;
+        this.mediaBlobService = mediaBlobService;
+        this.entityCacheService = entityCacheService;
+        this.outboxService = outboxService;
+    }
+
+    @Override
+    public String getType() {
+        return JOB_TYPE;
+    }
+
+    /**
+     * Tombstone a post and queue the cascade
+     *
+     * @return false if the post was already being deleted
+     */
+    public boolean delete(String postId) {
+        UpdateResult result = mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(postId).and("deletedAt").is(null)),
+                new Update().set("deletedAt", new Date()),
+                Post.class);
+        entityCacheService.invalidatePost(postId);
+        if (result.getModifiedCount() == 0) {
+            return false;
+        }
+        // Delivered durably, since a lost event would leave the post in the feeds
+        outboxService.record(new DomainEvent.PostDeleted(postId));
+        outboxService.flush();
+        backgroundJobService.enqueue(JOB_TYPE, postId, Map.of());
+        return true;
+    }
+
+    @Override
+    public void handle(BackgroundJob job) {
+        String postId = job.getTargetId();
+        Post post = mongoTemplate.findById(postId, Post.class);
+        if (post == null) {
+            return;
+        }
+        if (post.getDeletedAt() == null) {
+            logger.warn("Skipping deletion of post {}, it is not tombstoned", postId);
+            return;
+        }
+
+        long removed = 0;
+        for (Map.Entry<String, String> dependent : DEPENDENTS.entrySet()) {
+            removed += deleteInBatches(dependent.getKey(), Criteria.where(dependent.getValue()).is(postId));
+        }
+        // Follow notifications carry a user id in the same field
+        removed += deleteInBatches("notifications", Criteria.where("relatedItemId").is(postId)
+                .and("type").ne(Notification.NotificationType.FOLLOW.name()));
+
+        // The card normally goes with the PostDeleted event; removing it here as well
+        // means a post whose event was never recorded still leaves the feeds
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(postId)), PostCard.class);
+        releaseMedia(post);
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(postId).and("deletedAt").ne(null)), Post.class);
+        logger.info("Deleted post {} and {} dependent documents", postId, removed);
+    }
+
+    /**
+     * Remove matching documents batchSize at a time, so one post with a huge
+     * comment thread does not hold a long-running delete on the collection
+     */
+    private long deleteInBatches(String collection, Criteria criteria) {
+        long removed = 0;
+        while (true) {
+            Query batch = new Query(criteria).limit(batchSize);
+            batch.fields().include("_id");
+            List<Object> ids = mongoTemplate.find(batch, Document.class, collection).stream()
+                    .map(document -> document.get("_id"))
+                    .toList();
+            if (ids.isEmpty()) {
+                return removed;
+            }
+            removed += mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), collection).getDeletedCount();
+            if (ids.size() < batchSize) {
+                return removed;
+            }
+        }
+    }
+
+    /**
+     * Give back the post's media references exactly once. The flag is set
+     * first: a crash in between leaks a reference (the blob is kept), which is
+     * safe, whereas releasing twice could delete media shared with another post.
+     */
+    private void releaseMedia(Post post) {
+        UpdateResult claimed = mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(post.getId()).and("mediaReleased").ne(true)),
+                new Update().set("mediaReleased", true),
+                Post.class);
+        if (claimed.getModifiedCount() > 0) {
+            mediaBlobService.release(post.mediaUrls());
+        }
+    }
+
+    /**
+     * Re-queue the cascade for tombstoned posts whose job was lost, e.g. when the
+     * process died between the tombstone and the enqueue, or the job gave up
+     */
+    @Scheduled(fixedDelayString = "${app.posts.delete.resume-interval-ms:900000}",
+            initialDelayString = "${app.posts.delete.resume-interval-ms:900000}")
+    public void resumeStalled() {
+        Date cutoff = new Date(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(stalledAfterMinutes));
+        for (Post post : postRepository.findByDeletedAtBefore(cutoff)) {
+            boolean pending = backgroundJobRepository.existsByTypeAndTargetIdAndStatusIn(
+                    JOB_TYPE, post.getId(), List.of(BackgroundJob.Status.QUEUED, BackgroundJob.Status.RUNNING));
+            if (!pending) {
+                logger.info("Resuming deletion of post {}", post.getId());
+                backgroundJobService.enqueue(JOB_TYPE, post.getId(), Map.of());
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.university.skillshare_backend.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.exception.ResourceNotFoundException;
+import com.university.skillshare_backend.model.Post;
+import com.university.skillshare_backend.model.User;
+import com.university.skillshare_backend.repository.LikeRepository;
+import com.university.skillshare_backend.util.FanOut;
+
+/**
+ * Assembles everything the post page shows (the post, its author, comments,
+ * like count, the viewer's like and the reaction summary) in one request.
+ *
+ * Every part is fetched on its own virtual thread, so the request takes as
+ * long as the slowest query rather than the sum of them. All parts share one
+ * deadline: a part that misses it is cancelled and reported under "missing"
+ * instead of failing the page. Only the post itself is required.
+ */
+@Service
+public class PostDetailService implements DisposableBean {
+
+    private final LikeRepository likeRepository;
+    private final CommentService commentService;
+    private final ReactionService reactionService;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final EntityCacheService entityCacheService;
+
+    @Value("${app.posts.detail.timeout-ms:2000}")
+    private long defaultTimeoutMs;
+
+    @Value("${app.posts.detail.max-timeout-ms:10000}")
+    private long maxTimeoutMs;
+
+    @Autowired
+    public PostDetailService(
+            LikeRepository likeRepository,
+            CommentService commentService,
+            ReactionService reactionService,
+            EntityCacheService entityCacheService) {
+        this.likeRepository = likeRepository;
+        this.commentService = commentService;
+        this.reactionService = reactionService;
+        this.entityCacheService = entityCacheService;
+    }
+
+    /**
+     * Fetch a post and everything shown alongside it
+     *
+     * @param postId Post ID
+     * @param viewerId User viewing the post, or null to skip the viewer's like and reaction
+     * @param timeoutMs Time budget for the whole request, or null for the default
+     * @return Map with post, author, comments, likeCount, liked, reactions and missing
+     */
+    public Map<String, Object> getDetail(String postId, String viewerId, Long timeoutMs) {
+        long budget = timeoutMs == null || timeoutMs <= 0 ? defaultTimeoutMs : Math.min(timeoutMs, maxTimeoutMs);
+        boolean hasViewer = viewerId != null && !viewerId.isEmpty();
+        FanOut fanOut = new FanOut(executor, budget);
+
+        // Everything is keyed by the post id, so nothing has to wait for the post to load;
+        // the author is the only part that needs the post first
+        Future<Post> post = fanOut.require(() -> entityCacheService.findPost(postId)
+                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId)));
+        fanOut.fork("author", () -> author(post.get().getUserId()));
+        fanOut.fork("comments", () -> commentService.listComments(postId));
+        fanOut.fork("likeCount", () -> likeRepository.countByPostId(postId));
+        if (hasViewer) {
+            fanOut.fork("liked", () -> likeRepository.findByPostIdAndUserId(postId, viewerId) != null);
+        }
+        fanOut.fork("reactions", reactions(postId, hasViewer ? viewerId : null));
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("post", fanOut.join(post, "post " + postId));
+        response.put("missing", fanOut.joinAll(response));
+        return response;
+    }
+
+    private Map<String, Object> author(String userId) {
+        User user = entityCacheService.findUser(userId).orElse(null);
+        if (user == null) {
+            return null;
+        }
+        Map<String, Object> author = new LinkedHashMap<>();
+        author.put("id", user.getId());
+        author.put("username", user.getUsername());
+        author.put("fullName", user.getFullName());
+        author.put("profileImage", user.getProfileImage());
+        return author;
+    }
+
+    private Callable<Map<String, Object>> reactions(String postId, String viewerId) {
+        return () -> {
+            Map<String, Object> reactions = reactionService.getReactionCounts(postId);
+            if (viewerId != null) {
+                reactions.put("userReaction", reactionService.getUserReaction(postId, viewerId));
+            }
+            return reactions;
+        };
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
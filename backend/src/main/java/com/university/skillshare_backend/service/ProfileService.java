@@ -0,0 +1,184 @@
+package com.university.skillshare_backend.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.event.DomainEvent;
+import com.university.skillshare_backend.event.DomainEventListener;
+import com.university.skillshare_backend.exception.ResourceNotFoundException;
+import com.university.skillshare_backend.model.User;
+import com.university.skillshare_backend.repository.AchievementRepository;
+import com.university.skillshare_backend.repository.PostRepository;
+import com.university.skillshare_backend.util.FanOut;
+import com.university.skillshare_backend.util.SingleFlight;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Assembles a profile page (the user with follower counts, their latest
+ * posts, latest achievements and groups) in one request. The lookups run
+ * concurrently and each list is a bounded first page, with "hasMore" telling
+ * the client whether to offer the full list.
+ *
+ * Complete profiles are kept for a few seconds (app.profile.cache-ttl-ms) so
+ * that a burst of views of a popular profile costs one set of queries. The
+ * profile can therefore lag behind an edit by up to the TTL, except for new
+ * posts and follows, whose events drop the profiles they change.
+ */
+@Service
+public class ProfileService implements DisposableBean, DomainEventListener {
+
+    private final PostRepository postRepository;
+    private final AchievementRepository achievementRepository;
+    private final GroupMembershipService groupMembershipService;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final SingleFlight<String, Map<String, Object>> profileReads;
+    private final EntityCacheService entityCacheService;
+
+    @Value("${app.profile.page-size:10}")
+    private int pageSize;
+
+    @Value("${app.profile.timeout-ms:2000}")
+    private long timeoutMs;
+
+    @Value("${app.profile.cache-ttl-ms:5000}")
+    private long cacheTtlMs;
+
+    @Value("${app.profile.cache-size:1000}")
+    private int cacheSize;
+
+    private final Map<String, CachedProfile> cache = Collections.synchronizedMap(
+            new LinkedHashMap<String, CachedProfile>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedProfile> eldest) {
+                    return size() > cacheSize;
+                }
+            });
+
+    private record CachedProfile(Map<String, Object> profile, long expiresAt) {
+    }
+
+    @Autowired
+    public ProfileService(
+            PostRepository postRepository,
+            AchievementRepository achievementRepository,
+            GroupMembershipService groupMembershipService,
+            EntityCacheService entityCacheService,
+            MeterRegistry meterRegistry,
+            @Value("${app.singleflight.max-wait-ms:2000}") long maxWaitMillis) {
+        this.postRepository = postRepository;
+        this.achievementRepository = achievementRepository;
+        this.groupMembershipService = groupMembershipService;
+        this.entityCacheService = entityCacheService;
+        this.profileReads = new SingleFlight<>(maxWaitMillis);
+        FunctionCounter.builder("singleflight.suppressed", profileReads, SingleFlight::getSuppressedCount)
+                .tag("flight", "profiles").register(meterRegistry);
+    }
+
+    /**
+     * Get everything shown on a user's profile page
+     *
+     * @param userId User ID
+     * @return Map with user, followerCount, followingCount, posts, achievements, groups and missing;
+     *         each list part is a map with "items" and "hasMore"
+     */
+    public Map<String, Object> getProfile(String userId) {
+        long now = System.currentTimeMillis();
+        CachedProfile cached = cache.get(userId);
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.profile();
+        }
+
+        // Concurrent views of the same uncached profile share one set of queries
+        return profileReads.execute(userId, () -> load(userId));
+    }
+
+    private Map<String, Object> load(String userId) {
+        long now = System.currentTimeMillis();
+        FanOut fanOut = new FanOut(executor, timeoutMs);
+        // One page size + 1 rows per list tells whether there is more without a count query
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        Future<User> user = fanOut.require(() -> entityCacheService.findUser(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId)));
+        fanOut.fork("posts", () -> firstPage(
+                postRepository.findByUserIdAndDeletedAtIsNullOrderByCreatedAtDesc(userId, page)));
+        fanOut.fork("achievements", () -> firstPage(
+                achievementRepository.findByUserIdOrderByCreatedAtDesc(userId, page)));
+        fanOut.fork("groups", () -> firstPage(groupMembershipService.findGroups(userId, page)));
+
+        User found = fanOut.join(user, "user " + userId);
+        Map<String, Object> profile = new LinkedHashMap<>();
+        profile.put("user", summary(found));
+        profile.put("followerCount", found.getFollowers() != null ? found.getFollowers().size() : 0);
+        profile.put("followingCount", found.getFollowing() != null ? found.getFollowing().size() : 0);
+        List<String> missing = fanOut.joinAll(profile);
+        profile.put("missing", missing);
+
+        Map<String, Object> result = Collections.unmodifiableMap(profile);
+        if (cacheTtlMs > 0 && missing.isEmpty()) {
+            cache.put(userId, new CachedProfile(result, now + cacheTtlMs));
+        }
+        return result;
+    }
+
+    /**
+     * Drop a cached profile, e.g. after the user edits it
+     */
+    public void invalidate(String userId) {
+        cache.remove(userId);
+    }
+
+    /**
+     * Drop the profiles a new post or follow changes. Follows are also dropped
+     * by the request itself; this second drop catches a load that was already
+     * running when the follow was written and cached the old counts.
+     */
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            switch (event) {
+                case DomainEvent.PostCreated created -> invalidate(created.userId());
+                case DomainEvent.GroupMembershipChanged membership -> invalidate(membership.userId());
+                case DomainEvent.Followed followed -> {
+                    invalidate(followed.followerId());
+                    invalidate(followed.userId());
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    private Map<String, Object> firstPage(List<?> rows) {
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("items", rows.size() > pageSize ? rows.subList(0, pageSize) : rows);
+        page.put("hasMore", rows.size() > pageSize);
+        return page;
+    }
+
+    private static Map<String, Object> summary(User user) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("id", user.getId());
+        summary.put("username", user.getUsername());
+        summary.put("fullName", user.getFullName());
+        summary.put("profileImage", user.getProfileImage());
+        return summary;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
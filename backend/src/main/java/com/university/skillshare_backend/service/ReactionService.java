@@ -0,0 +1,62 @@
+package com.university.skillshare_backend.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.model.Reaction;
+import com.university.skillshare_backend.repository.ReactionRepository;
+import com.university.skillshare_backend.util.SingleFlight;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Service
+public class ReactionService {
+
+    private final ReactionRepository reactionRepository;
+    private final SingleFlight<String, Map<String, Long>> countReads;
+
+    @Autowired
+    public ReactionService(
+            ReactionRepository reactionRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.singleflight.max-wait-ms:2000}") long maxWaitMillis) {
+        this.reactionRepository = reactionRepository;
+        this.countReads = new SingleFlight<>(maxWaitMillis);
+        FunctionCounter.builder("singleflight.suppressed", countReads, SingleFlight::getSuppressedCount)
+                .tag("flight", "reactions").register(meterRegistry);
+    }
+
+    /**
+     * Get counts of all reaction types for a post
+     *
+     * Concurrent requests for the same post share one query.
+     *
+     * @return A mutable map with "total" and per-type "counts"
+     */
+    public Map<String, Object> getReactionCounts(String postId) {
+        Map<String, Long> counts = countReads.execute(postId, () -> Map.copyOf(
+                reactionRepository.findByPostId(postId).stream()
+                        .collect(Collectors.groupingBy(Reaction::getType, Collectors.counting()))));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("total", counts.values().stream().mapToLong(Long::longValue).sum());
+        response.put("counts", counts);
+
+        return response;
+    }
+
+    /**
+     * Get a user's reaction to a post, or null if they have not reacted
+     */
+    public Reaction getUserReaction(String postId, String userId) {
+        List<Reaction> userReactions = reactionRepository.findByUserIdAndPostId(userId, postId);
+        return userReactions.isEmpty() ? null : userReactions.get(0);
+    }
+}
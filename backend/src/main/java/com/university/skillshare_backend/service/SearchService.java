@@ -0,0 +1,350 @@
+package com.university.skillshare_backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.event.DomainEvent;
+import com.university.skillshare_backend.event.DomainEventListener;
+import com.university.skillshare_backend.model.Achievement;
+import com.university.skillshare_backend.model.Post;
+import com.university.skillshare_backend.model.PostCard;
+import com.university.skillshare_backend.search.Highlighter;
+import com.university.skillshare_backend.search.SearchDocument;
+import com.university.skillshare_backend.search.SearchHit;
+import com.university.skillshare_backend.search.SearchIndex;
+import com.university.skillshare_backend.search.SearchResults;
+import com.university.skillshare_backend.search.TextAnalyzer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Full-text search over post titles and content and achievement titles and
+ * descriptions. The SearchIndex answers the query; only the documents of the
+ * page being returned are then loaded, by id, to show them with highlighted
+ * snippets.
+ *
+ * The index follows the domain events: each batch re-reads just the posts
+ * and achievements it touches. It is filled from the database on startup
+ * when empty (always, for the in-memory index), in throttled batches.
+ */
+@Service
+public class SearchService implements DomainEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchService.class);
+
+    private static final int MAX_QUERY_LENGTH = 200;
+    private static final int SNIPPET_LENGTH = 200;
+
+    /** Position of the next page in the ranked hits */
+    record Cursor(int offset) {
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(Integer.toString(offset).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                int offset = Integer.parseInt(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+                if (offset < 0) {
+                    throw new IllegalArgumentException("Invalid search cursor");
+                }
+                return new Cursor(offset);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid search cursor");
+            }
+        }
+    }
+
+    private final SearchIndex searchIndex;
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    @Value("${app.search.page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.search.max-page-size:50}")
+    private int maxPageSize;
+
+    @Value("${app.search.max-results:1000}")
+    private int maxResults;
+
+    @Value("${app.search.rebuild.batch-size:500}")
+    private int rebuildBatchSize;
+
+    @Value("${app.search.rebuild.pause-ms:50}")
+    private long rebuildPauseMs;
+
+    @Autowired
+    public SearchService(SearchIndex searchIndex, MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.searchIndex = searchIndex;
+        this.mongoTemplate = mongoTemplate;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("search.documents", searchIndex, SearchIndex::size)
+                .tag("index", searchIndex.getName())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Search posts and achievements, best matches first
+     *
+     * @param query Words to look for
+     * @param type "posts", "achievements", or null for both
+     * @param cursor nextCursor of the previous page (optional)
+     * @param limit Page size (optional)
+     * @return Map with "items" (each with type, id, score, highlights and the post card or achievement),
+     *         "total" and "nextCursor" (null on the last page)
+     * @throws IllegalArgumentException if the query, type or cursor is invalid
+     */
+    public Map<String, Object> search(String query, String type, String cursor, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query is too long");
+        }
+        Set<SearchDocument.Type> types = parseTypes(type);
+        int size = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        int offset = cursor == null || cursor.isEmpty() ? 0 : Cursor.decode(cursor).offset();
+        // Deep pages are refused rather than ranking ever more hits
+        size = Math.max(0, Math.min(size, maxResults - offset));
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            SearchResults results = size == 0
+                    ? new SearchResults(0, List.of())
+                    : searchIndex.search(query, types, offset, size);
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("items", toItems(results.hits(), new LinkedHashSet<>(TextAnalyzer.terms(query))));
+            response.put("total", results.total());
+            int next = offset + results.hits().size();
+            response.put("nextCursor", results.hits().size() == size && next < Math.min(results.total(), maxResults)
+                    ? new Cursor(next).encode() : null);
+            return response;
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("search.requests")
+                    .tag("index", searchIndex.getName())
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+    }
+
+    private static Set<SearchDocument.Type> parseTypes(String type) {
+        if (type == null || type.isEmpty()) {
+            return EnumSet.allOf(SearchDocument.Type.class);
+        }
+        return switch (type) {
+            case "posts" -> EnumSet.of(SearchDocument.Type.POST);
+            case "achievements" -> EnumSet.of(SearchDocument.Type.ACHIEVEMENT);
+            default -> throw new IllegalArgumentException("Unknown search type: " + type);
+        };
+    }
+
+    /**
+     * Load the documents of a page of hits and highlight them. Hits whose
+     * document was deleted after it was indexed are left out.
+     */
+    private List<Map<String, Object>> toItems(List<SearchHit> hits, Set<String> terms) {
+        List<String> postIds = new ArrayList<>();
+        List<String> achievementIds = new ArrayList<>();
+        for (SearchHit hit : hits) {
+            (hit.type() == SearchDocument.Type.POST ? postIds : achievementIds).add(hit.id());
+        }
+        Map<String, PostCard> cards = postIds.isEmpty() ? Map.of()
+                : mongoTemplate.find(new Query(Criteria.where("_id").in(postIds)), PostCard.class).stream()
+                        .collect(Collectors.toMap(PostCard::getId, Function.identity()));
+        Map<String, Achievement> achievements = achievementIds.isEmpty() ? Map.of()
+                : mongoTemplate.find(new Query(Criteria.where("_id").in(achievementIds)), Achievement.class).stream()
+                        .collect(Collectors.toMap(Achievement::getId, Function.identity()));
+
+        List<Map<String, Object>> items = new ArrayList<>(hits.size());
+        for (SearchHit hit : hits) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            Map<String, String> highlights = new LinkedHashMap<>();
+            if (hit.type() == SearchDocument.Type.POST) {
+                PostCard card = cards.get(hit.id());
+                if (card == null) {
+                    continue;
+                }
+                highlights.put("title", Highlighter.highlight(card.getTitle(), terms, SNIPPET_LENGTH));
+                highlights.put("content", Highlighter.highlight(card.getContent(), terms, SNIPPET_LENGTH));
+                item.put("type", "post");
+                item.put("post", card);
+            } else {
+                Achievement achievement = achievements.get(hit.id());
+                if (achievement == null) {
+                    continue;
+                }
+                highlights.put("title", Highlighter.highlight(achievement.getTitle(), terms, SNIPPET_LENGTH));
+                highlights.put("description", Highlighter.highlight(achievement.getDescription(), terms, SNIPPET_LENGTH));
+                item.put("type", "achievement");
+                item.put("achievement", achievement);
+            }
+            item.put("id", hit.id());
+            item.put("score", hit.score());
+            item.put("highlights", highlights);
+            items.add(item);
+        }
+        return items;
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        Set<String> posts = new LinkedHashSet<>();
+        Set<String> achievements = new LinkedHashSet<>();
+        for (DomainEvent event : events) {
+            switch (event) {
+                case DomainEvent.PostCreated created -> posts.add(created.postId());
+                case DomainEvent.PostUpdated updated -> posts.add(updated.postId());
+                case DomainEvent.PostDeleted deleted -> posts.add(deleted.postId());
+                case DomainEvent.AchievementSaved saved -> achievements.add(saved.achievementId());
+                case DomainEvent.AchievementDeleted deleted -> achievements.add(deleted.achievementId());
+                default -> {
+                }
+            }
+        }
+        refreshPosts(posts);
+        refreshAchievements(achievements);
+    }
+
+    /**
+     * Re-index the given posts from the database, and drop the ones that are
+     * gone or tombstoned
+     */
+    private void refreshPosts(Collection<String> postIds) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+        Query query = new Query(Criteria.where("_id").in(postIds).and("deletedAt").is(null));
+        query.fields().include("title", "content", "version");
+        List<Post> posts = mongoTemplate.find(query, Post.class);
+        Set<String> gone = new LinkedHashSet<>(postIds);
+        posts.forEach(post -> gone.remove(post.getId()));
+        searchIndex.remove(SearchDocument.Type.POST, gone);
+        searchIndex.index(posts.stream()
+                .map(post -> new SearchDocument(SearchDocument.Type.POST, post.getId(), post.getTitle(),
+                        post.getContent(), post.getVersion()))
+                .toList());
+    }
+
+    private void refreshAchievements(Collection<String> achievementIds) {
+        if (achievementIds.isEmpty()) {
+            return;
+        }
+        Query query = new Query(Criteria.where("_id").in(achievementIds));
+        query.fields().include("title", "description", "version");
+        List<Achievement> found = mongoTemplate.find(query, Achievement.class);
+        Set<String> gone = new LinkedHashSet<>(achievementIds);
+        found.forEach(achievement -> gone.remove(achievement.getId()));
+        searchIndex.remove(SearchDocument.Type.ACHIEVEMENT, gone);
+        searchIndex.index(found.stream()
+                .map(achievement -> new SearchDocument(SearchDocument.Type.ACHIEVEMENT, achievement.getId(),
+                        achievement.getTitle(), achievement.getDescription(), achievement.getVersion()))
+                .toList());
+    }
+
+    /**
+     * Fill the index on startup if it is empty
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIfEmpty() {
+        try {
+            if (searchIndex.size() == 0 && scheduleRebuild()) {
+                logger.info("Search index '{}' is empty, rebuilding it", searchIndex.getName());
+            }
+        } catch (Exception e) {
+            logger.warn("Could not check the search index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Re-index every post and achievement in the background, unless a rebuild
+     * is already running. Runs on this instance only, as each instance may
+     * have its own index.
+     *
+     * @return true if a rebuild was started
+     */
+    public boolean scheduleRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                long posts = reindex(Post.class, Post::getId, this::refreshPosts);
+                long achievements = reindex(Achievement.class, Achievement::getId, this::refreshAchievements);
+                logger.info("Rebuilt search index '{}' from {} posts and {} achievements",
+                        searchIndex.getName(), posts, achievements);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.error("Search index rebuild failed", e);
+            } finally {
+                rebuilding.set(false);
+            }
+        }, "search-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    /**
+     * Walk a collection by id, a batch at a time with a pause in between so the
+     * rebuild does not crowd out requests
+     */
+    private <T> long reindex(Class<T> type, Function<T, String> id, Consumer<List<String>> refresh)
+            throws InterruptedException {
+        String lastId = null;
+        long count = 0;
+        while (true) {
+            Query batch = new Query(lastId == null ? new Criteria() : Criteria.where("_id").gt(lastId))
+                    .with(Sort.by(Sort.Direction.ASC, "_id"))
+                    .limit(rebuildBatchSize);
+            batch.fields().include("_id");
+            List<String> ids = mongoTemplate.find(batch, type).stream().map(id).toList();
+            if (ids.isEmpty()) {
+                break;
+            }
+            refresh.accept(ids);
+            count += ids.size();
+            lastId = ids.get(ids.size() - 1);
+            if (ids.size() < rebuildBatchSize) {
+                break;
+            }
+            TimeUnit.MILLISECONDS.sleep(rebuildPauseMs);
+        }
+        return count;
+    }
+}
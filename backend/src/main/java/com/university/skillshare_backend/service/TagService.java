@@ -0,0 +1,138 @@
+package com.university.skillshare_backend.service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.model.PostCard;
+import com.university.skillshare_backend.util.HashtagParser;
+import com.university.skillshare_backend.util.HeavyHitters;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Skill tags: which posts carry a tag, and which tags are used most right now.
+ *
+ * Tags are extracted from the text when a post or achievement is written.
+ * Posts are listed by tag from the post cards, whose tags are indexed. Tag use
+ * is counted in a fixed-size sketch as tags are written, and every count is
+ * halved periodically, so the trending list follows recent use rather than
+ * all-time totals. The counts live in memory and are seeded from the newest
+ * cards on startup.
+ */
+@Service
+public class TagService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TagService.class);
+
+    private final HashtagParser hashtagParser;
+    private final PostCardService postCardService;
+    private final MongoTemplate mongoTemplate;
+
+    private HeavyHitters trending;
+
+    @Value("${app.tags.trending.capacity:100}")
+    private int trendingCapacity;
+
+    @Value("${app.tags.trending.epsilon:0.0001}")
+    private double epsilon;
+
+    @Value("${app.tags.trending.delta:0.01}")
+    private double delta;
+
+    @Value("${app.tags.trending.seed-posts:2000}")
+    private int seedPosts;
+
+    @Autowired
+    public TagService(HashtagParser hashtagParser, PostCardService postCardService, MongoTemplate mongoTemplate) {
+        this.hashtagParser = hashtagParser;
+        this.postCardService = postCardService;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        trending = new HeavyHitters(trendingCapacity, epsilon, delta);
+    }
+
+    /**
+     * Count tags that were just written
+     */
+    public void recordTags(Collection<String> tags) {
+        for (String tag : tags) {
+            trending.add(tag, 1);
+        }
+    }
+
+    /**
+     * Get the most used tags, most used first
+     *
+     * @param limit Maximum number of tags
+     * @return List of maps with "tag" and "count" (an estimate of recent uses)
+     */
+    public List<Map<String, Object>> getTrendingTags(int limit) {
+        return trending.top(Math.max(0, limit)).stream()
+                .map(counted -> {
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("tag", counted.key());
+                    entry.put("count", counted.count());
+                    return entry;
+                })
+                .toList();
+    }
+
+    /**
+     * Get a page of the posts carrying a tag, newest first
+     *
+     * @param tag Tag, with or without #
+     * @param cursor nextCursor of the previous page (optional)
+     * @param limit Page size (optional)
+     * @return Map with "items" (cards) and "nextCursor"
+     * @throws IllegalArgumentException if the tag or the cursor is malformed
+     */
+    public Map<String, Object> getPosts(String tag, String cursor, Integer limit) {
+        String normalized = hashtagParser.normalize(tag);
+        if (normalized == null) {
+            throw new IllegalArgumentException("Invalid tag");
+        }
+        return postCardService.getTagCards(normalized, cursor, limit);
+    }
+
+    /**
+     * Let old tag uses fade, so tags that stop being used leave the list
+     */
+    @Scheduled(fixedDelayString = "${app.tags.trending.decay-interval-ms:3600000}",
+            initialDelayString = "${app.tags.trending.decay-interval-ms:3600000}")
+    public void decay() {
+        trending.halve();
+    }
+
+    /**
+     * Count the tags of the newest posts, so the list is not empty after a restart
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        try {
+            Query query = new Query()
+                    .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                    .limit(seedPosts);
+            query.fields().include("tags");
+            mongoTemplate.find(query, PostCard.class).forEach(card -> recordTags(card.getTags()));
+        } catch (Exception e) {
+            logger.warn("Could not seed the trending tags: {}", e.getMessage());
+        }
+    }
+}
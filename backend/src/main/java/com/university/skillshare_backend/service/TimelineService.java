@@ -0,0 +1,194 @@
+package com.university.skillshare_backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.model.Achievement;
+import com.university.skillshare_backend.model.Post;
+import com.university.skillshare_backend.model.SharedPost;
+import com.university.skillshare_backend.util.KWayMerge;
+
+/**
+ * A user's activity (their posts, achievements and group shares) as one
+ * stream, newest first. Each source is read with a sorted, bounded query
+ * starting after the cursor, walking its (owner, time desc, _id desc) index,
+ * and the sources are merged lazily by timestamp, so a page never reads more
+ * than page size + 1 documents from any source.
+ *
+ * Entries are ordered by (time desc, source, id desc). The cursor is the
+ * position of the last entry returned; unlike offsets it stays correct while
+ * new activity is added at the top.
+ */
+@Service
+public class TimelineService {
+
+    /** Timeline sources, in their tie-breaking order */
+    enum Source {
+        POST("post", "userId", "createdAt"),
+        ACHIEVEMENT("achievement", "userId", "createdAt"),
+        SHARE("share", "sharedBy", "sharedAt");
+
+        private final String type;
+        private final String ownerField;
+        private final String timeField;
+
+        Source(String type, String ownerField, String timeField) {
+            this.type = type;
+            this.ownerField = ownerField;
+            this.timeField = timeField;
+        }
+    }
+
+    /**
+     * One timeline entry
+     *
+     * @param type post, achievement or share
+     * @param id ID of the underlying document
+     * @param at When the activity happened
+     * @param item The underlying document
+     */
+    public record Entry(String type, String id, Date at, Object item) {
+
+        private static final Comparator<Entry> NEWEST_FIRST = Comparator
+                .comparing(Entry::at, Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(entry -> sourceOf(entry).ordinal())
+                .thenComparing(Entry::id, Comparator.reverseOrder());
+
+        private static Source sourceOf(Entry entry) {
+            for (Source source : Source.values()) {
+                if (source.type.equals(entry.type)) {
+                    return source;
+                }
+            }
+            throw new IllegalStateException("Unknown timeline entry type " + entry.type);
+        }
+    }
+
+    /** Position of the last entry of a page */
+    record Cursor(long millis, int source, String id) {
+
+        String encode() {
+            String raw = millis + ":" + source + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = raw.split(":", 3);
+                int source = Integer.parseInt(parts[1]);
+                if (source < 0 || source >= Source.values().length || parts[2].isEmpty()) {
+                    throw new IllegalArgumentException("Invalid timeline cursor");
+                }
+                return new Cursor(Long.parseLong(parts[0]), source, parts[2]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid timeline cursor");
+            }
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.timeline.page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.timeline.max-page-size:50}")
+    private int maxPageSize;
+
+    @Autowired
+    public TimelineService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Get one page of a user's timeline
+     *
+     * @param userId User ID
+     * @param cursor nextCursor of the previous page, or null for the newest entries
+     * @param limit Page size, or null for the default
+     * @return Map with "items" (entries, newest first) and "nextCursor" (null on the last page)
+     * @throws IllegalArgumentException if the cursor is not one this service produced
+     */
+    public Map<String, Object> getTimeline(String userId, String cursor, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? defaultPageSize : Math.min(limit, maxPageSize);
+        Cursor after = cursor == null || cursor.isEmpty() ? null : Cursor.decode(cursor);
+
+        // page size + 1 per source is enough to fill the page and tell whether more follows
+        List<Iterator<Entry>> sources = List.of(
+                read(Source.POST, Post.class, userId, after, pageSize + 1,
+                        post -> new Entry(Source.POST.type, post.getId(), toDate(post), post)),
+                read(Source.ACHIEVEMENT, Achievement.class, userId, after, pageSize + 1,
+                        achievement -> new Entry(Source.ACHIEVEMENT.type, achievement.getId(),
+                                achievement.getCreatedAt(), achievement)),
+                read(Source.SHARE, SharedPost.class, userId, after, pageSize + 1,
+                        share -> new Entry(Source.SHARE.type, share.getId(), share.getSharedAt(), share)));
+        Iterator<Entry> merged = KWayMerge.merge(sources, Entry.NEWEST_FIRST);
+
+        List<Entry> items = new ArrayList<>();
+        while (items.size() < pageSize && merged.hasNext()) {
+            items.add(merged.next());
+        }
+
+        String nextCursor = null;
+        if (merged.hasNext() && !items.isEmpty()) {
+            Entry last = items.get(items.size() - 1);
+            nextCursor = new Cursor(millis(last.at()), Entry.sourceOf(last).ordinal(), last.id()).encode();
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("items", items);
+        response.put("nextCursor", nextCursor);
+        return response;
+    }
+
+    private <T> Iterator<Entry> read(Source source, Class<T> type, String userId, Cursor after, int limit,
+            Function<T, Entry> toEntry) {
+        Criteria criteria = Criteria.where(source.ownerField).is(userId);
+        if (source == Source.POST) {
+            criteria.and("deletedAt").is(null);
+        }
+        if (after != null) {
+            Date at = new Date(after.millis());
+            if (source.ordinal() < after.source()) {
+                // Entries of this source at the cursor's time came before the cursor
+                criteria.and(source.timeField).lt(at);
+            } else if (source.ordinal() > after.source()) {
+                criteria.and(source.timeField).lte(at);
+            } else {
+                criteria.orOperator(
+                        Criteria.where(source.timeField).lt(at),
+                        Criteria.where(source.timeField).is(at).and("_id").lt(after.id()));
+            }
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, source.timeField, "_id"))
+                .limit(limit);
+        return mongoTemplate.find(query, type).stream().map(toEntry).iterator();
+    }
+
+    private static Date toDate(Post post) {
+        return post.getCreatedAt() == null ? null
+                : Date.from(post.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static long millis(Date at) {
+        return at == null ? 0 : at.getTime();
+    }
+}
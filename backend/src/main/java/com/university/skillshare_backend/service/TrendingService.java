@@ -0,0 +1,212 @@
+package com.university.skillshare_backend.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.event.DomainEvent;
+import com.university.skillshare_backend.event.DomainEventListener;
+import com.university.skillshare_backend.model.PostCard;
+import com.university.skillshare_backend.model.TrendingScore;
+import com.university.skillshare_backend.util.DecayingScoreboard;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Ranks posts by recent activity. Every like, reaction, comment and share
+ * adds a weighted point to the post's score, and points lose half their
+ * weight every half-life, so a post trends while people keep engaging with it
+ * and fades once they stop.
+ *
+ * Scores are updated from the domain events as they arrive, never recounted
+ * from the likes, reactions or comments. The ranked list is rebuilt from the
+ * scores every few seconds and served as is, and the scores are checkpointed
+ * to Mongo so a restart picks up where it left off. Each instance scores the
+ * events it sees, which is all of them while the app runs on one node.
+ */
+@Service
+public class TrendingService implements DomainEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private DecayingScoreboard scoreboard;
+    private volatile Snapshot snapshot = new Snapshot(List.of(), new Date());
+
+    /** The ranked cards as of the last refresh */
+    record Snapshot(List<PostCard> cards, Date refreshedAt) {
+    }
+
+    @Value("${app.trending.half-life-minutes:360}")
+    private long halfLifeMinutes;
+
+    @Value("${app.trending.window-hours:72}")
+    private long windowHours;
+
+    @Value("${app.trending.capacity:10000}")
+    private int capacity;
+
+    @Value("${app.trending.max-results:100}")
+    private int maxResults;
+
+    @Value("${app.trending.weights.like:1}")
+    private double likeWeight;
+
+    @Value("${app.trending.weights.reaction:1}")
+    private double reactionWeight;
+
+    @Value("${app.trending.weights.comment:3}")
+    private double commentWeight;
+
+    @Value("${app.trending.weights.share:5}")
+    private double shareWeight;
+
+    @Autowired
+    public TrendingService(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        scoreboard = new DecayingScoreboard(halfLifeMinutes * 60_000, capacity, System.currentTimeMillis());
+        Gauge.builder("trending.posts.tracked", scoreboard, DecayingScoreboard::size).register(meterRegistry);
+    }
+
+    /**
+     * Get the trending posts, hottest first
+     *
+     * @param limit Maximum number of posts (optional, at most app.trending.max-results)
+     * @return Map with "items" (cards) and "refreshedAt"
+     */
+    public Map<String, Object> getTrending(Integer limit) {
+        Snapshot current = snapshot;
+        int size = limit == null ? current.cards().size() : Math.max(0, Math.min(limit, current.cards().size()));
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("items", current.cards().subList(0, size));
+        response.put("refreshedAt", current.refreshedAt());
+        return response;
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        long now = System.currentTimeMillis();
+        for (DomainEvent event : events) {
+            switch (event) {
+                case DomainEvent.Liked liked -> scoreboard.add(liked.postId(), liked.liked() ? likeWeight : -likeWeight, now);
+                case DomainEvent.Reacted reacted -> scoreboard.add(reacted.postId(), reactionWeight, now);
+                case DomainEvent.ReactionRemoved removed -> scoreboard.add(removed.postId(), -reactionWeight, now);
+                case DomainEvent.Commented commented -> {
+                    if (!commented.edited()) {
+                        scoreboard.add(commented.comment().getPostId(), commentWeight, now);
+                    }
+                }
+                case DomainEvent.PostShared shared -> scoreboard.add(shared.postId(), shareWeight, now);
+                case DomainEvent.PostDeleted deleted -> scoreboard.remove(deleted.postId());
+                default -> {
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuild the served list from the current scores. Posts idle for longer
+     * than the window are dropped first, however high they once scored.
+     */
+    @Scheduled(fixedDelayString = "${app.trending.snapshot-interval-ms:5000}")
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        scoreboard.removeIdleSince(now - windowHours * 3_600_000);
+        List<DecayingScoreboard.Scored> top = scoreboard.top(maxResults, now);
+        if (top.isEmpty()) {
+            snapshot = new Snapshot(List.of(), new Date(now));
+            return;
+        }
+        try {
+            List<String> ids = top.stream().map(DecayingScoreboard.Scored::key).toList();
+            Map<String, PostCard> cards = mongoTemplate.find(new Query(Criteria.where("_id").in(ids)), PostCard.class)
+                    .stream()
+                    .collect(Collectors.toMap(PostCard::getId, Function.identity()));
+            List<PostCard> ranked = new ArrayList<>(cards.size());
+            for (String id : ids) {
+                PostCard card = cards.get(id);
+                if (card != null) {
+                    ranked.add(card);
+                }
+            }
+            snapshot = new Snapshot(List.copyOf(ranked), new Date(now));
+        } catch (Exception e) {
+            logger.warn("Could not refresh the trending posts: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Save the tracked scores, replacing the previous checkpoint
+     */
+    @Scheduled(fixedDelayString = "${app.trending.checkpoint-interval-ms:60000}",
+            initialDelayString = "${app.trending.checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        Date now = new Date();
+        List<DecayingScoreboard.Scored> scores = scoreboard.top(capacity, now.getTime());
+        try {
+            if (!scores.isEmpty()) {
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TrendingScore.class);
+                for (DecayingScoreboard.Scored scored : scores) {
+                    TrendingScore row = new TrendingScore();
+                    row.setId(scored.key());
+                    row.setScore(scored.score());
+                    row.setLastSeen(new Date(scored.lastSeen()));
+                    row.setCheckpointedAt(now);
+                    bulk.replaceOne(new Query(Criteria.where("_id").is(scored.key())), row,
+                            FindAndReplaceOptions.options().upsert());
+                }
+                bulk.execute();
+            }
+            mongoTemplate.remove(new Query(Criteria.where("checkpointedAt").lt(now)), TrendingScore.class);
+        } catch (Exception e) {
+            logger.warn("Could not checkpoint the trending scores: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Load the last checkpoint on startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        try {
+            List<TrendingScore> rows = mongoTemplate.findAll(TrendingScore.class);
+            for (TrendingScore row : rows) {
+                scoreboard.restore(row.getId(), row.getScore(), row.getCheckpointedAt().getTime(),
+                        row.getLastSeen().getTime());
+            }
+            if (!rows.isEmpty()) {
+                logger.info("Restored {} trending scores", rows.size());
+                refresh();
+            }
+        } catch (Exception e) {
+            logger.warn("Could not restore the trending scores: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.university.skillshare_backend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.university.skillshare_backend.exception.ConflictException;
+import com.university.skillshare_backend.exception.InvalidMediaException;
+import com.university.skillshare_backend.exception.ResourceNotFoundException;
+import com.university.skillshare_backend.model.MediaBlob;
+import com.university.skillshare_backend.model.UploadSession;
+import com.university.skillshare_backend.repository.UploadSessionRepository;
+import com.university.skillshare_backend.util.SniffingInputStream;
+
+@Service
+public class UploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final MongoTemplate mongoTemplate;
+    private final MediaBlobService mediaBlobService;
+
+    @Value("${file.upload-dir:./uploads}")
+    private String baseUploadDir;
+
+    @Value("${app.upload.max-image-size:10485760}")
+    private long maxImageSize;
+
+    @Value("${app.upload.max-video-size:104857600}")
+    private long maxVideoSize;
+
+    @Value("${app.upload.session-ttl-hours:24}")
+    private long sessionTtlHours;
+
+    @Value("${app.upload.write-claim-ms:300000}")
+    private long writeClaimMs;
+
+    @Autowired
+    public UploadService(
+            UploadSessionRepository uploadSessionRepository,
+            MongoTemplate mongoTemplate,
+            MediaBlobService mediaBlobService) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.mediaBlobService = mediaBlobService;
+    }
+
+    /**
+     * Start a resumable upload and create its (empty) target file
+     *
+     * @param userId The uploading user
+     * @param fileName Original file name
+     * @param contentType Declared content type (image/* or video/*)
+     * @param totalSize Total size of the file in bytes
+     * @return The new upload session
+     */
+    public UploadSession initiate(String userId, String fileName, String contentType, long totalSize) throws IOException {
+        String directory = directoryFor(contentType);
+        long limit = "videos".equals(directory) ? maxVideoSize : maxImageSize;
+        if (totalSize <= 0 || totalSize > limit) {
+            throw new InvalidMediaException("Upload size must be between 1 and " + limit + " bytes");
+        }
+
+        Path baseDir = baseDir();
+        Path targetDir = baseDir.resolve(directory).normalize();
+        Files.createDirectories(targetDir);
+
+        String originalFilename = StringUtils.cleanPath(fileName != null ? fileName : "upload");
+        Path targetPath = targetDir.resolve(UUID.randomUUID() + "_" + originalFilename).normalize();
+        if (!targetPath.startsWith(targetDir)) {
+            throw new InvalidMediaException("Cannot store file outside upload directory.");
+        }
+        Files.createFile(targetPath);
+
+        UploadSession session = new UploadSession();
+        session.setUserId(userId);
+        session.setFileName(originalFilename);
+        session.setContentType(contentType);
+        session.setDirectory(directory);
+        session.setStoragePath(baseDir.relativize(targetPath).toString().replace('\\', '/'));
+        session.setTotalSize(totalSize);
+        session.setReceivedBytes(0);
+        session.setExpiresAt(new Date(System.currentTimeMillis() + sessionTtlHours * 3600_000L));
+
+        logger.info("Initiated upload of {} ({} bytes) to {}", originalFilename, totalSize, targetPath);
+        return uploadSessionRepository.save(session);
+    }
+
+    /**
+     * Write one chunk at the given offset straight into the target file.
+     * The offset must match the number of bytes already received, which lets
+     * a client resume by asking for the current offset and sending from there.
+     *
+     * The request first claims the upload in the database at that offset, so a
+     * stale or duplicate chunk is refused before it touches the file, and only
+     * one chunk is written at a time across all nodes. A claim left behind by a
+     * crashed request lapses after app.upload.write-claim-ms.
+     *
+     * @param userId The uploading user; other users' uploads are not found
+     * @return The session with its new received byte count
+     */
+    public UploadSession writeChunk(String uploadId, String userId, long offset, InputStream body) throws IOException {
+        String claim = UUID.randomUUID().toString();
+        UploadSession session = claimWrite(uploadId, userId, offset, claim);
+
+        try {
+            long written = 0;
+            long remaining = session.getTotalSize() - offset;
+            Path targetPath = resolve(session);
+
+            // The first chunk carries the file header, so that is where the declared type is checked
+            SniffingInputStream sniffing = null;
+            if (offset == 0) {
+                SniffingInputStream.Kind kind = "videos".equals(session.getDirectory())
+                        ? SniffingInputStream.Kind.VIDEO
+                        : SniffingInputStream.Kind.IMAGE;
+                sniffing = new SniffingInputStream(body, kind, remaining);
+                body = sniffing;
+            }
+
+            try (FileChannel channel = FileChannel.open(targetPath, StandardOpenOption.WRITE);
+                 ReadableByteChannel source = Channels.newChannel(body)) {
+                // Everything before the claimed offset is acknowledged; anything after it is
+                // left over from a chunk that was cut off, so it is safe to drop
+                channel.truncate(offset);
+                channel.position(offset);
+
+                ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                try {
+                    while (source.read(buffer) != -1) {
+                        buffer.flip();
+                        written += buffer.remaining();
+                        if (written > remaining) {
+                            throw new InvalidMediaException("Chunk exceeds the declared upload size");
+                        }
+                        while (buffer.hasRemaining()) {
+                            channel.write(buffer);
+                        }
+                        buffer.clear();
+                    }
+                } catch (InvalidMediaException e) {
+                    channel.truncate(offset);
+                    throw e;
+                }
+                // The acknowledged offset must never run ahead of what is durable on disk
+                channel.force(false);
+            }
+
+            Update update = new Update()
+                    .inc("receivedBytes", written)
+                    .unset("writeClaim")
+                    .unset("writeClaimExpiresAt")
+                    .set("updatedAt", new Date());
+            if (sniffing != null && sniffing.getDetectedType() != null) {
+                update.set("contentType", sniffing.getDetectedType());
+            }
+            UploadSession updated = mongoTemplate.findAndModify(
+                    new Query(Criteria.where("_id").is(uploadId)
+                            .and("status").is(UploadSession.Status.IN_PROGRESS)
+                            .and("receivedBytes").is(offset)
+                            .and("writeClaim").is(claim)),
+                    update,
+                    FindAndModifyOptions.options().returnNew(true),
+                    UploadSession.class);
+            if (updated == null) {
+                throw new ConflictException("Upload " + uploadId + " was modified concurrently");
+            }
+            return updated;
+        } catch (IOException | RuntimeException e) {
+            releaseWrite(uploadId, claim);
+            throw e;
+        }
+    }
+
+    /**
+     * Claim the right to write the chunk at offset. Fails unless the upload is
+     * in progress, has received exactly offset bytes and no other live claim exists.
+     */
+    private UploadSession claimWrite(String uploadId, String userId, long offset, String claim) {
+        Date now = new Date();
+        UploadSession claimed = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(uploadId)
+                        .and("userId").is(userId)
+                        .and("status").is(UploadSession.Status.IN_PROGRESS)
+                        .and("receivedBytes").is(offset)
+                        .orOperator(
+                                Criteria.where("writeClaim").is(null),
+                                Criteria.where("writeClaimExpiresAt").lt(now))),
+                new Update()
+                        .set("writeClaim", claim)
+                        .set("writeClaimExpiresAt", new Date(now.getTime() + writeClaimMs)),
+                FindAndModifyOptions.options().returnNew(true),
+                UploadSession.class);
+        if (claimed != null) {
+            return claimed;
+        }
+
+        // Read the session back only to explain the refusal
+        UploadSession session = getSession(uploadId, userId);
+        if (session.getStatus() != UploadSession.Status.IN_PROGRESS) {
+            throw new ConflictException("Upload " + uploadId + " is " + session.getStatus());
+        }
+        if (offset != session.getReceivedBytes()) {
+            throw new ConflictException("Expected offset " + session.getReceivedBytes() + " but got " + offset);
+        }
+        throw new ConflictException("Another chunk is already being written for upload " + uploadId);
+    }
+
+    private void releaseWrite(String uploadId, String claim) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(uploadId).and("writeClaim").is(claim)),
+                new Update().unset("writeClaim").unset("writeClaimExpiresAt"),
+                UploadSession.class);
+    }
+
+    /**
+     * Mark an upload as complete once every byte has been received
+     */
+    public UploadSession complete(String uploadId, String userId) throws IOException {
+        UploadSession session = getSession(uploadId, userId);
+        if (session.getStatus() == UploadSession.Status.COMPLETED) {
+            return session;
+        }
+        if (session.getStatus() != UploadSession.Status.IN_PROGRESS) {
+            throw new ConflictException("Upload " + uploadId + " is " + session.getStatus());
+        }
+        if (session.getReceivedBytes() != session.getTotalSize()) {
+            throw new ConflictException("Upload " + uploadId + " has " + session.getReceivedBytes()
+                    + " of " + session.getTotalSize() + " bytes");
+        }
+        // Chunks may arrive over several connections, so hash once here and move
+        // the file into the deduplicated blob store
+        MediaBlob blob = mediaBlobService.storeFile(resolve(session), session.getContentType(), session.getFileName());
+        UploadSession completed = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(uploadId)
+                        .and("userId").is(userId)
+                        .and("status").is(UploadSession.Status.IN_PROGRESS)),
+                new Update()
+                        .set("status", UploadSession.Status.COMPLETED)
+                        .set("url", blob.getUrl())
+                        .set("updatedAt", new Date()),
+                FindAndModifyOptions.options().returnNew(true),
+                UploadSession.class);
+        if (completed == null) {
+            throw new ConflictException("Upload " + uploadId + " was modified concurrently");
+        }
+        return completed;
+    }
+
+    /**
+     * Claim a completed upload for a post and return it. An upload can only be
+     * attached once, and only by the user who uploaded it.
+     */
+    public UploadSession attach(String uploadId, String userId) {
+        UploadSession attached = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(uploadId)
+                        .and("userId").is(userId)
+                        .and("status").is(UploadSession.Status.COMPLETED)),
+                new Update().set("status", UploadSession.Status.ATTACHED).set("updatedAt", new Date()),
+                FindAndModifyOptions.options().returnNew(true),
+                UploadSession.class);
+        if (attached == null) {
+            throw new ConflictException("Upload " + uploadId + " is not a completed upload owned by user " + userId);
+        }
+        return attached;
+    }
+
+    /**
+     * Undo attach for uploads whose post could not be written, so they can be
+     * attached again or aborted. Only uploads still attached for this user are reverted.
+     */
+    public void detach(List<String> uploadIds, String userId) {
+        if (uploadIds.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("_id").in(uploadIds)
+                        .and("userId").is(userId)
+                        .and("status").is(UploadSession.Status.ATTACHED)),
+                new Update().set("status", UploadSession.Status.COMPLETED).set("updatedAt", new Date()),
+                UploadSession.class);
+    }
+
+    /**
+     * Abort an upload and delete whatever was written so far. The status only
+     * changes if the upload is still in progress or completed, so an upload
+     * attached in the meantime is never aborted.
+     */
+    public void abort(String uploadId, String userId) throws IOException {
+        UploadSession aborted = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(uploadId)
+                        .and("userId").is(userId)
+                        .and("status").in(UploadSession.Status.IN_PROGRESS, UploadSession.Status.COMPLETED)),
+                new Update()
+                        .set("status", UploadSession.Status.ABORTED)
+                        .unset("writeClaim")
+                        .unset("writeClaimExpiresAt")
+                        .set("updatedAt", new Date()),
+                FindAndModifyOptions.options().returnNew(true),
+                UploadSession.class);
+        if (aborted == null) {
+            UploadSession session = getSession(uploadId, userId);
+            throw new ConflictException("Upload " + uploadId + " is " + session.getStatus());
+        }
+        Files.deleteIfExists(resolve(aborted));
+    }
+
+    /**
+     * Look up an upload of the given user; other users' uploads are reported as not found
+     */
+    public UploadSession getSession(String uploadId, String userId) {
+        return uploadSessionRepository.findById(uploadId)
+                .filter(session -> session.getUserId().equals(userId))
+                .orElseThrow(() -> new ResourceNotFoundException("Upload", "id", uploadId));
+    }
+
+    /**
+     * Remove uploads that were started but never finished
+     */
+    @Scheduled(fixedDelayString = "${app.upload.purge-interval-ms:3600000}")
+    public void purgeExpiredUploads() {
+        List<UploadSession> expired = uploadSessionRepository
+                .findByStatusAndExpiresAtBefore(UploadSession.Status.IN_PROGRESS, new Date());
+        for (UploadSession session : expired) {
+            try {
+                abort(session.getId(), session.getUserId());
+            } catch (Exception e) {
+                logger.warn("Could not purge expired upload {}: {}", session.getId(), e.getMessage());
+            }
+        }
+        if (!expired.isEmpty()) {
+            logger.info("Purged {} expired uploads", expired.size());
+        }
+    }
+
+    private String directoryFor(String contentType) {
+        if (contentType != null && contentType.startsWith("image/")) {
+            return "images";
+        }
+        if (contentType != null && contentType.startsWith("video/")) {
+            return "videos";
+        }
+        throw new InvalidMediaException("Only image and video uploads are supported");
+    }
+
+    private Path resolve(UploadSession session) {
+        return baseDir().resolve(session.getStoragePath()).normalize();
+    }
+
+    private Path baseDir() {
+        return Paths.get(baseUploadDir).toAbsolutePath().normalize();
+    }
+}
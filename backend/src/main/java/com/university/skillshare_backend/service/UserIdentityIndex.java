@@ -0,0 +1,177 @@
+package com.university.skillshare_backend.service;
+
+import java.util.Locale;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.util.BloomFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-memory Bloom filters over every username and email, so that "is this
+ * name taken" checks for names nobody has can be answered without a query.
+ * A "might exist" answer still goes to the database; only "definitely
+ * absent" is trusted.
+ *
+ * The filters only know the names this node has seen, so a name registered
+ * on another node can be missing for a while. Only use them where a wrong
+ * "absent" is caught further down, as the unique username and email indexes
+ * catch it for the taken-name checks. Login and lookups by name must not
+ * rely on them.
+ *
+ * The filters are built from the users collection at startup and rebuilt
+ * periodically (to drop renamed values and grow with the user count). Names
+ * written in between are added by this node's saves, by explicit calls after
+ * partial updates, and by the entity cache change stream for other nodes.
+ * Until the first build finishes every name "might exist".
+ *
+ * Values are lower-cased, which makes the filters usable for both exact and
+ * case-insensitive lookups.
+ */
+@Service
+public class UserIdentityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserIdentityIndex.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final Counter skipped;
+    private final Counter checked;
+
+    @Value("${app.users.identity-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${app.users.identity-filter.min-capacity:100000}")
+    private long minCapacity;
+
+    private volatile Filters filters;
+    private volatile Filters building;
+
+    private static final class Filters {
+        final BloomFilter usernames;
+        final BloomFilter emails;
+
+        Filters(long capacity, double falsePositiveRate) {
+            this.usernames = new BloomFilter(capacity, falsePositiveRate);
+            this.emails = new BloomFilter(capacity, falsePositiveRate);
+        }
+
+        void add(String username, String email) {
+            if (username != null) {
+                usernames.put(normalize(username));
+            }
+            if (email != null) {
+                emails.put(normalize(email));
+            }
+        }
+    }
+
+    @Autowired
+    public UserIdentityIndex(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.skipped = Counter.builder("users.identity.filter").tag("result", "absent").register(meterRegistry);
+        this.checked = Counter.builder("users.identity.filter").tag("result", "maybe").register(meterRegistry);
+    }
+
+    /**
+     * @return false if no user has this username (in any case); true if one might
+     */
+    public boolean mightHaveUsername(String username) {
+        Filters current = filters;
+        return record(current == null || username == null || current.usernames.mightContain(normalize(username)));
+    }
+
+    /**
+     * @return false if no user has this email (in any case); true if one might
+     */
+    public boolean mightHaveEmail(String email) {
+        Filters current = filters;
+        return record(current == null || email == null || current.emails.mightContain(normalize(email)));
+    }
+
+    /**
+     * The error to report when a save is rejected by the unique username or email
+     * index, which is how a name the filters wrongly reported as absent is caught
+     */
+    public static String takenMessage(DuplicateKeyException e) {
+        String message = String.valueOf(e.getMessage());
+        int index = message.indexOf("index: ");
+        return index >= 0 && message.startsWith("index: email", index)
+                ? "Email is already registered"
+                : "Username is already taken";
+    }
+
+    /**
+     * Record a username and email that were just written
+     */
+    public void add(String username, String email) {
+        Filters current = filters;
+        if (current != null) {
+            current.add(username, email);
+        }
+        Filters next = building;
+        if (next != null) {
+            next.add(username, email);
+        }
+    }
+
+    @EventListener
+    public void onAfterSave(AfterSaveEvent<?> event) {
+        if ("users".equals(event.getCollectionName()) && event.getDocument() != null) {
+            add(event.getDocument().getString("username"), event.getDocument().getString("email"));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Build fresh filters sized for the current user count and swap them in
+     */
+    @Scheduled(fixedDelayString = "${app.users.identity-filter.rebuild-interval-ms:21600000}",
+            initialDelayString = "${app.users.identity-filter.rebuild-interval-ms:21600000}")
+    public void rebuild() {
+        try {
+            long users = mongoTemplate.count(new Query(), "users");
+            Filters next = new Filters(Math.max(minCapacity, users * 2), falsePositiveRate);
+            // Writes from now on go into both the current and the new filters
+            building = next;
+            Query query = new Query();
+            query.fields().include("username").include("email");
+            try (var stream = mongoTemplate.stream(query, Document.class, "users")) {
+                stream.forEach(user -> next.add(user.getString("username"), user.getString("email")));
+            }
+            filters = next;
+            logger.info("Built username and email filters for {} users ({} bytes)",
+                    users, next.usernames.getSizeInBytes() + next.emails.getSizeInBytes());
+        } catch (RuntimeException e) {
+            logger.warn("Could not build username and email filters: {}", e.toString());
+        } finally {
+            building = null;
+        }
+    }
+
+    private boolean record(boolean mightExist) {
+        (mightExist ? checked : skipped).increment();
+        return mightExist;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,14 +1,18 @@
 package com.university.skillshare_backend.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import com.university.skillshare_backend.event.DomainEvent;
 import com.university.skillshare_backend.exception.ResourceNotFoundException;
 import com.university.skillshare_backend.model.User;
 import com.university.skillshare_backend.repository.UserRepository;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -16,16 +20,22 @@ import java.util.Set;
 public class UserService {
 
     private final UserRepository userRepository;
-    private final NotificationService notificationService;
-    private final WebSocketService webSocketService;
+    private final DomainEventBus domainEventBus;
+    private final MongoTemplate mongoTemplate;
+    private final EntityCacheService entityCacheService;
+    private final OutboxService outboxService;
 
     @Autowired
     public UserService(UserRepository userRepository, 
-                      NotificationService notificationService,
-                      WebSocketService webSocketService) {
+                      DomainEventBus domainEventBus,
+                      MongoTemplate mongoTemplate,
+                      EntityCacheService entityCacheService,
+                      OutboxService outboxService) {
         this.userRepository = userRepository;
-        this.notificationService = notificationService;
-        this.webSocketService = webSocketService;
+        this.domainEventBus = domainEventBus;
+        this.mongoTemplate = mongoTemplate;
+        this.entityCacheService = entityCacheService;
+        this.outboxService = outboxService;
     }
 
     /**
@@ -40,33 +50,21 @@ public class UserService {
         User follower = userRepository.findById(followerId)
             .orElseThrow(() -> new ResourceNotFoundException("User", "id", followerId));
         
-        User userToFollow = userRepository.findById(userId)
-            .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
-        
-        // Initialize following set if null
-        if (follower.getFollowing() == null) {
-            follower.setFollowing(new HashSet<>());
-        }
-        
-        // Initialize followers set if null
-        if (userToFollow.getFollowers() == null) {
-            userToFollow.setFollowers(new HashSet<>());
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
         }
         
-        // Add to following/followers
-        follower.getFollowing().add(userId);
-        userToFollow.getFollowers().add(followerId);
+        // The notification for the user being followed and the WebSocket broadcast
+        // are delivered from the outbox once the follow is stored
+        outboxService.record(new DomainEvent.Followed(followerId, userId,
+            follower.getFullName() != null ? follower.getFullName() : follower.getUsername(), true),
+            "users", followerId, "following", userId);
         
-        // Save both users
-        userRepository.save(follower);
-        userRepository.save(userToFollow);
-        
-        // Create notification for the user being followed
-        notificationService.createFollowNotification(
-            userId, follower.getFullName() != null ? follower.getFullName() : follower.getUsername(), followerId);
-        
-        // Broadcast follow event via WebSocket
-        webSocketService.broadcastFollowEvent(userId, followerId);
+        // Add to following/followers in place; $addToSet creates missing sets and
+        // leaves the rest of both documents (and the other ids) untouched
+        updateUser(followerId, new Update().addToSet("following", userId));
+        updateUser(userId, new Update().addToSet("followers", followerId));
+        outboxService.flush();
         
         return true;
     }
@@ -80,27 +78,19 @@ public class UserService {
      */
     public boolean unfollowUser(String followerId, String userId) {
         // Check that users exist
-        User follower = userRepository.findById(followerId)
-            .orElseThrow(() -> new ResourceNotFoundException("User", "id", followerId));
-        
-        User userToUnfollow = userRepository.findById(userId)
-            .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
-        
-        // Remove from following/followers if sets are not null
-        if (follower.getFollowing() != null) {
-            follower.getFollowing().remove(userId);
+        if (!userRepository.existsById(followerId)) {
+            throw new ResourceNotFoundException("User", "id", followerId);
         }
-        
-        if (userToUnfollow.getFollowers() != null) {
-            userToUnfollow.getFollowers().remove(followerId);
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
         }
         
-        // Save both users
-        userRepository.save(follower);
-        userRepository.save(userToUnfollow);
+        // Remove from following/followers in place
+        updateUser(followerId, new Update().pull("following", userId));
+        updateUser(userId, new Update().pull("followers", followerId));
         
         // Broadcast unfollow event via WebSocket
-        webSocketService.broadcastUnfollowEvent(userId, followerId);
+        domainEventBus.publish(new DomainEvent.Followed(followerId, userId, null, false));
         
         return true;
     }
@@ -186,4 +176,9 @@ public class UserService {
         
         return following;
     }
+
+    private void updateUser(String userId, Update update) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(userId)), update, User.class);
+        entityCacheService.invalidateUser(userId);
+    }
 }
@@ -0,0 +1,434 @@
+package com.university.skillshare_backend.service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.bytedeco.ffmpeg.global.avcodec;
+import org.bytedeco.ffmpeg.global.avutil;
+import org.bytedeco.javacv.FFmpegFrameGrabber;
+import org.bytedeco.javacv.FFmpegFrameRecorder;
+import org.bytedeco.javacv.Frame;
+import org.bytedeco.javacv.Java2DFrameConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.university.skillshare_backend.event.DomainEvent;
+import com.university.skillshare_backend.model.BackgroundJob;
+import com.university.skillshare_backend.model.MediaBlob;
+import com.university.skillshare_backend.model.Post;
+import com.university.skillshare_backend.model.VideoMetadata;
+import com.university.skillshare_backend.repository.PostRepository;
+
+/**
+ * Probes post videos with FFmpeg (through javacv), extracts a poster frame,
+ * and produces a bandwidth-efficient H.264 rendition and optionally an HLS
+ * playlist. Runs as a BackgroundJob, so uploads never wait for FFmpeg.
+ *
+ * Videos longer than the allowed duration are rejected here, from the real
+ * stream duration, and detached from their post.
+ */
+@Service
+public class VideoProcessingService implements BackgroundJobHandler {
+
+    public static final String JOB_TYPE = "video.process";
+
+    private static final Logger logger = LoggerFactory.getLogger(VideoProcessingService.class);
+
+    private static final String HLS_DIR = "hls";
+    private static final String WORK_DIR = "tmp/video";
+
+    private final BackgroundJobService backgroundJobService;
+    private final MediaBlobService mediaBlobService;
+    private final MediaFileService mediaFileService;
+    private final PostRepository postRepository;
+    private final MongoTemplate mongoTemplate;
+    private final EntityCacheService entityCacheService;
+    private final DomainEventBus domainEventBus;
+
+    @Value("${file.upload-dir:./uploads}")
+    private String baseUploadDir;
+
+    @Value("${app.media.video.max-duration-seconds:30}")
+    private double maxDurationSeconds;
+
+    @Value("${app.media.video.max-width:854}")
+    private int maxWidth;
+
+    @Value("${app.media.video.bitrate:1200000}")
+    private int videoBitrate;
+
+    @Value("${app.media.video.audio-bitrate:96000}")
+    private int audioBitrate;
+
+    @Value("${app.media.video.hls-enabled:false}")
+    private boolean hlsEnabled;
+
+    @Autowired
+    public VideoProcessingService(
+            BackgroundJobService backgroundJobService,
+            MediaBlobService mediaBlobService,
+            MediaFileService mediaFileService,
+            PostRepository postRepository,
+            MongoTemplate mongoTemplate,
+            EntityCacheService entityCacheService,
+            DomainEventBus domainEventBus) {
+        this.backgroundJobService = backgroundJobService;
+        this.mediaBlobService = mediaBlobService;
+        this.mediaFileService = mediaFileService;
+        this.postRepository = postRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.entityCacheService = entityCacheService;
+        this.domainEventBus = domainEventBus;
+    }
+
+    @Override
+    public String getType() {
+        return JOB_TYPE;
+    }
+
+    /**
+     * Mark a post's video as pending processing if it is new or was replaced.
+     * Call before saving the post.
+     */
+    public void markPending(Post post) {
+        if (post.getVideoUrl() == null) {
+            post.setVideoMetadata(null);
+        } else if (post.getVideoMetadata() == null
+                || !post.getVideoUrl().equals(post.getVideoMetadata().getSourceUrl())) {
+            post.setVideoMetadata(VideoMetadata.processing(post.getVideoUrl()));
+        }
+    }
+
+    /**
+     * Queue processing for a saved post whose video is pending
+     */
+    public void schedule(Post post) {
+        VideoMetadata metadata = post.getVideoMetadata();
+        if (metadata != null && metadata.getStatus() == VideoMetadata.Status.PROCESSING) {
+            backgroundJobService.enqueue(JOB_TYPE, post.getId(), Map.of("videoUrl", post.getVideoUrl()));
+        }
+    }
+
+    @Override
+    public void handle(BackgroundJob job) throws Exception {
+        String postId = job.getTargetId();
+        String videoUrl = job.getParams().get("videoUrl");
+        Optional<Post> post = postRepository.findById(postId);
+        if (post.isEmpty() || post.get().getDeletedAt() != null || !videoUrl.equals(post.get().getVideoUrl())) {
+            logger.info("Skipping video processing for post {}, the video has changed or the post is gone", postId);
+            return;
+        }
+
+        Path fetched = null;
+        Path source = localFile(videoUrl).orElse(null);
+        List<String> produced = new ArrayList<>();
+        try {
+            if (source == null) {
+                source = fetched = fetchRemote(videoUrl);
+            }
+
+            VideoMetadata metadata = probe(source);
+            metadata.setSourceUrl(videoUrl);
+
+            if (metadata.getDurationSeconds() != null && metadata.getDurationSeconds() > maxDurationSeconds) {
+                reject(postId, videoUrl, metadata);
+                return;
+            }
+
+            metadata.setPosterUrl(extractPoster(source, metadata));
+            produced.add(metadata.getPosterUrl());
+
+            if (needsTranscode(metadata)) {
+                metadata.setTranscodedUrl(transcode(source, metadata));
+                produced.add(metadata.getTranscodedUrl());
+            }
+            if (hlsEnabled) {
+                metadata.setHlsUrl(segmentHls(source, videoUrl));
+            }
+
+            metadata.setStatus(VideoMetadata.Status.READY);
+            metadata.setProcessedAt(new Date());
+            if (saveMetadata(postId, videoUrl, metadata)) {
+                mediaBlobService.acquire(produced);
+            }
+            logger.info("Processed video of post {}: {}s {}x{} {}", postId,
+                    metadata.getDurationSeconds(), metadata.getWidth(), metadata.getHeight(), metadata.getVideoCodec());
+        } finally {
+            if (fetched != null) {
+                Files.deleteIfExists(fetched);
+            }
+        }
+    }
+
+    private VideoMetadata probe(Path source) throws IOException {
+        try (FFmpegFrameGrabber grabber = new FFmpegFrameGrabber(source.toFile())) {
+            grabber.start();
+            VideoMetadata metadata = new VideoMetadata();
+            long lengthMicros = grabber.getLengthInTime();
+            metadata.setDurationSeconds(lengthMicros > 0 ? lengthMicros / 1_000_000.0 : null);
+            metadata.setWidth(grabber.getImageWidth());
+            metadata.setHeight(grabber.getImageHeight());
+            metadata.setVideoCodec(grabber.getVideoCodecName());
+            metadata.setAudioCodec(grabber.getAudioChannels() > 0 ? grabber.getAudioCodecName() : null);
+            return metadata;
+        }
+    }
+
+    /**
+     * Grab a frame one second in (or halfway through very short clips)
+     */
+    private String extractPoster(Path source, VideoMetadata metadata) throws IOException {
+        BufferedImage poster;
+        try (FFmpegFrameGrabber grabber = new FFmpegFrameGrabber(source.toFile());
+             Java2DFrameConverter converter = new Java2DFrameConverter()) {
+            grabber.start();
+            long duration = grabber.getLengthInTime();
+            grabber.setTimestamp(duration > 0 ? Math.min(1_000_000L, duration / 2) : 0);
+            Frame frame = grabber.grabImage();
+            if (frame == null) {
+                return null;
+            }
+            poster = converter.convert(frame);
+        }
+
+        Path temp = Files.createTempFile(tempDir(), "poster-", ".jpg");
+        try {
+            if (!ImageIO.write(toRgb(poster), "jpeg", temp.toFile())) {
+                throw new IOException("No JPEG writer available");
+            }
+            MediaBlob blob = mediaBlobService.storeFile(temp, "image/jpeg", "poster.jpg");
+            return blob.getUrl();
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private boolean needsTranscode(VideoMetadata metadata) {
+        return !"h264".equals(metadata.getVideoCodec())
+                || (metadata.getWidth() != null && metadata.getWidth() > maxWidth);
+    }
+
+    private String transcode(Path source, VideoMetadata metadata) throws IOException {
+        Path output = Files.createTempFile(tempDir(), "transcode-", ".mp4");
+        try {
+            try (FFmpegFrameGrabber grabber = new FFmpegFrameGrabber(source.toFile())) {
+                grabber.start();
+                int[] size = scaledSize(grabber.getImageWidth(), grabber.getImageHeight());
+                try (FFmpegFrameRecorder recorder = new FFmpegFrameRecorder(
+                        output.toFile(), size[0], size[1], grabber.getAudioChannels())) {
+                    recorder.setFormat("mp4");
+                    recorder.setVideoCodec(avcodec.AV_CODEC_ID_H264);
+                    recorder.setPixelFormat(avutil.AV_PIX_FMT_YUV420P);
+                    recorder.setFrameRate(grabber.getFrameRate() > 0 ? grabber.getFrameRate() : 30);
+                    recorder.setVideoBitrate(videoBitrate);
+                    recorder.setVideoOption("preset", "veryfast");
+                    // Put the index first so playback can start before the download finishes
+                    recorder.setOption("movflags", "+faststart");
+                    if (grabber.getAudioChannels() > 0) {
+                        recorder.setAudioCodec(avcodec.AV_CODEC_ID_AAC);
+                        recorder.setAudioBitrate(audioBitrate);
+                        recorder.setSampleRate(grabber.getSampleRate());
+                    }
+                    recorder.start();
+                    Frame frame;
+                    while ((frame = grabber.grab()) != null) {
+                        recorder.record(frame);
+                    }
+                    recorder.stop();
+                }
+            }
+            return mediaBlobService.storeFile(output, "video/mp4", "video.mp4").getUrl();
+        } finally {
+            Files.deleteIfExists(output);
+        }
+    }
+
+    /**
+     * Write a VOD HLS playlist with 4 second segments to a work directory, then
+     * store it through the primary MediaStore under a prefix named after the
+     * source file, so a re-run overwrites it. The segments are stored before the
+     * playlist, which never references a segment that is not there yet.
+     */
+    private String segmentHls(Path source, String videoUrl) throws IOException {
+        String baseName = hlsBaseName(videoUrl);
+        Path dir = Files.createTempDirectory(tempDir(), "hls-");
+        try {
+            writeHls(source, dir);
+            List<Path> segments;
+            try (Stream<Path> files = Files.list(dir)) {
+                segments = files.filter(file -> file.getFileName().toString().endsWith(".ts")).sorted().toList();
+            }
+            for (Path segment : segments) {
+                mediaFileService.storeRendition(HLS_DIR + "/" + baseName + "/" + segment.getFileName(), segment, "video/mp2t");
+            }
+            String playlistKey = HLS_DIR + "/" + baseName + "/index.m3u8";
+            mediaFileService.storeRendition(playlistKey, dir.resolve("index.m3u8"), "application/vnd.apple.mpegurl");
+            return "/uploads/" + playlistKey;
+        } finally {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    /**
+     * URL prefix of the HLS rendition of a source video, which is deleted along with it
+     */
+    public static String hlsPrefix(String sourceFileName) {
+        return "/uploads/" + HLS_DIR + "/" + hlsBaseName(sourceFileName) + "/";
+    }
+
+    private static String hlsBaseName(String videoUrl) {
+        String name = videoUrl.substring(videoUrl.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private void writeHls(Path source, Path dir) throws IOException {
+        try (FFmpegFrameGrabber grabber = new FFmpegFrameGrabber(source.toFile())) {
+            grabber.start();
+            int[] size = scaledSize(grabber.getImageWidth(), grabber.getImageHeight());
+            try (FFmpegFrameRecorder recorder = new FFmpegFrameRecorder(
+                    dir.resolve("index.m3u8").toFile(), size[0], size[1], grabber.getAudioChannels())) {
+                recorder.setFormat("hls");
+                recorder.setVideoCodec(avcodec.AV_CODEC_ID_H264);
+                recorder.setPixelFormat(avutil.AV_PIX_FMT_YUV420P);
+                recorder.setFrameRate(grabber.getFrameRate() > 0 ? grabber.getFrameRate() : 30);
+                recorder.setVideoBitrate(videoBitrate);
+                recorder.setVideoOption("preset", "veryfast");
+                recorder.setOption("hls_time", "4");
+                recorder.setOption("hls_list_size", "0");
+                recorder.setOption("hls_playlist_type", "vod");
+                recorder.setOption("hls_segment_filename", dir.resolve("segment_%03d.ts").toString());
+                if (grabber.getAudioChannels() > 0) {
+                    recorder.setAudioCodec(avcodec.AV_CODEC_ID_AAC);
+                    recorder.setAudioBitrate(audioBitrate);
+                    recorder.setSampleRate(grabber.getSampleRate());
+                }
+                recorder.start();
+                Frame frame;
+                while ((frame = grabber.grab()) != null) {
+                    recorder.record(frame);
+                }
+                recorder.stop();
+            }
+        }
+    }
+
+    private void reject(String postId, String videoUrl, VideoMetadata metadata) {
+        metadata.setStatus(VideoMetadata.Status.REJECTED);
+        metadata.setError(String.format("Video is %.1f seconds long, the limit is %.0f seconds",
+                metadata.getDurationSeconds(), maxDurationSeconds));
+        metadata.setProcessedAt(new Date());
+        UpdateResult result = mongoTemplate.updateFirst(
+                pendingVideo(postId, videoUrl),
+                new Update().unset("videoUrl").set("videoMetadata", metadata),
+                Post.class);
+        entityCacheService.invalidatePost(postId);
+        domainEventBus.publish(new DomainEvent.PostUpdated(postId));
+        if (result.getModifiedCount() > 0) {
+            mediaBlobService.release(List.of(videoUrl));
+        }
+        logger.info("Rejected video of post {}: {}", postId, metadata.getError());
+    }
+
+    /**
+     * Only record the result if the post still has the video that was processed
+     */
+    private boolean saveMetadata(String postId, String videoUrl, VideoMetadata metadata) {
+        UpdateResult result = mongoTemplate.updateFirst(
+                pendingVideo(postId, videoUrl),
+                new Update().set("videoMetadata", metadata),
+                Post.class);
+        entityCacheService.invalidatePost(postId);
+        domainEventBus.publish(new DomainEvent.PostUpdated(postId));
+        return result.getModifiedCount() > 0;
+    }
+
+    /**
+     * Matches the post only while it still has this video and nothing has been
+     * recorded for it yet, so a retried job cannot apply its result twice, and
+     * never once the post is being deleted and its media released
+     */
+    private Query pendingVideo(String postId, String videoUrl) {
+        return new Query(Criteria.where("_id").is(postId)
+                .and("videoUrl").is(videoUrl)
+                .and("videoMetadata.status").is(VideoMetadata.Status.PROCESSING)
+                .and("deletedAt").is(null));
+    }
+
+    /**
+     * Fit within maxWidth, keeping the aspect ratio and even dimensions for YUV 4:2:0
+     */
+    private int[] scaledSize(int width, int height) {
+        if (width <= maxWidth) {
+            return new int[] { width & ~1, height & ~1 };
+        }
+        int scaledHeight = (int) Math.round((double) height * maxWidth / width);
+        return new int[] { maxWidth & ~1, Math.max(2, scaledHeight & ~1) };
+    }
+
+    private BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_3BYTE_BGR) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        rgb.createGraphics().drawImage(image, 0, 0, null);
+        return rgb;
+    }
+
+    private Optional<Path> localFile(String url) {
+        if (!url.startsWith("/uploads/")) {
+            return Optional.empty();
+        }
+        return mediaFileService.resolveUploadPath(url.substring("/uploads/".length()))
+                .filter(Files::isRegularFile);
+    }
+
+    private Path fetchRemote(String url) throws IOException {
+        MediaBlob blob = mediaBlobService.findRemote(url)
+                .orElseThrow(() -> new IOException("Video source not found for " + url));
+        Path temp = Files.createTempFile(tempDir(), "source-", ".video");
+        try (InputStream in = mediaBlobService.open(blob, 0, -1)) {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return temp;
+    }
+
+    private Path tempDir() throws IOException {
+        Path dir = baseDir().resolve(WORK_DIR);
+        Files.createDirectories(dir);
+        return dir;
+    }
+
+    private Path baseDir() {
+        return Paths.get(baseUploadDir).toAbsolutePath().normalize();
+    }
+}
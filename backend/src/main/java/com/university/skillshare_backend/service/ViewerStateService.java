@@ -0,0 +1,105 @@
+package com.university.skillshare_backend.service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.exception.ResourceNotFoundException;
+import com.university.skillshare_backend.model.Like;
+import com.university.skillshare_backend.model.Reaction;
+import com.university.skillshare_backend.model.User;
+import com.university.skillshare_backend.repository.LikeRepository;
+import com.university.skillshare_backend.repository.ReactionRepository;
+import com.university.skillshare_backend.repository.UserRepository;
+
+/**
+ * Answers "what has this user done to these posts and authors" for a whole
+ * feed page at once, instead of one like and one reaction request per card.
+ * Each state is a single $in query (likes, reactions) or a single document
+ * read (the viewer's following set), however many posts are on the page.
+ */
+@Service
+public class ViewerStateService {
+
+    private final UserRepository userRepository;
+    private final LikeRepository likeRepository;
+    private final ReactionRepository reactionRepository;
+
+    @Value("${app.feed.viewer-state.max-ids:200}")
+    private int maxIds;
+
+    @Autowired
+    public ViewerStateService(
+            UserRepository userRepository,
+            LikeRepository likeRepository,
+            ReactionRepository reactionRepository) {
+        this.userRepository = userRepository;
+        this.likeRepository = likeRepository;
+        this.reactionRepository = reactionRepository;
+    }
+
+    /**
+     * Get a user's like, reaction and follow state for a batch of posts and authors
+     *
+     * @param userId Viewing user
+     * @param postIds Posts on the page
+     * @param authorIds Authors on the page
+     * @return Map with "liked" and "reactions" keyed by post ID and "following" keyed by author ID.
+     *         Every requested ID is present; reactions maps to null when the user has not reacted.
+     */
+    public Map<String, Object> getViewerState(String userId, Collection<String> postIds, Collection<String> authorIds) {
+        Set<String> posts = distinct(postIds, "postIds");
+        Set<String> authors = distinct(authorIds, "authorIds");
+
+        User viewer = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+
+        Map<String, Boolean> liked = new LinkedHashMap<>();
+        Map<String, String> reactions = new LinkedHashMap<>();
+        for (String postId : posts) {
+            liked.put(postId, false);
+            reactions.put(postId, null);
+        }
+        if (!posts.isEmpty()) {
+            for (Like like : likeRepository.findByUserIdAndPostIdIn(userId, posts)) {
+                liked.put(like.getPostId(), true);
+            }
+            for (Reaction reaction : reactionRepository.findByUserIdAndPostIdIn(userId, posts)) {
+                reactions.put(reaction.getPostId(), reaction.getType());
+            }
+        }
+
+        Set<String> following = viewer.getFollowing();
+        Map<String, Boolean> follows = new LinkedHashMap<>();
+        for (String authorId : authors) {
+            follows.put(authorId, following != null && following.contains(authorId));
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("liked", liked);
+        response.put("reactions", reactions);
+        response.put("following", follows);
+        return response;
+    }
+
+    private Set<String> distinct(Collection<String> ids, String name) {
+        Set<String> distinct = new LinkedHashSet<>();
+        if (ids != null) {
+            for (String id : ids) {
+                if (id != null && !id.isEmpty()) {
+                    distinct.add(id);
+                }
+            }
+        }
+        if (distinct.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " " + name + " can be requested at once");
+        }
+        return distinct;
+    }
+}
@@ -0,0 +1,72 @@
+package com.university.skillshare_backend.service;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.event.DomainEvent;
+import com.university.skillshare_backend.event.DomainEventListener;
+import com.university.skillshare_backend.repository.LikeRepository;
+
+/**
+ * Pushes domain events to subscribed clients. Like counts are read once per
+ * post per batch, after the batch's likes are all stored, so a burst of likes
+ * on a popular post costs one count and one message instead of one each.
+ */
+@Service
+public class WebSocketEventListener implements DomainEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketEventListener.class);
+
+    private final WebSocketService webSocketService;
+    private final LikeRepository likeRepository;
+
+    @Autowired
+    public WebSocketEventListener(WebSocketService webSocketService, LikeRepository likeRepository) {
+        this.webSocketService = webSocketService;
+        this.likeRepository = likeRepository;
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        Set<String> likedPosts = new LinkedHashSet<>();
+        for (DomainEvent event : events) {
+            switch (event) {
+                case DomainEvent.Liked liked -> likedPosts.add(liked.postId());
+                case DomainEvent.Commented commented -> {
+                    commented.comment().setAuthorName(commented.authorName());
+                    commented.comment().setIsNew(!commented.edited());
+                    if (commented.edited()) {
+                        webSocketService.broadcastCommentUpdate(commented.comment().getPostId(), commented.comment());
+                    } else if (commented.broadcast()) {
+                        webSocketService.broadcastNewComment(commented.comment().getPostId(), commented.comment());
+                    }
+                }
+                case DomainEvent.CommentDeleted deleted -> webSocketService.broadcastCommentUpdate(
+                        deleted.postId(), Collections.singletonMap("deleted", deleted.commentId()));
+                case DomainEvent.Followed followed -> {
+                    if (followed.following()) {
+                        webSocketService.broadcastFollowEvent(followed.userId(), followed.followerId());
+                    } else {
+                        webSocketService.broadcastUnfollowEvent(followed.userId(), followed.followerId());
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        for (String postId : likedPosts) {
+            try {
+                webSocketService.broadcastLikeCount(postId, likeRepository.countByPostId(postId));
+            } catch (Exception e) {
+                logger.warn("Could not broadcast the like count of post {}", postId, e);
+            }
+        }
+    }
+}
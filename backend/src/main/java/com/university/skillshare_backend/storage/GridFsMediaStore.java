@@ -0,0 +1,80 @@
+package com.university.skillshare_backend.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.Optional;
+
+import org.apache.commons.io.input.BoundedInputStream;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+
+/**
+ * Stores objects in GridFS, using the key as the GridFS filename
+ */
+public class GridFsMediaStore implements MediaStore {
+
+    public static final String NAME = "gridfs";
+
+    private final GridFsTemplate gridFsTemplate;
+
+    public GridFsMediaStore(GridFsTemplate gridFsTemplate) {
+        this.gridFsTemplate = gridFsTemplate;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public StoredObject put(String key, InputStream in, long size, String contentType) throws IOException {
+        ObjectId id = gridFsTemplate.store(in, key, contentType);
+        // Drop older revisions only after the new one is complete
+        gridFsTemplate.delete(new Query(Criteria.where("filename").is(key).and("_id").ne(id)));
+        return stat(key).orElseThrow(() -> new IOException("Stored GridFS file disappeared: " + key));
+    }
+
+    @Override
+    public InputStream get(String key, long offset, long length) throws IOException {
+        GridFSFile file = find(key).orElseThrow(() -> new NoSuchFileException(key));
+        InputStream in = gridFsTemplate.getResource(file).getInputStream();
+        try {
+            // GridFSDownloadStream skips whole chunks without fetching them
+            in.skipNBytes(offset);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return length < 0 ? in : new BoundedInputStream(in, length);
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String key) {
+        return find(key).map(file -> new StoredObject(key, file.getLength(), contentTypeOf(file), file.getUploadDate()));
+    }
+
+    @Override
+    public boolean delete(String key) {
+        boolean existed = find(key).isPresent();
+        gridFsTemplate.delete(new Query(Criteria.where("filename").is(key)));
+        return existed;
+    }
+
+    private Optional<GridFSFile> find(String key) {
+        Query query = new Query(Criteria.where("filename").is(key)).with(Sort.by(Sort.Direction.DESC, "uploadDate"));
+        return Optional.ofNullable(gridFsTemplate.find(query).first());
+    }
+
+    private String contentTypeOf(GridFSFile file) {
+        if (file.getMetadata() != null && file.getMetadata().containsKey("_contentType")) {
+            return file.getMetadata().getString("_contentType");
+        }
+        return null;
+    }
+}
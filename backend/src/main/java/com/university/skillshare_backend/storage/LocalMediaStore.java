@@ -0,0 +1,118 @@
+package com.university.skillshare_backend.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.Optional;
+
+import org.apache.commons.io.input.BoundedInputStream;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+
+/**
+ * Stores objects as files below the upload directory. Writes go to a temp file
+ * that is atomically renamed, so readers never see a partial object.
+ */
+public class LocalMediaStore implements MediaStore {
+
+    public static final String NAME = "local";
+
+    private final Path root;
+
+    public LocalMediaStore(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * The file backing a key. Only this backend exposes files, which lets the
+     * media endpoint hand them to sendfile.
+     */
+    public Path resolve(String key) {
+        Path resolved = root.resolve(key).normalize();
+        if (!resolved.startsWith(root) || resolved.equals(root)) {
+            throw new IllegalArgumentException("Invalid media key: " + key);
+        }
+        return resolved;
+    }
+
+    @Override
+    public StoredObject put(String key, InputStream in, long size, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".tmp-", ".part");
+        try {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            move(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return toStoredObject(key, target);
+    }
+
+    @Override
+    public StoredObject putFile(String key, Path file, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        move(file, target);
+        return toStoredObject(key, target);
+    }
+
+    @Override
+    public InputStream get(String key, long offset, long length) throws IOException {
+        Path file = resolve(key);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            channel.position(offset);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        InputStream in = Channels.newInputStream(channel);
+        return length < 0 ? in : new BoundedInputStream(in, length);
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String key) throws IOException {
+        Path file = resolve(key);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        return Optional.of(toStoredObject(key, file));
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return Files.deleteIfExists(resolve(key));
+    }
+
+    private void move(Path source, Path target) throws IOException {
+        if (!Files.exists(source)) {
+            throw new NoSuchFileException(source.toString());
+        }
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private StoredObject toStoredObject(String key, Path file) throws IOException {
+        String contentType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+        return new StoredObject(key, Files.size(file), contentType,
+                new Date(Files.getLastModifiedTime(file).toMillis()));
+    }
+}
@@ -0,0 +1,74 @@
+package com.university.skillshare_backend.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * A backend that media bytes can be stored in. Keys are relative paths such as
+ * "blobs/ab/&lt;sha256&gt;.jpg" and mean the same thing in every backend, so
+ * objects can be moved between backends without changing their URLs.
+ *
+ * Missing objects are reported with java.nio.file.NoSuchFileException.
+ */
+public interface MediaStore {
+
+    /**
+     * Short backend name used in configuration, metrics and MediaBlob.backend
+     */
+    String getName();
+
+    /**
+     * Store an object, replacing any object with the same key
+     *
+     * @param key Object key
+     * @param in Contents, read to the end but not closed
+     * @param size Number of bytes in the stream
+     * @param contentType Content type recorded with the object
+     */
+    StoredObject put(String key, InputStream in, long size, String contentType) throws IOException;
+
+    /**
+     * Store a file that is no longer needed by the caller. The file is deleted
+     * afterwards; backends on the same filesystem may simply move it.
+     */
+    default StoredObject putFile(String key, Path file, String contentType) throws IOException {
+        try {
+            try (InputStream in = Files.newInputStream(file)) {
+                return put(key, in, Files.size(file), contentType);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Open a byte range of an object
+     *
+     * @param key Object key
+     * @param offset First byte to return
+     * @param length Number of bytes to return, or -1 for everything after offset
+     */
+    InputStream get(String key, long offset, long length) throws IOException;
+
+    /**
+     * Open a whole object
+     */
+    default InputStream get(String key) throws IOException {
+        return get(key, 0, -1);
+    }
+
+    /**
+     * Look up an object's size, content type and modification time
+     */
+    Optional<StoredObject> stat(String key) throws IOException;
+
+    /**
+     * Delete an object
+     *
+     * @return Whether the object existed
+     */
+    boolean delete(String key) throws IOException;
+}
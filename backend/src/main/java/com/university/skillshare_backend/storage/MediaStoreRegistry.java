@@ -0,0 +1,68 @@
+package com.university.skillshare_backend.storage;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * All configured media backends, by name. New media is written to the
+ * primary backend (app.media.store); existing media is read from whichever
+ * backend its MediaBlob records, so switching the primary needs no migration.
+ */
+@Component
+public class MediaStoreRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(MediaStoreRegistry.class);
+
+    private final Map<String, MediaStore> stores = new LinkedHashMap<>();
+    private final MediaStore primary;
+
+    @Autowired
+    public MediaStoreRegistry(List<MediaStore> backends, MeterRegistry meterRegistry,
+                              @Value("${app.media.store:local}") String primaryName) {
+        for (MediaStore backend : backends) {
+            stores.put(backend.getName(), new MeteredMediaStore(backend, meterRegistry));
+        }
+        this.primary = stores.get(primaryName);
+        if (primary == null) {
+            throw new IllegalStateException("Media store '" + primaryName + "' is not configured; available: " + stores.keySet());
+        }
+        logger.info("Media stores {} configured, writing new media to '{}'", stores.keySet(), primaryName);
+    }
+
+    /**
+     * The backend new media is written to
+     */
+    public MediaStore primary() {
+        return primary;
+    }
+
+    /**
+     * Look up a backend by name; null means the local filesystem, which is
+     * where media stored before backends were configurable lives
+     */
+    public MediaStore get(String name) {
+        MediaStore store = stores.get(name != null ? name : LocalMediaStore.NAME);
+        if (store == null) {
+            throw new IllegalStateException("Media store '" + name + "' is not configured");
+        }
+        return store;
+    }
+
+    /**
+     * The local backend, if it is configured
+     */
+    public Optional<LocalMediaStore> local() {
+        MediaStore store = stores.get(LocalMediaStore.NAME);
+        return store != null ? Optional.of((LocalMediaStore) ((MeteredMediaStore) store).getDelegate()) : Optional.empty();
+    }
+}
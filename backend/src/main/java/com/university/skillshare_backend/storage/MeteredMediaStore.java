@@ -0,0 +1,117 @@
+package com.university.skillshare_backend.storage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records latency, outcome and transferred bytes for every operation of a backend.
+ *
+ * Meters: media.store.requests (timer; backend, operation, outcome) and
+ * media.store.bytes (counter; backend, direction).
+ */
+public class MeteredMediaStore implements MediaStore {
+
+    private final MediaStore delegate;
+    private final MeterRegistry meterRegistry;
+    private final Counter bytesIn;
+    private final Counter bytesOut;
+
+    public MeteredMediaStore(MediaStore delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.bytesIn = Counter.builder("media.store.bytes")
+                .tag("backend", delegate.getName())
+                .tag("direction", "in")
+                .register(meterRegistry);
+        this.bytesOut = Counter.builder("media.store.bytes")
+                .tag("backend", delegate.getName())
+                .tag("direction", "out")
+                .register(meterRegistry);
+    }
+
+    public MediaStore getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public StoredObject put(String key, InputStream in, long size, String contentType) throws IOException {
+        StoredObject stored = record("put", () -> delegate.put(key, in, size, contentType));
+        bytesIn.increment(stored.getSize());
+        return stored;
+    }
+
+    @Override
+    public StoredObject putFile(String key, Path file, String contentType) throws IOException {
+        StoredObject stored = record("put", () -> delegate.putFile(key, file, contentType));
+        bytesIn.increment(stored.getSize());
+        return stored;
+    }
+
+    @Override
+    public InputStream get(String key, long offset, long length) throws IOException {
+        // Only time-to-first-byte is timed; the transfer itself shows up in media.store.bytes
+        InputStream in = record("get", () -> delegate.get(key, offset, length));
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    bytesOut.increment();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int off, int len) throws IOException {
+                int read = super.read(buffer, off, len);
+                if (read > 0) {
+                    bytesOut.increment(read);
+                }
+                return read;
+            }
+        };
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String key) throws IOException {
+        return record("stat", () -> delegate.stat(key));
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return record("delete", () -> delegate.delete(key));
+    }
+
+    private <T> T record(String operation, Callable<T> call) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return call.call();
+        } catch (IOException | RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } catch (Exception e) {
+            outcome = "error";
+            throw new IOException(e);
+        } finally {
+            sample.stop(Timer.builder("media.store.requests")
+                    .tag("backend", delegate.getName())
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+}
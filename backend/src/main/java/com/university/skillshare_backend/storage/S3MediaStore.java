@@ -0,0 +1,174 @@
+package com.university.skillshare_backend.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Stores objects in an S3-compatible bucket (AWS S3, MinIO, ...) over plain
+ * HTTP with SigV4-signed requests. Bodies are streamed in both directions.
+ */
+public class S3MediaStore implements MediaStore {
+
+    public static final String NAME = "s3";
+
+    private final HttpClient httpClient;
+    private final S3RequestSigner signer;
+    private final URI endpoint;
+    private final String bucket;
+    private final boolean pathStyle;
+    private final Duration requestTimeout;
+
+    /**
+     * @param endpoint e.g. https://s3.eu-west-1.amazonaws.com or http://localhost:9000
+     * @param pathStyle Address the bucket as endpoint/bucket/key (needed by MinIO)
+     *                  instead of bucket.endpoint/key
+     */
+    public S3MediaStore(URI endpoint, String region, String bucket, String accessKey, String secretKey,
+                        boolean pathStyle, Duration requestTimeout) {
+        this.endpoint = endpoint;
+        this.bucket = bucket;
+        this.pathStyle = pathStyle;
+        this.requestTimeout = requestTimeout;
+        this.signer = new S3RequestSigner(accessKey, secretKey, region, "s3");
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public StoredObject put(String key, InputStream in, long size, String contentType) throws IOException {
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (contentType != null) {
+            headers.put("content-type", contentType);
+        }
+        // The stream can only be read once, so the body is sent unsigned (the
+        // connection itself is authenticated) and the length is fixed up front
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.fromPublisher(
+                HttpRequest.BodyPublishers.ofInputStream(() -> in), size);
+        HttpResponse<Void> response = send("PUT", key, headers, S3RequestSigner.UNSIGNED_PAYLOAD, body,
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("S3 PUT " + key + " failed with status " + response.statusCode());
+        }
+        return new StoredObject(key, size, contentType, new Date());
+    }
+
+    @Override
+    public InputStream get(String key, long offset, long length) throws IOException {
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (offset > 0 || length >= 0) {
+            headers.put("range", "bytes=" + offset + "-" + (length >= 0 ? String.valueOf(offset + length - 1) : ""));
+        }
+        HttpResponse<InputStream> response = send("GET", key, headers, S3RequestSigner.EMPTY_PAYLOAD_SHA256,
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() == 200 || response.statusCode() == 206) {
+            return response.body();
+        }
+        response.body().close();
+        if (response.statusCode() == 404) {
+            throw new NoSuchFileException(key);
+        }
+        throw new IOException("S3 GET " + key + " failed with status " + response.statusCode());
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String key) throws IOException {
+        HttpResponse<Void> response = send("HEAD", key, Map.of(), S3RequestSigner.EMPTY_PAYLOAD_SHA256,
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) {
+            return Optional.empty();
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("S3 HEAD " + key + " failed with status " + response.statusCode());
+        }
+        long size = response.headers().firstValueAsLong("content-length").orElse(-1);
+        String contentType = response.headers().firstValue("content-type").orElse(null);
+        Date lastModified = response.headers().firstValue("last-modified")
+                .map(this::parseHttpDate)
+                .orElse(null);
+        return Optional.of(new StoredObject(key, size, contentType, lastModified));
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        // S3 answers 204 whether or not the object existed
+        boolean existed = stat(key).isPresent();
+        HttpResponse<Void> response = send("DELETE", key, Map.of(), S3RequestSigner.EMPTY_PAYLOAD_SHA256,
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2 && response.statusCode() != 404) {
+            throw new IOException("S3 DELETE " + key + " failed with status " + response.statusCode());
+        }
+        return existed;
+    }
+
+    private <T> HttpResponse<T> send(String method, String key, Map<String, String> extraHeaders, String payloadHash,
+                                     HttpRequest.BodyPublisher body, HttpResponse.BodyHandler<T> handler) throws IOException {
+        URI uri = objectUri(key);
+        Instant now = Instant.now();
+
+        Map<String, String> headers = new LinkedHashMap<>(extraHeaders);
+        headers.put("x-amz-date", S3RequestSigner.amzDate(now));
+        headers.put("x-amz-content-sha256", payloadHash);
+
+        Map<String, String> signed = new LinkedHashMap<>(headers);
+        signed.put("host", hostHeader(uri));
+        String authorization = signer.authorization(method, uri, signed, payloadHash, now);
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .method(method, body)
+                .header("Authorization", authorization);
+        headers.forEach(request::header);
+
+        try {
+            return httpClient.send(request.build(), handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during S3 " + method + " " + key, e);
+        }
+    }
+
+    private URI objectUri(String key) {
+        String encodedKey = Arrays.stream(key.split("/"))
+                .map(S3RequestSigner::encode)
+                .collect(Collectors.joining("/"));
+        String base = endpoint.toString().replaceAll("/+$", "");
+        if (pathStyle) {
+            return URI.create(base + "/" + S3RequestSigner.encode(bucket) + "/" + encodedKey);
+        }
+        return URI.create(endpoint.getScheme() + "://" + bucket + "." + endpoint.getRawAuthority() + "/" + encodedKey);
+    }
+
+    private String hostHeader(URI uri) {
+        return uri.getPort() < 0 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+    }
+
+    private Date parseHttpDate(String value) {
+        try {
+            return Date.from(ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.university.skillshare_backend.storage;
+
+import java.util.Date;
+
+/**
+ * Metadata of an object in a MediaStore
+ */
+public class StoredObject {
+    private final String key;
+    private final long size;
+    private final String contentType;
+    private final Date lastModified;
+
+    public StoredObject(String key, long size, String contentType, Date lastModified) {
+        this.key = key;
+        this.size = size;
+        this.contentType = contentType;
+        this.lastModified = lastModified;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public Date getLastModified() {
+        return lastModified;
+    }
+}
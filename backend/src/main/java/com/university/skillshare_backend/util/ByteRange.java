@@ -0,0 +1,92 @@
+package com.university.skillshare_backend.util;
+
+/**
+ * A single byte range from an HTTP Range header (RFC 7233).
+ * Start and end are inclusive offsets into the file.
+ */
+public final class ByteRange {
+
+    /** Returned when the header is well formed but no byte of it lies inside the file */
+    public static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    private final long start;
+    private final long end;
+
+    private ByteRange(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Parse a Range header against a file of the given size
+     *
+     * @param header The Range header value, may be null
+     * @param size The full length of the file
+     * @return The range, UNSATISFIABLE, or null when the whole file should be sent
+     *         (no header, a malformed header, or more than one range)
+     */
+    public static ByteRange parse(String header, long size) {
+        if (header == null || !header.startsWith(BYTES_UNIT)) {
+            return null;
+        }
+        String spec = header.substring(BYTES_UNIT.length()).trim();
+        if (spec.isEmpty() || spec.indexOf(',') >= 0) {
+            return null;
+        }
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || size == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new ByteRange(Math.max(0, size - suffix), size - 1);
+            }
+
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            if (start < 0 || end < start) {
+                return null;
+            }
+            if (start >= size) {
+                return UNSATISFIABLE;
+            }
+            return new ByteRange(start, Math.min(end, size - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public boolean isSatisfiable() {
+        return this != UNSATISFIABLE;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public long getLength() {
+        return end - start + 1;
+    }
+
+    /**
+     * Value for the Content-Range response header
+     */
+    public String toContentRange(long size) {
+        return "bytes " + start + "-" + end + "/" + size;
+    }
+}
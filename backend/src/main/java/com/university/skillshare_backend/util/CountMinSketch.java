@@ -0,0 +1,119 @@
+package com.university.skillshare_backend.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch: approximate per-key counts in fixed memory. estimate never
+ * undercounts a key; it overcounts by at most epsilon * total count with
+ * probability 1 - delta. Updates are conservative (only the rows holding the
+ * current minimum are raised), which keeps the overcount well below that
+ * bound in practice. Safe for concurrent use.
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param epsilon Relative error bound, e.g. 0.001 for 0.1% of the total count
+     * @param delta Probability of exceeding the bound, e.g. 0.01
+     */
+    public CountMinSketch(double epsilon, double delta) {
+        this((int) Math.ceil(Math.log(1 / delta)), (int) Math.ceil(Math.E / epsilon));
+    }
+
+    /**
+     * @param depth Number of rows (independent hash functions)
+     * @param width Counters per row
+     */
+    public CountMinSketch(int depth, int width) {
+        this.depth = Math.max(1, depth);
+        this.width = Math.max(1, width);
+        this.counters = new AtomicLongArray(this.depth * this.width);
+    }
+
+    /**
+     * Add count occurrences of a key
+     *
+     * @return The key's estimated count after the update
+     */
+    public long add(String key, long count) {
+        long hash1 = hash(key);
+        long hash2 = mix(hash1 ^ 0x9e3779b97f4a7c15L);
+        long estimate = estimate(hash1, hash2);
+        long target = estimate + count;
+        for (int row = 0; row < depth; row++) {
+            int index = index(row, hash1, hash2);
+            long current;
+            do {
+                current = counters.get(index);
+                if (current >= target) {
+                    break;
+                }
+            } while (!counters.compareAndSet(index, current, target));
+        }
+        return target;
+    }
+
+    public long estimate(String key) {
+        long hash1 = hash(key);
+        return estimate(hash1, mix(hash1 ^ 0x9e3779b97f4a7c15L));
+    }
+
+    /**
+     * Halve every counter, so old occurrences count for less than recent ones
+     */
+    public void halve() {
+        for (int i = 0; i < counters.length(); i++) {
+            long current;
+            do {
+                current = counters.get(i);
+            } while (!counters.compareAndSet(i, current, current >>> 1));
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    /**
+     * Memory used by the counters in bytes
+     */
+    public long getSizeInBytes() {
+        return (long) counters.length() * Long.BYTES;
+    }
+
+    private long estimate(long hash1, long hash2) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.get(index(row, hash1, hash2)));
+        }
+        return min;
+    }
+
+    private int index(int row, long hash1, long hash2) {
+        return row * width + (int) Math.floorMod(hash1 + row * hash2, (long) width);
+    }
+
+    // Same hashing as BloomFilter: FNV-1a followed by a murmur3 finaliser
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
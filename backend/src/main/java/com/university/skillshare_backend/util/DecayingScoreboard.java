@@ -0,0 +1,153 @@
+package com.university.skillshare_backend.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Scores that fade exponentially with a fixed half-life, kept in rank order.
+ * A key's score is the sum of the weights added to it, each halved for every
+ * half-life since it was added.
+ *
+ * Scores are stored "forward decayed": a weight added at time t is stored as
+ * weight * 2^((t - landmark) / halfLife), so later additions count more and
+ * nothing has to be decayed as time passes. The ranking stays valid because
+ * every stored score would decay by the same factor. When the stored values
+ * grow too large the landmark moves forward and they are scaled back down.
+ *
+ * Only the highest-scoring keys are kept, up to the given capacity, together
+ * with the time of their last activity. Safe for concurrent use.
+ */
+public class DecayingScoreboard {
+
+    public record Scored(String key, double score, long lastSeen) {
+    }
+
+    private record Ranked(double value, String key) {
+    }
+
+    private static final Comparator<Ranked> HIGHEST_FIRST = Comparator
+            .comparingDouble(Ranked::value).reversed()
+            .thenComparing(Ranked::key);
+
+    // Rescale once stored values reach 2^512, far below the double range
+    private static final double RESCALE_EXPONENT = 512;
+
+    private final double halfLifeMillis;
+    private final int capacity;
+    private final Map<String, Double> values = new HashMap<>();
+    private final Map<String, Long> lastSeen = new HashMap<>();
+    private final TreeSet<Ranked> ranking = new TreeSet<>(HIGHEST_FIRST);
+    private long landmark;
+
+    /**
+     * @param halfLifeMillis Time for a contribution to lose half its weight
+     * @param capacity Number of keys kept; the lowest-scoring one is dropped beyond it
+     * @param now Current time in milliseconds
+     */
+    public DecayingScoreboard(long halfLifeMillis, int capacity, long now) {
+        this.halfLifeMillis = Math.max(1, halfLifeMillis);
+        this.capacity = Math.max(1, capacity);
+        this.landmark = now;
+    }
+
+    /**
+     * Add weight to a key at time now. A negative weight takes activity back;
+     * a score never drops below zero.
+     */
+    public synchronized void add(String key, double weight, long now) {
+        double exponent = (now - landmark) / halfLifeMillis;
+        if (exponent > RESCALE_EXPONENT) {
+            rescale(now);
+            exponent = 0;
+        }
+        Double current = values.get(key);
+        if (current == null && weight <= 0) {
+            return;
+        }
+        double value = Math.max(0, (current == null ? 0 : current) + weight * Math.pow(2, exponent));
+        if (current != null) {
+            ranking.remove(new Ranked(current, key));
+        }
+        values.put(key, value);
+        lastSeen.merge(key, now, Math::max);
+        ranking.add(new Ranked(value, key));
+        while (ranking.size() > capacity) {
+            forget(ranking.last().key());
+        }
+    }
+
+    /**
+     * Add back a score read at an earlier time, e.g. from a checkpoint. It is
+     * added to any activity the key has had since.
+     */
+    public synchronized void restore(String key, double score, long scoredAt, long lastActivity) {
+        Long seen = lastSeen.get(key);
+        add(key, score * Math.pow(2, (scoredAt - landmark) / halfLifeMillis), landmark);
+        if (values.containsKey(key)) {
+            lastSeen.put(key, seen == null ? lastActivity : Math.max(seen, lastActivity));
+        }
+    }
+
+    public synchronized void remove(String key) {
+        forget(key);
+    }
+
+    /**
+     * Drop keys with no activity since the given time
+     *
+     * @return Number of keys dropped
+     */
+    public synchronized int removeIdleSince(long cutoff) {
+        List<String> idle = new ArrayList<>();
+        lastSeen.forEach((key, seen) -> {
+            if (seen < cutoff) {
+                idle.add(key);
+            }
+        });
+        idle.forEach(this::forget);
+        return idle.size();
+    }
+
+    /**
+     * The highest scores at time now, best first
+     */
+    public synchronized List<Scored> top(int limit, long now) {
+        double decay = Math.pow(2, -(now - landmark) / halfLifeMillis);
+        List<Scored> top = new ArrayList<>(Math.min(limit, ranking.size()));
+        Iterator<Ranked> iterator = ranking.iterator();
+        while (iterator.hasNext() && top.size() < limit) {
+            Ranked ranked = iterator.next();
+            top.add(new Scored(ranked.key(), ranked.value() * decay, lastSeen.get(ranked.key())));
+        }
+        return top;
+    }
+
+    public synchronized int size() {
+        return values.size();
+    }
+
+    private void forget(String key) {
+        Double value = values.remove(key);
+        if (value != null) {
+            ranking.remove(new Ranked(value, key));
+            lastSeen.remove(key);
+        }
+    }
+
+    private void rescale(long now) {
+        double factor = Math.pow(2, -(now - landmark) / halfLifeMillis);
+        landmark = now;
+        List<Ranked> rescaled = new ArrayList<>(ranking.size());
+        for (Ranked ranked : ranking) {
+            rescaled.add(new Ranked(ranked.value() * factor, ranked.key()));
+        }
+        ranking.clear();
+        ranking.addAll(rescaled);
+        rescaled.forEach(ranked -> values.put(ranked.key(), ranked.value()));
+    }
+}
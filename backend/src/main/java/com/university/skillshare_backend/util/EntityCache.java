@@ -0,0 +1,255 @@
+package com.university.skillshare_backend.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded read-through cache sized by an estimated weight per value, with
+ * W-TinyLFU style admission: new entries go into a small LRU window, and an
+ * entry leaving the window only displaces the main region's least recently
+ * used entry if it has been asked for more often (as counted by a decaying
+ * count-min sketch). A burst of one-off reads therefore cannot flush the hot
+ * entries out of the cache.
+ *
+ * Entries also expire a fixed time after they were loaded, as a backstop for
+ * a missed invalidation. An invalidation that races with a load wins: the
+ * loaded value is returned but not cached. Concurrent misses for the same
+ * key share one load.
+ *
+ * Keys the loader found nothing for are remembered for a shorter time
+ * (absentTtlMillis), so repeated lookups of ids that do not exist, such as
+ * probing or links to deleted entities, do not reach the database either.
+ * Invalidating a key also forgets that it was absent, so creating an entity
+ * must invalidate its key.
+ */
+public class EntityCache<V> {
+
+    private static final class Entry<V> {
+        final V value;
+        final long weight;
+        final long expiresAt;
+
+        Entry(V value, long weight, long expiresAt) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final long maximumWeight;
+    private final long windowMaximumWeight;
+    private final long ttlMillis;
+    private final long absentTtlMillis;
+    private final ToLongFunction<V> weigher;
+
+    private final LinkedHashMap<String, Entry<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Entry<V>> main = new LinkedHashMap<>(256, 0.75f, true);
+    private final LinkedHashMap<String, Long> absent;
+    private long windowWeight;
+    private long mainWeight;
+
+    private final CountMinSketch frequency;
+    private final long sampleSize;
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final SingleFlight<String, Optional<V>> loads;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder absentHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumWeight Upper bound on the summed weight of all entries, e.g. in estimated bytes
+     * @param expectedEntries Rough number of entries that fit, used to size the frequency sketch
+     * @param ttlMillis How long an entry may be served after loading
+     * @param absentTtlMillis How long a key that was not found is answered as absent, 0 to not remember
+     * @param weigher Estimated weight of a value
+     * @param maxLoadWaitMillis How long a miss waits for a concurrent load of the same key before loading itself
+     */
+    public EntityCache(long maximumWeight, int expectedEntries, long ttlMillis, long absentTtlMillis,
+            ToLongFunction<V> weigher, long maxLoadWaitMillis) {
+        this.maximumWeight = maximumWeight;
+        this.windowMaximumWeight = Math.max(1, maximumWeight / 100);
+        this.ttlMillis = ttlMillis;
+        this.absentTtlMillis = absentTtlMillis;
+        this.weigher = weigher;
+        int entries = Math.max(64, expectedEntries);
+        this.absent = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > entries;
+            }
+        };
+        this.frequency = new CountMinSketch(4, Integer.highestOneBit(entries * 4));
+        this.sampleSize = 10L * entries;
+        this.loads = new SingleFlight<>(maxLoadWaitMillis);
+    }
+
+    /**
+     * Get a cached value, loading and caching it on a miss
+     */
+    public Optional<V> get(String key, Function<String, Optional<V>> loader) {
+        recordAccess(key);
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Entry<V> entry = window.get(key);
+            if (entry == null) {
+                entry = main.get(key);
+            }
+            if (entry != null && entry.expiresAt > now) {
+                hits.increment();
+                return Optional.of(entry.value);
+            }
+            if (entry != null) {
+                remove(key);
+            }
+            Long absentUntil = absent.get(key);
+            if (absentUntil != null && absentUntil > now) {
+                absentHits.increment();
+                return Optional.empty();
+            }
+            if (absentUntil != null) {
+                absent.remove(key);
+            }
+        }
+        misses.increment();
+
+        return loads.execute(key, () -> {
+            long invalidationsBefore = invalidations.get();
+            Optional<V> loaded = loader.apply(key);
+            if (loaded.isPresent()) {
+                put(key, loaded.get(), invalidationsBefore);
+            } else {
+                putAbsent(key, invalidationsBefore);
+            }
+            return loaded;
+        });
+    }
+
+    public synchronized void invalidate(String key) {
+        invalidations.incrementAndGet();
+        remove(key);
+        absent.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        invalidations.incrementAndGet();
+        window.clear();
+        main.clear();
+        absent.clear();
+        windowWeight = 0;
+        mainWeight = 0;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /** Lookups answered from the record of keys that were not found */
+    public long getAbsentHitCount() {
+        return absentHits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /** Misses answered by another caller's concurrent load */
+    public long getCoalescedCount() {
+        return loads.getSuppressedCount();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public synchronized long getWeight() {
+        return windowWeight + mainWeight;
+    }
+
+    public synchronized int getSize() {
+        return window.size() + main.size();
+    }
+
+    private void recordAccess(String key) {
+        frequency.add(key, 1);
+        if (samples.incrementAndGet() % sampleSize == 0) {
+            // Age the counts so that keys that used to be hot can be displaced
+            frequency.halve();
+        }
+    }
+
+    private synchronized void put(String key, V value, long invalidationsBefore) {
+        if (invalidations.get() != invalidationsBefore) {
+            return;
+        }
+        long weight = Math.max(1, weigher.applyAsLong(value));
+        if (weight > maximumWeight - windowMaximumWeight) {
+            return;
+        }
+        remove(key);
+        window.put(key, new Entry<>(value, weight, System.currentTimeMillis() + ttlMillis));
+        windowWeight += weight;
+
+        while (windowWeight > windowMaximumWeight && !window.isEmpty()) {
+            Iterator<Map.Entry<String, Entry<V>>> oldest = window.entrySet().iterator();
+            Map.Entry<String, Entry<V>> candidate = oldest.next();
+            oldest.remove();
+            windowWeight -= candidate.getValue().weight;
+            admit(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    private synchronized void putAbsent(String key, long invalidationsBefore) {
+        if (absentTtlMillis > 0 && invalidations.get() == invalidationsBefore) {
+            absent.put(key, System.currentTimeMillis() + absentTtlMillis);
+        }
+    }
+
+    /**
+     * Move an entry leaving the window into the main region, if it is used more
+     * often than the entries it would displace
+     */
+    private void admit(String key, Entry<V> candidate) {
+        long limit = maximumWeight - windowMaximumWeight;
+        long candidateFrequency = frequency.estimate(key);
+        long freed = 0;
+        Iterator<Map.Entry<String, Entry<V>>> victims = main.entrySet().iterator();
+        while (mainWeight - freed + candidate.weight > limit) {
+            Map.Entry<String, Entry<V>> victim = victims.next();
+            if (frequency.estimate(victim.getKey()) >= candidateFrequency) {
+                evictions.increment();
+                return;
+            }
+            freed += victim.getValue().weight;
+        }
+        victims = main.entrySet().iterator();
+        while (freed > 0) {
+            Map.Entry<String, Entry<V>> victim = victims.next();
+            victims.remove();
+            mainWeight -= victim.getValue().weight;
+            freed -= victim.getValue().weight;
+            evictions.increment();
+        }
+        main.put(key, candidate);
+        mainWeight += candidate.weight;
+    }
+
+    private void remove(String key) {
+        Entry<V> removed = window.remove(key);
+        if (removed != null) {
+            windowWeight -= removed.weight;
+        }
+        removed = main.remove(key);
+        if (removed != null) {
+            mainWeight -= removed.weight;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.university.skillshare_backend.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the independent parts of a composite response concurrently under one
+ * shared deadline. Required parts fail the whole response (and cancel the
+ * rest); optional parts that fail or miss the deadline are cancelled and
+ * reported by name, so the caller can still answer with what it has.
+ */
+public class FanOut {
+
+    private static final Logger logger = LoggerFactory.getLogger(FanOut.class);
+
+    private final ExecutorService executor;
+    private final long deadline;
+    private final List<Future<?>> all = new ArrayList<>();
+    private final Map<String, Future<?>> optional = new LinkedHashMap<>();
+
+    /**
+     * @param executor Executor to run the parts on, typically one virtual thread per task
+     * @param timeoutMs Time budget for all parts together
+     */
+    public FanOut(ExecutorService executor, long timeoutMs) {
+        this.executor = executor;
+        this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    }
+
+    /**
+     * Start a part whose result is needed, e.g. the entity the response is about
+     */
+    public <T> Future<T> require(Callable<T> task) {
+        Future<T> future = executor.submit(task);
+        all.add(future);
+        return future;
+    }
+
+    /**
+     * Start a part the response can do without
+     */
+    public void fork(String name, Callable<?> task) {
+        Future<?> future = executor.submit(task);
+        all.add(future);
+        optional.put(name, future);
+    }
+
+    /**
+     * Wait for a required part. If it fails or misses the deadline every part is
+     * cancelled and the failure is rethrown (RuntimeExceptions such as
+     * ResourceNotFoundException as they are).
+     */
+    public <T> T join(Future<T> required, String what) {
+        try {
+            return await(required);
+        } catch (TimeoutException e) {
+            cancelAll();
+            throw new IllegalStateException("Timed out loading " + what);
+        } catch (ExecutionException e) {
+            cancelAll();
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Failed to load " + what, e.getCause());
+        }
+    }
+
+    /**
+     * Wait for the optional parts and put their results into the response
+     *
+     * @return Names of the parts that failed or missed the deadline
+     */
+    public List<String> joinAll(Map<String, Object> into) {
+        List<String> missing = new ArrayList<>();
+        for (Map.Entry<String, Future<?>> part : optional.entrySet()) {
+            try {
+                into.put(part.getKey(), await(part.getValue()));
+            } catch (TimeoutException e) {
+                part.getValue().cancel(true);
+                missing.add(part.getKey());
+            } catch (ExecutionException e) {
+                logger.warn("Failed to load {}: {}", part.getKey(), e.getCause().toString());
+                missing.add(part.getKey());
+            }
+        }
+        return missing;
+    }
+
+    private <T> T await(Future<T> future) throws TimeoutException, ExecutionException {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelAll();
+            throw new IllegalStateException("Interrupted while waiting for results", e);
+        }
+    }
+
+    private void cancelAll() {
+        all.forEach(future -> future.cancel(true));
+    }
+}
@@ -0,0 +1,90 @@
+package com.university.skillshare_backend.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class HashtagParser {
+
+    public static final int MAX_TAG_LENGTH = 50;
+    public static final int MAX_TAGS = 20;
+
+    /**
+     * Extract #skill tags from text in a single pass. A tag starts with # at
+     * the start of the text or after a character that cannot be part of a word,
+     * so "C#" and "page#anchor" are not tags. It runs over letters, digits, _,
+     * - and +, so "#spring-boot" and "#c++" are kept whole, and must contain a
+     * letter, so "#1" is not a tag.
+     *
+     * @param texts The post or achievement fields to scan (nulls are skipped)
+     * @return Normalised tags (lower case, without #), first occurrence first, at most MAX_TAGS
+     */
+    public List<String> parseTags(String... texts) {
+        Set<String> tags = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            int i = 0;
+            while (i < text.length() && tags.size() < MAX_TAGS) {
+                char c = text.charAt(i);
+                if (c != '#' || (i > 0 && isTagChar(text.charAt(i - 1)))) {
+                    i++;
+                    continue;
+                }
+                int start = ++i;
+                while (i < text.length() && isTagChar(text.charAt(i))) {
+                    i++;
+                }
+                String tag = normalize(text.substring(start, i));
+                if (tag != null) {
+                    tags.add(tag);
+                }
+            }
+        }
+        return new ArrayList<>(tags);
+    }
+
+    /**
+     * Normalise a tag typed on its own, e.g. a category or a search; spaces
+     * become hyphens, so the category "Web Development" is #web-development
+     *
+     * @return The tag in lower case without a leading #, or null if it is not a valid tag
+     */
+    public String normalize(String tag) {
+        if (tag == null) {
+            return null;
+        }
+        tag = tag.trim();
+        int start = tag.startsWith("#") ? 1 : 0;
+        int end = tag.length();
+        // Trailing hyphens and underscores are punctuation, not part of the tag
+        while (end > start && (tag.charAt(end - 1) == '-' || tag.charAt(end - 1) == '_')) {
+            end--;
+        }
+        if (end - start > MAX_TAG_LENGTH) {
+            return null;
+        }
+        boolean letter = false;
+        for (int i = start; i < end; i++) {
+            char c = tag.charAt(i);
+            if (!isTagChar(c) && c != ' ') {
+                return null;
+            }
+            letter |= Character.isLetter(c);
+        }
+        if (!letter) {
+            return null;
+        }
+        return tag.substring(start, end).replaceAll(" +", "-").toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isTagChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '+';
+    }
+}
@@ -0,0 +1,95 @@
+package com.university.skillshare_backend.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The most frequent keys of a stream, in fixed memory. Every key is counted in
+ * a count-min sketch, and the keys whose estimated count beats the smallest of
+ * the current top candidates replace it, so memory stays at the sketch plus
+ * capacity candidates however many distinct keys go by. Counts are estimates:
+ * they may run high, never low. Safe for concurrent use.
+ */
+public class HeavyHitters {
+
+    public record Counted(String key, long count) {
+    }
+
+    private final CountMinSketch sketch;
+    private final int capacity;
+    private final Map<String, Long> candidates = new HashMap<>();
+    // Lower bound on the smallest candidate count; counts only grow between halvings
+    private long floor;
+
+    /**
+     * @param capacity Number of top keys tracked
+     * @param epsilon Relative error bound of the counts, e.g. 0.001 for 0.1% of the total
+     * @param delta Probability of exceeding the bound, e.g. 0.01
+     */
+    public HeavyHitters(int capacity, double epsilon, double delta) {
+        this.sketch = new CountMinSketch(epsilon, delta);
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Count count more occurrences of a key
+     *
+     * @return The key's estimated count after the update
+     */
+    public synchronized long add(String key, long count) {
+        long estimate = sketch.add(key, count);
+        if (candidates.containsKey(key) || candidates.size() < capacity) {
+            candidates.put(key, estimate);
+            return estimate;
+        }
+        if (estimate <= floor) {
+            return estimate;
+        }
+        Map.Entry<String, Long> smallest = smallest();
+        floor = smallest.getValue();
+        if (estimate > floor) {
+            candidates.remove(smallest.getKey());
+            candidates.put(key, estimate);
+            floor = smallest().getValue();
+        }
+        return estimate;
+    }
+
+    public long estimate(String key) {
+        return sketch.estimate(key);
+    }
+
+    /**
+     * The most frequent keys, most frequent first
+     */
+    public synchronized List<Counted> top(int limit) {
+        List<Counted> top = new ArrayList<>(candidates.size());
+        candidates.forEach((key, count) -> top.add(new Counted(key, count)));
+        top.sort(Comparator.comparingLong(Counted::count).reversed().thenComparing(Counted::key));
+        return top.size() > limit ? new ArrayList<>(top.subList(0, limit)) : top;
+    }
+
+    /**
+     * Halve every count, so older occurrences weigh less than recent ones.
+     * Keys whose count drops to zero leave the top list.
+     */
+    public synchronized void halve() {
+        sketch.halve();
+        candidates.replaceAll((key, count) -> count >>> 1);
+        candidates.values().removeIf(count -> count == 0);
+        floor = 0;
+    }
+
+    private Map.Entry<String, Long> smallest() {
+        Map.Entry<String, Long> smallest = null;
+        for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+            if (smallest == null || entry.getValue() < smallest.getValue()) {
+                smallest = entry;
+            }
+        }
+        return smallest;
+    }
+}
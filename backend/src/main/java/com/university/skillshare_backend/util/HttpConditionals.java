@@ -0,0 +1,57 @@
+package com.university.skillshare_backend.util;
+
+import org.springframework.http.HttpHeaders;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Evaluation of conditional request headers (RFC 7232) for endpoints that
+ * write media responses themselves
+ */
+public final class HttpConditionals {
+
+    private HttpConditionals() {
+    }
+
+    /**
+     * Whether a 304 can be sent. If-None-Match takes precedence over If-Modified-Since.
+     */
+    public static boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = safeDateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * A Range is only honoured when If-Range is absent or still matches the
+     * current representation; otherwise the whole file is sent
+     */
+    public static boolean rangeApplies(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        long ifRangeDate = safeDateHeader(request, HttpHeaders.IF_RANGE);
+        return ifRangeDate >= 0 && lastModified / 1000 == ifRangeDate / 1000;
+    }
+
+    private static long safeDateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.university.skillshare_backend.util;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Lazily merges several iterators that are each already sorted by the same
+ * order into one sorted iterator. Only the current head of every source is
+ * held, and a source is advanced only when its head is taken, so a caller
+ * that stops after n elements reads at most n + k elements in total.
+ */
+public final class KWayMerge {
+
+    private KWayMerge() {
+    }
+
+    /**
+     * @param sources Iterators each sorted by order
+     * @param order Order shared by all sources
+     * @return Iterator over all elements in that order; ties go to the earlier source
+     */
+    public static <T> Iterator<T> merge(List<? extends Iterator<? extends T>> sources, Comparator<? super T> order) {
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>((a, b) -> {
+            int compared = order.compare(a.value, b.value);
+            return compared != 0 ? compared : Integer.compare(a.source, b.source);
+        });
+        for (int i = 0; i < sources.size(); i++) {
+            advance(heads, sources.get(i), i);
+        }
+
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                Head<T> head = heads.poll();
+                if (head == null) {
+                    throw new NoSuchElementException();
+                }
+                advance(heads, sources.get(head.source), head.source);
+                return head.value;
+            }
+        };
+    }
+
+    private static <T> void advance(PriorityQueue<Head<T>> heads, Iterator<? extends T> source, int index) {
+        if (source.hasNext()) {
+            heads.add(new Head<>(source.next(), index));
+        }
+    }
+
+    private record Head<T>(T value, int source) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.university.skillshare_backend.util;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used byte cache bounded by the total size of its values.
+ * Values are copied into direct buffers, so cached bytes live outside the
+ * Java heap and do not add to GC work; a buffer's memory is released once
+ * it is evicted and no reader still holds it.
+ *
+ * @param <K> Key type
+ */
+public class OffHeapLruCache<K> {
+
+    private final long maxBytes;
+    private final LinkedHashMap<K, ByteBuffer> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long usedBytes;
+
+    public OffHeapLruCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Get a cached value
+     *
+     * @return A read-only view positioned at the start of the value, or null
+     */
+    public synchronized ByteBuffer get(K key) {
+        ByteBuffer value = entries.get(key);
+        return value != null ? value.asReadOnlyBuffer() : null;
+    }
+
+    /**
+     * Cache a value, evicting least recently used entries to make room
+     *
+     * @return false if the value is larger than the whole cache and was not stored
+     */
+    public synchronized boolean put(K key, byte[] value) {
+        if (value.length > maxBytes) {
+            return false;
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(value.length);
+        buffer.put(value).flip();
+
+        ByteBuffer previous = entries.put(key, buffer);
+        if (previous != null) {
+            usedBytes -= previous.capacity();
+        }
+        usedBytes += buffer.capacity();
+
+        Iterator<Map.Entry<K, ByteBuffer>> eldest = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<K, ByteBuffer> entry = eldest.next();
+            if (entry.getKey().equals(key)) {
+                continue;
+            }
+            usedBytes -= entry.getValue().capacity();
+            eldest.remove();
+        }
+        return true;
+    }
+
+    public synchronized void invalidate(K key) {
+        ByteBuffer removed = entries.remove(key);
+        if (removed != null) {
+            usedBytes -= removed.capacity();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
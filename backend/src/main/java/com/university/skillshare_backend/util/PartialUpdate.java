@@ -0,0 +1,107 @@
+package com.university.skillshare_backend.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.university.skillshare_backend.exception.ConflictException;
+
+/**
+ * Builds a $set of only the fields an edit actually changed and applies it
+ * with an optimistic version check, instead of rewriting the whole document
+ * with save(). Fields written by other code paths (follower sets, derivative
+ * URLs, video metadata) are left alone, and an edit based on a stale read is
+ * refused rather than silently overwriting someone else's change.
+ *
+ * Every applied edit increments the document's "version" field. Documents
+ * written before the field existed count as version 0.
+ */
+public class PartialUpdate {
+
+    public static final String VERSION_FIELD = "version";
+
+    private final Update update = new Update();
+    private final List<Criteria> conditions = new ArrayList<>();
+    private boolean changed;
+
+    /**
+     * Set a field if the new value differs from the current one
+     */
+    public <T> PartialUpdate set(String field, T currentValue, T newValue) {
+        if (!Objects.equals(currentValue, newValue)) {
+            update.set(field, newValue);
+            changed = true;
+        }
+        return this;
+    }
+
+    /**
+     * Set a field unconditionally, but only as part of an otherwise non-empty edit
+     * (e.g. an updatedAt timestamp)
+     */
+    public PartialUpdate touch(String field, Object value) {
+        update.set(field, value);
+        return this;
+    }
+
+    /**
+     * Only apply while a field has the given value, e.g. a post that is not being deleted.
+     * A document that fails the condition is treated as missing.
+     */
+    public PartialUpdate onlyIf(String field, Object value) {
+        conditions.add(Criteria.where(field).is(value));
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return !changed;
+    }
+
+    /**
+     * Apply the changed fields if the document is still at the expected version
+     *
+     * @return The updated document, or empty if no document has this id
+     * @throws ConflictException if the document was changed since expectedVersion
+     */
+    public <T> Optional<T> apply(MongoTemplate mongoTemplate, String id, long expectedVersion, Class<T> type) {
+        T updated = mongoTemplate.findAndModify(
+                withConditions(versionIs(id, expectedVersion)),
+                update.inc(VERSION_FIELD, 1),
+                FindAndModifyOptions.options().returnNew(true),
+                type);
+        if (updated != null) {
+            return Optional.of(updated);
+        }
+        if (mongoTemplate.exists(withConditions(Criteria.where("_id").is(id)), type)) {
+            throw new ConflictException(type.getSimpleName() + " " + id + " was changed by someone else since version "
+                    + expectedVersion + "; reload it and try again");
+        }
+        return Optional.empty();
+    }
+
+    private Query withConditions(Criteria criteria) {
+        if (conditions.isEmpty()) {
+            return new Query(criteria);
+        }
+        List<Criteria> all = new ArrayList<>(conditions);
+        all.add(0, criteria);
+        return new Query(new Criteria().andOperator(all));
+    }
+
+    private static Criteria versionIs(String id, long version) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        if (version == 0) {
+            return criteria.orOperator(
+                    Criteria.where(VERSION_FIELD).is(0L),
+                    Criteria.where(VERSION_FIELD).exists(false));
+        }
+        return criteria.and(VERSION_FIELD).is(version);
+    }
+}
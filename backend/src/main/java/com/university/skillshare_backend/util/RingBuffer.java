@@ -0,0 +1,155 @@
+package com.university.skillshare_backend.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded multi-producer ring with a fixed set of consumers, each reading
+ * every value in publish order at its own pace. The slot array is allocated
+ * once; publishing claims a sequence number with a CAS and never allocates.
+ *
+ * A slot is only reused once every consumer has read past it, so the slowest
+ * consumer holds producers back rather than losing values. Consumers read in
+ * batches of whatever has been published since their last read.
+ */
+public class RingBuffer<T> {
+
+    private final Object[] entries;
+    // Sequence last written to each slot; a reader may take a slot once it holds the wanted sequence
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final List<Consumer> consumers;
+
+    /**
+     * @param capacity Number of slots, rounded up to a power of two
+     * @param consumerCount Number of consumers that must each read every value
+     */
+    public RingBuffer(int capacity, int consumerCount) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.entries = new Object[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+        this.mask = size - 1;
+        List<Consumer> created = new ArrayList<>(consumerCount);
+        for (int i = 0; i < consumerCount; i++) {
+            created.add(new Consumer());
+        }
+        this.consumers = List.copyOf(created);
+    }
+
+    public Consumer consumer(int index) {
+        return consumers.get(index);
+    }
+
+    public int getCapacity() {
+        return entries.length;
+    }
+
+    /**
+     * Publish a value if there is a free slot
+     *
+     * @return false if the slowest consumer is a full ring behind
+     */
+    public boolean tryPublish(T value) {
+        long current;
+        long next;
+        do {
+            current = claimed.get();
+            next = current + 1;
+            if (next - entries.length > slowestConsumed()) {
+                return false;
+            }
+        } while (!claimed.compareAndSet(current, next));
+
+        int index = (int) (next & mask);
+        entries[index] = value;
+        published.set(index, next);
+        return true;
+    }
+
+    /**
+     * Publish a value, waiting up to the timeout for a consumer to free a slot
+     *
+     * @return false if the ring stayed full for the whole timeout
+     */
+    public boolean publish(T value, long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int spins = 0;
+        while (!tryPublish(value)) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            if (++spins < 100) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of values published but not yet read by the slowest consumer
+     */
+    public long getBacklog() {
+        return Math.max(0, claimed.get() - slowestConsumed());
+    }
+
+    private long slowestConsumed() {
+        long slowest = Long.MAX_VALUE;
+        for (Consumer consumer : consumers) {
+            slowest = Math.min(slowest, consumer.consumed.get());
+        }
+        return slowest == Long.MAX_VALUE ? claimed.get() : slowest;
+    }
+
+    /**
+     * One reader's position in the ring. Each consumer must only be drained by a single thread.
+     */
+    public final class Consumer {
+
+        private final AtomicLong consumed = new AtomicLong(-1);
+
+        /**
+         * Move up to max consecutive published values into the batch, in publish order
+         *
+         * @return Number of values added
+         */
+        @SuppressWarnings("unchecked")
+        public int drainTo(List<? super T> batch, int max) {
+            long first = consumed.get() + 1;
+            long next = first;
+            while (next - first < max) {
+                int index = (int) (next & mask);
+                if (published.get(index) != next) {
+                    break;
+                }
+                batch.add((T) entries[index]);
+                next++;
+            }
+            if (next > first) {
+                consumed.set(next - 1);
+            }
+            return (int) (next - first);
+        }
+
+        /**
+         * Whether a value is waiting to be drained
+         */
+        public boolean hasPending() {
+            long next = consumed.get() + 1;
+            return published.get((int) (next & mask)) == next;
+        }
+
+        public long getBacklog() {
+            return Math.max(0, claimed.get() - consumed.get());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.university.skillshare_backend.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical reads: while a read for a key is in flight,
+ * further callers for the same key wait for its result instead of running
+ * their own. The first caller runs the read on its own thread, so nothing is
+ * queued or run when there is no contention.
+ *
+ * A waiting caller gives up after maxWaitMillis and runs the read itself, so
+ * one stuck query cannot hold every request for the key. A failure of the
+ * shared read is rethrown to everyone waiting on it.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long maxWaitMillis;
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public SingleFlight(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public V execute(K key, Supplier<V> read) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(existing, read);
+        }
+
+        executions.increment();
+        try {
+            V value = read.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private V await(CompletableFuture<V> flight, Supplier<V> read) {
+        try {
+            V value = flight.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+            suppressed.increment();
+            return value;
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            executions.increment();
+            return read.get();
+        } catch (ExecutionException e) {
+            suppressed.increment();
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shared read", e);
+        }
+    }
+
+    /** Reads actually run */
+    public long getExecutionCount() {
+        return executions.sum();
+    }
+
+    /** Callers that were answered by another caller's read instead of running their own */
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    /** Callers that stopped waiting for a shared read and ran their own */
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+}
@@ -0,0 +1,196 @@
+package com.university.skillshare_backend.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Set;
+
+import org.apache.tika.Tika;
+
+import com.university.skillshare_backend.exception.InvalidMediaException;
+
+/**
+ * Detects the real type of an upload from its first bytes while they are
+ * being copied, instead of trusting the Content-Type sent by the client.
+ *
+ * Reading fails with an InvalidMediaException as soon as the content is known
+ * to be the wrong kind, or as soon as the stream runs past its size limit, so a
+ * rejected upload is never copied in full. Only the first SNIFF_BYTES bytes are
+ * kept in memory.
+ */
+public class SniffingInputStream extends FilterInputStream {
+
+    /** Covers the magic numbers of every image format and video container we accept */
+    public static final int SNIFF_BYTES = 8192;
+
+    // Thread-safe; detection by magic only, since a file name is as easy to fake as a header
+    private static final Tika TIKA = new Tika();
+
+    /**
+     * What an upload is allowed to be
+     */
+    public enum Kind {
+        // Raster formats the derivative pipeline can decode; SVG is deliberately not here
+        IMAGE(Set.of("image/jpeg", "image/png", "image/gif", "image/webp", "image/bmp")),
+        VIDEO(null);
+
+        private final Set<String> types;
+
+        Kind(Set<String> types) {
+            this.types = types;
+        }
+
+        public boolean accepts(String type) {
+            if (type == null) {
+                return false;
+            }
+            return types != null ? types.contains(type) : type.startsWith("video/");
+        }
+    }
+
+    private final Kind kind;
+    private final long maxBytes;
+    private final byte[] head = new byte[SNIFF_BYTES];
+    private int headLength;
+    private long count;
+    private String detectedType;
+
+    /**
+     * @param in The upload
+     * @param kind What the content must turn out to be
+     * @param maxBytes Largest allowed size
+     */
+    public SniffingInputStream(InputStream in, Kind kind, long maxBytes) {
+        super(in);
+        this.kind = kind;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * The detected content type, or null until enough bytes have been read
+     */
+    public String getDetectedType() {
+        return detectedType;
+    }
+
+    /**
+     * Number of bytes read so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b == -1) {
+            detect();
+        } else {
+            consumed(new byte[] { (byte) b }, 0, 1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n == -1) {
+            detect();
+        } else {
+            consumed(b, off, n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // Skipped bytes still have to pass through the sniffer and the size limit
+        byte[] buffer = new byte[(int) Math.min(n, SNIFF_BYTES)];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (read == -1) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    private void consumed(byte[] b, int off, int n) {
+        count += n;
+        if (count > maxBytes) {
+            throw new InvalidMediaException("File exceeds the maximum size of " + maxBytes + " bytes");
+        }
+        if (detectedType == null) {
+            int copy = Math.min(n, SNIFF_BYTES - headLength);
+            System.arraycopy(b, off, head, headLength, copy);
+            headLength += copy;
+            if (headLength == SNIFF_BYTES) {
+                detect();
+            }
+        }
+    }
+
+    private void detect() {
+        if (detectedType != null) {
+            return;
+        }
+        detectedType = refine(TIKA.detect(Arrays.copyOf(head, headLength)));
+        if (!kind.accepts(detectedType)) {
+            throw new InvalidMediaException("File content is " + detectedType
+                    + ", which is not an allowed " + kind.name().toLowerCase() + " type");
+        }
+    }
+
+    /**
+     * tika-core alone only knows the container families, so tell MP4 from
+     * QuickTime by the ftyp brand and WebM from Matroska by the EBML doc type.
+     * Browsers need the specific type to pick a decoder.
+     */
+    private String refine(String type) {
+        if ("video/quicktime".equals(type) && startsWithAt(4, "ftyp") && !startsWithAt(8, "qt  ")) {
+            return "video/mp4";
+        }
+        if ("application/x-matroska".equals(type)) {
+            return containsAscii("webm", 64) ? "video/webm" : "video/x-matroska";
+        }
+        return type;
+    }
+
+    private boolean startsWithAt(int offset, String ascii) {
+        if (headLength < offset + ascii.length()) {
+            return false;
+        }
+        for (int i = 0; i < ascii.length(); i++) {
+            if (head[offset + i] != ascii.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean containsAscii(String ascii, int within) {
+        for (int offset = 0; offset + ascii.length() <= Math.min(within, headLength); offset++) {
+            if (startsWithAt(offset, ascii)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
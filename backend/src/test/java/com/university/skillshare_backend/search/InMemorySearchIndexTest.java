@@ -0,0 +1,95 @@
+package com.university.skillshare_backend.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class InMemorySearchIndexTest {
+
+    private static final Set<SearchDocument.Type> ALL = EnumSet.allOf(SearchDocument.Type.class);
+
+    private static SearchDocument post(String id, String title, String content, long version) {
+        return new SearchDocument(SearchDocument.Type.POST, id, title, content, version);
+    }
+
+    private static List<String> ids(SearchResults results) {
+        return results.hits().stream().map(SearchHit::id).toList();
+    }
+
+    @Test
+    public void testRanksTitleMatchesAndRareTermsHigher() {
+        // Given
+        InMemorySearchIndex index = new InMemorySearchIndex();
+        index.index(List.of(
+                post("1", "Cooking pasta", "A weekend recipe, with a short note on building React apps", 0),
+                post("2", "Building React apps", "Hooks, state and effects", 0),
+                post("3", "Gardening", "Tomatoes and basil", 0)));
+
+        // When
+        SearchResults results = index.search("react build", ALL, 0, 10);
+
+        // Then the post with the words in its title comes first, and unrelated posts are left out
+        assertEquals(List.of("2", "1"), ids(results));
+        assertEquals(2, results.total());
+    }
+
+    @Test
+    public void testPagesAndFiltersByType() {
+        InMemorySearchIndex index = new InMemorySearchIndex();
+        for (int i = 0; i < 5; i++) {
+            index.index(List.of(post("p" + i, "Java tip " + i, "java ".repeat(i + 1), 0)));
+        }
+        index.index(List.of(new SearchDocument(SearchDocument.Type.ACHIEVEMENT, "a1", "Java certificate", null, 0)));
+
+        // Pages follow each other without overlap
+        List<String> first = ids(index.search("java", ALL, 0, 3));
+        List<String> second = ids(index.search("java", ALL, 3, 3));
+        assertEquals(3, first.size());
+        assertEquals(3, second.size());
+        assertTrue(first.stream().noneMatch(second::contains));
+
+        // Only achievements when asked for
+        SearchResults achievements = index.search("java", EnumSet.of(SearchDocument.Type.ACHIEVEMENT), 0, 10);
+        assertEquals(List.of("a1"), ids(achievements));
+    }
+
+    @Test
+    public void testUpdatesAndRemovals() {
+        InMemorySearchIndex index = new InMemorySearchIndex();
+        index.index(List.of(post("1", "Learning Python", "Lists and dicts", 1)));
+
+        // An edit replaces the old text
+        index.index(List.of(post("1", "Learning Go", "Goroutines", 2)));
+        assertEquals(List.of(), ids(index.search("python", ALL, 0, 10)));
+        assertEquals(List.of("1"), ids(index.search("goroutines", ALL, 0, 10)));
+
+        // A stale read of an older version is ignored
+        index.index(List.of(post("1", "Learning Python", "Lists and dicts", 1)));
+        assertEquals(List.of(), ids(index.search("python", ALL, 0, 10)));
+
+        index.remove(SearchDocument.Type.POST, List.of("1"));
+        assertEquals(0, index.size());
+        assertEquals(0, index.search("go", ALL, 0, 10).total());
+    }
+
+    @Test
+    public void testHighlight() {
+        Set<String> terms = Set.copyOf(TextAnalyzer.terms("api"));
+
+        // Matching words are marked whatever their form, and the text is escaped
+        assertEquals("Designing <mark>APIs</mark> &amp; <mark>API</mark> &lt;b&gt;",
+                Highlighter.highlight("Designing APIs & API <b>", terms, 200));
+
+        // Long texts are cut around the first match
+        String text = "word ".repeat(100) + "api " + "word ".repeat(100);
+        String snippet = Highlighter.highlight(text, terms, 40);
+        assertTrue(snippet.startsWith("…"));
+        assertTrue(snippet.endsWith("…"));
+        assertTrue(snippet.contains("<mark>api</mark>"));
+    }
+}
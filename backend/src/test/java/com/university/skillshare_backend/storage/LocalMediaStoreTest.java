@@ -0,0 +1,55 @@
+package com.university.skillshare_backend.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LocalMediaStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    public void testPutThenReadRange() throws IOException {
+        // Given
+        LocalMediaStore store = new LocalMediaStore(root);
+        byte[] contents = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+        // When
+        store.put("blobs/ab/sample.txt", new ByteArrayInputStream(contents), contents.length, "text/plain");
+
+        // Then
+        try (InputStream in = store.get("blobs/ab/sample.txt", 3, 4)) {
+            assertArrayEquals("3456".getBytes(StandardCharsets.US_ASCII), in.readAllBytes());
+        }
+        assertEquals(10, store.stat("blobs/ab/sample.txt").orElseThrow().getSize());
+    }
+
+    @Test
+    public void testDeleteReportsWhetherObjectExisted() throws IOException {
+        LocalMediaStore store = new LocalMediaStore(root);
+        store.put("a.txt", new ByteArrayInputStream(new byte[] { 1 }), 1, "text/plain");
+
+        assertTrue(store.delete("a.txt"));
+        assertFalse(store.delete("a.txt"));
+        assertTrue(store.stat("a.txt").isEmpty());
+    }
+
+    @Test
+    public void testRejectsKeysOutsideRoot() {
+        LocalMediaStore store = new LocalMediaStore(root);
+
+        assertThrows(IllegalArgumentException.class, () -> store.stat("../escape.txt"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.university.skillshare_backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class BloomFilterTest {
+
+    @Test
+    public void testNeverForgetsAddedValues() {
+        // Given a filter with 10,000 values
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("images/" + i + ".jpg");
+        }
+
+        // Then every one of them is reported as present
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("images/" + i + ".jpg"));
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRateStaysNearTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("present-" + i);
+        }
+
+        // When probing values that were never added
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Then well under twice the configured rate come back positive
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    public void testEmptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+
+        assertFalse(filter.mightContain("anything"));
+    }
+}
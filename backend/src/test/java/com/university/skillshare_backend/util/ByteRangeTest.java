@@ -0,0 +1,50 @@
+package com.university.skillshare_backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+public class ByteRangeTest {
+
+    @Test
+    public void testClosedRange() {
+        ByteRange range = ByteRange.parse("bytes=0-499", 1000);
+
+        assertEquals(0, range.getStart());
+        assertEquals(499, range.getEnd());
+        assertEquals(500, range.getLength());
+        assertEquals("bytes 0-499/1000", range.toContentRange(1000));
+    }
+
+    @Test
+    public void testOpenEndedRangeIsClampedToFileSize() {
+        assertEquals(999, ByteRange.parse("bytes=500-", 1000).getEnd());
+        assertEquals(999, ByteRange.parse("bytes=500-5000", 1000).getEnd());
+    }
+
+    @Test
+    public void testSuffixRange() {
+        ByteRange range = ByteRange.parse("bytes=-200", 1000);
+
+        assertEquals(800, range.getStart());
+        assertEquals(999, range.getEnd());
+        assertEquals(0, ByteRange.parse("bytes=-5000", 1000).getStart());
+    }
+
+    @Test
+    public void testUnsatisfiableRange() {
+        assertFalse(ByteRange.parse("bytes=1000-", 1000).isSatisfiable());
+        assertFalse(ByteRange.parse("bytes=-0", 1000).isSatisfiable());
+    }
+
+    @Test
+    public void testWholeFileForMissingMalformedOrMultipleRanges() {
+        assertNull(ByteRange.parse(null, 1000));
+        assertNull(ByteRange.parse("items=0-10", 1000));
+        assertNull(ByteRange.parse("bytes=abc-10", 1000));
+        assertNull(ByteRange.parse("bytes=10-5", 1000));
+        assertNull(ByteRange.parse("bytes=0-10,20-30", 1000));
+    }
+}
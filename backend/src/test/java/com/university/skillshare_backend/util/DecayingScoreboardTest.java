@@ -0,0 +1,80 @@
+package com.university.skillshare_backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class DecayingScoreboardTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    public void testScoresHalveEveryHalfLife() {
+        // Given 8 points added at time 0 with a one hour half-life
+        DecayingScoreboard board = new DecayingScoreboard(HOUR, 100, 0);
+        board.add("post", 8, 0);
+
+        // Then the score is 4 after one hour and 1 after three
+        assertEquals(4, board.top(1, HOUR).get(0).score(), 1e-9);
+        assertEquals(1, board.top(1, 3 * HOUR).get(0).score(), 1e-9);
+    }
+
+    @Test
+    public void testRecentActivityOutranksOlderActivity() {
+        DecayingScoreboard board = new DecayingScoreboard(HOUR, 100, 0);
+        // An old post with 10 likes two half-lives ago...
+        board.add("old", 10, 0);
+        // ...and a new one with 3 likes now
+        board.add("new", 3, 2 * HOUR);
+
+        // Then the new post ranks first (3 against 2.5)
+        List<DecayingScoreboard.Scored> top = board.top(2, 2 * HOUR);
+        assertEquals("new", top.get(0).key());
+        assertEquals("old", top.get(1).key());
+    }
+
+    @Test
+    public void testCapacityKeepsTheHighestScores() {
+        DecayingScoreboard board = new DecayingScoreboard(HOUR, 3, 0);
+        for (int i = 1; i <= 10; i++) {
+            board.add("post-" + i, i, 0);
+        }
+
+        List<DecayingScoreboard.Scored> top = board.top(10, 0);
+        assertEquals(3, top.size());
+        assertEquals(List.of("post-10", "post-9", "post-8"), top.stream().map(DecayingScoreboard.Scored::key).toList());
+    }
+
+    @Test
+    public void testRescalingKeepsScoresAndOrder() {
+        // Given activity spread over far more than 512 half-lives
+        DecayingScoreboard board = new DecayingScoreboard(1, 100, 0);
+        board.add("a", 1, 0);
+        board.add("b", 5, 1_000);
+        board.add("c", 3, 1_000);
+
+        // Then the newest scores are intact and still ranked
+        List<DecayingScoreboard.Scored> top = board.top(3, 1_000);
+        assertEquals("b", top.get(0).key());
+        assertEquals(5, top.get(0).score(), 1e-9);
+        assertEquals(3, top.get(1).score(), 1e-9);
+    }
+
+    @Test
+    public void testRestoreAndIdleRemoval() {
+        DecayingScoreboard board = new DecayingScoreboard(HOUR, 100, 10 * HOUR);
+        // A checkpointed score of 8 taken an hour ago is worth 4 now
+        board.restore("post", 8, 9 * HOUR, 9 * HOUR);
+        assertEquals(4, board.top(1, 10 * HOUR).get(0).score(), 1e-9);
+
+        // Negative weights take activity back but never below zero
+        board.add("post", -10, 10 * HOUR);
+        assertTrue(board.top(1, 10 * HOUR).get(0).score() >= 0);
+
+        assertEquals(1, board.removeIdleSince(11 * HOUR));
+        assertEquals(0, board.size());
+    }
+}
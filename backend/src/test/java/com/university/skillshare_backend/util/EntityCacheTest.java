@@ -0,0 +1,116 @@
+package com.university.skillshare_backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class EntityCacheTest {
+
+    @Test
+    public void testLoadsOnceThenServesFromCache() {
+        // Given a cache in front of a counting loader
+        EntityCache<String> cache = new EntityCache<>(10_000, 100, 60_000, 0, String::length, 1_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        // When the same key is read three times
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Optional.of("value"), cache.get("key", key -> {
+                loads.incrementAndGet();
+                return Optional.of("value");
+            }));
+        }
+
+        // Then it was loaded once
+        assertEquals(1, loads.get());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testMissingValuesAndInvalidatedKeysAreLoadedAgain() {
+        EntityCache<String> cache = new EntityCache<>(10_000, 100, 60_000, 0, String::length, 1_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("absent", key -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        cache.get("absent", key -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        cache.get("key", key -> Optional.of("old"));
+        cache.invalidate("key");
+
+        assertEquals(2, loads.get());
+        assertEquals(Optional.of("new"), cache.get("key", key -> Optional.of("new")));
+    }
+
+    @Test
+    public void testAbsentKeysAreRememberedUntilInvalidated() {
+        // Given a cache that remembers missing keys
+        EntityCache<String> cache = new EntityCache<>(10_000, 100, 60_000, 60_000, String::length, 1_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        // When a missing key is looked up twice
+        cache.get("missing", key -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        assertEquals(Optional.empty(), cache.get("missing", key -> {
+            loads.incrementAndGet();
+            return Optional.of("unexpected");
+        }));
+
+        // Then only the first lookup loaded, until the key is invalidated (e.g. created)
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getAbsentHitCount());
+        cache.invalidate("missing");
+        assertEquals(Optional.of("created"), cache.get("missing", key -> Optional.of("created")));
+    }
+
+    @Test
+    public void testInvalidationDuringLoadIsNotOverwritten() {
+        EntityCache<String> cache = new EntityCache<>(10_000, 100, 60_000, 0, String::length, 1_000);
+
+        // When the key is invalidated while its stale value is being loaded
+        cache.get("key", key -> {
+            cache.invalidate("key");
+            return Optional.of("stale");
+        });
+
+        // Then the stale value was not cached
+        assertEquals(Optional.of("fresh"), cache.get("key", key -> Optional.of("fresh")));
+    }
+
+    @Test
+    public void testFrequentlyUsedEntriesSurviveAScan() {
+        // Given a cache with room for about 100 entries of weight 10, holding a hot set
+        EntityCache<String> cache = new EntityCache<>(1_000, 100, 60_000, 0, value -> 10, 1_000);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.get("hot-" + i, key -> Optional.of(key));
+            }
+        }
+
+        // When a scan of three times as many keys, each used once, goes through the cache
+        for (int i = 0; i < 300; i++) {
+            cache.get("scan-" + i, key -> Optional.of(key));
+        }
+
+        // Then the hot set is still cached
+        AtomicInteger reloaded = new AtomicInteger();
+        for (int i = 0; i < 50; i++) {
+            cache.get("hot-" + i, key -> {
+                reloaded.incrementAndGet();
+                return Optional.of(key);
+            });
+        }
+        assertEquals(0, reloaded.get());
+        assertTrue(cache.getWeight() <= 1_000);
+    }
+}
@@ -0,0 +1,45 @@
+package com.university.skillshare_backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class HashtagParserTest {
+
+    private final HashtagParser parser = new HashtagParser();
+
+    @Test
+    public void testParseTags() {
+        // Given a post mixing tags with punctuation and repeats
+        String title = "Learning #Java and #spring-boot!";
+        String content = "Day 3 of #java, now #C++ (#100DaysOfCode) #java.";
+
+        // When
+        List<String> tags = parser.parseTags(title, content);
+
+        // Then each tag appears once, lower case, in order of first use
+        assertEquals(List.of("java", "spring-boot", "c++", "100daysofcode"), tags);
+    }
+
+    @Test
+    public void testIgnoresHashesThatAreNotTags() {
+        // Given hashes inside words, numbers alone and bare hashes
+        List<String> tags = parser.parseTags("C# is #1, see page#intro or # alone", null);
+
+        // Then nothing is a tag
+        assertEquals(List.of(), tags);
+    }
+
+    @Test
+    public void testNormalize() {
+        assertEquals("web-development", parser.normalize(" Web Development "));
+        assertEquals("react", parser.normalize("#React"));
+        assertEquals("node", parser.normalize("node--"));
+        assertNull(parser.normalize("2024"));
+        assertNull(parser.normalize("not/a/tag"));
+        assertNull(parser.normalize(null));
+    }
+}
@@ -0,0 +1,56 @@
+package com.university.skillshare_backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class HeavyHittersTest {
+
+    @Test
+    public void testFindsTheMostFrequentKeysAmongManyRareOnes() {
+        // Given three popular tags buried in thousands of one-off tags
+        HeavyHitters hitters = new HeavyHitters(10, 0.001, 0.01);
+        for (int i = 0; i < 5000; i++) {
+            hitters.add("rare-" + i, 1);
+            if (i % 10 == 0) {
+                hitters.add("java", 1);
+            }
+            if (i % 20 == 0) {
+                hitters.add("react", 1);
+            }
+            if (i % 50 == 0) {
+                hitters.add("python", 1);
+            }
+        }
+
+        // When
+        List<HeavyHitters.Counted> top = hitters.top(3);
+
+        // Then they lead the list, and their counts are never underestimated
+        assertEquals(List.of("java", "react", "python"), top.stream().map(HeavyHitters.Counted::key).toList());
+        assertTrue(top.get(0).count() >= 500);
+        assertTrue(top.get(1).count() >= 250);
+        assertTrue(top.get(2).count() >= 100);
+    }
+
+    @Test
+    public void testHalvingLetsNewKeysTakeOver() {
+        // Given an old favourite
+        HeavyHitters hitters = new HeavyHitters(1, 0.001, 0.01);
+        hitters.add("angular", 40);
+
+        // When its counts fade and a new key is used more since
+        hitters.halve();
+        hitters.halve();
+        hitters.add("svelte", 15);
+
+        // Then the new key replaces it
+        List<HeavyHitters.Counted> top = hitters.top(5);
+        assertEquals(1, top.size());
+        assertEquals("svelte", top.get(0).key());
+        assertEquals(10, hitters.estimate("angular"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.university.skillshare_backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class KWayMergeTest {
+
+    @Test
+    public void testMergesSortedSourcesInOrder() {
+        // Given three sources sorted newest first
+        List<Iterator<Integer>> sources = List.of(
+                List.of(9, 5, 1).iterator(),
+                List.of(8, 7, 2).iterator(),
+                List.of(6, 3).iterator());
+
+        // When merging them
+        List<Integer> merged = new ArrayList<>();
+        KWayMerge.merge(sources, Comparator.<Integer>reverseOrder()).forEachRemaining(merged::add);
+
+        // Then one list in the same order comes out
+        assertEquals(List.of(9, 8, 7, 6, 5, 3, 2, 1), merged);
+    }
+
+    @Test
+    public void testReadsOnlyWhatIsTaken() {
+        // Given sources that count how many elements were read from them
+        AtomicInteger reads = new AtomicInteger();
+        List<Iterator<Integer>> sources = List.of(
+                counting(List.of(10, 7, 4, 1), reads),
+                counting(List.of(9, 6, 3, 0), reads),
+                counting(List.of(8, 5, 2), reads));
+
+        // When taking the first two elements
+        Iterator<Integer> merged = KWayMerge.merge(sources, Comparator.<Integer>reverseOrder());
+        merged.next();
+        merged.next();
+
+        // Then only one head per source plus one element per taken element was read
+        assertEquals(5, reads.get());
+    }
+
+    @Test
+    public void testTiesGoToTheEarlierSource() {
+        List<Iterator<String>> sources = List.of(
+                List.of("b1").iterator(),
+                List.of("a1").iterator());
+
+        List<String> merged = new ArrayList<>();
+        KWayMerge.merge(sources, Comparator.comparing((String s) -> s.charAt(1))).forEachRemaining(merged::add);
+
+        assertEquals(List.of("b1", "a1"), merged);
+    }
+
+    @Test
+    public void testEmptySources() {
+        Iterator<Integer> merged = KWayMerge.merge(
+                List.of(List.<Integer>of().iterator(), List.<Integer>of().iterator()), Comparator.naturalOrder());
+
+        assertFalse(merged.hasNext());
+    }
+
+    private static Iterator<Integer> counting(List<Integer> values, AtomicInteger reads) {
+        Iterator<Integer> iterator = values.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Integer next() {
+                reads.incrementAndGet();
+                return iterator.next();
+            }
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package com.university.skillshare_backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+public class OffHeapLruCacheTest {
+
+    @Test
+    public void testEvictsLeastRecentlyUsedWhenOverBudget() {
+        // Given a cache with room for two 4-byte values
+        OffHeapLruCache<String> cache = new OffHeapLruCache<>(8);
+        cache.put("a", new byte[4]);
+        cache.put("b", new byte[4]);
+
+        // When "a" is read and a third value is added
+        cache.get("a");
+        cache.put("c", new byte[4]);
+
+        // Then "b" was evicted
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(8, cache.getUsedBytes());
+    }
+
+    @Test
+    public void testReturnsIndependentReadOnlyViews() {
+        OffHeapLruCache<String> cache = new OffHeapLruCache<>(16);
+        cache.put("a", new byte[] { 1, 2, 3 });
+
+        ByteBuffer first = cache.get("a");
+        first.position(2);
+        ByteBuffer second = cache.get("a");
+
+        assertTrue(first.isReadOnly());
+        assertTrue(second.isDirect());
+        assertEquals(0, second.position());
+        assertEquals(3, second.remaining());
+    }
+
+    @Test
+    public void testRejectsValuesLargerThanCache() {
+        OffHeapLruCache<String> cache = new OffHeapLruCache<>(4);
+
+        assertFalse(cache.put("big", new byte[5]));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidateFreesBudget() {
+        OffHeapLruCache<String> cache = new OffHeapLruCache<>(8);
+        cache.put("a", new byte[6]);
+
+        cache.invalidate("a");
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.getUsedBytes());
+    }
+}
@@ -0,0 +1,164 @@
+package com.university.skillshare_backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.university.skillshare_backend.exception.ConflictException;
+import com.university.skillshare_backend.model.Post;
+
+public class PartialUpdateTest {
+
+    @Test
+    public void testVersionZeroMatchesMissingField() {
+        // Given a post written before the version field existed
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        Post post = new Post();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Post.class))).thenReturn(post);
+
+        // When an edit based on version 0 is applied
+        Optional<Post> updated = new PartialUpdate()
+                .set("title", "old", "new")
+                .apply(mongoTemplate, "post-1", 0, Post.class);
+
+        // Then the query accepts either version 0 or no version at all
+        assertSame(post, updated.orElseThrow());
+        Document query = captureQuery(mongoTemplate).getQueryObject();
+        assertEquals("post-1", query.get("_id"));
+        assertEquals(List.of(
+                new Document(PartialUpdate.VERSION_FIELD, 0L),
+                new Document(PartialUpdate.VERSION_FIELD, new Document("$exists", false))),
+                query.get("$or"));
+    }
+
+    @Test
+    public void testLaterVersionMatchesExactly() {
+        // Given a post at version 3
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Post.class))).thenReturn(new Post());
+
+        // When an edit based on version 3 is applied
+        new PartialUpdate()
+                .set("title", "old", "new")
+                .apply(mongoTemplate, "post-1", 3, Post.class);
+
+        // Then only version 3 matches
+        Document query = captureQuery(mongoTemplate).getQueryObject();
+        assertEquals(3L, query.get(PartialUpdate.VERSION_FIELD));
+        assertFalse(query.containsKey("$or"));
+    }
+
+    @Test
+    public void testUnchangedValuesAreNotSet() {
+        // Given an edit where only the description changed
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Post.class))).thenReturn(new Post());
+        PartialUpdate partialUpdate = new PartialUpdate()
+                .set("title", "same", "same")
+                .set("description", "before", "after");
+
+        // When it is applied
+        assertFalse(partialUpdate.isEmpty());
+        partialUpdate.apply(mongoTemplate, "post-1", 1, Post.class);
+
+        // Then only the description is set and the version is incremented
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(),
+                any(FindAndModifyOptions.class), eq(Post.class));
+        Document updateObject = update.getValue().getUpdateObject();
+        assertEquals(new Document("description", "after"), updateObject.get("$set"));
+        assertEquals(new Document(PartialUpdate.VERSION_FIELD, 1), updateObject.get("$inc"));
+    }
+
+    @Test
+    public void testEditWithoutChangesIsEmpty() {
+        // Given an edit that sets every field to its current value
+        PartialUpdate partialUpdate = new PartialUpdate()
+                .set("title", "same", "same")
+                .set("tags", List.of("java"), List.of("java"))
+                .touch("updatedAt", "now");
+
+        // Then there is nothing to apply
+        assertTrue(partialUpdate.isEmpty());
+    }
+
+    @Test
+    public void testVersionMismatchThrowsConflict() {
+        // Given a post that exists but is no longer at the expected version
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Post.class))).thenReturn(null);
+        when(mongoTemplate.exists(any(Query.class), eq(Post.class))).thenReturn(true);
+
+        // When the edit is applied, then it is refused
+        PartialUpdate partialUpdate = new PartialUpdate().set("title", "old", "new");
+        assertThrows(ConflictException.class,
+                () -> partialUpdate.apply(mongoTemplate, "post-1", 2, Post.class));
+    }
+
+    @Test
+    public void testMissingDocumentIsEmpty() {
+        // Given no post with this id
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Post.class))).thenReturn(null);
+        when(mongoTemplate.exists(any(Query.class), eq(Post.class))).thenReturn(false);
+
+        // When the edit is applied
+        Optional<Post> updated = new PartialUpdate()
+                .set("title", "old", "new")
+                .apply(mongoTemplate, "post-1", 2, Post.class);
+
+        // Then nothing is returned
+        assertTrue(updated.isEmpty());
+    }
+
+    @Test
+    public void testConditionFailureIsTreatedAsMissing() {
+        // Given a post that is being deleted
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Post.class))).thenReturn(null);
+        when(mongoTemplate.exists(any(Query.class), eq(Post.class))).thenReturn(false);
+
+        // When an edit that only applies to live posts is applied
+        Optional<Post> updated = new PartialUpdate()
+                .set("title", "old", "new")
+                .onlyIf("deletedAt", null)
+                .apply(mongoTemplate, "post-1", 2, Post.class);
+
+        // Then it is empty, and the existence check carried the same condition
+        assertTrue(updated.isEmpty());
+        ArgumentCaptor<Query> exists = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).exists(exists.capture(), eq(Post.class));
+        assertTrue(exists.getValue().getQueryObject().toJson().contains("\"deletedAt\": null"));
+    }
+
+    private Query captureQuery(MongoTemplate mongoTemplate) {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(query.capture(), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Post.class));
+        return query.getValue();
+    }
+}
@@ -0,0 +1,88 @@
+package com.university.skillshare_backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class RingBufferTest {
+
+    @Test
+    public void testEveryConsumerReadsEveryValueInOrder() {
+        // Given a ring with two consumers
+        RingBuffer<Integer> ring = new RingBuffer<>(8, 2);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(ring.tryPublish(i));
+        }
+
+        // When both drain
+        List<Integer> first = new ArrayList<>();
+        List<Integer> second = new ArrayList<>();
+        ring.consumer(0).drainTo(first, 100);
+        ring.consumer(1).drainTo(second, 3);
+
+        // Then each sees the values in publish order, up to its batch size
+        assertEquals(List.of(0, 1, 2, 3, 4), first);
+        assertEquals(List.of(0, 1, 2), second);
+        assertEquals(2, ring.consumer(1).getBacklog());
+    }
+
+    @Test
+    public void testSlowestConsumerHoldsBackProducers() {
+        RingBuffer<Integer> ring = new RingBuffer<>(4, 2);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.tryPublish(i));
+        }
+        ring.consumer(0).drainTo(new ArrayList<>(), 100);
+
+        // When the ring is full for the second consumer
+        assertFalse(ring.tryPublish(4));
+        assertFalse(ring.publish(4, 1, TimeUnit.MILLISECONDS));
+
+        // Then a slot frees up once it reads
+        ring.consumer(1).drainTo(new ArrayList<>(), 1);
+        assertTrue(ring.tryPublish(4));
+    }
+
+    @Test
+    public void testConcurrentProducersLoseNothing() throws InterruptedException {
+        // Given four producers publishing through a small ring
+        RingBuffer<Integer> ring = new RingBuffer<>(64, 1);
+        int perProducer = 10_000;
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            int offset = p * perProducer;
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    ring.publish(offset + i, 10, TimeUnit.SECONDS);
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+
+        // When one consumer drains while they run
+        List<Integer> received = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received.size() < 4 * perProducer && System.nanoTime() < deadline) {
+            ring.consumer(0).drainTo(received, 32);
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        // Then every value arrives exactly once, each producer's in its own order
+        assertEquals(4 * perProducer, received.size());
+        int[] last = {-1, -1, -1, -1};
+        for (int value : received) {
+            int producer = value / perProducer;
+            assertTrue(value > last[producer]);
+            last[producer] = value;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.university.skillshare_backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testConcurrentCallersShareOneRead() throws Exception {
+        // Given a read that blocks until every caller has arrived
+        SingleFlight<String, String> flights = new SingleFlight<>(5_000);
+        AtomicInteger reads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<String>> results = new ArrayList<>();
+        results.add(executor.submit(() -> flights.execute("post-1", () -> {
+            reads.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "post";
+        })));
+        started.await();
+
+        // When nine more callers ask for the same key while it is in flight
+        for (int i = 0; i < 9; i++) {
+            results.add(executor.submit(() -> flights.execute("post-1", () -> {
+                reads.incrementAndGet();
+                return "duplicate";
+            })));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        // Then all of them get the first caller's result from a single read
+        for (Future<String> result : results) {
+            assertEquals("post", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, reads.get());
+        assertEquals(9, flights.getSuppressedCount());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testSequentialCallsEachRead() {
+        SingleFlight<String, Integer> flights = new SingleFlight<>(1_000);
+        AtomicInteger reads = new AtomicInteger();
+
+        flights.execute("key", reads::incrementAndGet);
+        flights.execute("key", reads::incrementAndGet);
+
+        assertEquals(2, reads.get());
+        assertEquals(0, flights.getSuppressedCount());
+    }
+
+    @Test
+    public void testFailureIsSharedWithWaitingCallers() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>(5_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        Future<String> leader = executor.submit(() -> flights.execute("key", () -> {
+            started.countDown();
+            await(release);
+            throw new IllegalArgumentException("not found");
+        }));
+        started.await();
+        Future<String> follower = executor.submit(() -> flights.execute("key", () -> "unexpected"));
+        Thread.sleep(100);
+        release.countDown();
+
+        Exception leaderFailure = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        Exception followerFailure = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertEquals(IllegalArgumentException.class, leaderFailure.getCause().getClass());
+        assertEquals(IllegalArgumentException.class, followerFailure.getCause().getClass());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testWaitingCallerGivesUpAndReadsItself() throws Exception {
+        // Given a shared read that takes longer than callers are willing to wait
+        SingleFlight<String, String> flights = new SingleFlight<>(50);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        Future<String> slow = executor.submit(() -> flights.execute("key", () -> {
+            started.countDown();
+            await(release);
+            return "slow";
+        }));
+        started.await();
+
+        // When another caller asks for the key
+        String result = flights.execute("key", () -> "own");
+
+        // Then it runs its own read after the bounded wait
+        assertEquals("own", result);
+        assertEquals(1, flights.getTimeoutCount());
+        release.countDown();
+        assertEquals("slow", slow.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
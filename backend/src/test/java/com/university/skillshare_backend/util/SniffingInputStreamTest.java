@@ -0,0 +1,93 @@
+package com.university.skillshare_backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.university.skillshare_backend.exception.InvalidMediaException;
+
+public class SniffingInputStreamTest {
+
+    private static final byte[] PNG_SIGNATURE = {
+            (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n',
+            0, 0, 0, 13, 'I', 'H', 'D', 'R' };
+
+    @Test
+    public void testDetectsTypeFromContent() throws IOException {
+        // Given a PNG, whatever the client claimed it was
+        byte[] png = Arrays.copyOf(PNG_SIGNATURE, 20_000);
+        SniffingInputStream in = new SniffingInputStream(
+                new ByteArrayInputStream(png), SniffingInputStream.Kind.IMAGE, png.length);
+
+        // When it is copied
+        long copied = in.transferTo(OutputStream.nullOutputStream());
+
+        // Then the real type is known and every byte went through
+        assertEquals("image/png", in.getDetectedType());
+        assertEquals(png.length, copied);
+    }
+
+    @Test
+    public void testDetectsShortFileAtEndOfStream() throws IOException {
+        SniffingInputStream in = new SniffingInputStream(
+                new ByteArrayInputStream(PNG_SIGNATURE), SniffingInputStream.Kind.IMAGE, 1024);
+
+        in.transferTo(OutputStream.nullOutputStream());
+
+        assertEquals("image/png", in.getDetectedType());
+    }
+
+    @Test
+    public void testRejectsDisguisedFileBeforeReadingItAll() {
+        // Given an HTML page uploaded as an image
+        byte[] html = Arrays.copyOf("<html><head><script>alert(1)</script></head>".getBytes(StandardCharsets.US_ASCII), 100_000);
+        ByteArrayInputStream source = new ByteArrayInputStream(html);
+        SniffingInputStream in = new SniffingInputStream(source, SniffingInputStream.Kind.IMAGE, html.length);
+
+        // When it is copied, Then the copy fails once the header has been seen
+        assertThrows(InvalidMediaException.class, () -> in.transferTo(OutputStream.nullOutputStream()));
+        assertTrue(source.available() > 0);
+    }
+
+    @Test
+    public void testRejectsImageUploadedAsVideo() {
+        byte[] png = Arrays.copyOf(PNG_SIGNATURE, 20_000);
+        SniffingInputStream in = new SniffingInputStream(
+                new ByteArrayInputStream(png), SniffingInputStream.Kind.VIDEO, png.length);
+
+        assertThrows(InvalidMediaException.class, () -> in.transferTo(OutputStream.nullOutputStream()));
+    }
+
+    @Test
+    public void testStopsAtSizeLimit() {
+        // Given a valid image that is larger than allowed
+        byte[] png = Arrays.copyOf(PNG_SIGNATURE, 100_000);
+        ByteArrayInputStream source = new ByteArrayInputStream(png);
+        SniffingInputStream in = new SniffingInputStream(source, SniffingInputStream.Kind.IMAGE, 10_000);
+
+        // When it is copied, Then the copy fails soon after the limit
+        assertThrows(InvalidMediaException.class, () -> in.transferTo(OutputStream.nullOutputStream()));
+        assertTrue(in.getCount() <= 10_000 + SniffingInputStream.SNIFF_BYTES);
+        assertTrue(source.available() > 0);
+    }
+
+    @Test
+    public void testTellsMp4FromQuickTime() throws IOException {
+        // Given an MP4 header (ftyp box with the isom brand)
+        byte[] mp4 = Arrays.copyOf(new byte[] { 0, 0, 0, 0x18, 'f', 't', 'y', 'p', 'i', 's', 'o', 'm' }, 20_000);
+        SniffingInputStream in = new SniffingInputStream(
+                new ByteArrayInputStream(mp4), SniffingInputStream.Kind.VIDEO, mp4.length);
+
+        in.transferTo(OutputStream.nullOutputStream());
+
+        assertEquals("video/mp4", in.getDetectedType());
+    }
+}
@@ -2,8 +2,8 @@ import { useState, useEffect } from 'react';
 import axios from 'axios';
 import { useUser } from '../contexts/UserContext';
 
-const FollowButton = ({ userId, initialFollowStatus = false, onStatusChange }) => {
-  const [isFollowing, setIsFollowing] = useState(initialFollowStatus);
+const FollowButton = ({ userId, initialFollowStatus = false, isFollowing: knownFollowStatus, onStatusChange }) => {
+  const [isFollowing, setIsFollowing] = useState(knownFollowStatus ?? initialFollowStatus);
   const [loading, setLoading] = useState(false);
   const { currentUser } = useUser();
 
@@ -11,6 +11,10 @@ const FollowButton = ({ userId, initialFollowStatus = false, onStatusChange }) =
     // Check if the current user is already following this user
     const checkFollowStatus = async () => {
       if (!currentUser || !userId || userId === currentUser.id) return;
+      if (knownFollowStatus !== undefined) {
+        setIsFollowing(knownFollowStatus);
+        return;
+      }
       
       try {
         const response = await axios.get(
@@ -24,7 +28,7 @@ const FollowButton = ({ userId, initialFollowStatus = false, onStatusChange }) =
     };
 
     checkFollowStatus();
-  }, [currentUser, userId]);
+  }, [currentUser, userId, knownFollowStatus]);
 
   const handleToggleFollow = async () => {
     if (!currentUser || !userId || userId === currentUser.id || loading) return;
@@ -3,14 +3,17 @@ import axios from 'axios';
 import { useNavigate } from 'react-router-dom';
 import { useUser } from '../contexts/UserContext';
 
-const GroupCard = ({ group, onDelete, isOwner, onMembershipChange }) => {
+const GroupCard = ({ group, onDelete, isOwner, isMember: initiallyMember, onMembershipChange }) => {
   const [loading, setLoading] = useState(false);
   const [ownerDetails, setOwnerDetails] = useState(null);
   const [ownerLoading, setOwnerLoading] = useState(false);
   const navigate = useNavigate();
   const { currentUser } = useUser();
-  // Fix: Check if the user's ID is in the members array directly
-  const [isMember, setIsMember] = useState(group.members?.includes(currentUser?.id));
+  const [isMember, setIsMember] = useState(!!initiallyMember);
+
+  useEffect(() => {
+    setIsMember(!!initiallyMember);
+  }, [initiallyMember]);
 
   useEffect(() => {
     fetchOwnerDetails();
@@ -54,7 +57,7 @@ const GroupCard = ({ group, onDelete, isOwner, onMembershipChange }) => {
           setIsMember(false);
           // Update the group data with the response
           if (onMembershipChange) {
-            onMembershipChange(response.data);
+            onMembershipChange(response.data, false);
           }
         }
       } else {
@@ -63,7 +66,7 @@ const GroupCard = ({ group, onDelete, isOwner, onMembershipChange }) => {
           setIsMember(true);
           // Update the group data with the response
           if (onMembershipChange) {
-            onMembershipChange(response.data);
+            onMembershipChange(response.data, true);
           }
         }
       }
@@ -99,7 +102,7 @@ const GroupCard = ({ group, onDelete, isOwner, onMembershipChange }) => {
         
         <div className="mt-4 flex justify-between items-center">
           <span className="text-sm text-gray-500">
-            {(group.members || []).length} members
+            {group.memberCount || 0} members
           </span>
           {!isOwner && (
             <button
@@ -1,15 +1,19 @@
 import { useState, useEffect } from 'react';
 import { likePost, unlikePost, getLikeCount } from '../services/api';
 
-const LikeButton = ({ postId, initialLikeCount = 0, userId, onLikeUpdate }) => {
+const LikeButton = ({ postId, initialLikeCount = 0, userId, liked, onLikeUpdate }) => {
   const [likeCount, setLikeCount] = useState(initialLikeCount);
-  const [isLiked, setIsLiked] = useState(false);
+  const [isLiked, setIsLiked] = useState(liked || false);
   const [loading, setLoading] = useState(false);
 
-  // Check if user has already liked the post
+  // Check if user has already liked the post, unless the feed page already told us
   useEffect(() => { 
     const checkLikeStatus = async () => {
       if (!userId || !postId) return;
+      if (liked !== undefined) {
+        setIsLiked(liked);
+        return;
+      }
 
       try {
         const data = await getLikeCount(postId, userId);
@@ -21,7 +25,7 @@ const LikeButton = ({ postId, initialLikeCount = 0, userId, onLikeUpdate }) => {
     };
 
     checkLikeStatus();
-  }, [postId, userId]);
+  }, [postId, userId, liked]);
 
   // Handle like/unlike
   const handleToggleLike = async () => {
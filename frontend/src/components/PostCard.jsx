@@ -10,7 +10,12 @@ import ShareModal from './ShareModal';
 import { formatDate } from '../utils/dateUtils';
 import Comments from './Comments';
 
-const PostCard = ({ post, userId, detailed = false, onDelete }) => {
+// Look up this card's entry in the feed page's viewer state; undefined when the
+// page has none for it, so the buttons fall back to asking for themselves
+const viewerStateFor = (viewerState, key, id) =>
+  viewerState && viewerState[key] && id in viewerState[key] ? viewerState[key][id] : undefined;
+
+const PostCard = ({ post, userId, detailed = false, onDelete, viewerState }) => {
   const [authorName, setAuthorName] = useState('');
   const [showComments, setShowComments] = useState(detailed);
   const [showDropdown, setShowDropdown] = useState(false);
@@ -22,8 +27,8 @@ const PostCard = ({ post, userId, detailed = false, onDelete }) => {
   const [deleteSuccess, setDeleteSuccess] = useState(false);
   const [currentImageIndex, setCurrentImageIndex] = useState(0);
   const [showShareModal, setShowShareModal] = useState(false);
-  const [reactionCounts, setReactionCounts] = useState({});
-  const [totalReactions, setTotalReactions] = useState(0);
+  const [reactionCounts, setReactionCounts] = useState(post.reactionCounts || {});
+  const [totalReactions, setTotalReactions] = useState(post.reactionTotal || 0);
 
   const { likeCount: wsLikeCount, comments: wsComments, addLocalComment } = useWebSocket(post.id);
 
@@ -48,10 +53,13 @@ const PostCard = ({ post, userId, detailed = false, onDelete }) => {
       }
     };
 
-    if (post.userId) {
+    // Feed cards already carry the author's name
+    if (post.authorName) {
+      setAuthorName(post.authorName);
+    } else if (post.userId) {
       fetchAuthor();
     }
-  }, [post.userId]);
+  }, [post.userId, post.authorName]);
 
   useEffect(() => {
     const fetchReactions = async () => {
@@ -64,8 +72,11 @@ const PostCard = ({ post, userId, detailed = false, onDelete }) => {
       }
     };
 
-    fetchReactions();
-  }, [post.id]);
+    // Feed cards already carry the reaction counts
+    if (!post.reactionCounts) {
+      fetchReactions();
+    }
+  }, [post.id, post.reactionCounts]);
 
   const handleCommentAdded = (newComment) => {
     if (newComment && newComment.id) {
@@ -245,7 +256,10 @@ const PostCard = ({ post, userId, detailed = false, onDelete }) => {
           </p>
         </div>
         {post.userId && post.userId !== userId && (
-          <FollowButton userId={post.userId} />
+          <FollowButton
+            userId={post.userId}
+            isFollowing={viewerStateFor(viewerState, 'following', post.userId)}
+          />
         )}
         <div className="relative">
           <button
@@ -372,8 +386,13 @@ const PostCard = ({ post, userId, detailed = false, onDelete }) => {
           )}
           {post.videoUrl && (
             <div className="mb-4">
-              <video className="w-full h-60 object-cover rounded-lg" controls>
-                <source src={post.videoUrl} type="video/mp4" />
+              <video
+                className="w-full h-60 object-cover rounded-lg"
+                controls
+                preload="none"
+                poster={post.videoMetadata?.posterUrl ? getImageUrl(post.videoMetadata.posterUrl) : undefined}
+              >
+                <source src={getImageUrl(post.videoMetadata?.transcodedUrl || post.videoUrl)} type="video/mp4" />
                 Your browser does not support the video tag.
               </video>
             </div>
@@ -386,6 +405,7 @@ const PostCard = ({ post, userId, detailed = false, onDelete }) => {
           reactionCounts={reactionCounts}
           totalReactions={totalReactions}
           postId={post.id}
+          userReaction={viewerStateFor(viewerState, 'reactions', post.id)}
           onReactionsUpdate={handleReactionsUpdate}
         />
       </div>
@@ -20,8 +20,8 @@ const reactionLabels = {
   'ANGRY': 'Angry'
 };
 
-const ReactionButton = ({ postId, userId, onReactionsUpdate }) => {
-  const [userReaction, setUserReaction] = useState(null);
+const ReactionButton = ({ postId, userId, userReaction: knownReaction, onReactionsUpdate }) => {
+  const [userReaction, setUserReaction] = useState(knownReaction || null);
   const [showSelector, setShowSelector] = useState(false);
   const [loading, setLoading] = useState(false);
   const buttonRef = useRef(null);
@@ -30,6 +30,11 @@ const ReactionButton = ({ postId, userId, onReactionsUpdate }) => {
   useEffect(() => {
     const fetchReactions = async () => {
       if (!userId || !postId) return;
+      // The feed page loads every card's reaction at once; null means none
+      if (knownReaction !== undefined) {
+        setUserReaction(knownReaction);
+        return;
+      }
       
       try {
         const data = await getReactions(postId, userId);
@@ -42,7 +47,7 @@ const ReactionButton = ({ postId, userId, onReactionsUpdate }) => {
     };
     
     fetchReactions();
-  }, [postId, userId]);
+  }, [postId, userId, knownReaction]);
   
   useEffect(() => {
     // Add click outside handler to close selector
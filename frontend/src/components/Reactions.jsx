@@ -2,12 +2,13 @@ import React from 'react';
 import ReactionButton from './ReactionButton';
 import ReactionDisplay from './ReactionDisplay';
 
-const Reactions = ({ reactionCounts, totalReactions, postId, onReactionsUpdate }) => {
+const Reactions = ({ reactionCounts, totalReactions, postId, userReaction, onReactionsUpdate }) => {
   return (
     <div className="flex items-center justify-between">
       <ReactionDisplay reactionCounts={reactionCounts} />
       <ReactionButton 
         postId={postId} 
+        userReaction={userReaction}
         userId={localStorage.getItem('currentUser') ? JSON.parse(localStorage.getItem('currentUser')).id : null} 
         onReactionsUpdate={onReactionsUpdate} 
       />
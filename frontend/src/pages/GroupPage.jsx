@@ -3,6 +3,7 @@ import { useParams, useNavigate } from 'react-router-dom';
 import { useUser } from '../contexts/UserContext';
 import axios from 'axios';
 import PostCard from '../components/PostCard';
+import { getGroupPostCards, getGroupMembers, isGroupMember, getViewerStateForPosts } from '../services/api';
 
 const GroupPage = () => {
   const { groupId } = useParams();
@@ -18,27 +19,36 @@ const GroupPage = () => {
   const [loading, setLoading] = useState(true);
   const [isMember, setIsMember] = useState(false);
   const [sharedPosts, setSharedPosts] = useState([]);
+  const [viewerState, setViewerState] = useState(null);
   const [loadingPosts, setLoadingPosts] = useState(false);
-  const [memberDetails, setMemberDetails] = useState({});
+  const [members, setMembers] = useState([]);
+  const [membersCursor, setMembersCursor] = useState(null);
   const [loadingMembers, setLoadingMembers] = useState(false);
 
   useEffect(() => {
     fetchGroupDetails();
+    fetchMembers();
   }, [groupId]);
 
   useEffect(() => {
-    if (group && currentUser) {
-      setIsMember(group.members?.includes(currentUser.id));
-      
+    if (currentUser) {
+      checkMembership();
+    }
+  }, [groupId, currentUser]);
+
+  const checkMembership = async () => {
+    try {
+      const member = await isGroupMember(groupId, currentUser.id);
+      setIsMember(member);
+
       // If user is a member, fetch shared posts
-      if (group.members?.includes(currentUser.id)) {
+      if (member) {
         fetchSharedPosts();
       }
-      
-      // Fetch member details
-      fetchMemberDetails();
+    } catch (error) {
+      console.error('Error checking membership:', error);
     }
-  }, [group, currentUser]);
+  };
 
   const fetchGroupDetails = async () => {
     try {
@@ -61,8 +71,11 @@ const GroupPage = () => {
     
     try {
       setLoadingPosts(true);
-      const response = await axios.get(`http://localhost:8081/api/groups/${groupId}/posts`);
-      setSharedPosts(response.data || []);
+      const feed = await getGroupPostCards(groupId);
+      const items = feed.items || [];
+      // One request for the viewer's likes, reactions and follows on the whole page
+      setViewerState(await getViewerStateForPosts(currentUser?.id, items));
+      setSharedPosts(items);
     } catch (error) {
       console.error('Error fetching shared posts:', error);
     } finally {
@@ -70,30 +83,15 @@ const GroupPage = () => {
     }
   };
 
-  // New function to fetch member details
-  const fetchMemberDetails = async () => {
-    if (!group || !group.members || group.members.length === 0) return;
-    
+  // Members come a page at a time; pass the cursor to append the next page
+  const fetchMembers = async (cursor) => {
     setLoadingMembers(true);
-    const details = {};
-    
     try {
-      // Fetch details for each member in parallel
-      const promises = group.members.map(memberId => 
-        axios.get(`http://localhost:8081/api/users/${memberId}`)
-          .then(response => {
-            details[memberId] = response.data;
-          })
-          .catch(error => {
-            console.error(`Error fetching details for user ${memberId}:`, error);
-            details[memberId] = { id: memberId, username: "Unknown" };
-          })
-      );
-      
-      await Promise.all(promises);
-      setMemberDetails(details);
+      const page = await getGroupMembers(groupId, cursor);
+      setMembers(prev => cursor ? [...prev, ...(page.items || [])] : (page.items || []));
+      setMembersCursor(page.nextCursor);
     } catch (error) {
-      console.error('Error fetching member details:', error);
+      console.error('Error fetching members:', error);
     } finally {
       setLoadingMembers(false);
     }
@@ -143,6 +141,7 @@ const GroupPage = () => {
       }
       // Refresh group details to get updated member list
       await fetchGroupDetails();
+      await fetchMembers();
     } catch (error) {
       console.error('Error:', error);
     }
@@ -158,6 +157,7 @@ const GroupPage = () => {
         `http://localhost:8081/api/groups/${groupId}/remove-member?memberId=${memberId}&ownerId=${currentUser.id}`
       );
       await fetchGroupDetails();
+      await fetchMembers();
     } catch (error) {
       console.error('Error removing member:', error);
     }
@@ -235,7 +235,7 @@ const GroupPage = () => {
             <div className="flex justify-between items-start">
               <div>
                 <h1 className="text-3xl font-bold text-gray-900">{group.name}</h1>
-                <p className="text-gray-500 mt-2">{group.members?.length || 0} members</p>
+                <p className="text-gray-500 mt-2">{group.memberCount || 0} members</p>
               </div>
               {isOwner ? (
                 <button
@@ -261,27 +261,27 @@ const GroupPage = () => {
             
             {/* Members section */}
             <div className="mt-8">
-              <h2 className="text-xl font-semibold mb-4">Members ({(group.members || []).length})</h2>
-              {loadingMembers ? (
+              <h2 className="text-xl font-semibold mb-4">Members ({group.memberCount || 0})</h2>
+              {loadingMembers && members.length === 0 ? (
                 <div className="text-center py-4">
                   <div className="inline-block animate-spin rounded-full h-5 w-5 border-t-2 border-b-2 border-indigo-500"></div>
                   <p className="mt-2 text-sm text-gray-600">Loading members...</p>
                 </div>
               ) : (
+                <>
                 <div className="grid grid-cols-2 md:grid-cols-3 gap-4">
-                  {(group.members || []).map(memberId => {
-                    const member = memberDetails[memberId] || { id: memberId, username: "Loading..." };
+                  {members.map(member => {
                     return (
-                      <div key={memberId} className="flex items-center justify-between p-2 bg-gray-50 rounded-lg">
+                      <div key={member.id} className="flex items-center justify-between p-2 bg-gray-50 rounded-lg">
                         <div className="flex items-center space-x-2">
                           <div className="w-8 h-8 bg-indigo-100 rounded-full flex items-center justify-center">
                             {member.username ? member.username[0].toUpperCase() : '?'}
                           </div>
                           <span>{member.username}</span>
                         </div>
-                        {isOwner && memberId !== currentUser.id && (
+                        {isOwner && member.id !== currentUser.id && (
                           <button
-                            onClick={() => handleRemoveMember(memberId)}
+                            onClick={() => handleRemoveMember(member.id)}
                             className="text-red-600 hover:text-red-800 text-sm"
                           >
                             Remove
@@ -291,6 +291,16 @@ const GroupPage = () => {
                     );
                   })}
                 </div>
+                {membersCursor && (
+                  <button
+                    onClick={() => fetchMembers(membersCursor)}
+                    disabled={loadingMembers}
+                    className="mt-4 text-indigo-600 hover:text-indigo-800 text-sm"
+                  >
+                    {loadingMembers ? 'Loading...' : 'Load more members'}
+                  </button>
+                )}
+                </>
               )}
             </div>
           </div>
@@ -313,6 +323,7 @@ const GroupPage = () => {
                     key={post.id}
                     post={post}
                     userId={currentUser?.id}
+                    viewerState={viewerState}
                   />
                 ))}
               </div>
@@ -8,12 +8,29 @@ const GroupsPage = () => {
   const [showCreateForm, setShowCreateForm] = useState(false);
   const [groups, setGroups] = useState([]);
   const [loading, setLoading] = useState(false);
+  const [memberOf, setMemberOf] = useState(new Set());
   const { currentUser } = useUser();
 
   useEffect(() => {
     fetchGroups();
   }, []);
 
+  useEffect(() => {
+    if (currentUser?.id) {
+      fetchMemberships();
+    }
+  }, [currentUser?.id]);
+
+  // The groups the current user belongs to, so each card knows whether to offer Join or Leave
+  const fetchMemberships = async () => {
+    try {
+      const response = await axios.get(`http://localhost:8081/api/users/${currentUser.id}/groups`);
+      setMemberOf(new Set(response.data.map(group => group.id)));
+    } catch (error) {
+      console.error('Error fetching memberships:', error);
+    }
+  };
+
   const fetchGroups = async () => {
     setLoading(true);
     try {
@@ -34,12 +51,21 @@ const GroupsPage = () => {
     setGroups(groups.filter(group => group.id !== groupId));
   };
 
-  const handleMembershipChange = async (updatedGroup) => {
+  const handleMembershipChange = async (updatedGroup, joined) => {
     setGroups(prevGroups => 
       prevGroups.map(group => 
         group.id === updatedGroup.id ? updatedGroup : group
       )
     );
+    setMemberOf(prev => {
+      const next = new Set(prev);
+      if (joined) {
+        next.add(updatedGroup.id);
+      } else {
+        next.delete(updatedGroup.id);
+      }
+      return next;
+    });
   };
 
   return (
@@ -83,6 +109,7 @@ const GroupsPage = () => {
                   group={group}
                   onDelete={handleGroupDeleted}
                   isOwner={group.ownerId === currentUser?.id}
+                  isMember={memberOf.has(group.id)}
                   onMembershipChange={handleMembershipChange}
                 />
               ))}
@@ -1,5 +1,5 @@
 import { useState, useEffect } from 'react';
-import axios from 'axios';
+import { getPostCards, getViewerStateForPosts } from '../services/api';
 import PostCard from '../components/PostCard';
 import PostForm from '../components/PostForm';
 import { useUser } from '../contexts/UserContext';
@@ -7,6 +7,7 @@ import LoadingIndicator from '../components/LoadingIndicator';
 
 const HomePage = () => {
   const [posts, setPosts] = useState([]);
+  const [viewerState, setViewerState] = useState(null);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
   const [loadingFailed, setLoadingFailed] = useState(false);
@@ -29,10 +30,15 @@ const HomePage = () => {
           }
         }, 15000);
         
-        const response = await axios.get('http://localhost:8081/api/posts');
+        const feed = await getPostCards();
+        const items = feed.items || [];
+        // Load the viewer's likes, reactions and follows for the whole page before
+        // rendering it, so the cards don't each ask for their own
+        const state = await getViewerStateForPosts(currentUser?.id, items);
         clearTimeout(timeoutId);
         
-        setPosts(response.data);
+        setViewerState(state);
+        setPosts(items);
       } catch (err) {
         console.error('Error fetching posts:', err);
         setError('Failed to load posts. Please try again later.');
@@ -47,7 +53,7 @@ const HomePage = () => {
     return () => {
       // Any cleanup needed
     };
-  }, []);
+  }, [currentUser?.id]);
   
   const handlePostCreated = (newPost) => {
     // Add the new post to the beginning of the list
@@ -99,6 +105,7 @@ const HomePage = () => {
               key={post.id} 
               post={post} 
               userId={currentUser?.id} 
+              viewerState={viewerState}
             />
           ))}
         </div>
@@ -1,6 +1,6 @@
 import { useState, useEffect } from 'react';
 import { useParams, Link } from 'react-router-dom';
-import { getPost, getComments } from '../services/api';
+import { getPostDetail } from '../services/api';
 import PostCard from '../components/PostCard';
 import { useUser } from '../contexts/UserContext';
 
@@ -20,16 +20,12 @@ const PostDetailPage = () => {
       setError(null);
       
       try {
-        // Fetch post details
-        const postData = await getPost(postId);
+        // Fetch the post, its comments and counts in one request
+        const detail = await getPostDetail(postId, currentUser?.id);
         
-        // Fetch comments for the post
-        const comments = await getComments(postId);
-        
-        // Combine data
         setPost({
-          ...postData,
-          comments: comments
+          ...detail.post,
+          comments: detail.comments || []
         });
       } catch (err) {
         console.error('Error fetching post details:', err);
@@ -40,7 +36,7 @@ const PostDetailPage = () => {
     };
     
     fetchPostDetails();
-  }, [postId]);
+  }, [postId, currentUser?.id]);
   
   if (loading) {
     return (
@@ -207,6 +207,146 @@ export const unfollowUser = async (followerId, userId) => {
   }
 };
 
+export const getProfile = async (userId) => {
+  try {
+    const response = await api.get(`/users/${userId}/profile`);
+    return response.data;
+  } catch (error) {
+    console.error('Error getting profile:', error);
+    throw error;
+  }
+};
+
+export const getTimeline = async (userId, cursor) => {
+  try {
+    const response = await api.get(`/users/${userId}/timeline`, {
+      params: cursor ? { cursor } : {}
+    });
+    return response.data;
+  } catch (error) {
+    console.error('Error getting timeline:', error);
+    throw error;
+  }
+};
+
+export const getPostCards = async (cursor) => {
+  try {
+    const response = await api.get('/posts/cards', {
+      params: cursor ? { cursor } : {}
+    });
+    return response.data;
+  } catch (error) {
+    console.error('Error getting feed:', error);
+    throw error;
+  }
+};
+
+export const getGroupPostCards = async (groupId, cursor) => {
+  try {
+    const response = await api.get(`/groups/${groupId}/cards`, {
+      params: cursor ? { cursor } : {}
+    });
+    return response.data;
+  } catch (error) {
+    console.error('Error getting group feed:', error);
+    throw error;
+  }
+};
+
+export const getGroupMembers = async (groupId, cursor) => {
+  try {
+    const response = await api.get(`/groups/${groupId}/members`, {
+      params: cursor ? { cursor } : {}
+    });
+    return response.data;
+  } catch (error) {
+    console.error('Error getting group members:', error);
+    throw error;
+  }
+};
+
+export const isGroupMember = async (groupId, userId) => {
+  try {
+    const response = await api.get(`/groups/${groupId}/members/${userId}`);
+    return response.data.member;
+  } catch (error) {
+    console.error('Error checking group membership:', error);
+    throw error;
+  }
+};
+
+export const getTrendingPosts = async (limit) => {
+  try {
+    const response = await api.get('/posts/trending', {
+      params: limit ? { limit } : {}
+    });
+    return response.data;
+  } catch (error) {
+    console.error('Error getting trending posts:', error);
+    throw error;
+  }
+};
+
+export const getTaggedPosts = async (tag, cursor) => {
+  try {
+    const response = await api.get(`/tags/${encodeURIComponent(tag)}/posts`, {
+      params: cursor ? { cursor } : {}
+    });
+    return response.data;
+  } catch (error) {
+    console.error('Error getting tagged posts:', error);
+    throw error;
+  }
+};
+
+export const getTrendingTags = async (limit) => {
+  try {
+    const response = await api.get('/tags/trending', {
+      params: limit ? { limit } : {}
+    });
+    return response.data;
+  } catch (error) {
+    console.error('Error getting trending tags:', error);
+    throw error;
+  }
+};
+
+export const searchContent = async (q, { type, cursor, limit } = {}) => {
+  try {
+    const response = await api.get('/search', {
+      params: { q, ...(type && { type }), ...(cursor && { cursor }), ...(limit && { limit }) }
+    });
+    return response.data;
+  } catch (error) {
+    console.error('Error searching:', error);
+    throw error;
+  }
+};
+
+// Like, reaction and follow state of one user for a whole feed page, in one request
+export const getViewerState = async (userId, postIds, authorIds) => {
+  try {
+    const response = await api.post(`/users/${userId}/viewer-state`, { postIds, authorIds });
+    return response.data;
+  } catch (error) {
+    console.error('Error getting viewer state:', error);
+    throw error;
+  }
+};
+
+// Viewer state for a page of post cards, or null if it could not be loaded
+// (the cards then look their state up one by one)
+export const getViewerStateForPosts = async (userId, posts) => {
+  if (!userId || !posts || posts.length === 0) return null;
+  try {
+    const postIds = posts.map(post => post.id);
+    const authorIds = [...new Set(posts.map(post => post.userId).filter(Boolean))];
+    return await getViewerState(userId, postIds, authorIds);
+  } catch (error) {
+    return null;
+  }
+};
+
 export const isFollowing = async (followerId, userId) => {
   try {
     const response = await api.get(`/users/${followerId}/following/${userId}`);
@@ -239,6 +379,18 @@ export const getPost = async (postId) => {
   }
 };
 
+export const getPostDetail = async (postId, userId) => {
+  try {
+    const response = await api.get(`/posts/${postId}/detail`, {
+      params: userId ? { userId } : {}
+    });
+    return response.data;
+  } catch (error) {
+    console.error('Error getting post detail:', error);
+    throw error;
+  }
+};
+
 export const getComments = async (postId) => {
   try {
     const response = await api.get(`/posts/${postId}/comments`);